@@ -1,7 +1,12 @@
 package ai;
 
+import model.Comment;
+import model.Post;
+import model.PostFeatures;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 /**
@@ -12,8 +17,8 @@ public class AIAssistant {
     private static final List<String> POST_SUGGESTIONS = new ArrayList<>();
     private static final List<String> COMMENT_SUGGESTIONS = new ArrayList<>();
     private static final List<String> GENERAL_RESPONSES = new ArrayList<>();
-    private static final List<String> POSITIVE_WORDS = List.of("great", "awesome", "fantastic", "excited", "happy");
-    private static final List<String> NEGATIVE_WORDS = List.of("sad", "disappointed", "sorry", "bad", "terrible");
+    private static final int TRENDING_COUNT = 5;
+    private static final String[] DAY_NAMES = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
 
     static {
         // Expanded post suggestions
@@ -43,8 +48,6 @@ public class AIAssistant {
         // General responses
         GENERAL_RESPONSES.add("I can help you draft posts, suggest topics, or analyze engagement trends.");
         GENERAL_RESPONSES.add("Would you like me to suggest content ideas based on current trending topics?");
-        GENERAL_RESPONSES.add("I notice your posts about technology get the most engagement. Would you like more topic ideas in this area?");
-        GENERAL_RESPONSES.add("Your audience seems most active in the evenings. Would you like me to schedule your posts for optimal times?");
         GENERAL_RESPONSES.add("I can analyze the sentiment of your drafts to help optimize engagement.");
         GENERAL_RESPONSES.add("Would you like me to help you draft a response to recent comments?");
         GENERAL_RESPONSES.add("I can help you identify keywords to include in your posts for better visibility.");
@@ -59,6 +62,17 @@ public class AIAssistant {
         return getRandomElement(POST_SUGGESTIONS);
     }
 
+    /**
+     * Get a post suggestion written in the style of a user's own popular
+     * posts, or a random one while the user has too few posts to learn from
+     * @param userId The user ID
+     * @return A suggested post content
+     */
+    public static String getPostSuggestion(int userId) {
+        String suggestion = PostSuggestionEngine.getInstance().suggestPost(userId);
+        return suggestion != null ? suggestion : getPostSuggestion();
+    }
+
     /**
      * Get a random comment suggestion
      * @return A suggested comment content
@@ -72,7 +86,46 @@ public class AIAssistant {
      * @return A general response or tip
      */
     public static String getGeneralResponse() {
-        return getRandomElement(GENERAL_RESPONSES);
+        String insight = describeEngagement();
+        if (insight == null) {
+            return getRandomElement(GENERAL_RESPONSES);
+        }
+        List<String> responses = new ArrayList<>(GENERAL_RESPONSES);
+        responses.add(insight + " Would you like more topic ideas in this area?");
+        return getRandomElement(responses);
+    }
+
+    /**
+     * Describe what the engagement model learned from past posts
+     * @return The words and publishing time that raise engagement most, or
+     * null while no model is trained or it found nothing to report
+     */
+    public static String describeEngagement() {
+        EngagementModel model = EngagementModel.getInstance();
+        List<String> terms = model.getTopTerms();
+        int hour = model.getBestHourOfWeek();
+        if (!model.isTrained() || (terms.isEmpty() && hour < 0)) {
+            return null;
+        }
+
+        StringBuilder response = new StringBuilder();
+        if (!terms.isEmpty()) {
+            response.append("Posts mentioning ");
+            for (int i = 0; i < terms.size(); i++) {
+                if (i > 0) {
+                    response.append(i == terms.size() - 1 ? " or " : ", ");
+                }
+                response.append('"').append(terms.get(i)).append('"');
+            }
+            response.append(" get the most engagement");
+        }
+        if (hour >= 0) {
+            int hourOfDay = hour % 24;
+            response.append(terms.isEmpty() ? "Posts" : ", and posts");
+            response.append(String.format(" published on %ss around %d %s do best",
+                    DAY_NAMES[hour / 24], hourOfDay % 12 == 0 ? 12 : hourOfDay % 12, hourOfDay < 12 ? "AM" : "PM"));
+        }
+        return response.append('.').toString();
     }
 
     /**
@@ -80,21 +133,79 @@ public class AIAssistant {
      * @param text The text to analyze
      * @return "positive", "negative", or "neutral"
      */
-    private static String analyzeSentiment(String text) {
-        String lowerText = text.toLowerCase();
-        int positiveCount = 0;
-        int negativeCount = 0;
+    public static String analyzeSentiment(String text) {
+        return SentimentAnalyzer.getInstance().analyze(text).getLabel();
+    }
+
+    /**
+     * Score every post and comment of an account and summarize the result.
+     * Posts with stored features reuse their sentiment; everything else is
+     * scored in one parallel batch.
+     * @param posts The user's posts
+     * @param postFeatures Stored features by post ID, may be incomplete
+     * @param comments The user's comments
+     * @return A readable summary of the account's sentiment
+     */
+    public static String summarizeAccountSentiment(List<Post> posts, Map<Integer, PostFeatures> postFeatures,
+                                                   List<Comment> comments) {
+        if (posts.isEmpty() && comments.isEmpty()) {
+            return "You haven't written any posts or comments yet, so there is nothing to analyze.";
+        }
 
-        for (String word : POSITIVE_WORDS) {
-            if (lowerText.contains(word)) positiveCount++;
+        long start = System.nanoTime();
+        List<String> texts = new ArrayList<>(posts.size() + comments.size());
+        double[] compounds = new double[posts.size() + comments.size()];
+        List<String> unscored = new ArrayList<>();
+        List<Integer> unscoredIndexes = new ArrayList<>();
+        for (Post post : posts) {
+            PostFeatures features = postFeatures.get(post.getId());
+            if (features != null) {
+                compounds[texts.size()] = features.getSentiment();
+            } else {
+                unscoredIndexes.add(texts.size());
+                unscored.add(post.getContent());
+            }
+            texts.add(post.getContent());
+        }
+        for (Comment comment : comments) {
+            unscoredIndexes.add(texts.size());
+            unscored.add(comment.getContent());
+            texts.add(comment.getContent());
         }
-        for (String word : NEGATIVE_WORDS) {
-            if (lowerText.contains(word)) negativeCount++;
+
+        SentimentScore[] scores = SentimentAnalyzer.getInstance().analyzeAll(unscored);
+        for (int i = 0; i < scores.length; i++) {
+            compounds[unscoredIndexes.get(i)] = scores[i].getCompound();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        int positive = 0;
+        int negative = 0;
+        double total = 0;
+        int best = 0;
+        int worst = 0;
+        for (int i = 0; i < compounds.length; i++) {
+            String label = SentimentScore.labelFor(compounds[i]);
+            total += compounds[i];
+            if (SentimentScore.POSITIVE.equals(label)) positive++;
+            if (SentimentScore.NEGATIVE.equals(label)) negative++;
+            if (compounds[i] > compounds[best]) best = i;
+            if (compounds[i] < compounds[worst]) worst = i;
         }
 
-        if (positiveCount > negativeCount) return "positive";
-        if (negativeCount > positiveCount) return "negative";
-        return "neutral";
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("I analyzed %d posts and %d comments in %d ms (%d posts had stored scores).\n\n",
+                posts.size(), comments.size(), elapsedMs, texts.size() - unscored.size()));
+        summary.append(String.format("Positive: %d, Neutral: %d, Negative: %d\n",
+                positive, compounds.length - positive - negative, negative));
+        summary.append(String.format("Average sentiment: %.2f (from -1 to 1)", total / compounds.length));
+        if (positive > 0) {
+            summary.append(String.format("\n\nMost positive: \"%s\"", excerpt(texts.get(best))));
+        }
+        if (negative > 0) {
+            summary.append(String.format("\n\nMost negative: \"%s\"", excerpt(texts.get(worst))));
+        }
+        return summary.toString();
     }
 
     /**
@@ -103,7 +214,25 @@ public class AIAssistant {
      * @return A tailored comment suggestion
      */
     public static String getContextAwareCommentSuggestion(String postContent) {
-        String sentiment = analyzeSentiment(postContent);
+        return getCommentSuggestionForSentiment(analyzeSentiment(postContent));
+    }
+
+    /**
+     * Get a context-aware comment suggestion from a post's stored features,
+     * without analyzing the content again
+     * @param features The features of the post
+     * @return A tailored comment suggestion
+     */
+    public static String getContextAwareCommentSuggestion(PostFeatures features) {
+        return getCommentSuggestionForSentiment(SentimentScore.labelFor(features.getSentiment()));
+    }
+
+    /**
+     * Pick a comment suggestion matching a sentiment
+     * @param sentiment "positive", "negative", or "neutral"
+     * @return A tailored comment suggestion
+     */
+    private static String getCommentSuggestionForSentiment(String sentiment) {
         switch (sentiment) {
             case "positive":
                 return getRandomElement(List.of(
@@ -128,21 +257,153 @@ public class AIAssistant {
      * @return A response to the query
      */
     public static String processQuery(String query) {
+        return processQuery(query, -1);
+    }
+
+    /**
+     * Process a user query and provide a contextual response
+     * @param query The user's query text
+     * @param userId The asking user, whose posts shape content suggestions
+     * @return A response to the query
+     */
+    public static String processQuery(String query, int userId) {
         query = query.toLowerCase();
 
         if (query.contains("post") || query.contains("content") || query.contains("idea")) {
-            return "Here's a content suggestion: " + getPostSuggestion();
+            return "Here's a content suggestion: " + getPostSuggestion(userId);
         } else if (query.contains("comment") || query.contains("reply")) {
             return "Try this comment: " + getCommentSuggestion();
         } else if (query.contains("trend") || query.contains("popular")) {
-            return "Currently trending topics include sustainability, work-life balance, and technology innovations. Would you like a post template on any of these?";
+            return describeTrends(query);
         } else if (query.contains("engagement") || query.contains("likes")) {
+            String insight = describeEngagement();
+            if (insight != null) {
+                return insight + " Asking open-ended questions and using relevant hashtags helps too.";
+            }
             return "To increase engagement, try asking open-ended questions, using relevant hashtags, and posting during peak hours (typically 7-9 AM and 5-7 PM).";
         } else {
             return getGeneralResponse();
         }
     }
 
+    /**
+     * Describe the hashtags trending across all platforms, over the window
+     * the query asks for (the last 24 hours by default)
+     * @param query The lowercase query text
+     * @return A response listing the top hashtags
+     */
+    private static String describeTrends(String query) {
+        TrendingEngine.Window window = TrendingEngine.Window.DAY;
+        if (query.contains("hour")) {
+            window = TrendingEngine.Window.HOUR;
+        } else if (query.contains("week")) {
+            window = TrendingEngine.Window.WEEK;
+        }
+
+        List<TrendingEngine.Trend> trends = TrendingEngine.getInstance()
+                .getTopHashtags(TrendingEngine.ALL_PLATFORMS, window, TRENDING_COUNT);
+        if (trends.isEmpty()) {
+            return "Nothing is trending in " + window.getDescription() + " yet. Posts with hashtags will show up here as they come in.";
+        }
+
+        StringBuilder response = new StringBuilder("Trending in " + window.getDescription() + ":\n");
+        for (int i = 0; i < trends.size(); i++) {
+            TrendingEngine.Trend trend = trends.get(i);
+            response.append(String.format("%d. #%s (%d %s)\n", i + 1, trend.getHashtag(), trend.getMentions(),
+                    trend.getMentions() == 1 ? "post" : "posts"));
+        }
+        response.append("\nWould you like a post idea around one of these?");
+        return response.toString();
+    }
+
+    /**
+     * Describe the posts gaining likes fastest
+     * @param risingPosts The rising posts, most liked first
+     * @param posts The rising posts' content by post ID; deleted posts are absent
+     * @return A response listing the posts
+     */
+    public static String describeRisingPosts(List<RisingPostsTracker.RisingPost> risingPosts, Map<Integer, Post> posts) {
+        StringBuilder response = new StringBuilder("Posts gaining the most likes in the last hour:\n");
+        int rank = 0;
+        for (RisingPostsTracker.RisingPost risingPost : risingPosts) {
+            Post post = posts.get(risingPost.getPostId());
+            if (post == null) {
+                continue;
+            }
+            rank++;
+            response.append(String.format("%d. @%s: \"%s\" (%d %s)\n", rank, post.getUsername(),
+                    excerpt(post.getContent()), risingPost.getLikes(), risingPost.getLikes() == 1 ? "like" : "likes"));
+        }
+        if (rank == 0) {
+            return "No posts have received likes in the last hour.";
+        }
+        return response.toString().trim();
+    }
+
+    /**
+     * Describe well-received posts similar to a draft
+     * @param matches The similar posts, most similar first
+     * @param posts The matched posts' content by post ID; deleted posts are absent
+     * @return A response listing the posts
+     */
+    public static String describeSimilarPosts(List<SimilarityIndex.Match> matches, Map<Integer, Post> posts) {
+        StringBuilder response = new StringBuilder("Well-received posts similar to your draft:\n");
+        int rank = 0;
+        for (SimilarityIndex.Match match : matches) {
+            Post post = posts.get(match.getPostId());
+            if (post == null) {
+                continue;
+            }
+            rank++;
+            response.append(String.format("%d. @%s: \"%s\" (%d %s, %d%% similar)\n", rank, post.getUsername(),
+                    excerpt(post.getContent()), post.getLikes(), post.getLikes() == 1 ? "like" : "likes",
+                    Math.round(match.getSimilarity() * 100)));
+        }
+        if (rank == 0) {
+            return "No well-received posts are similar to your draft yet.";
+        }
+        return response.toString().trim();
+    }
+
+    /**
+     * Describe the groups of near-duplicate posts
+     * @param groups The groups of post IDs, largest first, each oldest post first
+     * @param posts The first post of the listed groups by post ID; deleted posts are absent
+     * @param limit Maximum number of groups to list
+     * @return A response summarizing the groups and listing the largest
+     */
+    public static String describeDuplicateGroups(List<int[]> groups, Map<Integer, Post> posts, int limit) {
+        if (groups.isEmpty()) {
+            return "No near-duplicate posts found.";
+        }
+        int duplicated = 0;
+        for (int[] group : groups) {
+            duplicated += group.length;
+        }
+        StringBuilder response = new StringBuilder(String.format("Found %d %s of near-duplicate posts, %d posts in all. Largest:\n",
+                groups.size(), groups.size() == 1 ? "group" : "groups", duplicated));
+        int rank = 0;
+        for (int[] group : groups.subList(0, Math.min(limit, groups.size()))) {
+            Post post = posts.get(group[0]);
+            if (post == null) {
+                continue;
+            }
+            rank++;
+            response.append(String.format("%d. @%s: \"%s\" (%d copies)\n", rank, post.getUsername(),
+                    excerpt(post.getContent()), group.length));
+        }
+        return response.toString().trim();
+    }
+
+    /**
+     * Shorten a text for display in the chat
+     * @param text The text
+     * @return The text, cut to 80 characters
+     */
+    private static String excerpt(String text) {
+        return text.length() <= 80 ? text : text.substring(0, 77) + "...";
+    }
+
     /**
      * Get a random element from a list
      * @param list The list to select from
@@ -0,0 +1,33 @@
+package ai;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Something that answers {@link AIRequest}s. Calls never block: results
+ * come back through the returned futures, which complete on the backend's
+ * own threads. {@link AIService} chooses the backend, so the UI never
+ * depends on a particular implementation.
+ */
+public interface AIBackend {
+    /**
+     * Answer one request, passing the response on in pieces as it is produced
+     * @param request The request
+     * @param onPartial Receives each new piece of the response, in order
+     * @return A future completing with the whole response
+     */
+    CompletableFuture<String> complete(AIRequest request, Consumer<String> onPartial);
+
+    /**
+     * Answer several requests in one call
+     * @param requests The requests
+     * @return A future completing with the responses, in request order
+     */
+    CompletableFuture<List<String>> completeBatch(List<AIRequest> requests);
+
+    /**
+     * @return A short description for logs, e.g. "rule-based"
+     */
+    String getName();
+}
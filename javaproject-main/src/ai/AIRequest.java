@@ -0,0 +1,90 @@
+package ai;
+
+import model.PostFeatures;
+
+import java.util.Locale;
+
+/**
+ * One request to an {@link AIBackend}: what is asked for, the prompt, and
+ * the user asking
+ */
+public class AIRequest {
+    public enum Kind {
+        CHAT, POST_SUGGESTION, COMMENT_SUGGESTION;
+
+        /**
+         * @return The name used on the wire, e.g. "post_suggestion"
+         */
+        public String getWireName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        public static Kind fromWireName(String name) {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final Kind kind;
+    private final String prompt;
+    private final int userId;
+    private final PostFeatures features;
+
+    /**
+     * @param kind What is asked for
+     * @param prompt The chat message or the post to comment on; empty for a fresh post suggestion
+     * @param userId The asking user
+     */
+    public AIRequest(Kind kind, String prompt, int userId) {
+        this(kind, prompt, userId, null);
+    }
+
+    /**
+     * @param kind What is asked for
+     * @param prompt The chat message or the post to comment on; empty for a fresh post suggestion
+     * @param userId The asking user
+     * @param features Already computed features of the post to comment on, or null
+     */
+    public AIRequest(Kind kind, String prompt, int userId, PostFeatures features) {
+        this.kind = kind;
+        this.prompt = prompt != null ? prompt : "";
+        this.userId = userId;
+        this.features = features;
+    }
+
+    // Getters
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getPrompt() {
+        return prompt;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    /**
+     * @return Features of the post to comment on, a shortcut local backends may use, or null
+     */
+    public PostFeatures getFeatures() {
+        return features;
+    }
+
+    /**
+     * Requests without a prompt ask for something new every time, so their
+     * responses are never cached
+     */
+    public boolean isCacheable() {
+        return !prompt.isBlank();
+    }
+
+    /**
+     * @return The key of the response in a cache: the kind, the user for
+     *         chat, and the prompt lowercased with whitespace collapsed
+     */
+    public String getCacheKey() {
+        String normalized = prompt.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return kind.getWireName() + (kind == Kind.CHAT ? ":" + userId : "") + ":" + normalized;
+    }
+}
@@ -0,0 +1,261 @@
+package ai;
+
+import model.PostFeatures;
+import util.BackgroundExecutor;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Singleton entry point of the UI to the AI. Every call returns at once with
+ * a future; the work happens on the configured {@link AIBackend}, which is
+ * the {@link RuleBasedBackend} unless the ai.backend.url system property
+ * points at a server for the {@link HttpAIBackend}.
+ *
+ * Responses to requests with a prompt are kept in an LRU cache keyed by the
+ * normalized prompt for a few minutes. Suggestion requests arriving within a
+ * few milliseconds of each other are sent as one batch, and identical ones
+ * in flight share a single call. Chat responses are streamed instead. Every
+ * call times out, and if a remote backend fails before answering, the
+ * built-in rules answer instead.
+ */
+public class AIService {
+    private static final Logger LOGGER = Logger.getLogger(AIService.class.getName());
+    public static final String BACKEND_URL_PROPERTY = "ai.backend.url";
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final int CACHE_CAPACITY = 256;
+    private static final long CACHE_TTL_MILLIS = 5 * 60_000L;
+    private static final long BATCH_DELAY_MILLIS = 15;
+    private static final int MAX_BATCH_SIZE = 16;
+
+    private static AIService instance;
+    private final AIBackend backend;
+    // Answers when a remote backend fails; null when the backend is local
+    private final AIBackend fallback;
+    private final ScheduledExecutorService batchScheduler =
+            Executors.newSingleThreadScheduledExecutor(BackgroundExecutor.daemonThreadFactory("ai-batcher"));
+
+    // Guarded by this
+    private final Map<String, CachedResponse> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+    private final Map<String, CompletableFuture<String>> inFlight = new HashMap<>();
+    private List<PendingRequest> batch = new ArrayList<>();
+
+    /**
+     * @param backend The backend answering requests
+     */
+    AIService(AIBackend backend) {
+        this.backend = backend;
+        this.fallback = backend instanceof RuleBasedBackend ? null : new RuleBasedBackend(BackgroundExecutor.getExecutor());
+        LOGGER.log(Level.INFO, "AI backend: " + backend.getName());
+    }
+
+    public static synchronized AIService getInstance() {
+        if (instance == null) {
+            String url = System.getProperty(BACKEND_URL_PROPERTY);
+            instance = new AIService(url != null && !url.isBlank()
+                    ? new HttpAIBackend(URI.create(url), TIMEOUT, BackgroundExecutor.getExecutor())
+                    : new RuleBasedBackend(BackgroundExecutor.getExecutor()));
+        }
+        return instance;
+    }
+
+    /**
+     * Answer a chat message, streaming the response
+     * @param message The user's message
+     * @param userId The user ID
+     * @param onPartial Receives each new piece of the response, on a background thread
+     * @return A future completing with the whole response
+     */
+    public CompletableFuture<String> chat(String message, int userId, Consumer<String> onPartial) {
+        AIRequest request = new AIRequest(AIRequest.Kind.CHAT, message, userId);
+        String cached = getCached(request);
+        if (cached != null) {
+            onPartial.accept(cached);
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        // Once the call times out or fails, late pieces from the backend are
+        // dropped; the lock keeps a piece from slipping in after the check
+        StreamState state = new StreamState();
+        Consumer<String> tracking = piece -> {
+            synchronized (state) {
+                if (state.abandoned) {
+                    return;
+                }
+                state.started = true;
+                onPartial.accept(piece);
+            }
+        };
+        return backend.complete(request, tracking)
+                .orTimeout(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionallyCompose(error -> {
+                    boolean started;
+                    synchronized (state) {
+                        state.abandoned = true;
+                        started = state.started;
+                    }
+                    // Once pieces were shown, answering again would repeat them
+                    if (fallback == null || started) {
+                        return CompletableFuture.failedFuture(error);
+                    }
+                    LOGGER.log(Level.WARNING, "AI backend failed, answering with the built-in rules", error);
+                    return fallback.complete(request, onPartial);
+                })
+                .thenApply(response -> {
+                    putCached(request, response);
+                    return response;
+                });
+    }
+
+    /**
+     * Suggest a new post in the user's style
+     * @param userId The user ID
+     * @return A future completing with the suggestion
+     */
+    public CompletableFuture<String> suggestPost(int userId) {
+        return submitBatched(new AIRequest(AIRequest.Kind.POST_SUGGESTION, "", userId));
+    }
+
+    /**
+     * Suggest a comment
+     * @param postContent The post to comment on, or null for a generic comment
+     * @param features The post's stored features, or null
+     * @param userId The user ID
+     * @return A future completing with the suggestion
+     */
+    public CompletableFuture<String> suggestComment(String postContent, PostFeatures features, int userId) {
+        return submitBatched(new AIRequest(AIRequest.Kind.COMMENT_SUGGESTION, postContent, userId, features));
+    }
+
+    /**
+     * Queue a request for the next batch, or answer it from the cache or from
+     * an identical request already in flight
+     */
+    private CompletableFuture<String> submitBatched(AIRequest request) {
+        String key = request.getCacheKey();
+        CompletableFuture<String> future;
+        synchronized (this) {
+            if (request.isCacheable()) {
+                String cached = getCached(request);
+                if (cached != null) {
+                    return CompletableFuture.completedFuture(cached);
+                }
+                CompletableFuture<String> pending = inFlight.get(key);
+                if (pending != null) {
+                    return pending;
+                }
+            }
+            future = new CompletableFuture<>();
+            if (request.isCacheable()) {
+                inFlight.put(key, future);
+            }
+            batch.add(new PendingRequest(request, future));
+            if (batch.size() == 1) {
+                batchScheduler.schedule(this::flushBatch, BATCH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            } else if (batch.size() >= MAX_BATCH_SIZE) {
+                batchScheduler.execute(this::flushBatch);
+            }
+        }
+        return future;
+    }
+
+    private void flushBatch() {
+        List<PendingRequest> pending;
+        synchronized (this) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            pending = batch;
+            batch = new ArrayList<>();
+        }
+        List<AIRequest> requests = new ArrayList<>(pending.size());
+        for (PendingRequest request : pending) {
+            requests.add(request.request);
+        }
+
+        backend.completeBatch(requests)
+                .orTimeout(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionallyCompose(error -> {
+                    if (fallback == null) {
+                        return CompletableFuture.failedFuture(error);
+                    }
+                    LOGGER.log(Level.WARNING, "AI backend failed on a batch of " + requests.size()
+                            + ", answering with the built-in rules", error);
+                    return fallback.completeBatch(requests);
+                })
+                .whenComplete((responses, error) -> {
+                    for (int i = 0; i < pending.size(); i++) {
+                        PendingRequest request = pending.get(i);
+                        synchronized (this) {
+                            inFlight.remove(request.request.getCacheKey(), request.future);
+                        }
+                        if (error != null) {
+                            request.future.completeExceptionally(error);
+                        } else {
+                            putCached(request.request, responses.get(i));
+                            request.future.complete(responses.get(i));
+                        }
+                    }
+                });
+    }
+
+    private synchronized String getCached(AIRequest request) {
+        if (!request.isCacheable()) {
+            return null;
+        }
+        CachedResponse cached = cache.get(request.getCacheKey());
+        if (cached == null || System.currentTimeMillis() - cached.storedAt > CACHE_TTL_MILLIS) {
+            return null;
+        }
+        return cached.response;
+    }
+
+    private synchronized void putCached(AIRequest request, String response) {
+        if (request.isCacheable()) {
+            cache.put(request.getCacheKey(), new CachedResponse(response, System.currentTimeMillis()));
+        }
+    }
+
+    private static class StreamState {
+        private boolean started;
+        private boolean abandoned;
+    }
+
+    private static class CachedResponse {
+        private final String response;
+        private final long storedAt;
+
+        CachedResponse(String response, long storedAt) {
+            this.response = response;
+            this.storedAt = storedAt;
+        }
+    }
+
+    private static class PendingRequest {
+        private final AIRequest request;
+        private final CompletableFuture<String> future;
+
+        PendingRequest(AIRequest request, CompletableFuture<String> future) {
+            this.request = request;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package ai;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton matching a fixed set of lowercase patterns against
+ * a text in a single pass, so the cost depends on the text length and the
+ * number of matches but not on the number of patterns. The trie is stored in
+ * flat arrays: each state keeps its outgoing characters sorted for binary
+ * search, plus a failure link and a link to the nearest state that ends a
+ * pattern.
+ */
+public class AhoCorasick {
+    /**
+     * Receives the matches found by {@link #search(CharSequence, MatchHandler)}
+     */
+    public interface MatchHandler {
+        /**
+         * @param pattern Index of the matched pattern in the constructor list
+         * @param start Index of the first matched character
+         * @param end Index after the last matched character
+         */
+        void match(int pattern, int start, int end);
+    }
+
+    private char[][] edgeChars;
+    private int[][] edgeTargets;
+    private int[] failure;
+    // Nearest state along the failure chain, itself included, that ends a pattern; -1 if none
+    private int[] outputLink;
+    // Pattern ending at each state, -1 if none
+    private int[] patternAt;
+    private final int[] patternLengths;
+    private int stateCount;
+
+    /**
+     * Build the automaton
+     * @param patterns The patterns, already lowercase; duplicates keep the first index
+     */
+    public AhoCorasick(List<String> patterns) {
+        int capacity = 1;
+        for (String pattern : patterns) {
+            capacity += pattern.length();
+        }
+        edgeChars = new char[capacity][];
+        edgeTargets = new int[capacity][];
+        failure = new int[capacity];
+        outputLink = new int[capacity];
+        patternAt = new int[capacity];
+        Arrays.fill(patternAt, -1);
+        patternLengths = new int[patterns.size()];
+
+        stateCount = 1;
+        edgeChars[0] = new char[0];
+        edgeTargets[0] = new int[0];
+        for (int i = 0; i < patterns.size(); i++) {
+            String pattern = patterns.get(i);
+            patternLengths[i] = pattern.length();
+            int state = 0;
+            for (int j = 0; j < pattern.length(); j++) {
+                state = addEdge(state, pattern.charAt(j));
+            }
+            if (patternAt[state] < 0) {
+                patternAt[state] = i;
+            }
+        }
+        buildLinks();
+    }
+
+    /**
+     * Report every occurrence of every pattern in a text, ordered by end
+     * position. The text is lowercased character by character as it is read.
+     * @param text The text
+     * @param handler Receives the matches
+     */
+    public void search(CharSequence text, MatchHandler handler) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int next = target(state, c);
+            while (next < 0 && state != 0) {
+                state = failure[state];
+                next = target(state, c);
+            }
+            state = next < 0 ? 0 : next;
+
+            for (int out = outputLink[state]; out > 0; out = outputLink[failure[out]]) {
+                int pattern = patternAt[out];
+                handler.match(pattern, i + 1 - patternLengths[pattern], i + 1);
+            }
+        }
+    }
+
+    /**
+     * @return Number of trie states, for sizing diagnostics
+     */
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    private int target(int state, char c) {
+        int index = Arrays.binarySearch(edgeChars[state], c);
+        return index >= 0 ? edgeTargets[state][index] : -1;
+    }
+
+    private int addEdge(int state, char c) {
+        char[] chars = edgeChars[state];
+        int index = Arrays.binarySearch(chars, c);
+        if (index >= 0) {
+            return edgeTargets[state][index];
+        }
+        int insertAt = -index - 1;
+        int created = stateCount++;
+        edgeChars[created] = new char[0];
+        edgeTargets[created] = new int[0];
+
+        char[] newChars = new char[chars.length + 1];
+        int[] newTargets = new int[chars.length + 1];
+        System.arraycopy(chars, 0, newChars, 0, insertAt);
+        System.arraycopy(edgeTargets[state], 0, newTargets, 0, insertAt);
+        newChars[insertAt] = c;
+        newTargets[insertAt] = created;
+        System.arraycopy(chars, insertAt, newChars, insertAt + 1, chars.length - insertAt);
+        System.arraycopy(edgeTargets[state], insertAt, newTargets, insertAt + 1, chars.length - insertAt);
+        edgeChars[state] = newChars;
+        edgeTargets[state] = newTargets;
+        return created;
+    }
+
+    /**
+     * Compute failure and output links breadth first, so a state's links are
+     * known before those of its children
+     */
+    private void buildLinks() {
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        failure[0] = 0;
+        outputLink[0] = -1;
+        for (int child : edgeTargets[0]) {
+            failure[child] = 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputLink[state] = patternAt[state] >= 0 ? state : outputLink[failure[state]];
+            for (int k = 0; k < edgeChars[state].length; k++) {
+                char c = edgeChars[state][k];
+                int child = edgeTargets[state][k];
+                int fallback = failure[state];
+                int next = target(fallback, c);
+                while (next < 0 && fallback != 0) {
+                    fallback = failure[fallback];
+                    next = target(fallback, c);
+                }
+                failure[child] = next < 0 || next == child ? 0 : next;
+                queue.add(child);
+            }
+        }
+        // Trim the arrays to the states actually used
+        edgeChars = Arrays.copyOf(edgeChars, stateCount);
+        edgeTargets = Arrays.copyOf(edgeTargets, stateCount);
+        failure = Arrays.copyOf(failure, stateCount);
+        outputLink = Arrays.copyOf(outputLink, stateCount);
+        patternAt = Arrays.copyOf(patternAt, stateCount);
+    }
+}
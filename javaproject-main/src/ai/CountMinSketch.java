@@ -0,0 +1,79 @@
+package ai;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch over int keys: a fixed depth x width table of counters
+ * that estimates how often each key was added in constant memory. Estimates
+ * never undercount; they overcount by at most about e / width of the total
+ * added, with a probability that shrinks exponentially in the depth.
+ *
+ * Sketches of the same shape can be subtracted from each other, which is
+ * what lets a sliding window drop an expired time bucket.
+ */
+public class CountMinSketch {
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F, 0x165667B1, 0xD3A2646C};
+
+    private final int depth;
+    private final int mask;
+    private final int[] counters;
+
+    /**
+     * @param depth Number of hash rows, at most 6
+     * @param width Counters per row, a power of two
+     */
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || depth > SEEDS.length || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Invalid sketch shape " + depth + "x" + width);
+        }
+        this.depth = depth;
+        this.mask = width - 1;
+        this.counters = new int[depth * width];
+    }
+
+    /**
+     * Add to a key's count
+     * @param key The key
+     * @param count The amount to add
+     */
+    public void add(int key, int count) {
+        for (int row = 0; row < depth; row++) {
+            counters[index(row, key)] += count;
+        }
+    }
+
+    /**
+     * @param key The key
+     * @return An upper bound of the key's count
+     */
+    public int estimate(int key) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[index(row, key)]);
+        }
+        return min;
+    }
+
+    /**
+     * Remove the counts of another sketch of the same shape, which must have
+     * been added to this one before
+     * @param other The sketch to subtract
+     */
+    public void subtract(CountMinSketch other) {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] -= other.counters[i];
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(counters, 0);
+    }
+
+    private int index(int row, int key) {
+        int h = key * SEEDS[row];
+        h ^= h >>> 16;
+        h *= 0x7FEB352D;
+        h ^= h >>> 15;
+        return row * (mask + 1) + (h & mask);
+    }
+}
@@ -0,0 +1,574 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Singleton finding near-duplicate posts, i.e. the same text posted again,
+ * maybe slightly edited, on another platform or account. Two posts are
+ * compared by the Jaccard similarity of their character shingles, estimated
+ * from MinHash signatures. Candidates come from locality-sensitive hashing:
+ * each signature is cut into bands, and posts that agree on a whole band
+ * share a bucket. The rows per band are chosen from the threshold so that
+ * pairs at the threshold almost always share a bucket while unrelated posts
+ * almost never do, so a lookup only compares against its buckets.
+ *
+ * Signatures keep the low 16 bits of each minimum, 128 bytes per post. Two
+ * unrelated minimums then agree once in 65536, which the estimate ignores.
+ * Like {@link SimilarityIndex}, replaced posts leave a tombstone and the
+ * index is rebuilt once a fifth of it is dead.
+ */
+public class DuplicateDetector {
+    private static final Logger LOGGER = Logger.getLogger(DuplicateDetector.class.getName());
+    public static final String THRESHOLD_PROPERTY = "duplicates.threshold";
+    public static final double DEFAULT_THRESHOLD = 0.8;
+    public static final int SIGNATURE_LENGTH = 64;
+    private static final int SHINGLE_LENGTH = 5;
+    // Shorter posts ("thanks!", "hello") are alike by nature, not duplicates
+    private static final int MIN_NORMALIZED_LENGTH = 20;
+    private static final int BATCH_THRESHOLD = 256;
+    private static final double COMPACT_DEAD_FRACTION = 0.2;
+    private static final int COMPACT_MIN_DEAD = 1024;
+    private static final int NO_POST = -1;
+    // The hash functions a * x + b; fixed, since signatures are stored and
+    // must stay comparable across runs
+    private static final long[] MULTIPLIERS = new long[SIGNATURE_LENGTH];
+    private static final long[] ADDENDS = new long[SIGNATURE_LENGTH];
+
+    static {
+        Random random = new Random(0x4D696E48L);
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            MULTIPLIERS[i] = random.nextLong() | 1;
+            ADDENDS[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * An indexed post similar to the one looked up
+     */
+    public static class Match {
+        private final int postId;
+        private final double similarity;
+
+        public Match(int postId, double similarity) {
+            this.postId = postId;
+            this.similarity = similarity;
+        }
+
+        public int getPostId() {
+            return postId;
+        }
+
+        /**
+         * @return Estimated Jaccard similarity of the two posts' shingles
+         */
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+
+    private static DuplicateDetector instance;
+    private final double threshold;
+    private final int rows;
+    private final int bands;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock. Signature of slot s at [s * SIGNATURE_LENGTH, (s + 1) * SIGNATURE_LENGTH).
+    private short[] signatures = new short[1024 * SIGNATURE_LENGTH];
+    private int[] slotPostIds = new int[1024];
+    private int slotCount;
+    private int liveCount;
+    // Post ID to slot + 1
+    private LongIntHashMap postSlots = new LongIntHashMap(1024);
+    // Bucket key to its newest entry + 1; entries link to older ones in the same bucket
+    private LongIntHashMap bucketHeads = new LongIntHashMap(1024);
+    private int[] entrySlots = new int[1024];
+    private int[] entryNext = new int[1024];
+    private int entryCount;
+
+    /**
+     * @param threshold Estimated Jaccard similarity from which posts count as duplicates
+     */
+    DuplicateDetector(double threshold) {
+        this.threshold = threshold;
+        this.rows = rowsFor(threshold);
+        this.bands = SIGNATURE_LENGTH / rows;
+    }
+
+    public static synchronized DuplicateDetector getInstance() {
+        if (instance == null) {
+            double threshold = DEFAULT_THRESHOLD;
+            String configured = System.getProperty(THRESHOLD_PROPERTY);
+            if (configured != null) {
+                try {
+                    threshold = Double.parseDouble(configured);
+                } catch (NumberFormatException e) {
+                    threshold = Double.NaN;
+                }
+                if (!(threshold > 0 && threshold <= 1)) {
+                    LOGGER.log(Level.WARNING, "Ignoring invalid " + THRESHOLD_PROPERTY + " " + configured);
+                    threshold = DEFAULT_THRESHOLD;
+                }
+            }
+            instance = new DuplicateDetector(threshold);
+        }
+        return instance;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Compute the MinHash signature of a text's shingles: runs of five
+     * characters after lowercasing and turning punctuation into spaces
+     * @param content The text
+     * @return The signature, or null if the text is too short to compare
+     */
+    public static short[] signature(String content) {
+        String normalized = normalize(content);
+        if (normalized.length() < MIN_NORMALIZED_LENGTH) {
+            return null;
+        }
+        long[] minimums = new long[SIGNATURE_LENGTH];
+        Arrays.fill(minimums, Long.MAX_VALUE);
+        for (int start = 0; start + SHINGLE_LENGTH <= normalized.length(); start++) {
+            // 64-bit FNV-1a of the shingle, mixed once so a multiply-add per function is enough
+            long shingle = 0xcbf29ce484222325L;
+            for (int i = start; i < start + SHINGLE_LENGTH; i++) {
+                shingle ^= normalized.charAt(i);
+                shingle *= 0x100000001b3L;
+            }
+            shingle = mix(shingle);
+            for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+                long hash = (MULTIPLIERS[i] * shingle + ADDENDS[i]) >>> 1;
+                if (hash < minimums[i]) {
+                    minimums[i] = hash;
+                }
+            }
+        }
+        short[] signature = new short[SIGNATURE_LENGTH];
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            signature[i] = (short) minimums[i];
+        }
+        return signature;
+    }
+
+    /**
+     * Compute the signatures of many texts in parallel on the common fork/join pool
+     * @param contents The texts
+     * @return The signatures, in the order of the texts; null for texts too short to compare
+     */
+    public static short[][] signatures(List<String> contents) {
+        short[][] signatures = new short[contents.size()][];
+        ForkJoinPool.commonPool().invoke(new SignatureTask(contents, signatures, 0, contents.size()));
+        return signatures;
+    }
+
+    /**
+     * Add or replace a post
+     * @param postId The post ID
+     * @param signature The post's signature, or null to only drop an older one
+     */
+    public void add(int postId, short[] signature) {
+        lock.writeLock().lock();
+        try {
+            int existing = postSlots.get(postId) - 1;
+            if (existing >= 0) {
+                if (signature != null && Arrays.equals(signatures, existing * SIGNATURE_LENGTH,
+                        (existing + 1) * SIGNATURE_LENGTH, signature, 0, SIGNATURE_LENGTH)) {
+                    return;
+                }
+                postSlots.put(postId, 0);
+                kill(existing);
+            }
+            if (signature != null) {
+                int slot = newSlot(postId, signature);
+                for (int band = 0; band < bands; band++) {
+                    addEntry(bucketKey(band, signatures, slot * SIGNATURE_LENGTH + band * rows, rows), slot);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a post
+     * @param postId The post ID
+     */
+    public void remove(int postId) {
+        add(postId, null);
+    }
+
+    /**
+     * Find the indexed posts that are near-duplicates of a text
+     * @param signature The text's signature; null finds nothing
+     * @param excludePostId A post to leave out, e.g. the one being edited, or -1
+     * @return Posts at or above the threshold, most similar first
+     */
+    public List<Match> findDuplicates(short[] signature, int excludePostId) {
+        List<Match> matches = new ArrayList<>();
+        if (signature == null) {
+            return matches;
+        }
+        long[] keys = new long[bands];
+        for (int band = 0; band < bands; band++) {
+            keys[band] = bucketKey(band, signature, band * rows, rows);
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<Integer> seen = new HashSet<>();
+            for (long key : keys) {
+                for (int entry = bucketHeads.get(key) - 1; entry >= 0; entry = entryNext[entry] - 1) {
+                    int slot = entrySlots[entry];
+                    int postId = slotPostIds[slot];
+                    if (postId == NO_POST || postId == excludePostId || !seen.add(slot)) {
+                        continue;
+                    }
+                    int agreeing = 0;
+                    for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+                        if (signatures[slot * SIGNATURE_LENGTH + i] == signature[i]) {
+                            agreeing++;
+                        }
+                    }
+                    double similarity = (double) agreeing / SIGNATURE_LENGTH;
+                    if (similarity >= threshold) {
+                        matches.add(new Match(postId, similarity));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(Comparator.comparingDouble(Match::getSimilarity).reversed());
+        return matches;
+    }
+
+    /**
+     * Group every indexed post with its near-duplicates. The bands are
+     * bucketed in parallel on the common fork/join pool, each by sorting its
+     * keys, so no bucket table is built; the groups are then joined up with
+     * a union-find.
+     * @param threshold Estimated Jaccard similarity from which posts count as duplicates
+     * @return Groups of two or more post IDs, largest group first, each in ascending ID order
+     */
+    public List<int[]> groupAll(double threshold) {
+        int groupRows = rowsFor(threshold);
+        int groupBands = SIGNATURE_LENGTH / groupRows;
+        int[] postIds;
+        short[] snapshot;
+        lock.readLock().lock();
+        try {
+            postIds = new int[liveCount];
+            snapshot = new short[liveCount * SIGNATURE_LENGTH];
+            int live = 0;
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (slotPostIds[slot] != NO_POST) {
+                    postIds[live] = slotPostIds[slot];
+                    System.arraycopy(signatures, slot * SIGNATURE_LENGTH, snapshot, live * SIGNATURE_LENGTH, SIGNATURE_LENGTH);
+                    live++;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long[][] edges = new long[groupBands][];
+        List<BandTask> tasks = new ArrayList<>(groupBands);
+        for (int band = 0; band < groupBands; band++) {
+            tasks.add(new BandTask(snapshot, postIds.length, band, groupRows, threshold, edges));
+        }
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        int[] parents = new int[postIds.length];
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = i;
+        }
+        for (long[] bandEdges : edges) {
+            for (long edge : bandEdges) {
+                int a = find(parents, (int) (edge >>> 32));
+                int b = find(parents, (int) edge);
+                if (a != b) {
+                    parents[Math.max(a, b)] = Math.min(a, b);
+                }
+            }
+        }
+        Map<Integer, List<Integer>> members = new HashMap<>();
+        for (int i = 0; i < parents.length; i++) {
+            members.computeIfAbsent(find(parents, i), root -> new ArrayList<>()).add(postIds[i]);
+        }
+        List<int[]> groups = new ArrayList<>();
+        for (List<Integer> group : members.values()) {
+            if (group.size() > 1) {
+                int[] ids = group.stream().mapToInt(Integer::intValue).sorted().toArray();
+                groups.add(ids);
+            }
+        }
+        groups.sort((a, b) -> a.length != b.length ? Integer.compare(b.length, a.length) : Integer.compare(a[0], b[0]));
+        return groups;
+    }
+
+    /**
+     * @return Number of indexed posts
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pick the rows per band whose LSH threshold, about (1 / bands) ^ (1 / rows),
+     * is the highest at or below the wanted one, so pairs at the threshold are
+     * found and only false candidates are left for the full comparison
+     */
+    static int rowsFor(double threshold) {
+        int best = 1;
+        for (int rows = 1; rows <= SIGNATURE_LENGTH; rows++) {
+            double lshThreshold = Math.pow(1.0 / (SIGNATURE_LENGTH / rows), 1.0 / rows);
+            if (lshThreshold <= threshold) {
+                best = rows;
+            }
+        }
+        return best;
+    }
+
+    private static String normalize(String content) {
+        StringBuilder normalized = new StringBuilder(content.length());
+        boolean space = true;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                normalized.append(' ');
+                space = true;
+            }
+        }
+        int length = normalized.length();
+        return space && length > 0 ? normalized.substring(0, length - 1) : normalized.toString();
+    }
+
+    /**
+     * Hash one band of a signature, together with the band number so equal
+     * values in different bands land in different buckets
+     */
+    private static long bucketKey(int band, short[] signature, int from, int rows) {
+        long key = band;
+        for (int i = from; i < from + rows; i++) {
+            key = (key ^ (signature[i] & 0xFFFF)) * 0x100000001b3L;
+        }
+        return mix(key);
+    }
+
+    private static long mix(long key) {
+        // Murmur3 finalizer
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        key *= 0xC4CEB9FE1A85EC53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static int find(int[] parents, int i) {
+        while (parents[i] != i) {
+            parents[i] = parents[parents[i]];
+            i = parents[i];
+        }
+        return i;
+    }
+
+    private int newSlot(int postId, short[] signature) {
+        if (slotCount == slotPostIds.length) {
+            slotPostIds = Arrays.copyOf(slotPostIds, slotCount * 2);
+            signatures = Arrays.copyOf(signatures, slotCount * 2 * SIGNATURE_LENGTH);
+        }
+        int slot = slotCount++;
+        slotPostIds[slot] = postId;
+        System.arraycopy(signature, 0, signatures, slot * SIGNATURE_LENGTH, SIGNATURE_LENGTH);
+        postSlots.put(postId, slot + 1);
+        liveCount++;
+        return slot;
+    }
+
+    private void addEntry(long key, int slot) {
+        if (entryCount == entrySlots.length) {
+            entrySlots = Arrays.copyOf(entrySlots, entryCount * 2);
+            entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+        }
+        int entry = entryCount++;
+        entrySlots[entry] = slot;
+        entryNext[entry] = bucketHeads.get(key);
+        bucketHeads.put(key, entry + 1);
+    }
+
+    /**
+     * Leave a tombstone in a slot, rebuilding once enough slots are dead
+     */
+    private void kill(int slot) {
+        slotPostIds[slot] = NO_POST;
+        liveCount--;
+        int dead = slotCount - liveCount;
+        if (dead >= COMPACT_MIN_DEAD && dead > slotCount * COMPACT_DEAD_FRACTION) {
+            compact();
+        }
+    }
+
+    /**
+     * Renumber the live slots densely and rebuild the buckets without the dead ones
+     */
+    private void compact() {
+        int live = 0;
+        postSlots = new LongIntHashMap(liveCount);
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (slotPostIds[slot] == NO_POST) {
+                continue;
+            }
+            slotPostIds[live] = slotPostIds[slot];
+            System.arraycopy(signatures, slot * SIGNATURE_LENGTH, signatures, live * SIGNATURE_LENGTH, SIGNATURE_LENGTH);
+            postSlots.put(slotPostIds[live], live + 1);
+            live++;
+        }
+        slotCount = live;
+        bucketHeads = new LongIntHashMap(live * bands);
+        entryCount = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            for (int band = 0; band < bands; band++) {
+                addEntry(bucketKey(band, signatures, slot * SIGNATURE_LENGTH + band * rows, rows), slot);
+            }
+        }
+    }
+
+    private static class SignatureTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> contents;
+        private final short[][] signatures;
+        private final int from;
+        private final int to;
+
+        SignatureTask(List<String> contents, short[][] signatures, int from, int to) {
+            this.contents = contents;
+            this.signatures = signatures;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    signatures[i] = signature(contents.get(i));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SignatureTask(contents, signatures, from, mid), new SignatureTask(contents, signatures, mid, to));
+        }
+    }
+
+    /**
+     * Finds the duplicate pairs sharing one band. The band's keys are sorted
+     * along with their post, so each bucket is a run of equal keys. Within a
+     * bucket, every post is compared with the bucket's distinct posts so far.
+     * A post only stays out of that list when its signature equals one already
+     * in it: a copy agrees with every other post exactly as its original does,
+     * so no pair is lost, and a bucket of many exact copies stays linear.
+     */
+    private static class BandTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final short[] signatures;
+        private final int count;
+        private final int band;
+        private final int rows;
+        private final double threshold;
+        private final long[][] edges;
+
+        BandTask(short[] signatures, int count, int band, int rows, double threshold, long[][] edges) {
+            this.signatures = signatures;
+            this.count = count;
+            this.band = band;
+            this.rows = rows;
+            this.threshold = threshold;
+            this.edges = edges;
+        }
+
+        @Override
+        protected void compute() {
+            // High half: the key's top 32 bits; low half: the post's index
+            long[] keyed = new long[count];
+            for (int i = 0; i < count; i++) {
+                long key = bucketKey(band, signatures, i * SIGNATURE_LENGTH + band * rows, rows);
+                keyed[i] = (key & 0xFFFFFFFF00000000L) | i;
+            }
+            Arrays.sort(keyed);
+
+            long[] found = new long[16];
+            int foundCount = 0;
+            List<Integer> distinct = new ArrayList<>();
+            for (int start = 0; start < count; ) {
+                int end = start + 1;
+                while (end < count && keyed[end] >>> 32 == keyed[start] >>> 32) {
+                    end++;
+                }
+                if (end - start > 1) {
+                    distinct.clear();
+                    for (int i = start; i < end; i++) {
+                        int post = (int) keyed[i];
+                        boolean copy = false;
+                        for (int other : distinct) {
+                            int agreeing = agreeing(post, other);
+                            if (agreeing >= threshold * SIGNATURE_LENGTH) {
+                                if (foundCount == found.length) {
+                                    found = Arrays.copyOf(found, foundCount * 2);
+                                }
+                                found[foundCount++] = (long) other << 32 | post;
+                                copy |= agreeing == SIGNATURE_LENGTH;
+                            }
+                        }
+                        if (!copy) {
+                            distinct.add(post);
+                        }
+                    }
+                }
+                start = end;
+            }
+            edges[band] = Arrays.copyOf(found, foundCount);
+        }
+
+        private int agreeing(int a, int b) {
+            int agreeing = 0;
+            for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+                if (signatures[a * SIGNATURE_LENGTH + i] == signatures[b * SIGNATURE_LENGTH + i]) {
+                    agreeing++;
+                }
+            }
+            return agreeing;
+        }
+    }
+}
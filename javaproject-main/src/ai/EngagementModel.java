@@ -0,0 +1,495 @@
+package ai;
+
+import util.BackgroundExecutor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Singleton predicting the engagement of a post, its likes plus comments,
+ * before it is published. The model is a Poisson regression, predicting
+ * exp(w · x), over hashed features: the words of the post, its platform, the
+ * hour of the week and its length. Hashing keeps the weights one fixed array
+ * of floats with no vocabulary to store, and scoring a draft costs a
+ * tokenization and a few dozen array reads.
+ *
+ * Training runs AdaGrad SGD in the Hogwild style: one thread per core works
+ * through its share of the examples and updates the shared weights without
+ * locking. Posts share few features, so the rare lost update does no harm.
+ * Trained weights replace the old ones in one step, so scoring never waits.
+ *
+ * Weights are saved in a compact binary file. Layout, big-endian: magic,
+ * version, feature bits, training time, example count, mean engagement, best
+ * hour, the top words, then only the nonzero weights as index and value
+ * pairs. A missing, foreign-version or damaged file reads as no model.
+ */
+public class EngagementModel {
+    private static final Logger LOGGER = Logger.getLogger(EngagementModel.class.getName());
+    private static final int MAGIC = 0x534D454D; // "SMEM"
+    private static final int VERSION = 1;
+
+    // Fewer posts than this and the predictions would be noise
+    public static final int MIN_EXAMPLES = 50;
+    public static final int HOURS_PER_WEEK = 7 * 24;
+    private static final int FEATURE_BITS = 18;
+    private static final int FEATURE_MASK = (1 << FEATURE_BITS) - 1;
+    private static final int EPOCHS = 5;
+    private static final float LEARNING_RATE = 0.1f;
+    private static final float L2 = 1e-6f;
+    // Keeps exp() finite while the weights are still far off
+    private static final double MAX_LINEAR = 12;
+    // A word or hour needs this many posts before it is reported as an insight
+    private static final int MIN_INSIGHT_EXAMPLES = 20;
+    private static final int INSIGHT_TERMS = 5;
+
+    // Feature namespaces, mixed into the hash so equal values do not collide
+    private static final long BIAS = 0;
+    private static final long PLATFORM = 1;
+    private static final long HOUR = 2;
+    private static final long LENGTH = 3;
+    private static final long TERM = 4;
+    private static final int BIAS_INDEX = feature(BIAS, 0);
+
+    private static EngagementModel instance;
+    // Replaced whole after training or loading, null until then
+    private volatile TrainedModel trained;
+
+    private EngagementModel() {
+    }
+
+    public static synchronized EngagementModel getInstance() {
+        if (instance == null) {
+            instance = new EngagementModel();
+        }
+        return instance;
+    }
+
+    /**
+     * Training examples, with their features extracted up front into flat
+     * primitive arrays. Not thread safe.
+     */
+    public static class Examples {
+        // Example i has the features from offsets[i] up to offsets[i + 1]
+        private int[] offsets = new int[1025];
+        private int[] indexes = new int[16 * 1024];
+        private float[] values = new float[16 * 1024];
+        private float[] targets = new float[1024];
+        private int count;
+        private long totalEngagement;
+        private final Map<String, Integer> termExamples = new HashMap<>();
+        private final int[] hourExamples = new int[HOURS_PER_WEEK];
+
+        /**
+         * Add a published post
+         * @param platformId The post's platform
+         * @param content The post content
+         * @param postTime When the post was published, in epoch milliseconds
+         * @param engagement The post's likes plus comments
+         */
+        public void add(int platformId, String content, long postTime, int engagement) {
+            Map<String, Integer> terms = SimilarityIndex.countTerms(content);
+            int size = offsets[count];
+            if (size + terms.size() + 4 > indexes.length) {
+                int capacity = Math.max(indexes.length * 2, size + terms.size() + 4);
+                indexes = Arrays.copyOf(indexes, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            if (count + 1 == targets.length) {
+                targets = Arrays.copyOf(targets, targets.length * 2);
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            int added = extract(platformId, content, postTime, terms, indexes, values, size);
+            offsets[count + 1] = size + added;
+            targets[count] = engagement;
+            count++;
+            totalEngagement += engagement;
+            for (String term : terms.keySet()) {
+                termExamples.merge(term, 1, Integer::sum);
+            }
+            hourExamples[hourOfWeek(postTime)]++;
+        }
+
+        public int size() {
+            return count;
+        }
+    }
+
+    /**
+     * Weights and insights of one training run. Never changed once published.
+     */
+    private static class TrainedModel {
+        private final float[] weights;
+        private final long trainedAt;
+        private final int examples;
+        private final double meanEngagement;
+        private final int bestHour;
+        private final List<String> topTerms;
+
+        TrainedModel(float[] weights, long trainedAt, int examples, double meanEngagement,
+                     int bestHour, List<String> topTerms) {
+            this.weights = weights;
+            this.trainedAt = trainedAt;
+            this.examples = examples;
+            this.meanEngagement = meanEngagement;
+            this.bestHour = bestHour;
+            this.topTerms = topTerms;
+        }
+    }
+
+    /**
+     * Train a new model and replace the current one. Runs on a pool of its
+     * own, one thread per core, so the shared background pool stays free.
+     * @param examples The training examples
+     * @return True if a model was trained, false if there were too few examples
+     */
+    public boolean train(Examples examples) {
+        int count = examples.count;
+        if (count < MIN_EXAMPLES) {
+            LOGGER.log(Level.INFO, "Not training the engagement model on only " + count + " posts");
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        double meanEngagement = (double) examples.totalEngagement / count;
+        float[] weights = new float[1 << FEATURE_BITS];
+        float[] squaredGradients = new float[1 << FEATURE_BITS];
+        // Start from the average, so early steps are not spent finding it
+        weights[BIAS_INDEX] = (float) Math.log(Math.max(meanEngagement, 0.01));
+
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), count / MIN_EXAMPLES));
+        ExecutorService pool = Executors.newFixedThreadPool(threads, BackgroundExecutor.daemonThreadFactory("engagement-sgd"));
+        try {
+            int[] order = new int[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            Random random = new Random(count);
+            for (int epoch = 0; epoch < EPOCHS; epoch++) {
+                shuffle(order, random);
+                float learningRate = LEARNING_RATE / (float) Math.sqrt(epoch + 1);
+                List<Future<?>> shares = new ArrayList<>(threads);
+                for (int thread = 0; thread < threads; thread++) {
+                    int from = (int) ((long) count * thread / threads);
+                    int to = (int) ((long) count * (thread + 1) / threads);
+                    shares.add(pool.submit(() -> {
+                        for (int i = from; i < to; i++) {
+                            step(examples, order[i], weights, squaredGradients, learningRate);
+                        }
+                    }));
+                }
+                for (Future<?> share : shares) {
+                    share.get();
+                }
+            }
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.WARNING, "Error training the engagement model", e.getCause());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            pool.shutdownNow();
+        }
+
+        trained = new TrainedModel(weights, System.currentTimeMillis(), count, meanEngagement,
+                bestHour(weights, examples.hourExamples), topTerms(weights, examples.termExamples));
+        LOGGER.log(Level.INFO, "Engagement model trained on " + count + " posts with " + threads + " threads in "
+                + (System.currentTimeMillis() - start) + " ms");
+        return true;
+    }
+
+    /**
+     * One AdaGrad step on the Poisson loss exp(w · x) - y (w · x). Called
+     * concurrently on the same arrays without locking.
+     */
+    private static void step(Examples examples, int example, float[] weights, float[] squaredGradients,
+                             float learningRate) {
+        int from = examples.offsets[example];
+        int to = examples.offsets[example + 1];
+        double linear = 0;
+        for (int i = from; i < to; i++) {
+            linear += weights[examples.indexes[i]] * examples.values[i];
+        }
+        double error = Math.exp(Math.min(linear, MAX_LINEAR)) - examples.targets[example];
+        for (int i = from; i < to; i++) {
+            int feature = examples.indexes[i];
+            float gradient = (float) (error * examples.values[i]) + L2 * weights[feature];
+            if (gradient == 0) {
+                continue;
+            }
+            float squared = squaredGradients[feature] + gradient * gradient;
+            squaredGradients[feature] = squared;
+            weights[feature] -= learningRate * gradient / (float) Math.sqrt(squared);
+        }
+    }
+
+    /**
+     * Predict the engagement of a post
+     * @param platformId The platform to publish on
+     * @param content The post content
+     * @param postTime When the post would be published, in epoch milliseconds
+     * @return The expected likes plus comments, or -1 if no model is trained yet
+     */
+    public double predict(int platformId, String content, long postTime) {
+        TrainedModel model = trained;
+        if (model == null) {
+            return -1;
+        }
+        Map<String, Integer> terms = SimilarityIndex.countTerms(content);
+        int[] indexes = new int[terms.size() + 4];
+        float[] values = new float[terms.size() + 4];
+        int size = extract(platformId, content, postTime, terms, indexes, values, 0);
+        double linear = 0;
+        for (int i = 0; i < size; i++) {
+            linear += model.weights[indexes[i]] * values[i];
+        }
+        return Math.exp(Math.min(linear, MAX_LINEAR));
+    }
+
+    public boolean isTrained() {
+        return trained != null;
+    }
+
+    /**
+     * @return When the current model was trained, in epoch milliseconds, or 0 if there is none
+     */
+    public long getTrainedAt() {
+        TrainedModel model = trained;
+        return model != null ? model.trainedAt : 0;
+    }
+
+    /**
+     * @return Average engagement of the training posts, or 0 if there is no model
+     */
+    public double getMeanEngagement() {
+        TrainedModel model = trained;
+        return model != null ? model.meanEngagement : 0;
+    }
+
+    /**
+     * @return The hour of the week, 0 for Monday 00:00, that raises
+     * engagement most, or -1 if no hour has enough posts
+     */
+    public int getBestHourOfWeek() {
+        TrainedModel model = trained;
+        return model != null ? model.bestHour : -1;
+    }
+
+    /**
+     * @return The words that raise engagement most, strongest first
+     */
+    public List<String> getTopTerms() {
+        TrainedModel model = trained;
+        return model != null ? model.topTerms : Collections.emptyList();
+    }
+
+    /**
+     * Save the current model, replacing the file atomically
+     * @param file The file to write
+     * @throws IOException If the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        TrainedModel model = trained;
+        if (model == null) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(FEATURE_BITS);
+        out.writeLong(model.trainedAt);
+        out.writeInt(model.examples);
+        out.writeDouble(model.meanEngagement);
+        out.writeInt(model.bestHour);
+        out.writeInt(model.topTerms.size());
+        for (String term : model.topTerms) {
+            byte[] encoded = term.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(encoded.length);
+            out.write(encoded);
+        }
+        int nonzero = 0;
+        for (float weight : model.weights) {
+            if (weight != 0) {
+                nonzero++;
+            }
+        }
+        out.writeInt(nonzero);
+        for (int i = 0; i < model.weights.length; i++) {
+            if (model.weights[i] != 0) {
+                out.writeInt(i);
+                out.writeFloat(model.weights[i]);
+            }
+        }
+        out.flush();
+
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Replace the current model with a saved one
+     * @param file The file to read
+     * @return True if a model was loaded
+     */
+    public boolean load(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        try {
+            // Read onto the heap rather than mapping, so save can replace the
+            // file later; Windows refuses while a mapping is open
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != FEATURE_BITS) {
+                LOGGER.log(Level.INFO, "Ignoring engagement model with unknown format: " + file);
+                return false;
+            }
+            long trainedAt = buffer.getLong();
+            int examples = buffer.getInt();
+            double meanEngagement = buffer.getDouble();
+            int bestHour = buffer.getInt();
+            if (bestHour < -1 || bestHour >= HOURS_PER_WEEK) {
+                throw new IllegalArgumentException("Invalid hour " + bestHour);
+            }
+            int termCount = readCount(buffer);
+            List<String> topTerms = new ArrayList<>(termCount);
+            for (int i = 0; i < termCount; i++) {
+                byte[] encoded = new byte[readCount(buffer)];
+                buffer.get(encoded);
+                topTerms.add(new String(encoded, StandardCharsets.UTF_8));
+            }
+            float[] weights = new float[1 << FEATURE_BITS];
+            int nonzero = readCount(buffer);
+            for (int i = 0; i < nonzero; i++) {
+                int index = buffer.getInt();
+                if (index < 0 || index > FEATURE_MASK) {
+                    throw new IllegalArgumentException("Invalid feature index " + index);
+                }
+                weights[index] = buffer.getFloat();
+            }
+            trained = new TrainedModel(weights, trainedAt, examples, meanEngagement, bestHour,
+                    Collections.unmodifiableList(topTerms));
+            return true;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "Ignoring unreadable engagement model: " + file, e);
+            return false;
+        }
+    }
+
+    /**
+     * Hour of the week in the local time zone
+     * @param time The time in epoch milliseconds
+     * @return 0 for Monday 00:00 up to 167 for Sunday 23:00
+     */
+    public static int hourOfWeek(long time) {
+        long localHours = Math.floorDiv(time + TimeZone.getDefault().getOffset(time), 3_600_000L);
+        // The epoch fell on a Thursday, the fourth day counting from Monday
+        return Math.floorMod(localHours + 3 * 24, HOURS_PER_WEEK);
+    }
+
+    /**
+     * Write a post's features
+     * @return The number of features written
+     */
+    private static int extract(int platformId, String content, long postTime, Map<String, Integer> terms,
+                               int[] indexes, float[] values, int offset) {
+        int size = offset;
+        indexes[size] = BIAS_INDEX;
+        values[size++] = 1;
+        indexes[size] = feature(PLATFORM, platformId);
+        values[size++] = 1;
+        indexes[size] = feature(HOUR, hourOfWeek(postTime));
+        values[size++] = 1;
+        // Length in powers of two: up to 1, 2-3, 4-7, ...
+        indexes[size] = feature(LENGTH, 32 - Integer.numberOfLeadingZeros(content.length()));
+        values[size++] = 1;
+        for (String term : terms.keySet()) {
+            indexes[size] = termFeature(term);
+            values[size++] = 1;
+        }
+        return size - offset;
+    }
+
+    private static int termFeature(String term) {
+        return feature(TERM, term.hashCode());
+    }
+
+    private static int feature(long namespace, int value) {
+        // Murmur3 finalizer over namespace and value
+        long key = namespace << 32 | (value & 0xFFFFFFFFL);
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        key *= 0xC4CEB9FE1A85EC53L;
+        key ^= key >>> 33;
+        return (int) key & FEATURE_MASK;
+    }
+
+    private static int bestHour(float[] weights, int[] hourExamples) {
+        int best = -1;
+        for (int hour = 0; hour < HOURS_PER_WEEK; hour++) {
+            if (hourExamples[hour] >= MIN_INSIGHT_EXAMPLES
+                    && (best < 0 || weights[feature(HOUR, hour)] > weights[feature(HOUR, best)])) {
+                best = hour;
+            }
+        }
+        return best;
+    }
+
+    private static List<String> topTerms(float[] weights, Map<String, Integer> termExamples) {
+        List<String> candidates = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : termExamples.entrySet()) {
+            if (entry.getValue() >= MIN_INSIGHT_EXAMPLES && weights[termFeature(entry.getKey())] > 0) {
+                candidates.add(entry.getKey());
+            }
+        }
+        candidates.sort((a, b) -> Float.compare(weights[termFeature(b)], weights[termFeature(a)]));
+        return Collections.unmodifiableList(new ArrayList<>(candidates.subList(0, Math.min(INSIGHT_TERMS, candidates.size()))));
+    }
+
+    private static void shuffle(int[] order, Random random) {
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+    }
+
+    /**
+     * Read an element count, rejecting values a damaged file could produce
+     */
+    private static int readCount(ByteBuffer in) {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining()) {
+            throw new IllegalArgumentException("Invalid element count " + count);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,178 @@
+package ai;
+
+import util.BackgroundExecutor;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Backend calling a model server over HTTP, e.g. the {@link LocalAIServer}
+ * stand-in. The protocol has two endpoints under the base URI:
+ *
+ * POST complete takes {"kind", "prompt", "userId"} and streams the response
+ * as server-sent events, each data line a JSON string holding the next piece
+ * and a final "data: [DONE]".
+ *
+ * POST batch takes an array of such requests and returns a JSON array of
+ * response strings in the same order.
+ *
+ * Requests are sent asynchronously; the timeout bounds connecting and
+ * waiting for the response headers. Streams are read on threads of their
+ * own, and completing or cancelling the returned future early closes the
+ * stream.
+ */
+public class HttpAIBackend implements AIBackend {
+    private static final String DONE = "[DONE]";
+
+    private final URI baseUri;
+    private final Duration timeout;
+    private final Executor executor;
+    private final HttpClient client;
+    // Reading a stream blocks until the next piece arrives, so streams get
+    // their own threads rather than tying up the shared background workers
+    private final ExecutorService streamReader =
+            Executors.newCachedThreadPool(BackgroundExecutor.daemonThreadFactory("ai-stream"));
+
+    /**
+     * @param baseUri The server's base URI, e.g. http://localhost:8765/v1/
+     * @param timeout Time allowed to connect and to start answering
+     * @param executor Where batch responses are parsed
+     */
+    public HttpAIBackend(URI baseUri, Duration timeout, Executor executor) {
+        this.baseUri = baseUri.getPath().endsWith("/") ? baseUri : URI.create(baseUri + "/");
+        this.timeout = timeout;
+        this.executor = executor;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .executor(executor)
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<String> complete(AIRequest request, Consumer<String> onPartial) {
+        HttpRequest httpRequest = newRequest("complete", toJson(request))
+                .header("Accept", "text/event-stream")
+                .build();
+        CompletableFuture<String> result = new CompletableFuture<>();
+        CompletableFuture<HttpResponse<Stream<String>>> sent =
+                client.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofLines());
+        sent.whenComplete((response, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            streamReader.execute(() -> readStream(response, result, onPartial));
+        });
+        // A caller timing out or cancelling abandons the call: stop sending
+        // or reading, so no late pieces follow
+        result.whenComplete((text, error) -> {
+            if (error != null) {
+                sent.cancel(true);
+                sent.thenAccept(response -> response.body().close());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Read the server-sent events of a response, passing each piece on until
+     * the stream ends or the call is abandoned
+     */
+    private static void readStream(HttpResponse<Stream<String>> response, CompletableFuture<String> result,
+                                   Consumer<String> onPartial) {
+        StringBuilder text = new StringBuilder();
+        try (Stream<String> lines = response.body()) {
+            checkStatus(response.statusCode());
+            Iterator<String> iterator = lines.iterator();
+            while (!result.isDone() && iterator.hasNext()) {
+                String line = iterator.next();
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                String data = line.substring("data:".length()).trim();
+                if (DONE.equals(data)) {
+                    break;
+                }
+                String piece = JsonText.parseString(data);
+                text.append(piece);
+                if (result.isDone()) {
+                    break;
+                }
+                onPartial.accept(piece);
+            }
+            result.complete(text.toString());
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<String>> completeBatch(List<AIRequest> requests) {
+        StringBuilder body = new StringBuilder("[");
+        for (AIRequest request : requests) {
+            if (body.length() > 1) {
+                body.append(',');
+            }
+            body.append(toJson(request));
+        }
+        body.append(']');
+        HttpRequest httpRequest = newRequest("batch", body.toString())
+                .header("Accept", "application/json")
+                .build();
+        return client.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString())
+                .thenApplyAsync(response -> {
+                    checkStatus(response.statusCode());
+                    List<String> responses = JsonText.parseStringArray(response.body());
+                    if (responses.size() != requests.size()) {
+                        throw new CompletionException(new IOException("AI backend returned " + responses.size()
+                                + " responses for " + requests.size() + " requests"));
+                    }
+                    return responses;
+                }, executor);
+    }
+
+    @Override
+    public String getName() {
+        return "HTTP " + baseUri;
+    }
+
+    private HttpRequest.Builder newRequest(String endpoint, String body) {
+        return HttpRequest.newBuilder(baseUri.resolve(endpoint))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private static void checkStatus(int status) {
+        if (status != 200) {
+            throw new CompletionException(new IOException("AI backend answered HTTP " + status));
+        }
+    }
+
+    static String toJson(AIRequest request) {
+        return "{\"kind\":" + JsonText.quote(request.getKind().getWireName())
+                + ",\"prompt\":" + JsonText.quote(request.getPrompt())
+                + ",\"userId\":" + request.getUserId() + "}";
+    }
+
+    static AIRequest fromJson(Map<String, String> object) {
+        String userId = object.get("userId");
+        return new AIRequest(AIRequest.Kind.fromWireName(object.getOrDefault("kind", "chat")),
+                object.getOrDefault("prompt", ""),
+                userId != null && !"null".equals(userId) ? Integer.parseInt(userId) : -1);
+    }
+}
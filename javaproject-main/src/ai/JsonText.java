@@ -0,0 +1,218 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The little JSON the AI backend protocol needs: quoting strings, and
+ * parsing strings, flat objects, and arrays of either. Numbers, booleans and
+ * null inside objects are returned as their source text.
+ */
+class JsonText {
+    private final String text;
+    private int pos;
+
+    private JsonText(String text) {
+        this.text = text;
+    }
+
+    /**
+     * @param value A string
+     * @return The string as a JSON literal, quotes included
+     */
+    static String quote(String value) {
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    /**
+     * @param json A JSON string literal
+     * @return Its value
+     * @throws IllegalArgumentException If the text is not a string literal
+     */
+    static String parseString(String json) {
+        JsonText parser = new JsonText(json);
+        String value = parser.readString();
+        parser.expectEnd();
+        return value;
+    }
+
+    /**
+     * @param json A JSON object whose values are not objects or arrays
+     * @return The members, in order
+     * @throws IllegalArgumentException If the text is not such an object
+     */
+    static Map<String, String> parseObject(String json) {
+        JsonText parser = new JsonText(json);
+        Map<String, String> object = parser.readObject();
+        parser.expectEnd();
+        return object;
+    }
+
+    /**
+     * @param json A JSON array of strings
+     * @return The strings
+     * @throws IllegalArgumentException If the text is not such an array
+     */
+    static List<String> parseStringArray(String json) {
+        JsonText parser = new JsonText(json);
+        List<String> values = new ArrayList<>();
+        parser.readArray(() -> values.add(parser.readString()));
+        parser.expectEnd();
+        return values;
+    }
+
+    /**
+     * @param json A JSON array of flat objects
+     * @return The objects
+     * @throws IllegalArgumentException If the text is not such an array
+     */
+    static List<Map<String, String>> parseObjectArray(String json) {
+        JsonText parser = new JsonText(json);
+        List<Map<String, String>> values = new ArrayList<>();
+        parser.readArray(() -> values.add(parser.readObject()));
+        parser.expectEnd();
+        return values;
+    }
+
+    private void readArray(Runnable readElement) {
+        expect('[');
+        if (peek() == ']') {
+            pos++;
+            return;
+        }
+        while (true) {
+            readElement.run();
+            char c = next();
+            if (c == ']') {
+                return;
+            }
+            if (c != ',') {
+                throw error("',' or ']'");
+            }
+        }
+    }
+
+    private Map<String, String> readObject() {
+        Map<String, String> object = new LinkedHashMap<>();
+        expect('{');
+        if (peek() == '}') {
+            pos++;
+            return object;
+        }
+        while (true) {
+            String name = readString();
+            expect(':');
+            object.put(name, peek() == '"' ? readString() : readLiteral());
+            char c = next();
+            if (c == '}') {
+                return object;
+            }
+            if (c != ',') {
+                throw error("',' or '}'");
+            }
+        }
+    }
+
+    private String readLiteral() {
+        skipWhitespace();
+        int start = pos;
+        while (pos < text.length() && ",}] \t\r\n".indexOf(text.charAt(pos)) < 0) {
+            pos++;
+        }
+        if (start == pos) {
+            throw error("a value");
+        }
+        return text.substring(start, pos);
+    }
+
+    private String readString() {
+        expect('"');
+        StringBuilder value = new StringBuilder();
+        while (pos < text.length()) {
+            char c = text.charAt(pos++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (pos >= text.length()) {
+                break;
+            }
+            char escape = text.charAt(pos++);
+            switch (escape) {
+                case 'n': value.append('\n'); break;
+                case 'r': value.append('\r'); break;
+                case 't': value.append('\t'); break;
+                case 'b': value.append('\b'); break;
+                case 'f': value.append('\f'); break;
+                case 'u':
+                    if (pos + 4 > text.length()) {
+                        throw error("four hex digits");
+                    }
+                    value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    pos += 4;
+                    break;
+                default: value.append(escape);
+            }
+        }
+        throw error("closing '\"'");
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            throw error("'" + expected + "'");
+        }
+    }
+
+    private void expectEnd() {
+        skipWhitespace();
+        if (pos != text.length()) {
+            throw error("end of input");
+        }
+    }
+
+    private char next() {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private char peek() {
+        skipWhitespace();
+        if (pos >= text.length()) {
+            throw error("more input");
+        }
+        return text.charAt(pos);
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String expected) {
+        return new IllegalArgumentException("Expected " + expected + " at offset " + pos + " of JSON text");
+    }
+}
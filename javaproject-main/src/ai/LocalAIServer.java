@@ -0,0 +1,140 @@
+package ai;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import util.BackgroundExecutor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stand-in model server speaking the {@link HttpAIBackend} protocol, answering
+ * with the rules of {@link RuleBasedBackend}. Responses are streamed a word at
+ * a time with a delay, so streaming, batching and timeouts can be tried out
+ * without a real model. Start it and run the dashboard with
+ * -Dai.backend.url=http://localhost:8765/v1/
+ *
+ * Usage: LocalAIServer [port] [delay per word in ms]
+ */
+public class LocalAIServer {
+    private static final Logger LOGGER = Logger.getLogger(LocalAIServer.class.getName());
+    public static final int DEFAULT_PORT = 8765;
+    private static final int DEFAULT_WORD_DELAY_MILLIS = 40;
+
+    private final HttpServer server;
+    private final int wordDelayMillis;
+
+    /**
+     * @param port The port to listen on, or 0 for any free port
+     * @param wordDelayMillis Pause between streamed words
+     * @throws IOException If the port cannot be bound
+     */
+    public LocalAIServer(int port, int wordDelayMillis) throws IOException {
+        this.wordDelayMillis = wordDelayMillis;
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/v1/complete", this::handleComplete);
+        server.createContext("/v1/batch", this::handleBatch);
+        server.setExecutor(Executors.newCachedThreadPool(BackgroundExecutor.daemonThreadFactory("ai-server")));
+    }
+
+    public void start() {
+        server.start();
+        LOGGER.log(Level.INFO, "Local AI server listening on http://localhost:" + getPort() + "/v1/");
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleComplete(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            // Validated inside the try, so the error goes out before the exchange closes
+            AIRequest request;
+            try {
+                request = HttpAIBackend.fromJson(JsonText.parseObject(readBody(exchange)));
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, e);
+                return;
+            }
+            String response = RuleBasedBackend.respond(request);
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            // Split after each space so the pieces join back to the exact response
+            int start = 0;
+            while (start < response.length()) {
+                int end = response.indexOf(' ', start);
+                end = end < 0 ? response.length() : end + 1;
+                out.write(("data: " + JsonText.quote(response.substring(start, end)) + "\n\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                start = end;
+                pause();
+            }
+            out.write(("data: [DONE]\n\n").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            List<AIRequest> requests = new ArrayList<>();
+            try {
+                for (Map<String, String> request : JsonText.parseObjectArray(readBody(exchange))) {
+                    requests.add(HttpAIBackend.fromJson(request));
+                }
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, e);
+                return;
+            }
+            StringBuilder body = new StringBuilder("[");
+            for (AIRequest request : requests) {
+                if (body.length() > 1) {
+                    body.append(',');
+                }
+                body.append(JsonText.quote(RuleBasedBackend.respond(request)));
+            }
+            body.append(']');
+            pause();
+            byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        return new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static void sendError(HttpExchange exchange, IllegalArgumentException e) throws IOException {
+        LOGGER.log(Level.WARNING, "Bad request to " + exchange.getRequestURI(), e);
+        byte[] bytes = e.getMessage().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(400, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(wordDelayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int delay = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WORD_DELAY_MILLIS;
+        new LocalAIServer(port, delay).start();
+    }
+}
@@ -0,0 +1,457 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Trigram language model trained incrementally on whole posts. Words are
+ * mapped to int token IDs, and every count lives in a {@link LongIntHashMap}
+ * keyed by the packed IDs of the n-gram, so training and lookups never box.
+ * Each context also keeps the list of tokens seen after it, which is where
+ * generation takes its candidates from.
+ *
+ * Probabilities use stupid backoff: the trigram estimate if the trigram was
+ * seen, otherwise 0.4 times the bigram estimate, otherwise 0.16 times the
+ * unigram one. Posts are generated with beam search, and {@link #complete}
+ * finishes the word being typed and continues for a few words, cheap enough
+ * to run on every key press. Methods are synchronized; training and queries
+ * may come from different threads.
+ */
+public class NgramModel {
+    private static final int BOS = 0;
+    private static final int EOS = 1;
+    private static final int UNKNOWN = 2;
+    private static final int ID_BITS = 20;
+    private static final int MAX_VOCABULARY = 1 << ID_BITS;
+    private static final double BACKOFF = 0.4;
+    private static final double UNSEEN_PROBABILITY = 1e-7;
+    // Multiplies the probability of a word the beam already used
+    private static final double REPEAT_PENALTY = Math.log(0.2);
+    private static final String PUNCTUATION = ".,!?;:";
+
+    // Vocabulary: words by ID, and an open-addressing index from word to ID
+    private String[] words = new String[256];
+    private int vocabularySize;
+    private String[] indexKeys = new String[512];
+    private int[] indexIds = new int[512];
+
+    private final LongIntHashMap ngramCounts = new LongIntHashMap(4096);
+    private final LongIntHashMap contextCounts = new LongIntHashMap(2048);
+    // Context key to 1 + index of its successor list
+    private final LongIntHashMap successorLists = new LongIntHashMap(2048);
+    private int[][] successors = new int[256][];
+    private int[] successorSizes = new int[256];
+    private int successorListCount;
+    private int trainedTexts;
+
+    public NgramModel() {
+        intern("<s>");
+        intern("</s>");
+        intern("<unk>");
+    }
+
+    /**
+     * Add a text to the model
+     * @param text The text, typically a whole post
+     * @param weight How many times to count it, e.g. more for popular posts
+     */
+    public synchronized void train(String text, int weight) {
+        List<String> tokens = tokenize(text);
+        if (tokens.isEmpty() || weight <= 0) {
+            return;
+        }
+        int w1 = BOS;
+        int w2 = BOS;
+        for (int i = 0; i <= tokens.size(); i++) {
+            int next = i < tokens.size() ? intern(tokens.get(i)) : EOS;
+            count(2, w1, w2, next, weight);
+            count(1, 0, w2, next, weight);
+            count(0, 0, 0, next, weight);
+            w1 = w2;
+            w2 = next;
+        }
+        trainedTexts++;
+    }
+
+    /**
+     * @return Number of texts trained on
+     */
+    public synchronized int getTrainedTexts() {
+        return trainedTexts;
+    }
+
+    /**
+     * Generate a new text. The first word is sampled by frequency so repeated
+     * calls give different texts; the rest is the best beam.
+     * @param random Source of the first word
+     * @param beamWidth Number of partial texts kept at each step
+     * @param maxTokens Maximum length in tokens
+     * @return The text, or an empty string if the model is empty
+     */
+    public synchronized String generate(Random random, int beamWidth, int maxTokens) {
+        int list = successorList(contextKey(2, BOS, BOS));
+        if (list < 0) {
+            return "";
+        }
+        int total = contextCounts.get(contextKey(2, BOS, BOS));
+        int target = random.nextInt(total);
+        int first = EOS;
+        for (int i = 0; i < successorSizes[list]; i++) {
+            int candidate = successors[list][i];
+            target -= ngramCounts.get(ngramKey(2, BOS, BOS, candidate));
+            if (target < 0) {
+                first = candidate;
+                break;
+            }
+        }
+        if (first == EOS) {
+            return "";
+        }
+        int[] continuation = beamSearch(BOS, first, beamWidth, maxTokens - 1, new int[]{first});
+        int[] tokens = new int[continuation.length + 1];
+        tokens[0] = first;
+        System.arraycopy(continuation, 0, tokens, 1, continuation.length);
+        return detokenize(tokens, true);
+    }
+
+    /**
+     * Complete a text being typed: the rest of the current word if the text
+     * ends inside one, then the most likely next few words
+     * @param text The text so far
+     * @param maxTokens Maximum number of tokens to add after the current word
+     * @return The text to append, or an empty string if there is no good guess
+     */
+    public synchronized String complete(String text, int maxTokens) {
+        List<String> tokens = tokenize(text);
+        boolean partial = !text.isEmpty() && isWordChar(text.charAt(text.length() - 1)) && !tokens.isEmpty();
+        int contextEnd = partial ? tokens.size() - 1 : tokens.size();
+        int w1 = contextEnd >= 2 ? idOf(tokens.get(contextEnd - 2)) : BOS;
+        int w2 = contextEnd >= 1 ? idOf(tokens.get(contextEnd - 1)) : BOS;
+
+        StringBuilder completion = new StringBuilder();
+        if (partial) {
+            String prefix = tokens.get(tokens.size() - 1);
+            int word = bestWordWithPrefix(w1, w2, prefix);
+            if (word < 0) {
+                return "";
+            }
+            completion.append(words[word].substring(prefix.length()));
+            w1 = w2;
+            w2 = word;
+        }
+        int[] next = beamSearch(w1, w2, 3, maxTokens, new int[]{w1, w2});
+        if (next.length > 0) {
+            String continuation = detokenize(next, w2 == BOS);
+            boolean needsSpace = !text.isEmpty() && !Character.isWhitespace(text.charAt(text.length() - 1))
+                    || completion.length() > 0;
+            if (needsSpace && !isPunctuation(words[next[0]])) {
+                completion.append(' ');
+            }
+            completion.append(continuation);
+        }
+        return completion.toString();
+    }
+
+    /**
+     * Find the likeliest known word extending a prefix, looking at the words
+     * seen after the trigram context first, then the bigram one, then all words
+     */
+    private int bestWordWithPrefix(int w1, int w2, String prefix) {
+        long[] contexts = {contextKey(2, w1, w2), contextKey(1, 0, w2), contextKey(0, 0, 0)};
+        for (long context : contexts) {
+            int list = successorList(context);
+            if (list < 0) {
+                continue;
+            }
+            int best = -1;
+            double bestProbability = 0;
+            for (int i = 0; i < successorSizes[list]; i++) {
+                int candidate = successors[list][i];
+                String word = words[candidate];
+                if (word.length() > prefix.length() && word.startsWith(prefix)) {
+                    double probability = probability(w1, w2, candidate);
+                    if (probability > bestProbability) {
+                        best = candidate;
+                        bestProbability = probability;
+                    }
+                }
+            }
+            if (best >= 0) {
+                return best;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Beam search from a context until every beam has ended or the length
+     * limit is reached. Beams are ranked by log probability per token, so
+     * short texts are not favoured just for being short.
+     * @return The tokens of the best beam, without the end marker
+     */
+    private int[] beamSearch(int w1, int w2, int beamWidth, int maxTokens, int[] seen) {
+        List<Beam> beams = new ArrayList<>();
+        beams.add(new Beam(new int[0], w1, w2, 0, false));
+        for (int step = 0; step < maxTokens; step++) {
+            List<Beam> expanded = new ArrayList<>();
+            boolean grew = false;
+            for (Beam beam : beams) {
+                if (beam.finished) {
+                    expanded.add(beam);
+                    continue;
+                }
+                int list = candidateList(beam.w1, beam.w2);
+                if (list < 0) {
+                    expanded.add(beam.finish());
+                    continue;
+                }
+                for (int i = 0; i < successorSizes[list]; i++) {
+                    int next = successors[list][i];
+                    double logProbability = Math.log(probability(beam.w1, beam.w2, next));
+                    if (next != EOS && !isPunctuation(words[next]) && (beam.contains(next) || contains(seen, next))) {
+                        logProbability += REPEAT_PENALTY;
+                    }
+                    expanded.add(beam.extend(next, logProbability));
+                    grew = true;
+                }
+            }
+            expanded.sort((a, b) -> Double.compare(b.normalizedScore(), a.normalizedScore()));
+            beams = expanded.subList(0, Math.min(beamWidth, expanded.size()));
+            if (!grew) {
+                break;
+            }
+        }
+        Beam best = beams.get(0);
+        int length = best.tokens.length;
+        if (length > 0 && best.tokens[length - 1] == EOS) {
+            length--;
+        }
+        return Arrays.copyOf(best.tokens, length);
+    }
+
+    /**
+     * @return The successor list of the longest context that has one, or -1
+     */
+    private int candidateList(int w1, int w2) {
+        int list = successorList(contextKey(2, w1, w2));
+        if (list < 0) {
+            list = successorList(contextKey(1, 0, w2));
+        }
+        if (list < 0) {
+            list = successorList(contextKey(0, 0, 0));
+        }
+        return list;
+    }
+
+    private double probability(int w1, int w2, int next) {
+        int trigram = ngramCounts.get(ngramKey(2, w1, w2, next));
+        if (trigram > 0) {
+            return (double) trigram / contextCounts.get(contextKey(2, w1, w2));
+        }
+        int bigram = ngramCounts.get(ngramKey(1, 0, w2, next));
+        if (bigram > 0) {
+            return BACKOFF * bigram / contextCounts.get(contextKey(1, 0, w2));
+        }
+        int unigram = ngramCounts.get(ngramKey(0, 0, 0, next));
+        if (unigram > 0) {
+            return BACKOFF * BACKOFF * unigram / contextCounts.get(contextKey(0, 0, 0));
+        }
+        return UNSEEN_PROBABILITY;
+    }
+
+    private void count(int contextLength, int w1, int w2, int next, int weight) {
+        long context = contextKey(contextLength, w1, w2);
+        contextCounts.addTo(context, weight);
+        if (ngramCounts.addTo(ngramKey(contextLength, w1, w2, next), weight) == weight) {
+            addSuccessor(context, next);
+        }
+    }
+
+    private void addSuccessor(long context, int next) {
+        int list = successorList(context);
+        if (list < 0) {
+            if (successorListCount == successors.length) {
+                successors = Arrays.copyOf(successors, successorListCount * 2);
+                successorSizes = Arrays.copyOf(successorSizes, successorListCount * 2);
+            }
+            list = successorListCount++;
+            successors[list] = new int[4];
+            successorLists.put(context, list + 1);
+        }
+        if (successorSizes[list] == successors[list].length) {
+            successors[list] = Arrays.copyOf(successors[list], successorSizes[list] * 2);
+        }
+        successors[list][successorSizes[list]++] = next;
+    }
+
+    private int successorList(long context) {
+        return successorLists.get(context) - 1;
+    }
+
+    private static long contextKey(int contextLength, int w1, int w2) {
+        return ngramKey(contextLength, w1, w2, 0);
+    }
+
+    private static long ngramKey(int contextLength, int w1, int w2, int next) {
+        return (long) contextLength << 62 | (long) w1 << 2 * ID_BITS | (long) w2 << ID_BITS | next;
+    }
+
+    /**
+     * @return The ID of a word, adding it to the vocabulary if new
+     */
+    private int intern(String word) {
+        int id = lookup(word);
+        if (id >= 0) {
+            return id;
+        }
+        if (vocabularySize == MAX_VOCABULARY) {
+            return UNKNOWN;
+        }
+        if (vocabularySize * 2 >= indexKeys.length) {
+            rehashIndex(indexKeys.length * 2);
+        }
+        id = vocabularySize++;
+        if (id == words.length) {
+            words = Arrays.copyOf(words, id * 2);
+        }
+        words[id] = word;
+        insertIndex(word, id);
+        return id;
+    }
+
+    /**
+     * @return The ID of a word, or the unknown word ID
+     */
+    private int idOf(String word) {
+        int id = lookup(word);
+        return id >= 0 ? id : UNKNOWN;
+    }
+
+    private int lookup(String word) {
+        int mask = indexKeys.length - 1;
+        for (int slot = word.hashCode() & mask; indexKeys[slot] != null; slot = (slot + 1) & mask) {
+            if (indexKeys[slot].equals(word)) {
+                return indexIds[slot];
+            }
+        }
+        return -1;
+    }
+
+    private void insertIndex(String word, int id) {
+        int mask = indexKeys.length - 1;
+        int slot = word.hashCode() & mask;
+        while (indexKeys[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        indexKeys[slot] = word;
+        indexIds[slot] = id;
+    }
+
+    private void rehashIndex(int capacity) {
+        indexKeys = new String[capacity];
+        indexIds = new int[capacity];
+        for (int id = 0; id < vocabularySize; id++) {
+            insertIndex(words[id], id);
+        }
+    }
+
+    /**
+     * Split a text into lowercase words and punctuation marks. Hashtags,
+     * mentions and contractions stay single words.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (isWordChar(c)) {
+                if (start < 0) {
+                    start = i;
+                }
+                continue;
+            }
+            if (start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+            if (PUNCTUATION.indexOf(c) >= 0) {
+                tokens.add(String.valueOf(c));
+            }
+        }
+        return tokens;
+    }
+
+    private String detokenize(int[] tokens, boolean capitalizeFirst) {
+        StringBuilder text = new StringBuilder();
+        boolean capitalize = capitalizeFirst;
+        for (int token : tokens) {
+            String word = words[token];
+            if (text.length() > 0 && !isPunctuation(word)) {
+                text.append(' ');
+            }
+            if (capitalize || "i".equals(word) || word.startsWith("i'")) {
+                text.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            } else {
+                text.append(word);
+            }
+            capitalize = ".!?".contains(word);
+        }
+        return text.toString();
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '\'' || c == '’' || c == '#' || c == '@' || c == '_';
+    }
+
+    private static boolean isPunctuation(String word) {
+        return word.length() == 1 && PUNCTUATION.contains(word);
+    }
+
+    private static boolean contains(int[] tokens, int token) {
+        for (int t : tokens) {
+            if (t == token) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A partial text in the beam, with its last two tokens as the context
+     */
+    private static class Beam {
+        private final int[] tokens;
+        private final int w1;
+        private final int w2;
+        private final double logProbability;
+        private final boolean finished;
+
+        Beam(int[] tokens, int w1, int w2, double logProbability, boolean finished) {
+            this.tokens = tokens;
+            this.w1 = w1;
+            this.w2 = w2;
+            this.logProbability = logProbability;
+            this.finished = finished;
+        }
+
+        Beam extend(int next, double tokenLogProbability) {
+            int[] extended = Arrays.copyOf(tokens, tokens.length + 1);
+            extended[tokens.length] = next;
+            return new Beam(extended, w2, next, logProbability + tokenLogProbability, next == EOS);
+        }
+
+        Beam finish() {
+            return new Beam(tokens, w1, w2, logProbability, true);
+        }
+
+        boolean contains(int token) {
+            return NgramModel.contains(tokens, token);
+        }
+
+        double normalizedScore() {
+            return tokens.length == 0 ? 0 : logProbability / tokens.length;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ai;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Singleton holding one {@link NgramModel} per user, trained on the user's
+ * own well-received posts. Posts count more the more likes they have, so the
+ * suggestions lean towards what worked before.
+ */
+public class PostSuggestionEngine {
+    // Too few posts and the model would just repeat one of them
+    public static final int MIN_TRAINED_POSTS = 3;
+    private static final int BEAM_WIDTH = 4;
+    private static final int MAX_POST_TOKENS = 40;
+    private static final int MAX_COMPLETION_TOKENS = 4;
+
+    private static PostSuggestionEngine instance;
+    private final Map<Integer, NgramModel> models = new ConcurrentHashMap<>();
+    private final Random random = new Random();
+
+    private PostSuggestionEngine() {
+    }
+
+    public static synchronized PostSuggestionEngine getInstance() {
+        if (instance == null) {
+            instance = new PostSuggestionEngine();
+        }
+        return instance;
+    }
+
+    /**
+     * Train a user's model on one of their posts
+     * @param userId The author
+     * @param content The post content
+     * @param likes The post's likes, which set its weight
+     */
+    public void train(int userId, String content, int likes) {
+        // 1 for no likes, +1 for each doubling
+        int weight = 32 - Integer.numberOfLeadingZeros(Math.max(0, likes) + 1);
+        models.computeIfAbsent(userId, id -> new NgramModel()).train(content, weight);
+    }
+
+    /**
+     * Write a new post in the user's style
+     * @param userId The user ID
+     * @return The suggestion, or null if the user has too few trained posts
+     */
+    public String suggestPost(int userId) {
+        NgramModel model = models.get(userId);
+        if (model == null || model.getTrainedTexts() < MIN_TRAINED_POSTS) {
+            return null;
+        }
+        String suggestion = model.generate(random, BEAM_WIDTH, MAX_POST_TOKENS);
+        return suggestion.isEmpty() ? null : suggestion;
+    }
+
+    /**
+     * Complete a post being typed
+     * @param userId The user ID
+     * @param text The text so far
+     * @return The text to append, or an empty string if there is no suggestion
+     */
+    public String complete(int userId, String text) {
+        NgramModel model = models.get(userId);
+        if (model == null || model.getTrainedTexts() < MIN_TRAINED_POSTS) {
+            return "";
+        }
+        return model.complete(text, MAX_COMPLETION_TOKENS);
+    }
+}
@@ -0,0 +1,205 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Singleton streaming tracker of the posts gaining likes fastest, per
+ * platform and for {@link #ALL_PLATFORMS}. Likes over the last hour are
+ * counted in a ring of {@link CountMinSketch}es, one per five-minute bucket,
+ * plus a running sketch holding the sum of the ring; an expiring bucket is
+ * subtracted from the running sketch and cleared. Memory is fixed per
+ * platform no matter how many posts receive likes.
+ *
+ * A min-heap holds the current top candidates. Each like updates the sketch
+ * and compares the post's estimate with the heap minimum, so the cost of a
+ * like does not depend on the number of posts or likes. Unlikes are not
+ * subtracted; the tracker measures like activity, not net likes.
+ */
+public class RisingPostsTracker {
+    /**
+     * Platform ID under which likes on all platforms are tracked together
+     */
+    public static final int ALL_PLATFORMS = 0;
+    public static final long WINDOW_MILLIS = 60 * 60_000L;
+
+    private static final int BUCKETS = 12;
+    private static final long BUCKET_MILLIS = WINDOW_MILLIS / BUCKETS;
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 2048;
+    // Candidates kept per platform; queries can ask for at most this many
+    private static final int CAPACITY = 20;
+
+    /**
+     * A post and its estimated number of likes in the window
+     */
+    public static class RisingPost {
+        private final int postId;
+        private final int platformId;
+        private final int likes;
+
+        public RisingPost(int postId, int platformId, int likes) {
+            this.postId = postId;
+            this.platformId = platformId;
+            this.likes = likes;
+        }
+
+        public int getPostId() {
+            return postId;
+        }
+
+        public int getPlatformId() {
+            return platformId;
+        }
+
+        /**
+         * @return Estimated likes in the last hour, possibly a slight overcount
+         */
+        public int getLikes() {
+            return likes;
+        }
+    }
+
+    private static RisingPostsTracker instance;
+    private final Map<Integer, PlatformWindow> platforms = new ConcurrentHashMap<>();
+
+    private RisingPostsTracker() {
+    }
+
+    public static synchronized RisingPostsTracker getInstance() {
+        if (instance == null) {
+            instance = new RisingPostsTracker();
+        }
+        return instance;
+    }
+
+    /**
+     * Count a like
+     * @param postId The liked post
+     * @param platformId The post's platform
+     * @param timeMillis When the like happened
+     */
+    public void recordLike(int postId, int platformId, long timeMillis) {
+        window(platformId).add(postId, platformId, timeMillis);
+        window(ALL_PLATFORMS).add(postId, platformId, timeMillis);
+    }
+
+    /**
+     * Get the posts with the most likes in the last hour
+     * @param platformId The platform ID, or {@link #ALL_PLATFORMS}
+     * @param k Maximum number of posts, at most 20
+     * @return The posts, most liked first
+     */
+    public List<RisingPost> getRisingPosts(int platformId, int k) {
+        return window(platformId).top(Math.min(k, CAPACITY), System.currentTimeMillis());
+    }
+
+    /**
+     * Forget all likes, e.g. before rebuilding from the database
+     */
+    public void clear() {
+        platforms.clear();
+    }
+
+    private PlatformWindow window(int platformId) {
+        return platforms.computeIfAbsent(platformId, id -> new PlatformWindow());
+    }
+
+    /**
+     * One platform's sliding window and candidate heap. Guarded by its own monitor.
+     */
+    private static class PlatformWindow {
+        private final CountMinSketch[] ring = new CountMinSketch[BUCKETS];
+        private final CountMinSketch total = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+        private long newestBucket = Long.MIN_VALUE / 2;
+        private final PriorityQueue<Candidate> heap = new PriorityQueue<>(CAPACITY + 1,
+                Comparator.comparingInt((Candidate candidate) -> candidate.likes));
+        private final Map<Integer, Candidate> candidates = new HashMap<>();
+
+        PlatformWindow() {
+            for (int i = 0; i < BUCKETS; i++) {
+                ring[i] = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+            }
+        }
+
+        synchronized void add(int postId, int platformId, long timeMillis) {
+            long bucket = timeMillis / BUCKET_MILLIS;
+            advance(bucket);
+            if (bucket <= newestBucket - BUCKETS) {
+                return;
+            }
+            ring[(int) (bucket % BUCKETS)].add(postId, 1);
+            total.add(postId, 1);
+
+            int likes = total.estimate(postId);
+            Candidate candidate = candidates.get(postId);
+            if (candidate != null) {
+                heap.remove(candidate);
+                candidate.likes = likes;
+                heap.add(candidate);
+            } else if (heap.size() < CAPACITY || likes > heap.peek().likes) {
+                if (heap.size() >= CAPACITY) {
+                    candidates.remove(heap.poll().postId);
+                }
+                candidate = new Candidate(postId, platformId, likes);
+                candidates.put(postId, candidate);
+                heap.add(candidate);
+            }
+        }
+
+        synchronized List<RisingPost> top(int k, long now) {
+            advance(now / BUCKET_MILLIS);
+            List<Candidate> sorted = new ArrayList<>(heap);
+            sorted.sort(Comparator.comparingInt((Candidate candidate) -> candidate.likes).reversed());
+            List<RisingPost> top = new ArrayList<>(k);
+            for (Candidate candidate : sorted) {
+                if (top.size() >= k || candidate.likes <= 0) {
+                    break;
+                }
+                top.add(new RisingPost(candidate.postId, candidate.platformId, candidate.likes));
+            }
+            return top;
+        }
+
+        /**
+         * Move the window forward, dropping buckets that fall out of it and
+         * re-estimating the candidates once their counts have shrunk
+         */
+        private void advance(long bucket) {
+            if (bucket <= newestBucket) {
+                return;
+            }
+            long steps = Math.min(bucket - newestBucket, BUCKETS);
+            for (long i = 0; i < steps; i++) {
+                CountMinSketch expired = ring[(int) ((bucket - i) % BUCKETS)];
+                total.subtract(expired);
+                expired.clear();
+            }
+            newestBucket = bucket;
+
+            List<Candidate> all = new ArrayList<>(heap);
+            heap.clear();
+            for (Candidate candidate : all) {
+                candidate.likes = total.estimate(candidate.postId);
+                heap.add(candidate);
+            }
+        }
+    }
+
+    private static class Candidate {
+        private final int postId;
+        private final int platformId;
+        private int likes;
+
+        Candidate(int postId, int platformId, int likes) {
+            this.postId = postId;
+            this.platformId = platformId;
+            this.likes = likes;
+        }
+    }
+}
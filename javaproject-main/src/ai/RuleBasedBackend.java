@@ -0,0 +1,67 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * The built-in backend: the rules of {@link AIAssistant}, run on a background
+ * executor. Responses are produced whole, so they arrive as a single piece.
+ */
+public class RuleBasedBackend implements AIBackend {
+    private final Executor executor;
+
+    /**
+     * @param executor Where the rules run
+     */
+    public RuleBasedBackend(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<String> complete(AIRequest request, Consumer<String> onPartial) {
+        return CompletableFuture.supplyAsync(() -> {
+            String response = respond(request);
+            onPartial.accept(response);
+            return response;
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<String>> completeBatch(List<AIRequest> requests) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<String> responses = new ArrayList<>(requests.size());
+            for (AIRequest request : requests) {
+                responses.add(respond(request));
+            }
+            return responses;
+        }, executor);
+    }
+
+    @Override
+    public String getName() {
+        return "rule-based";
+    }
+
+    /**
+     * Answer a request synchronously
+     * @param request The request
+     * @return The response
+     */
+    public static String respond(AIRequest request) {
+        switch (request.getKind()) {
+            case POST_SUGGESTION:
+                return AIAssistant.getPostSuggestion(request.getUserId());
+            case COMMENT_SUGGESTION:
+                if (request.getFeatures() != null) {
+                    return AIAssistant.getContextAwareCommentSuggestion(request.getFeatures());
+                }
+                return request.getPrompt().isBlank() ? AIAssistant.getCommentSuggestion()
+                        : AIAssistant.getContextAwareCommentSuggestion(request.getPrompt());
+            default:
+                return AIAssistant.processQuery(request.getPrompt(), request.getUserId());
+        }
+    }
+}
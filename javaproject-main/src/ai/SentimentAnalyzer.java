@@ -0,0 +1,300 @@
+package ai;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Singleton lexicon-based sentiment scorer. All lexicon terms, negators and
+ * intensifiers are compiled into one {@link AhoCorasick} automaton, so a text
+ * is scored in a single pass whatever the size of the lexicon.
+ *
+ * Matches only count on word boundaries, and where matches overlap the
+ * longest one wins, so the phrase "not bad" beats the negator "not" followed
+ * by "bad". A negator flips and dampens the terms in the next few words, up
+ * to the end of the clause; an intensifier strengthens the word after it.
+ */
+public class SentimentAnalyzer {
+    private static final Logger LOGGER = Logger.getLogger(SentimentAnalyzer.class.getName());
+    private static final String LEXICON_RESOURCE = "sentiment_lexicon.tsv";
+
+    static final double LABEL_THRESHOLD = 0.05;
+    // Normalization constant: a sum of about 4 maps to a compound of 0.7
+    private static final double NORMALIZATION_ALPHA = 15;
+    private static final double NEGATION_FACTOR = -0.75;
+    private static final int NEGATION_SCOPE_WORDS = 3;
+    private static final double INTENSIFIER_FACTOR = 1.3;
+    // Texts per fork/join leaf task
+    private static final int BATCH_THRESHOLD = 256;
+
+    private static final List<String> NEGATORS = List.of(
+            "not", "no", "never", "none", "nobody", "nothing", "neither", "nor", "cannot", "without",
+            "hardly", "barely", "n't", "n\u2019t", "dont", "cant", "wont", "isnt", "doesnt", "didnt", "wasnt");
+    private static final Set<String> CONTRACTION_SUFFIXES = Set.of("n't", "n\u2019t");
+    private static final List<String> INTENSIFIERS = List.of(
+            "very", "really", "so", "extremely", "super", "incredibly", "absolutely", "totally", "truly", "highly");
+
+    private static final byte TERM = 0;
+    private static final byte NEGATOR = 1;
+    private static final byte INTENSIFIER = 2;
+
+    private static SentimentAnalyzer instance;
+    private final AhoCorasick automaton;
+    private final double[] weights;
+    private final byte[] kinds;
+    private final boolean[] matchesInsideWord;
+
+    private SentimentAnalyzer() {
+        List<String> patterns = new ArrayList<>();
+        List<Double> termWeights = new ArrayList<>();
+        loadLexicon(patterns, termWeights);
+
+        int termCount = patterns.size();
+        patterns.addAll(NEGATORS);
+        patterns.addAll(INTENSIFIERS);
+
+        weights = new double[patterns.size()];
+        kinds = new byte[patterns.size()];
+        matchesInsideWord = new boolean[patterns.size()];
+        for (int i = 0; i < patterns.size(); i++) {
+            if (i < termCount) {
+                weights[i] = termWeights.get(i);
+                kinds[i] = TERM;
+            } else {
+                kinds[i] = i < termCount + NEGATORS.size() ? NEGATOR : INTENSIFIER;
+            }
+            // The contraction suffix "n't" attaches to the word before it
+            matchesInsideWord[i] = kinds[i] == NEGATOR && CONTRACTION_SUFFIXES.contains(patterns.get(i));
+        }
+        automaton = new AhoCorasick(patterns);
+        LOGGER.log(Level.FINE, "Sentiment lexicon loaded: " + termCount + " terms, " + automaton.getStateCount() + " states");
+    }
+
+    public static synchronized SentimentAnalyzer getInstance() {
+        if (instance == null) {
+            instance = new SentimentAnalyzer();
+        }
+        return instance;
+    }
+
+    /**
+     * Score a single text
+     * @param text The text to analyze
+     * @return The sentiment score
+     */
+    public SentimentScore analyze(String text) {
+        if (text == null || text.isEmpty()) {
+            return new SentimentScore(0, 0, 0);
+        }
+
+        Matches matches = new Matches();
+        automaton.search(text, (pattern, start, end) -> {
+            if (isBoundary(text, start, end, matchesInsideWord[pattern])) {
+                matches.add(pattern, start, end);
+            }
+        });
+        matches.sort();
+
+        double sum = 0;
+        int positive = 0;
+        int negative = 0;
+        int covered = 0;
+        int negatedUntil = -1;
+        int intensifiedUntil = -1;
+        for (int i = 0; i < matches.size; i++) {
+            int start = matches.start(i);
+            // Overlaps a longer or earlier match that was already taken
+            if (start < covered) {
+                continue;
+            }
+            int pattern = matches.pattern(i);
+            int end = start + matches.length(i);
+            covered = end;
+
+            if (kinds[pattern] == NEGATOR) {
+                negatedUntil = scopeEnd(text, end, NEGATION_SCOPE_WORDS);
+            } else if (kinds[pattern] == INTENSIFIER) {
+                intensifiedUntil = scopeEnd(text, end, 1);
+            } else {
+                double weight = weights[pattern];
+                if (start < intensifiedUntil) {
+                    weight *= INTENSIFIER_FACTOR;
+                }
+                if (start < negatedUntil) {
+                    weight *= NEGATION_FACTOR;
+                }
+                sum += weight;
+                if (weight > 0) positive++;
+                if (weight < 0) negative++;
+            }
+        }
+        double compound = sum / Math.sqrt(sum * sum + NORMALIZATION_ALPHA);
+        return new SentimentScore(compound, positive, negative);
+    }
+
+    /**
+     * Score many texts in parallel on the common fork/join pool
+     * @param texts The texts to analyze
+     * @return The scores, in the order of the texts
+     */
+    public SentimentScore[] analyzeAll(List<String> texts) {
+        SentimentScore[] scores = new SentimentScore[texts.size()];
+        ForkJoinPool.commonPool().invoke(new ScoreTask(texts, scores, 0, texts.size()));
+        return scores;
+    }
+
+    private static boolean isBoundary(String text, int start, int end, boolean insideWord) {
+        if (!insideWord && start > 0 && isWordChar(text.charAt(start - 1))) {
+            return false;
+        }
+        return end >= text.length() || !isWordChar(text.charAt(end));
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+
+    private static boolean isClauseBreak(char c) {
+        return c == '.' || c == ',' || c == '!' || c == '?' || c == ';' || c == ':' || c == '\n';
+    }
+
+    /**
+     * Find where a modifier's scope ends: after the given number of words, or
+     * at the first clause break, whichever comes first
+     */
+    private static int scopeEnd(String text, int from, int words) {
+        int seen = 0;
+        boolean inWord = false;
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isClauseBreak(c)) {
+                return i;
+            }
+            if (isWordChar(c)) {
+                inWord = true;
+            } else if (inWord) {
+                inWord = false;
+                if (++seen == words) {
+                    return i;
+                }
+            }
+        }
+        return text.length();
+    }
+
+    private void loadLexicon(List<String> terms, List<Double> termWeights) {
+        InputStream in = SentimentAnalyzer.class.getResourceAsStream(LEXICON_RESOURCE);
+        if (in == null) {
+            LOGGER.log(Level.WARNING, "Sentiment lexicon " + LEXICON_RESOURCE + " not found, using a minimal word list");
+            for (String word : List.of("great", "awesome", "fantastic", "excited", "happy")) {
+                terms.add(word);
+                termWeights.add(3.0);
+            }
+            for (String word : List.of("sad", "disappointed", "sorry", "bad", "terrible")) {
+                terms.add(word);
+                termWeights.add(-3.0);
+            }
+            return;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int tab = line.indexOf('\t');
+                try {
+                    String term = line.substring(0, tab).trim().toLowerCase();
+                    double weight = Double.parseDouble(line.substring(tab + 1).trim());
+                    if (!term.isEmpty()) {
+                        terms.add(term);
+                        termWeights.add(weight);
+                    }
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Skipping malformed sentiment lexicon line " + lineNumber + ": " + line);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Error reading sentiment lexicon", e);
+        }
+    }
+
+    /**
+     * Matches of one text packed into longs so that sorting orders them by
+     * start position, longest first: start in the high bits, then the
+     * inverted length, then the pattern index
+     */
+    private static class Matches {
+        private long[] packed = new long[16];
+        private int size;
+
+        void add(int pattern, int start, int end) {
+            if (size == packed.length) {
+                packed = Arrays.copyOf(packed, size * 2);
+            }
+            long invertedLength = 0xFFFF - Math.min(end - start, 0xFFFF);
+            packed[size++] = ((long) start << 40) | (invertedLength << 24) | pattern;
+        }
+
+        void sort() {
+            Arrays.sort(packed, 0, size);
+        }
+
+        int start(int i) {
+            return (int) (packed[i] >>> 40);
+        }
+
+        int length(int i) {
+            return 0xFFFF - (int) ((packed[i] >>> 24) & 0xFFFF);
+        }
+
+        int pattern(int i) {
+            return (int) (packed[i] & 0xFFFFFF);
+        }
+    }
+
+    /**
+     * Splits a batch in halves until it is small enough to score directly
+     */
+    private class ScoreTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> texts;
+        private final SentimentScore[] scores;
+        private final int from;
+        private final int to;
+
+        ScoreTask(List<String> texts, SentimentScore[] scores, int from, int to) {
+            this.texts = texts;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    scores[i] = analyze(texts.get(i));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ScoreTask(texts, scores, from, mid), new ScoreTask(texts, scores, mid, to));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ai;
+
+/**
+ * Result of scoring one text with the {@link SentimentAnalyzer}
+ */
+public class SentimentScore {
+    public static final String POSITIVE = "positive";
+    public static final String NEGATIVE = "negative";
+    public static final String NEUTRAL = "neutral";
+
+    private final double compound;
+    private final int positiveTerms;
+    private final int negativeTerms;
+
+    public SentimentScore(double compound, int positiveTerms, int negativeTerms) {
+        this.compound = compound;
+        this.positiveTerms = positiveTerms;
+        this.negativeTerms = negativeTerms;
+    }
+
+    /**
+     * @return Normalized score between -1 (very negative) and 1 (very positive)
+     */
+    public double getCompound() {
+        return compound;
+    }
+
+    /**
+     * @return Number of matched terms that counted positively, after negation
+     */
+    public int getPositiveTerms() {
+        return positiveTerms;
+    }
+
+    /**
+     * @return Number of matched terms that counted negatively, after negation
+     */
+    public int getNegativeTerms() {
+        return negativeTerms;
+    }
+
+    /**
+     * @return "positive", "negative", or "neutral"
+     */
+    public String getLabel() {
+        return labelFor(compound);
+    }
+
+    /**
+     * @param compound A compound score between -1 and 1
+     * @return "positive", "negative", or "neutral"
+     */
+    public static String labelFor(double compound) {
+        if (compound >= SentimentAnalyzer.LABEL_THRESHOLD) return POSITIVE;
+        if (compound <= -SentimentAnalyzer.LABEL_THRESHOLD) return NEGATIVE;
+        return NEUTRAL;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%.2f)", getLabel(), compound);
+    }
+}
@@ -0,0 +1,528 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Singleton in-memory TF-IDF index over all posts, answering "posts like
+ * this one" queries. Weighting follows the lnc.ltc scheme: a post's vector
+ * holds its log term frequencies, cosine-normalized, and the IDF is applied
+ * to the query side only. Stored weights therefore never change as the
+ * collection grows, so posts are indexed one at a time as they are written.
+ *
+ * Each term has an inverted list of (slot, weight) pairs in primitive
+ * arrays, sorted by slot because slots are handed out in increasing order.
+ * Top-K queries prune with upper bounds in the MaxScore variant of WAND:
+ * every list knows its largest weight, so once the K-th best score exceeds
+ * what the weakest lists could add together, those lists stop driving the
+ * scan and are only probed, by skipping ahead, for posts the other lists
+ * found. The weakest lists belong to the commonest terms, which are also the
+ * longest, so most of their postings are never read.
+ *
+ * Updating a post gives it a new slot and leaves a tombstone in the old one;
+ * the lists are compacted once a fifth of the slots are dead.
+ */
+public class SimilarityIndex {
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final double COMPACT_DEAD_FRACTION = 0.2;
+    private static final int COMPACT_MIN_DEAD = 1024;
+    private static final int NO_POST = -1;
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "an", "the", "and", "or", "but", "if", "of", "to", "in", "on", "at", "by", "for", "with",
+            "about", "from", "as", "into", "up", "out", "over", "so", "than", "too", "very", "just",
+            "is", "am", "are", "was", "were", "be", "been", "being", "do", "does", "did", "have", "has", "had",
+            "i", "me", "my", "we", "our", "you", "your", "he", "she", "it", "its", "they", "them", "their",
+            "this", "that", "these", "those", "what", "which", "who", "whom", "there", "here",
+            "can", "will", "would", "should", "could", "not", "no", "all", "any", "some", "im", "ive");
+
+    /**
+     * A post similar to the query
+     */
+    public static class Match {
+        private final int postId;
+        private final int platformId;
+        private final int likes;
+        private final double similarity;
+
+        public Match(int postId, int platformId, int likes, double similarity) {
+            this.postId = postId;
+            this.platformId = platformId;
+            this.likes = likes;
+            this.similarity = similarity;
+        }
+
+        public int getPostId() {
+            return postId;
+        }
+
+        public int getPlatformId() {
+            return platformId;
+        }
+
+        /**
+         * @return The post's likes as last indexed
+         */
+        public int getLikes() {
+            return likes;
+        }
+
+        /**
+         * @return Cosine similarity to the query, between 0 and 1
+         */
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+
+    private static SimilarityIndex instance;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock. Terms and their inverted lists.
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private int[][] postingSlots = new int[1024][];
+    private float[][] postingWeights = new float[1024][];
+    private int[] postingSizes = new int[1024];
+    private float[] maxWeights = new float[1024];
+
+    // Guarded by lock. Per-slot post data; a dead slot has NO_POST as post ID.
+    private int[] slotPostIds = new int[1024];
+    private int[] slotPlatformIds = new int[1024];
+    private int[] slotLikes = new int[1024];
+    private long[] slotHashes = new long[1024];
+    private int slotCount;
+    private int liveCount;
+    private long totalLikes;
+    // Post ID to slot + 1
+    private LongIntHashMap postSlots = new LongIntHashMap(1024);
+
+    private SimilarityIndex() {
+    }
+
+    public static synchronized SimilarityIndex getInstance() {
+        if (instance == null) {
+            instance = new SimilarityIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Add or replace a post. A post whose content is unchanged only has its
+     * likes updated.
+     * @param postId The post ID
+     * @param platformId The post's platform
+     * @param content The post content
+     * @param likes The post's likes
+     */
+    public void index(int postId, int platformId, String content, int likes) {
+        index(postId, platformId, content, likes, true);
+    }
+
+    /**
+     * Add a post unless it is already indexed, e.g. while loading posts that
+     * may have been indexed since with newer content
+     * @param postId The post ID
+     * @param platformId The post's platform
+     * @param content The post content
+     * @param likes The post's likes
+     */
+    public void indexIfAbsent(int postId, int platformId, String content, int likes) {
+        index(postId, platformId, content, likes, false);
+    }
+
+    private void index(int postId, int platformId, String content, int likes, boolean replace) {
+        long hash = TextFeatures.contentHash(content);
+        // Tokenize outside the lock
+        Map<String, Integer> termCounts = countTerms(content);
+
+        lock.writeLock().lock();
+        try {
+            int existing = postSlots.get(postId) - 1;
+            if (existing >= 0) {
+                if (!replace) {
+                    return;
+                }
+                totalLikes += likes - slotLikes[existing];
+                slotLikes[existing] = likes;
+                slotPlatformIds[existing] = platformId;
+                if (slotHashes[existing] == hash) {
+                    return;
+                }
+                kill(existing);
+            }
+
+            int slot = newSlot(postId, platformId, likes, hash);
+            double norm = 0;
+            for (int count : termCounts.values()) {
+                double weight = 1 + Math.log(count);
+                norm += weight * weight;
+            }
+            norm = Math.sqrt(norm);
+            for (Map.Entry<String, Integer> entry : termCounts.entrySet()) {
+                addPosting(termId(entry.getKey()), slot, (float) ((1 + Math.log(entry.getValue())) / norm));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Update the likes of an indexed post, e.g. after a recount, without
+     * indexing its content again
+     * @param postId The post ID
+     * @param likes The post's likes
+     */
+    public void updateLikes(int postId, int likes) {
+        lock.writeLock().lock();
+        try {
+            int slot = postSlots.get(postId) - 1;
+            if (slot >= 0) {
+                totalLikes += likes - slotLikes[slot];
+                slotLikes[slot] = likes;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a post
+     * @param postId The post ID
+     */
+    public void remove(int postId) {
+        lock.writeLock().lock();
+        try {
+            int slot = postSlots.get(postId) - 1;
+            if (slot >= 0) {
+                kill(slot);
+                postSlots.put(postId, 0);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the posts most similar to a text
+     * @param text The text, e.g. a draft post
+     * @param k Maximum number of posts to return
+     * @param minLikes Only posts with at least this many likes
+     * @param excludePostId A post to leave out, e.g. the one being edited, or -1
+     * @return The matching posts, most similar first
+     */
+    public List<Match> findSimilar(String text, int k, int minLikes, int excludePostId) {
+        Map<String, Integer> termCounts = countTerms(text);
+        List<Match> matches = new ArrayList<>();
+        if (termCounts.isEmpty() || k <= 0) {
+            return matches;
+        }
+
+        lock.readLock().lock();
+        try {
+            // Query weights: log term frequency times IDF, cosine-normalized
+            List<Cursor> cursors = new ArrayList<>();
+            double norm = 0;
+            for (Map.Entry<String, Integer> entry : termCounts.entrySet()) {
+                Integer term = termIds.get(entry.getKey());
+                if (term == null || postingSizes[term] == 0) {
+                    continue;
+                }
+                double idf = Math.log((double) (liveCount + 1) / postingSizes[term]) + 1;
+                double weight = (1 + Math.log(entry.getValue())) * idf;
+                norm += weight * weight;
+                cursors.add(new Cursor(term, weight));
+            }
+            for (Cursor cursor : cursors) {
+                cursor.queryWeight /= Math.sqrt(norm);
+                cursor.upperBound = cursor.queryWeight * maxWeights[cursor.term];
+            }
+
+            // Weakest lists first; bounds[i] is what lists 0..i can add together
+            cursors.sort(Comparator.comparingDouble(cursor -> cursor.upperBound));
+            Cursor[] lists = cursors.toArray(new Cursor[0]);
+            double[] bounds = new double[lists.length];
+            double cumulative = 0;
+            for (int i = 0; i < lists.length; i++) {
+                cumulative += lists[i].upperBound;
+                bounds[i] = cumulative;
+            }
+
+            PriorityQueue<double[]> heap = new PriorityQueue<>(k + 1, (a, b) -> Double.compare(a[0], b[0]));
+            double threshold = 0;
+            // Lists before this one cannot reach the threshold on their own
+            int firstEssential = 0;
+            while (firstEssential < lists.length) {
+                // The next candidate is the lowest slot on an essential list
+                int slot = Integer.MAX_VALUE;
+                for (int i = firstEssential; i < lists.length; i++) {
+                    slot = Math.min(slot, lists[i].slot());
+                }
+                if (slot == Integer.MAX_VALUE) {
+                    break;
+                }
+
+                double score = 0;
+                for (int i = firstEssential; i < lists.length; i++) {
+                    Cursor list = lists[i];
+                    if (list.slot() == slot) {
+                        score += list.queryWeight * list.weight();
+                        list.position++;
+                    }
+                }
+                int postId = slotPostIds[slot];
+                if (postId == NO_POST || postId == excludePostId || slotLikes[slot] < minLikes) {
+                    continue;
+                }
+                // Probe the weak lists, strongest first, while the post can still make it
+                for (int i = firstEssential - 1; i >= 0 && score + bounds[i] > threshold; i--) {
+                    Cursor list = lists[i];
+                    list.advanceTo(slot);
+                    if (list.slot() == slot) {
+                        score += list.queryWeight * list.weight();
+                    }
+                }
+
+                if (heap.size() < k || score > threshold) {
+                    heap.add(new double[]{score, slot});
+                    if (heap.size() > k) {
+                        heap.poll();
+                    }
+                    if (heap.size() == k) {
+                        threshold = heap.peek()[0];
+                        while (firstEssential < lists.length && bounds[firstEssential] <= threshold) {
+                            firstEssential++;
+                        }
+                    }
+                }
+            }
+
+            while (!heap.isEmpty()) {
+                double[] entry = heap.poll();
+                int slot = (int) entry[1];
+                matches.add(new Match(slotPostIds[slot], slotPlatformIds[slot], slotLikes[slot], Math.min(1, entry[0])));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Collections.reverse(matches);
+        return matches;
+    }
+
+    /**
+     * @return Average likes of the indexed posts, a baseline for "well received"
+     */
+    public double getAverageLikes() {
+        lock.readLock().lock();
+        try {
+            return liveCount == 0 ? 0 : (double) totalLikes / liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of indexed posts
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Split a text into index terms: lowercase words of two or more letters
+     * or digits, without stopwords. Hashtags count as their word.
+     */
+    static Map<String, Integer> countTerms(String text) {
+        Map<String, Integer> counts = new HashMap<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (c == '\'' || c == '’') {
+                // Part of a contraction: "don't" is indexed as "dont"
+                continue;
+            } else if (start >= 0) {
+                String term = text.substring(start, i).replace("'", "").replace("’", "").toLowerCase(Locale.ROOT);
+                if (term.length() >= MIN_TERM_LENGTH && !STOPWORDS.contains(term)) {
+                    counts.merge(term, 1, Integer::sum);
+                }
+                start = -1;
+            }
+        }
+        return counts;
+    }
+
+    private int termId(String term) {
+        Integer id = termIds.get(term);
+        if (id != null) {
+            return id;
+        }
+        id = termIds.size();
+        if (id == postingSlots.length) {
+            int capacity = id * 2;
+            postingSlots = Arrays.copyOf(postingSlots, capacity);
+            postingWeights = Arrays.copyOf(postingWeights, capacity);
+            postingSizes = Arrays.copyOf(postingSizes, capacity);
+            maxWeights = Arrays.copyOf(maxWeights, capacity);
+        }
+        postingSlots[id] = new int[4];
+        postingWeights[id] = new float[4];
+        termIds.put(term, id);
+        return id;
+    }
+
+    private void addPosting(int term, int slot, float weight) {
+        int size = postingSizes[term];
+        if (size == postingSlots[term].length) {
+            postingSlots[term] = Arrays.copyOf(postingSlots[term], size * 2);
+            postingWeights[term] = Arrays.copyOf(postingWeights[term], size * 2);
+        }
+        postingSlots[term][size] = slot;
+        postingWeights[term][size] = weight;
+        postingSizes[term] = size + 1;
+        maxWeights[term] = Math.max(maxWeights[term], weight);
+    }
+
+    private int newSlot(int postId, int platformId, int likes, long hash) {
+        if (slotCount == slotPostIds.length) {
+            int capacity = slotCount * 2;
+            slotPostIds = Arrays.copyOf(slotPostIds, capacity);
+            slotPlatformIds = Arrays.copyOf(slotPlatformIds, capacity);
+            slotLikes = Arrays.copyOf(slotLikes, capacity);
+            slotHashes = Arrays.copyOf(slotHashes, capacity);
+        }
+        int slot = slotCount++;
+        slotPostIds[slot] = postId;
+        slotPlatformIds[slot] = platformId;
+        slotLikes[slot] = likes;
+        slotHashes[slot] = hash;
+        postSlots.put(postId, slot + 1);
+        liveCount++;
+        totalLikes += likes;
+        return slot;
+    }
+
+    /**
+     * Leave a tombstone in a slot, compacting once enough slots are dead
+     */
+    private void kill(int slot) {
+        slotPostIds[slot] = NO_POST;
+        liveCount--;
+        totalLikes -= slotLikes[slot];
+        int dead = slotCount - liveCount;
+        if (dead >= COMPACT_MIN_DEAD && dead > slotCount * COMPACT_DEAD_FRACTION) {
+            compact();
+        }
+    }
+
+    /**
+     * Renumber the live slots densely and drop dead ones from every list
+     */
+    private void compact() {
+        int[] newSlots = new int[slotCount];
+        int live = 0;
+        LongIntHashMap newPostSlots = new LongIntHashMap(liveCount);
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (slotPostIds[slot] == NO_POST) {
+                newSlots[slot] = -1;
+                continue;
+            }
+            newSlots[slot] = live;
+            slotPostIds[live] = slotPostIds[slot];
+            slotPlatformIds[live] = slotPlatformIds[slot];
+            slotLikes[live] = slotLikes[slot];
+            slotHashes[live] = slotHashes[slot];
+            newPostSlots.put(slotPostIds[live], live + 1);
+            live++;
+        }
+        slotCount = live;
+        postSlots = newPostSlots;
+
+        for (int term = 0; term < termIds.size(); term++) {
+            int[] slots = postingSlots[term];
+            float[] weights = postingWeights[term];
+            int size = 0;
+            float max = 0;
+            for (int i = 0; i < postingSizes[term]; i++) {
+                int slot = newSlots[slots[i]];
+                if (slot >= 0) {
+                    slots[size] = slot;
+                    weights[size] = weights[i];
+                    max = Math.max(max, weights[i]);
+                    size++;
+                }
+            }
+            postingSizes[term] = size;
+            maxWeights[term] = max;
+        }
+    }
+
+    /**
+     * Position in one query term's inverted list
+     */
+    private class Cursor {
+        private final int term;
+        private final int[] slots;
+        private final float[] weights;
+        private final int size;
+        private int position;
+        private double queryWeight;
+        private double upperBound;
+
+        Cursor(int term, double queryWeight) {
+            this.term = term;
+            this.slots = postingSlots[term];
+            this.weights = postingWeights[term];
+            this.size = postingSizes[term];
+            this.queryWeight = queryWeight;
+        }
+
+        int slot() {
+            return position < size ? slots[position] : Integer.MAX_VALUE;
+        }
+
+        float weight() {
+            return weights[position];
+        }
+
+        /**
+         * Move to the first posting at or after a slot, galloping then
+         * binary searching so long skips stay logarithmic
+         */
+        void advanceTo(int target) {
+            int step = 1;
+            int low = position;
+            int high = position;
+            while (high < size && slots[high] < target) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, size);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (slots[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            position = low;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package ai;
+
+import model.PostFeatures;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Derives the stored text features of a post: sentiment, hashtags, a rough
+ * language guess and a length class. Everything here is a pure function of
+ * the content, which is what allows the results to be keyed by content hash.
+ */
+public class TextFeatures {
+    private static final int SHORT_LIMIT = 80;
+    private static final int MEDIUM_LIMIT = 280;
+    // A language needs at least this many stopword hits to be reported
+    private static final int MIN_LANGUAGE_HITS = 2;
+
+    // Function words that are frequent in one language and rare in the others
+    private static final Map<String, Set<String>> STOPWORDS = Map.of(
+            "en", Set.of("the", "and", "is", "are", "to", "of", "it", "my", "you", "for", "this", "that", "with", "just", "have", "what", "i", "was", "be"),
+            "es", Set.of("el", "los", "las", "que", "y", "es", "por", "con", "una", "muy", "pero", "mi", "del", "esta", "hoy"),
+            "fr", Set.of("le", "les", "et", "est", "des", "une", "pour", "avec", "dans", "je", "pas", "mon", "ce", "sur", "du"),
+            "de", Set.of("der", "die", "das", "und", "ist", "nicht", "ein", "eine", "ich", "mit", "auf", "mein", "sehr", "zu", "den"),
+            "pt", Set.of("os", "uma", "com", "meu", "muito", "nao", "n\u00e3o", "mas", "do", "da", "em", "voc\u00ea", "isso", "hoje"));
+
+    private TextFeatures() {
+    }
+
+    /**
+     * Compute the features of a post's content
+     * @param postId The post ID
+     * @param content The post content
+     * @return The features
+     */
+    public static PostFeatures extract(int postId, String content) {
+        return new PostFeatures(postId,
+                contentHash(content),
+                SentimentAnalyzer.getInstance().analyze(content).getCompound(),
+                extractHashtags(content),
+                detectLanguage(content),
+                lengthClass(content));
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the content, used to detect edited posts
+     * @param content The post content
+     * @return The hash
+     */
+    public static long contentHash(String content) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < content.length(); i++) {
+            hash ^= content.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * @param content The post content
+     * @return Distinct lowercase hashtags without the '#', in order of appearance
+     */
+    public static List<String> extractHashtags(String content) {
+        Set<String> tags = new LinkedHashSet<>();
+        int i = 0;
+        while (i < content.length()) {
+            if (content.charAt(i) == '#' && (i == 0 || !Character.isLetterOrDigit(content.charAt(i - 1)))
+                    && i + 1 < content.length() && Character.isLetterOrDigit(content.charAt(i + 1))) {
+                int end = i + 1;
+                while (end < content.length() && (Character.isLetterOrDigit(content.charAt(end)) || content.charAt(end) == '_')) {
+                    end++;
+                }
+                tags.add(content.substring(i + 1, end).toLowerCase());
+                i = end;
+            } else {
+                i++;
+            }
+        }
+        return new ArrayList<>(tags);
+    }
+
+    /**
+     * Guess the language by counting common function words
+     * @param content The post content
+     * @return ISO 639-1 code, or "und" if no language stands out
+     */
+    public static String detectLanguage(String content) {
+        Map<String, Integer> hits = new HashMap<>();
+        for (String word : content.toLowerCase().split("[^\\p{L}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            for (Map.Entry<String, Set<String>> entry : STOPWORDS.entrySet()) {
+                if (entry.getValue().contains(word)) {
+                    hits.merge(entry.getKey(), 1, Integer::sum);
+                }
+            }
+        }
+
+        String best = "und";
+        int bestHits = 0;
+        for (Map.Entry<String, Integer> entry : hits.entrySet()) {
+            if (entry.getValue() < MIN_LANGUAGE_HITS) {
+                continue;
+            }
+            // Ties go to the alphabetically first code so the result is stable
+            if (entry.getValue() > bestHits || (entry.getValue() == bestHits && entry.getKey().compareTo(best) < 0)) {
+                best = entry.getKey();
+                bestHits = entry.getValue();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param content The post content
+     * @return {@link PostFeatures#SHORT}, {@link PostFeatures#MEDIUM} or {@link PostFeatures#LONG}
+     */
+    public static String lengthClass(String content) {
+        if (content.length() < SHORT_LIMIT) return PostFeatures.SHORT;
+        if (content.length() < MEDIUM_LIMIT) return PostFeatures.MEDIUM;
+        return PostFeatures.LONG;
+    }
+}
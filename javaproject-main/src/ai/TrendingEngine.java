@@ -0,0 +1,279 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Singleton in-memory hashtag trend counter. Every hashtag of every platform
+ * keeps one ring of time buckets per {@link Window}; recording a post bumps
+ * the current bucket of each ring, and buckets that fall out of the window
+ * are overwritten as the ring moves on. A trend's score is the sum of its
+ * buckets with exponential decay by bucket age, so recent mentions count
+ * more than old ones within the same window.
+ *
+ * Queries keep only the best K hashtags in a min-heap, so serving a top list
+ * costs one pass over a platform's hashtags. Counts are kept per platform and
+ * for {@link #ALL_PLATFORMS}; only creation is counted, edits and deletes are
+ * not.
+ */
+public class TrendingEngine {
+    /**
+     * Platform ID under which hashtags of all platforms are counted together
+     */
+    public static final int ALL_PLATFORMS = 0;
+
+    // Posts recorded recently, so the same post is not counted twice when it
+    // arrives both from the local write path and from the change feed
+    private static final int SEEN_CAPACITY = 50_000;
+
+    /**
+     * The supported trend windows. The decay half-life is a quarter of the
+     * window, so the oldest bucket weighs about a sixteenth of the newest.
+     */
+    public enum Window {
+        HOUR("the last hour", 5 * 60_000L, 12),
+        DAY("the last 24 hours", 60 * 60_000L, 24),
+        WEEK("the last 7 days", 6 * 60 * 60_000L, 28);
+
+        private final String description;
+        private final long bucketMillis;
+        private final int buckets;
+        private final double halfLifeMillis;
+
+        Window(String description, long bucketMillis, int buckets) {
+            this.description = description;
+            this.bucketMillis = bucketMillis;
+            this.buckets = buckets;
+            this.halfLifeMillis = bucketMillis * buckets / 4.0;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public long getLengthMillis() {
+            return bucketMillis * buckets;
+        }
+    }
+
+    /**
+     * A hashtag's position in a trend list
+     */
+    public static class Trend {
+        private final String hashtag;
+        private final double score;
+        private final int mentions;
+
+        public Trend(String hashtag, double score, int mentions) {
+            this.hashtag = hashtag;
+            this.score = score;
+            this.mentions = mentions;
+        }
+
+        public String getHashtag() {
+            return hashtag;
+        }
+
+        /**
+         * @return Decayed mention count, used for ranking
+         */
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * @return Undecayed number of mentions within the window
+         */
+        public int getMentions() {
+            return mentions;
+        }
+    }
+
+    private static TrendingEngine instance;
+    private final Map<Integer, Map<String, TagCounts>> platforms = new ConcurrentHashMap<>();
+    private final Set<Integer> seenPostIds = Collections.newSetFromMap(new LinkedHashMap<Integer, Boolean>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Boolean> eldest) {
+            return size() > SEEN_CAPACITY;
+        }
+    });
+
+    private TrendingEngine() {
+    }
+
+    public static synchronized TrendingEngine getInstance() {
+        if (instance == null) {
+            instance = new TrendingEngine();
+        }
+        return instance;
+    }
+
+    /**
+     * Count the hashtags of a post. A post that was already recorded is ignored.
+     * @param postId The post ID
+     * @param platformId The post's platform
+     * @param hashtags The post's hashtags, lowercase and without '#'
+     * @param timeMillis When the post was created
+     */
+    public void record(int postId, int platformId, List<String> hashtags, long timeMillis) {
+        if (hashtags.isEmpty()) {
+            return;
+        }
+        synchronized (seenPostIds) {
+            if (!seenPostIds.add(postId)) {
+                return;
+            }
+        }
+        add(platformId, hashtags, timeMillis);
+        add(ALL_PLATFORMS, hashtags, timeMillis);
+    }
+
+    /**
+     * Get the top hashtags of a platform as of now
+     * @param platformId The platform ID, or {@link #ALL_PLATFORMS}
+     * @param window The time window
+     * @param k Maximum number of hashtags to return
+     * @return The trends, best first
+     */
+    public List<Trend> getTopHashtags(int platformId, Window window, int k) {
+        return getTopHashtags(platformId, window, k, System.currentTimeMillis());
+    }
+
+    /**
+     * Get the top hashtags of a platform as of a given time
+     * @param platformId The platform ID, or {@link #ALL_PLATFORMS}
+     * @param window The time window
+     * @param k Maximum number of hashtags to return
+     * @param now The reference time
+     * @return The trends, best first
+     */
+    public List<Trend> getTopHashtags(int platformId, Window window, int k, long now) {
+        Map<String, TagCounts> tags = platforms.get(platformId);
+        if (tags == null || k <= 0) {
+            return new ArrayList<>();
+        }
+
+        // Decay weight of each bucket by its age, newest first
+        long nowBucket = now / window.bucketMillis;
+        double[] weights = new double[window.buckets];
+        for (int age = 0; age < window.buckets; age++) {
+            double ageMillis = Math.max(0, now - ((nowBucket - age) * window.bucketMillis + window.bucketMillis / 2.0));
+            weights[age] = Math.pow(0.5, ageMillis / window.halfLifeMillis);
+        }
+
+        PriorityQueue<Trend> heap = new PriorityQueue<>(k + 1, Comparator.comparingDouble(Trend::getScore));
+        synchronized (tags) {
+            Iterator<Map.Entry<String, TagCounts>> iterator = tags.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, TagCounts> entry = iterator.next();
+                TagCounts counts = entry.getValue();
+                // Nothing left even in the longest window: drop the hashtag
+                if (counts.isExpired(Window.WEEK, now / Window.WEEK.bucketMillis)) {
+                    iterator.remove();
+                    continue;
+                }
+
+                // The ring holds buckets newest - buckets + 1 .. newest; with
+                // lag = nowBucket - newest, the newest one is lag buckets old
+                long lag = nowBucket - counts.newestBuckets[window.ordinal()];
+                if (lag >= window.buckets) {
+                    continue;
+                }
+                int[] ring = counts.rings[window.ordinal()];
+                int slot = (int) (counts.newestBuckets[window.ordinal()] % window.buckets);
+                double score = 0;
+                int mentions = 0;
+                for (long age = lag; age < window.buckets; age++) {
+                    // Buckets ahead of now (clock skew) are not counted yet
+                    if (age >= 0) {
+                        int count = ring[slot];
+                        score += count * weights[(int) age];
+                        mentions += count;
+                    }
+                    slot = slot == 0 ? window.buckets - 1 : slot - 1;
+                }
+                if (mentions == 0) {
+                    continue;
+                }
+                if (heap.size() < k) {
+                    heap.add(new Trend(entry.getKey(), score, mentions));
+                } else if (score > heap.peek().getScore()) {
+                    heap.poll();
+                    heap.add(new Trend(entry.getKey(), score, mentions));
+                }
+            }
+        }
+
+        List<Trend> top = new ArrayList<>(heap);
+        top.sort(Comparator.comparingDouble(Trend::getScore).reversed());
+        return top;
+    }
+
+    /**
+     * Forget everything, e.g. before rebuilding from the database
+     */
+    public void clear() {
+        platforms.clear();
+        synchronized (seenPostIds) {
+            seenPostIds.clear();
+        }
+    }
+
+    private void add(int platformId, List<String> hashtags, long timeMillis) {
+        Map<String, TagCounts> tags = platforms.computeIfAbsent(platformId, id -> new HashMap<>());
+        synchronized (tags) {
+            for (String hashtag : hashtags) {
+                tags.computeIfAbsent(hashtag, tag -> new TagCounts()).add(timeMillis);
+            }
+        }
+    }
+
+    /**
+     * Bucket rings of one hashtag on one platform, one ring per window
+     */
+    private static class TagCounts {
+        private final int[][] rings = new int[Window.values().length][];
+        // Absolute index of the newest bucket each ring holds
+        private final long[] newestBuckets = new long[Window.values().length];
+
+        TagCounts() {
+            for (Window window : Window.values()) {
+                rings[window.ordinal()] = new int[window.buckets];
+                newestBuckets[window.ordinal()] = Long.MIN_VALUE / 2;
+            }
+        }
+
+        void add(long timeMillis) {
+            for (Window window : Window.values()) {
+                int[] ring = rings[window.ordinal()];
+                long newest = newestBuckets[window.ordinal()];
+                long bucket = timeMillis / window.bucketMillis;
+                if (bucket > newest) {
+                    // Clear the slots the ring moves over, at most one full turn
+                    long steps = Math.min(bucket - newest, window.buckets);
+                    for (long i = 0; i < steps; i++) {
+                        ring[(int) ((bucket - i) % window.buckets)] = 0;
+                    }
+                    newestBuckets[window.ordinal()] = bucket;
+                } else if (bucket <= newest - window.buckets) {
+                    // Older than the window, already out of every ring slot
+                    continue;
+                }
+                ring[(int) (bucket % window.buckets)]++;
+            }
+        }
+
+        boolean isExpired(Window window, long nowBucket) {
+            return newestBuckets[window.ordinal()] <= nowBucket - window.buckets;
+        }
+    }
+}
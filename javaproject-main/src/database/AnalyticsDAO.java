@@ -0,0 +1,95 @@
+package database;
+
+import model.UserAnalytics;
+
+import java.sql.*;
+
+/**
+ * Aggregate queries backing the analytics tab. Every statement is registered
+ * with the caller's {@link QueryCanceller} so a superseded load can be aborted.
+ */
+public class AnalyticsDAO {
+    private Connection getConnection() throws SQLException {
+        return DatabaseConnector.getConnection();
+    }
+
+    /**
+     * Load the analytics for a user
+     * @param userId The user ID
+     * @param activitySince Start of the activity series, or null for the full history
+     * @param canceller Handle used to cancel the running query
+     * @return The aggregated analytics
+     * @throws SQLException If a database error occurs or the load was cancelled
+     */
+    public UserAnalytics getUserAnalytics(int userId, Date activitySince, QueryCanceller canceller) throws SQLException {
+        UserAnalytics analytics = new UserAnalytics(userId);
+
+        try (Connection conn = getConnection()) {
+            loadTotals(conn, analytics, canceller);
+            loadPostsByPlatform(conn, analytics, canceller);
+            loadDailyPostCounts(conn, analytics, activitySince, canceller);
+        }
+
+        return analytics;
+    }
+
+    private void loadTotals(Connection conn, UserAnalytics analytics, QueryCanceller canceller) throws SQLException {
+        String sql = "SELECT COUNT(*), COALESCE(SUM(likes), 0), " +
+                "(SELECT COUNT(*) FROM comments c JOIN posts p ON c.post_id = p.id WHERE p.user_id = ?) " +
+                "FROM posts WHERE user_id = ?";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, analytics.getUserId());
+            pstmt.setInt(2, analytics.getUserId());
+            canceller.track(pstmt);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    analytics.setTotalPosts(rs.getInt(1));
+                    analytics.setTotalLikes(rs.getInt(2));
+                    analytics.setTotalComments(rs.getInt(3));
+                }
+            } finally {
+                canceller.release(pstmt);
+            }
+        }
+    }
+
+    private void loadPostsByPlatform(Connection conn, UserAnalytics analytics, QueryCanceller canceller) throws SQLException {
+        String sql = "SELECT sp.name, COUNT(p.id) FROM social_media_platforms sp " +
+                "LEFT JOIN posts p ON p.platform_id = sp.id AND p.user_id = ? " +
+                "GROUP BY sp.name ORDER BY sp.name";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, analytics.getUserId());
+            canceller.track(pstmt);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    analytics.getPostsByPlatform().put(rs.getString(1), rs.getInt(2));
+                }
+            } finally {
+                canceller.release(pstmt);
+            }
+        }
+    }
+
+    private void loadDailyPostCounts(Connection conn, UserAnalytics analytics, Date since, QueryCanceller canceller) throws SQLException {
+        String sql = "SELECT CAST(post_date AS DATE) AS day, COUNT(*) FROM posts " +
+                "WHERE user_id = ?" + (since != null ? " AND post_date >= ?" : "") +
+                " GROUP BY day ORDER BY day";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, analytics.getUserId());
+            if (since != null) {
+                pstmt.setDate(2, since);
+            }
+            canceller.track(pstmt);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    analytics.getDailyPostCounts().put(new java.util.Date(rs.getDate(1).getTime()), rs.getInt(2));
+                }
+            } finally {
+                canceller.release(pstmt);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package database;
+
+/**
+ * A row change pushed by the database through LISTEN/NOTIFY, or a request to
+ * resynchronise after changes may have been missed
+ */
+public class ChangeEvent {
+    /**
+     * Where a change happened. POST_CONTENT repeats a posts update that
+     * changed the content, so listeners that only care about the text can
+     * skip like recounts and other updates.
+     */
+    public enum Table { POSTS, COMMENTS, LIKES, POST_CONTENT }
+
+    public enum Operation { INSERT, UPDATE, DELETE, RESYNC }
+
+    private final long sequence;
+    private final Table table;
+    private final Operation operation;
+    private final int id;
+    private final int parentId;
+    private final int userId;
+
+    /**
+     * @param sequence Position in the change feed sequence
+     * @param table The changed table, or null for a resync
+     * @param operation The kind of change
+     * @param id Row ID (post or comment ID; the post ID for likes)
+     * @param parentId Platform ID for posts, post content and likes, post ID for comments
+     * @param userId The user who owns the row
+     */
+    public ChangeEvent(long sequence, Table table, Operation operation, int id, int parentId, int userId) {
+        this.sequence = sequence;
+        this.table = table;
+        this.operation = operation;
+        this.id = id;
+        this.parentId = parentId;
+        this.userId = userId;
+    }
+
+    /**
+     * Create the event telling listeners to reload, because the feed was
+     * disconnected while changes were made
+     */
+    public static ChangeEvent resync(long sequence) {
+        return new ChangeEvent(sequence, null, Operation.RESYNC, 0, 0, 0);
+    }
+
+    /**
+     * Decode a NOTIFY payload of the form "seq|op|id|parent_id|user_id"
+     * @param table The table the channel belongs to
+     * @param payload The payload
+     * @return The decoded event
+     * @throws IllegalArgumentException If the payload is malformed
+     */
+    public static ChangeEvent decode(Table table, String payload) {
+        String[] parts = payload.split("\\|");
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("Malformed change payload: " + payload);
+        }
+        Operation operation;
+        switch (parts[1]) {
+            case "I":
+                operation = Operation.INSERT;
+                break;
+            case "U":
+                operation = Operation.UPDATE;
+                break;
+            case "D":
+                operation = Operation.DELETE;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown change operation: " + parts[1]);
+        }
+        return new ChangeEvent(Long.parseLong(parts[0]), table, operation,
+                Integer.parseInt(parts[2]), Integer.parseInt(parts[3]), Integer.parseInt(parts[4]));
+    }
+
+    // Getters
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Table getTable() {
+        return table;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getParentId() {
+        return parentId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent{" + sequence + " " + table + " " + operation + " id=" + id
+                + " parent=" + parentId + " user=" + userId + "}";
+    }
+}
@@ -0,0 +1,190 @@
+package database;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Singleton that listens for the NOTIFY payloads emitted by the change
+ * triggers on posts, comments and likes, and fans them out in-process.
+ * Runs on a dedicated connection and thread. After a lost connection it
+ * reconnects with backoff and, if changes committed while it was away or it
+ * was away longer than the change log is kept, sends listeners a
+ * {@link ChangeEvent.Operation#RESYNC} event.
+ */
+public class ChangeFeed {
+    private static final Logger LOGGER = Logger.getLogger(ChangeFeed.class.getName());
+    private static final int POLL_TIMEOUT_MS = 500;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private static ChangeFeed instance;
+    private final List<ChangeFeedListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile long lastSequence = -1;
+    private long disconnectedAt;
+    private Thread thread;
+
+    private ChangeFeed() {
+    }
+
+    public static synchronized ChangeFeed getInstance() {
+        if (instance == null) {
+            instance = new ChangeFeed();
+        }
+        return instance;
+    }
+
+    public void addListener(ChangeFeedListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ChangeFeedListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Start the listener thread if it is not running yet
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "change-feed-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Whether the listener is currently connected, i.e. whether pushed
+     * changes can be relied on to arrive
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Stop the listener thread
+     */
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private void run() {
+        long backoff = 1000;
+        boolean reconnecting = false;
+
+        while (running) {
+            try (Connection conn = DatabaseConnector.getConnection()) {
+                try (Statement stmt = conn.createStatement()) {
+                    for (ChangeEvent.Table table : ChangeEvent.Table.values()) {
+                        stmt.execute("LISTEN " + channelName(table));
+                    }
+                }
+                checkForGap(conn, reconnecting);
+                connected = true;
+                backoff = 1000;
+                reconnecting = true;
+
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification);
+                    }
+                }
+            } catch (SQLException e) {
+                if (connected) {
+                    disconnectedAt = System.currentTimeMillis();
+                }
+                connected = false;
+                if (!running) {
+                    break;
+                }
+                LOGGER.log(Level.WARNING, "Change feed connection lost, reconnecting in " + backoff + " ms", e);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+        connected = false;
+    }
+
+    /**
+     * Compare the latest committed change with the last one received. A
+     * newer one after a reconnect means notifications were sent while nobody
+     * listened. The sequence itself cannot tell: rolled back writes use up
+     * numbers without notifying.
+     */
+    private void checkForGap(Connection conn, boolean reconnecting) throws SQLException {
+        long current;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(seq), -1) FROM change_feed_log")) {
+            rs.next();
+            current = rs.getLong(1);
+        }
+        long retentionMillis = DatabaseConnector.CHANGE_LOG_RETENTION_HOURS * 3_600_000L;
+        if (reconnecting && (current > lastSequence
+                || System.currentTimeMillis() - disconnectedAt > retentionMillis)) {
+            LOGGER.log(Level.INFO, "Change feed missed events while disconnected, requesting resync");
+            fire(ChangeEvent.resync(current));
+        }
+        lastSequence = Math.max(lastSequence, current);
+    }
+
+    private void handle(PGNotification notification) {
+        ChangeEvent.Table table = tableForChannel(notification.getName());
+        if (table == null) {
+            return;
+        }
+        try {
+            ChangeEvent event = ChangeEvent.decode(table, notification.getParameter());
+            lastSequence = Math.max(lastSequence, event.getSequence());
+            fire(event);
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "Ignoring change notification on " + notification.getName(), e);
+        }
+    }
+
+    private void fire(ChangeEvent event) {
+        for (ChangeFeedListener listener : listeners) {
+            try {
+                listener.onChange(event);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Change listener failed for " + event, e);
+            }
+        }
+    }
+
+    static String channelName(ChangeEvent.Table table) {
+        return table.name().toLowerCase() + "_changes";
+    }
+
+    private static ChangeEvent.Table tableForChannel(String channel) {
+        for (ChangeEvent.Table table : ChangeEvent.Table.values()) {
+            if (channelName(table).equals(channel)) {
+                return table;
+            }
+        }
+        return null;
+    }
+}
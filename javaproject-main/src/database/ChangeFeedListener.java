@@ -0,0 +1,9 @@
+package database;
+
+/**
+ * Listener interface for changes pushed by the {@link ChangeFeed}. Called on
+ * the feed's listener thread, so Swing code must hop to the EDT itself.
+ */
+public interface ChangeFeedListener {
+    void onChange(ChangeEvent event);
+}
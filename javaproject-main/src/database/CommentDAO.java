@@ -7,12 +7,15 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class CommentDAO {
+    // Listed rather than * so the stored search_vector column is not sent along
+    private static final String COLUMNS = "id, post_id, user_id, username, content, comment_date";
+
     private Connection getConnection() throws SQLException {
         return DatabaseConnector.getConnection();
     }
 
     public Comment getCommentById(int id) throws SQLException {
-        String sql = "SELECT * FROM comments WHERE id = ?";
+        String sql = "SELECT " + COLUMNS + " FROM comments WHERE id = ?";
         Comment comment = null;
 
         try (Connection conn = getConnection();
@@ -38,7 +41,7 @@ public class CommentDAO {
     }
 
     public List<Comment> getCommentsByPost(int postId) throws SQLException {
-        String sql = "SELECT * FROM comments WHERE post_id = ? ORDER BY comment_date";
+        String sql = "SELECT " + COLUMNS + " FROM comments WHERE post_id = ? ORDER BY comment_date";
         List<Comment> comments = new ArrayList<>();
 
         try (Connection conn = getConnection();
@@ -64,8 +67,53 @@ public class CommentDAO {
         return comments;
     }
 
+    /**
+     * Get a page of a post's comments, newest first. Pages are keyed on the
+     * (comment_date, id) position of the last comment already shown.
+     * @param postId The post ID
+     * @param beforeDate Date of the last comment shown, or null for the first page
+     * @param beforeId ID of the last comment shown
+     * @param limit Maximum number of comments to return
+     * @return The comments, newest first
+     * @throws SQLException If a database error occurs
+     */
+    public List<Comment> getCommentPage(int postId, java.util.Date beforeDate, int beforeId, int limit) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM comments WHERE post_id = ?" +
+                (beforeDate != null ? " AND (comment_date, id) < (?, ?)" : "") +
+                " ORDER BY comment_date DESC, id DESC LIMIT ?";
+        List<Comment> comments = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            pstmt.setInt(index++, postId);
+            if (beforeDate != null) {
+                pstmt.setTimestamp(index++, new Timestamp(beforeDate.getTime()));
+                pstmt.setInt(index++, beforeId);
+            }
+            pstmt.setInt(index, limit);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                Comment comment = new Comment(
+                        rs.getInt("id"),
+                        rs.getInt("post_id"),
+                        rs.getInt("user_id"),
+                        rs.getString("username"),
+                        rs.getString("content"),
+                        rs.getTimestamp("comment_date")
+                );
+                comments.add(comment);
+            }
+            rs.close();
+        }
+
+        return comments;
+    }
+
     public List<Comment> getCommentsByUser(int userId) throws SQLException {
-        String sql = "SELECT * FROM comments WHERE user_id = ? ORDER BY comment_date DESC";
+        String sql = "SELECT " + COLUMNS + " FROM comments WHERE user_id = ? ORDER BY comment_date DESC";
         List<Comment> comments = new ArrayList<>();
 
         try (Connection conn = getConnection();
@@ -1,7 +1,11 @@
 package database;
 
+import util.StartupTimeline;
+
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
@@ -10,25 +14,39 @@ public class DatabaseConnector {
     private static final String USER = "postgres";
     private static final String PASSWORD = "";
 
+    // How long change_feed_log keeps entries; ChangeFeed resyncs after
+    // being disconnected for longer than this
+    static final int CHANGE_LOG_RETENTION_HOURS = 24;
+
     private static Connection connection = null;
 
     public static void initialize() throws SQLException {
         try {
+            long start = StartupTimeline.start();
             Class.forName("org.postgresql.Driver");
             connection = DriverManager.getConnection(DB_URL, USER, PASSWORD);
+            StartupTimeline.record("db.connect", start);
+
+            start = StartupTimeline.start();
             createTables();
+            StartupTimeline.record("db.schema", start);
+
+            start = StartupTimeline.start();
             initializeDefaultData();
+            StartupTimeline.record("db.defaultData", start);
             System.out.println("Database connection established successfully");
         } catch (ClassNotFoundException e) {
             throw new SQLException("PostgreSQL JDBC driver not found", e);
         }
     }
 
+    /**
+     * Open a connection for the caller. DAOs close the connection they are
+     * given, so handing out one shared instance would let a background query
+     * close it underneath the EDT; each caller gets its own instead.
+     */
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(DB_URL, USER, PASSWORD);
-        }
-        return connection;
+        return DriverManager.getConnection(DB_URL, USER, PASSWORD);
     }
 
     public static void closeConnection() {
@@ -75,6 +93,8 @@ public class DatabaseConnector {
                 "post_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
                 "likes INTEGER DEFAULT 0" +
                 ")");
+        // Serves the keyset-paged feed of each platform
+        stmt.execute("CREATE INDEX IF NOT EXISTS posts_platform_date_idx ON posts (platform_id, post_date DESC, id DESC)");
 
         // Comments table
         stmt.execute("CREATE TABLE IF NOT EXISTS comments (" +
@@ -85,17 +105,147 @@ public class DatabaseConnector {
                 "content TEXT NOT NULL, " +
                 "comment_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
                 ")");
+        // Serves the keyset-paged comments of each post
+        stmt.execute("CREATE INDEX IF NOT EXISTS comments_post_date_idx ON comments (post_id, comment_date, id)");
 
         // Likes table
         stmt.execute("CREATE TABLE IF NOT EXISTS likes (" +
                 "user_id INTEGER REFERENCES users(id), " +
                 "post_id INTEGER REFERENCES posts(id) ON DELETE CASCADE, " +
+                "liked_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
                 "PRIMARY KEY (user_id, post_id)" +
                 ")");
+        // Likes from before the column existed keep a NULL time rather than
+        // the time of the upgrade, so they do not all look recent
+        // ALTER TABLE locks the table even when there is nothing to change
+        if (!columnExists("likes", "liked_at")) {
+            stmt.execute("ALTER TABLE likes ADD COLUMN liked_at TIMESTAMP");
+            stmt.execute("ALTER TABLE likes ALTER COLUMN liked_at SET DEFAULT CURRENT_TIMESTAMP");
+        }
+        stmt.execute("CREATE INDEX IF NOT EXISTS likes_liked_at_idx ON likes (liked_at)");
+
+        // Derived text features of each post, written by PostDAO
+        stmt.execute("CREATE TABLE IF NOT EXISTS post_features (" +
+                "post_id INTEGER PRIMARY KEY REFERENCES posts(id) ON DELETE CASCADE, " +
+                "content_hash BIGINT NOT NULL, " +
+                "sentiment REAL NOT NULL, " +
+                "hashtags TEXT[] NOT NULL DEFAULT '{}', " +
+                "language VARCHAR(8) NOT NULL, " +
+                "length_class VARCHAR(10) NOT NULL, " +
+                "computed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                ")");
+
+        // MinHash signatures of each post for near-duplicate detection, written
+        // by PostDAO; NULL for posts too short to compare
+        stmt.execute("CREATE TABLE IF NOT EXISTS post_minhash (" +
+                "post_id INTEGER PRIMARY KEY REFERENCES posts(id) ON DELETE CASCADE, " +
+                "signature BYTEA, " +
+                "computed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                ")");
+
+        createSearchIndexes(stmt);
+        createChangeTriggers(stmt);
 
         stmt.close();
     }
 
+    /**
+     * Add the full-text search columns used by {@link SearchDAO}: a tsvector
+     * generated from the content of posts and comments, with a GIN index each
+     */
+    private static void createSearchIndexes(Statement stmt) throws SQLException {
+        for (String table : new String[]{"posts", "comments"}) {
+            if (!columnExists(table, "search_vector")) {
+                stmt.execute("ALTER TABLE " + table + " ADD COLUMN search_vector tsvector " +
+                        "GENERATED ALWAYS AS (to_tsvector('english', content)) STORED");
+            }
+            stmt.execute("CREATE INDEX IF NOT EXISTS " + table + "_search_idx ON " + table + " USING GIN (search_vector)");
+        }
+    }
+
+    /**
+     * Install the triggers feeding {@link ChangeFeed}. Every row change on
+     * posts, comments and likes sends "seq|op|id|parent_id|user_id" on the
+     * table's channel, e.g. posts_changes; an update changing a post's
+     * content is also sent on post_content_changes. Each notification logs
+     * its sequence number in
+     * change_feed_log. Unlike the sequence, the log only holds changes that
+     * committed, so a listener can tell a missed notification from a rolled
+     * back write.
+     */
+    private static void createChangeTriggers(Statement stmt) throws SQLException {
+        stmt.execute("CREATE SEQUENCE IF NOT EXISTS change_feed_seq");
+        stmt.execute("CREATE TABLE IF NOT EXISTS change_feed_log (" +
+                "seq BIGINT PRIMARY KEY, " +
+                "logged_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                ")");
+        stmt.execute("DELETE FROM change_feed_log WHERE logged_at < CURRENT_TIMESTAMP - INTERVAL '" +
+                CHANGE_LOG_RETENTION_HOURS + " hours'");
+
+        stmt.execute("CREATE OR REPLACE FUNCTION notify_row_change() RETURNS trigger AS $$ " +
+                "DECLARE " +
+                "  rec RECORD; " +
+                "  row_id INTEGER; " +
+                "  parent_id INTEGER; " +
+                "  change_seq BIGINT := nextval('change_feed_seq'); " +
+                "  channel TEXT := COALESCE(TG_ARGV[0], TG_TABLE_NAME || '_changes'); " +
+                "BEGIN " +
+                "  IF TG_OP = 'DELETE' THEN rec := OLD; ELSE rec := NEW; END IF; " +
+                "  IF TG_TABLE_NAME = 'posts' THEN " +
+                "    row_id := rec.id; parent_id := rec.platform_id; " +
+                "  ELSIF TG_TABLE_NAME = 'comments' THEN " +
+                "    row_id := rec.id; parent_id := rec.post_id; " +
+                "  ELSE " +
+                "    row_id := rec.post_id; " +
+                "    parent_id := COALESCE((SELECT platform_id FROM posts WHERE id = rec.post_id), -1); " +
+                "  END IF; " +
+                "  INSERT INTO change_feed_log (seq) VALUES (change_seq); " +
+                "  PERFORM pg_notify(channel, " +
+                "    change_seq || '|' || left(TG_OP, 1) || '|' || row_id || '|' || " +
+                "    COALESCE(parent_id, -1) || '|' || COALESCE(rec.user_id, -1)); " +
+                "  RETURN NULL; " +
+                "END; $$ LANGUAGE plpgsql");
+
+        // Creating a trigger locks its table exclusively, so only do it once
+        for (String table : new String[]{"posts", "comments", "likes"}) {
+            if (triggerExists(table, table + "_notify_change")) {
+                continue;
+            }
+            stmt.execute("CREATE TRIGGER " + table + "_notify_change " +
+                    "AFTER INSERT OR UPDATE OR DELETE ON " + table + " " +
+                    "FOR EACH ROW EXECUTE PROCEDURE notify_row_change()");
+        }
+        if (!triggerExists("posts", "posts_notify_content_change")) {
+            stmt.execute("CREATE TRIGGER posts_notify_content_change " +
+                    "AFTER UPDATE OF content ON posts FOR EACH ROW " +
+                    "WHEN (OLD.content IS DISTINCT FROM NEW.content) " +
+                    "EXECUTE PROCEDURE notify_row_change('post_content_changes')");
+        }
+    }
+
+    private static boolean columnExists(String table, String column) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT 1 FROM information_schema.columns WHERE table_schema = current_schema() " +
+                        "AND table_name = ? AND column_name = ?")) {
+            pstmt.setString(1, table);
+            pstmt.setString(2, column);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static boolean triggerExists(String table, String trigger) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT 1 FROM pg_trigger WHERE tgrelid = ?::regclass AND tgname = ?")) {
+            pstmt.setString(1, table);
+            pstmt.setString(2, trigger);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
     private static void initializeDefaultData() throws SQLException {
         Statement checkStmt = connection.createStatement();
         java.sql.ResultSet rs = checkStmt.executeQuery("SELECT COUNT(*) FROM social_media_platforms");
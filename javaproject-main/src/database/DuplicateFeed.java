@@ -0,0 +1,128 @@
+package database;
+
+import ai.DuplicateDetector;
+import model.Post;
+import util.BackgroundExecutor;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the {@link DuplicateDetector} in step with the posts table. At
+ * startup the stored signatures are loaded in the background, then posts
+ * without one, written before signatures were kept, are signed in parallel
+ * batches and stored. After that, content changes announced by the
+ * {@link PostChangeFeed} are applied. Posts written here are signed by
+ * {@link PostDAO}.
+ */
+public class DuplicateFeed {
+    private static final Logger LOGGER = Logger.getLogger(DuplicateFeed.class.getName());
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    private static boolean started;
+
+    private DuplicateFeed() {
+    }
+
+    /**
+     * Subscribe to the change feed and load the signatures in the background.
+     * Calling it again has no effect.
+     */
+    public static synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        PostChangeFeed.getInstance().addListener(new Listener());
+        BackgroundExecutor.submit(DuplicateFeed::load);
+    }
+
+    /**
+     * Load every stored signature, then sign the posts that have none
+     */
+    static void load() {
+        long start = System.currentTimeMillis();
+        DuplicateDetector detector = DuplicateDetector.getInstance();
+        PostMinHashDAO minHashDAO = new PostMinHashDAO();
+        AtomicInteger loaded = new AtomicInteger();
+        try {
+            minHashDAO.forEachSignature((postId, signature) -> {
+                detector.add(postId, signature);
+                loaded.incrementAndGet();
+            });
+            LOGGER.log(Level.INFO, "Duplicate detector loaded " + loaded.get() + " signatures in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error loading post signatures", e);
+            return;
+        }
+
+        long backfillStart = System.currentTimeMillis();
+        List<Post> batch = new ArrayList<>(BACKFILL_BATCH_SIZE);
+        AtomicInteger signed = new AtomicInteger();
+        try {
+            minHashDAO.forEachPostWithoutSignature(post -> {
+                batch.add(post);
+                if (batch.size() == BACKFILL_BATCH_SIZE) {
+                    signed.addAndGet(sign(batch));
+                    batch.clear();
+                }
+            });
+            signed.addAndGet(sign(batch));
+            if (signed.get() > 0) {
+                LOGGER.log(Level.INFO, "Signed " + signed.get() + " older posts for duplicate detection in "
+                        + (System.currentTimeMillis() - backfillStart) + " ms");
+            }
+        } catch (SQLException | CompletionException e) {
+            LOGGER.log(Level.WARNING, "Error signing older posts for duplicate detection", e);
+        }
+    }
+
+    /**
+     * Sign a batch of posts in parallel, store the signatures and index them
+     * @return The number of posts signed
+     */
+    private static int sign(List<Post> posts) {
+        List<String> contents = new ArrayList<>(posts.size());
+        List<Integer> postIds = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            contents.add(post.getContent());
+            postIds.add(post.getId());
+        }
+        short[][] signatures = DuplicateDetector.signatures(contents);
+        try {
+            new PostMinHashDAO().saveAll(postIds, signatures);
+        } catch (SQLException e) {
+            // Called from inside the cursor callback, which cannot throw SQLException
+            throw new CompletionException(e);
+        }
+        DuplicateDetector detector = DuplicateDetector.getInstance();
+        for (int i = 0; i < signatures.length; i++) {
+            detector.add(postIds.get(i), signatures[i]);
+        }
+        return posts.size();
+    }
+
+    private static class Listener implements PostChangeListener {
+        @Override
+        public void postWritten(Post post) {
+            DuplicateDetector.getInstance().add(post.getId(), DuplicateDetector.signature(post.getContent()));
+        }
+
+        @Override
+        public void postDeleted(int postId) {
+            DuplicateDetector.getInstance().remove(postId);
+        }
+
+        @Override
+        public void resync() {
+            // Edits may have been missed; unchanged signatures are skipped by the detector
+            BackgroundExecutor.submit(DuplicateFeed::load);
+        }
+    }
+}
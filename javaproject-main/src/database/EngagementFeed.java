@@ -0,0 +1,74 @@
+package database;
+
+import ai.EngagementModel;
+import util.BackgroundExecutor;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the {@link EngagementModel} trained from the database. At startup
+ * the saved model is loaded, so predictions are available at once; if it is
+ * missing or a day old, a new one is trained in the background on every post
+ * old enough for its likes and comments to have settled, then saved.
+ */
+public class EngagementFeed {
+    private static final Logger LOGGER = Logger.getLogger(EngagementFeed.class.getName());
+    private static final long RETRAIN_MILLIS = 24 * 60 * 60_000L;
+    // Newer posts are still collecting likes and would read as failures
+    private static final long SETTLE_MILLIS = 24 * 60 * 60_000L;
+
+    private static boolean started;
+
+    private EngagementFeed() {
+    }
+
+    /**
+     * Load the saved model and retrain it in the background if it is stale.
+     * Calling it again has no effect.
+     */
+    public static synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        BackgroundExecutor.submit(() -> {
+            EngagementModel model = EngagementModel.getInstance();
+            if (!model.load(modelFile()) || System.currentTimeMillis() - model.getTrainedAt() > RETRAIN_MILLIS) {
+                train();
+            }
+        });
+    }
+
+    /**
+     * Train a new model on the settled posts and save it
+     */
+    static void train() {
+        EngagementModel.Examples examples = new EngagementModel.Examples();
+        try {
+            new PostDAO().forEachPostWithCommentCount(new Date(System.currentTimeMillis() - SETTLE_MILLIS),
+                    (post, comments) -> examples.add(post.getPlatformId(), post.getContent(),
+                            post.getPostDate().getTime(), post.getLikes() + comments));
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error loading posts to train the engagement model", e);
+            return;
+        }
+        EngagementModel model = EngagementModel.getInstance();
+        if (model.train(examples)) {
+            try {
+                model.save(modelFile());
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Error saving the engagement model", e);
+            }
+        }
+    }
+
+    private static Path modelFile() {
+        return Paths.get(System.getProperty("user.home"), ".social-media-dashboard", "engagement-model.bin");
+    }
+}
@@ -0,0 +1,305 @@
+package database;
+
+import model.Post;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Singleton in-memory snapshot of the newest posts of each platform. Each
+ * platform's snapshot is a sorted, bounded map keyed by (post_date, id) that
+ * always holds a contiguous newest-first prefix of the feed. It is filled
+ * once, then kept current by the {@link PostDAO} write path and the
+ * {@link ChangeFeed}, so re-rendering a feed does not touch the database.
+ *
+ * Listeners registered here receive change feed events after the snapshot has
+ * applied them, so they can read the updated posts back from the cache.
+ */
+public class FeedCache {
+    private static final Logger LOGGER = Logger.getLogger(FeedCache.class.getName());
+    private static final int CAPACITY = 500;
+
+    private static FeedCache instance;
+    private final Map<Integer, PlatformSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final List<ChangeFeedListener> listeners = new CopyOnWriteArrayList<>();
+
+    private FeedCache() {
+        ChangeFeed.getInstance().addListener(this::onChange);
+    }
+
+    public static synchronized FeedCache getInstance() {
+        if (instance == null) {
+            instance = new FeedCache();
+        }
+        return instance;
+    }
+
+    public void addListener(ChangeFeedListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ChangeFeedListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Get the newest posts of a platform, filling the snapshot on first use.
+     * While the change feed is disconnected, posts with a higher ID than any
+     * in the snapshot are fetched first so inserts by other clients are not
+     * missed. IDs come from the database, so unlike post dates they do not
+     * depend on the clocks of the clients that wrote the posts.
+     * @param platformId The platform ID
+     * @param limit Maximum number of posts to return
+     * @return Copies of the posts, newest first
+     * @throws SQLException If the snapshot had to be filled and the query failed
+     */
+    public List<Post> getRecentPosts(int platformId, int limit) throws SQLException {
+        PlatformSnapshot snapshot = snapshot(platformId);
+        synchronized (snapshot) {
+            if (!snapshot.covers(limit)) {
+                List<Post> posts = new PostDAO().getRecentPostsByPlatform(platformId, Math.max(limit, CAPACITY));
+                snapshot.fill(posts, posts.size() < Math.max(limit, CAPACITY));
+            } else if (!ChangeFeed.getInstance().isConnected() && snapshot.maxId > 0) {
+                for (Post post : new PostDAO().getPostsByPlatformAfterId(platformId, snapshot.maxId)) {
+                    snapshot.put(post);
+                }
+            }
+            return snapshot.page(null, limit);
+        }
+    }
+
+    /**
+     * Get the posts that follow a given post, from the snapshot if it holds
+     * enough of them and from the database otherwise
+     * @param platformId The platform ID
+     * @param beforeDate Date of the last post already shown
+     * @param beforeId ID of the last post already shown
+     * @param limit Maximum number of posts to return
+     * @return Copies of the next older posts, newest first
+     * @throws SQLException If a database error occurs
+     */
+    public List<Post> getPostsBefore(int platformId, Date beforeDate, int beforeId, int limit) throws SQLException {
+        PlatformSnapshot snapshot = snapshot(platformId);
+        synchronized (snapshot) {
+            FeedKey after = new FeedKey(beforeDate, beforeId);
+            if (snapshot.filled && (snapshot.complete || snapshot.countAfter(after) >= limit)) {
+                return snapshot.page(after, limit);
+            }
+        }
+        return new PostDAO().getPostsByPlatformBefore(platformId, beforeDate, beforeId, limit);
+    }
+
+    /**
+     * Get a cached copy of a post
+     * @param platformId The platform ID
+     * @param postId The post ID
+     * @return The post, or null if it is not in the snapshot
+     */
+    public Post getCachedPost(int platformId, int postId) {
+        PlatformSnapshot snapshot = snapshot(platformId);
+        synchronized (snapshot) {
+            Post post = snapshot.get(postId);
+            return post != null ? new Post(post) : null;
+        }
+    }
+
+    /**
+     * Seed a snapshot with an already fetched first page
+     * @param platformId The platform ID
+     * @param posts The newest posts, newest first
+     * @param complete Whether these are all of the platform's posts
+     */
+    public void seed(int platformId, List<Post> posts, boolean complete) {
+        PlatformSnapshot snapshot = snapshot(platformId);
+        synchronized (snapshot) {
+            if (!snapshot.filled || snapshot.posts.size() < posts.size()) {
+                snapshot.fill(posts, complete);
+            }
+        }
+    }
+
+    /**
+     * Merge a created or updated post into its platform's snapshot
+     * @param post The saved post
+     */
+    public void postSaved(Post post) {
+        PlatformSnapshot snapshot = snapshot(post.getPlatformId());
+        synchronized (snapshot) {
+            if (snapshot.filled) {
+                snapshot.put(post);
+            }
+        }
+    }
+
+    /**
+     * Remove a deleted post from whichever snapshot holds it
+     * @param postId The post ID
+     */
+    public void postDeleted(int postId) {
+        for (PlatformSnapshot snapshot : snapshots.values()) {
+            synchronized (snapshot) {
+                snapshot.remove(postId);
+            }
+        }
+    }
+
+    /**
+     * Drop all snapshots, e.g. after changes may have been missed
+     */
+    public void invalidate() {
+        for (PlatformSnapshot snapshot : snapshots.values()) {
+            synchronized (snapshot) {
+                snapshot.clear();
+            }
+        }
+    }
+
+    private PlatformSnapshot snapshot(int platformId) {
+        return snapshots.computeIfAbsent(platformId, id -> new PlatformSnapshot());
+    }
+
+    /**
+     * Apply a pushed change, then forward the event to this cache's listeners
+     */
+    private void onChange(ChangeEvent event) {
+        if (event.getOperation() == ChangeEvent.Operation.RESYNC) {
+            invalidate();
+        } else if (event.getTable() == ChangeEvent.Table.POSTS) {
+            if (event.getOperation() == ChangeEvent.Operation.DELETE) {
+                postDeleted(event.getId());
+            } else if (snapshot(event.getParentId()).filled) {
+                try {
+                    Post post = new PostDAO().getPostById(event.getId());
+                    if (post != null) {
+                        postSaved(post);
+                    }
+                } catch (SQLException e) {
+                    LOGGER.log(Level.WARNING, "Error reading changed post " + event.getId() + ", dropping snapshot", e);
+                    PlatformSnapshot snapshot = snapshot(event.getParentId());
+                    synchronized (snapshot) {
+                        snapshot.clear();
+                    }
+                }
+            }
+        }
+
+        for (ChangeFeedListener listener : listeners) {
+            try {
+                listener.onChange(event);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Feed cache listener failed for " + event, e);
+            }
+        }
+    }
+
+    /**
+     * Sort key placing newer posts first, ties broken by descending ID
+     */
+    private static class FeedKey {
+        private static final Comparator<FeedKey> NEWEST_FIRST = Comparator
+                .comparingLong((FeedKey key) -> key.postDate).reversed()
+                .thenComparing(Comparator.comparingInt((FeedKey key) -> key.id).reversed());
+
+        private final long postDate;
+        private final int id;
+
+        FeedKey(Date postDate, int id) {
+            this.postDate = postDate.getTime();
+            this.id = id;
+        }
+    }
+
+    /**
+     * One platform's snapshot. Guarded by its own monitor.
+     */
+    private static class PlatformSnapshot {
+        private final TreeMap<FeedKey, Post> posts = new TreeMap<>(FeedKey.NEWEST_FIRST);
+        private final Map<Integer, FeedKey> keysById = new HashMap<>();
+        private boolean filled;
+        // True when the snapshot holds every post of the platform
+        private boolean complete;
+        // Highest post ID held since the last fill, the catch-up watermark
+        private int maxId;
+
+        boolean covers(int limit) {
+            return filled && (complete || posts.size() >= limit);
+        }
+
+        void fill(List<Post> newest, boolean allPosts) {
+            clear();
+            for (Post post : newest) {
+                insert(new Post(post));
+            }
+            filled = true;
+            complete = allPosts;
+        }
+
+        void clear() {
+            posts.clear();
+            keysById.clear();
+            filled = false;
+            complete = false;
+            maxId = 0;
+        }
+
+        Post get(int postId) {
+            FeedKey key = keysById.get(postId);
+            return key != null ? posts.get(key) : null;
+        }
+
+        void put(Post post) {
+            remove(post.getId());
+            FeedKey key = new FeedKey(post.getPostDate(), post.getId());
+            // Older than everything held: keeping it would break the newest-first prefix
+            if (!complete && !posts.isEmpty() && FeedKey.NEWEST_FIRST.compare(key, posts.lastKey()) > 0) {
+                return;
+            }
+            insert(new Post(post));
+            while (posts.size() > CAPACITY) {
+                Map.Entry<FeedKey, Post> oldest = posts.pollLastEntry();
+                keysById.remove(oldest.getValue().getId());
+                complete = false;
+            }
+        }
+
+        void remove(int postId) {
+            FeedKey key = keysById.remove(postId);
+            if (key != null) {
+                posts.remove(key);
+            }
+        }
+
+        int countAfter(FeedKey key) {
+            return posts.tailMap(key, false).size();
+        }
+
+        List<Post> page(FeedKey after, int limit) {
+            Map<FeedKey, Post> tail = after != null ? posts.tailMap(after, false) : posts;
+            List<Post> page = new ArrayList<>(Math.min(limit, tail.size()));
+            for (Post post : tail.values()) {
+                if (page.size() >= limit) {
+                    break;
+                }
+                page.add(new Post(post));
+            }
+            return page;
+        }
+
+        private void insert(Post post) {
+            FeedKey key = new FeedKey(post.getPostDate(), post.getId());
+            posts.put(key, post);
+            keysById.put(post.getId(), key);
+            maxId = Math.max(maxId, post.getId());
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package database;
+
+import model.Post;
+import util.BackgroundExecutor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Singleton write-behind buffer for likes. A toggle is applied in memory at
+ * once and recorded as the wanted state of its (user, post) pair; toggling
+ * the pair back before it is written cancels the entry, so a burst of clicks
+ * costs nothing. Pending entries are flushed periodically in one transaction
+ * that inserts and deletes the like rows and recounts posts.likes.
+ *
+ * Pending like count changes are kept per post so rows read back from the
+ * database can be shown with the unwritten likes applied. A post's entry is
+ * removed once its changes are written or cancelled out.
+ */
+public class LikeBuffer {
+    private static final Logger LOGGER = Logger.getLogger(LikeBuffer.class.getName());
+    private static final long FLUSH_INTERVAL_MS = 500;
+
+    private static final String INSERT_SQL = "INSERT INTO likes (user_id, post_id) " +
+            "SELECT ?, ? WHERE EXISTS (SELECT 1 FROM posts WHERE id = ?) ON CONFLICT DO NOTHING";
+    private static final String DELETE_SQL = "DELETE FROM likes WHERE user_id = ? AND post_id = ?";
+    private static final String RECOUNT_SQL = "UPDATE posts SET likes = " +
+            "(SELECT COUNT(*) FROM likes WHERE post_id = ?) WHERE id = ?";
+
+    private static LikeBuffer instance;
+    // Wanted like state of each pending (user, post) pair, see key()
+    private final Map<Long, Boolean> pending = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> pendingDeltas = new ConcurrentHashMap<>();
+    private final List<LikeBufferListener> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService flusher =
+            Executors.newSingleThreadScheduledExecutor(BackgroundExecutor.daemonThreadFactory("like-flush"));
+
+    private LikeBuffer() {
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "like-flush-shutdown"));
+    }
+
+    public static synchronized LikeBuffer getInstance() {
+        if (instance == null) {
+            instance = new LikeBuffer();
+        }
+        return instance;
+    }
+
+    public void addListener(LikeBufferListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(LikeBufferListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Toggle a user's like on a post without waiting for the database
+     * @param userId The user ID
+     * @param postId The post ID
+     * @param currentlyLiked The like state the user sees now
+     * @return The new like state
+     */
+    public boolean toggle(int userId, int postId, boolean currentlyLiked) {
+        boolean liked = !currentlyLiked;
+        // An entry for the opposite state has not been written yet: dropping it restores the stored state
+        pending.compute(key(userId, postId), (key, wanted) -> wanted != null && wanted != liked ? null : liked);
+        addDelta(postId, liked ? 1 : -1);
+        return liked;
+    }
+
+    /**
+     * Whether a user has a like change on a post that is not written yet
+     * @param userId The user ID
+     * @param postId The post ID
+     * @return True if a change is pending
+     */
+    public boolean isPending(int userId, int postId) {
+        return pending.containsKey(key(userId, postId));
+    }
+
+    /**
+     * Apply a user's pending like changes to a set of liked post IDs read
+     * from the database
+     * @param userId The user ID
+     * @param likedPostIds The liked post IDs, updated in place
+     */
+    public void applyPending(int userId, Set<Integer> likedPostIds) {
+        for (Map.Entry<Long, Boolean> entry : pending.entrySet()) {
+            if (userIdOf(entry.getKey()) != userId) {
+                continue;
+            }
+            if (entry.getValue()) {
+                likedPostIds.add(postIdOf(entry.getKey()));
+            } else {
+                likedPostIds.remove(postIdOf(entry.getKey()));
+            }
+        }
+    }
+
+    /**
+     * Add the pending like count change of a post read from the database
+     * @param post The post, updated in place
+     */
+    public void applyPending(Post post) {
+        Integer delta = pendingDeltas.get(post.getId());
+        if (delta != null) {
+            post.setLikes(post.getLikes() + delta);
+        }
+    }
+
+    /**
+     * Write all pending like changes in one transaction. Runs on the flush
+     * thread; on failure the changes are dropped and listeners roll them back.
+     */
+    void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, Boolean> batch = new HashMap<>();
+        for (Long key : pending.keySet()) {
+            Boolean liked = pending.remove(key);
+            if (liked != null) {
+                batch.put(key, liked);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        boolean settled = false;
+        try (Connection conn = DatabaseConnector.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement(INSERT_SQL);
+                 PreparedStatement delete = conn.prepareStatement(DELETE_SQL);
+                 PreparedStatement recount = conn.prepareStatement(RECOUNT_SQL)) {
+                Set<Integer> postIds = new HashSet<>();
+                for (Map.Entry<Long, Boolean> entry : batch.entrySet()) {
+                    int userId = userIdOf(entry.getKey());
+                    int postId = postIdOf(entry.getKey());
+                    postIds.add(postId);
+                    if (entry.getValue()) {
+                        insert.setInt(1, userId);
+                        insert.setInt(2, postId);
+                        insert.setInt(3, postId);
+                        insert.addBatch();
+                    } else {
+                        delete.setInt(1, userId);
+                        delete.setInt(2, postId);
+                        delete.addBatch();
+                    }
+                }
+                for (int postId : postIds) {
+                    recount.setInt(1, postId);
+                    recount.setInt(2, postId);
+                    recount.addBatch();
+                }
+                insert.executeBatch();
+                delete.executeBatch();
+                recount.executeBatch();
+
+                // Rows read back after the commit already hold these likes
+                settle(batch);
+                settled = true;
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error writing " + batch.size() + " buffered likes, rolling them back", e);
+            if (!settled) {
+                settle(batch);
+            }
+            fireRolledBack(batch);
+            return;
+        }
+        fireFlushed(batch);
+    }
+
+    private void settle(Map<Long, Boolean> batch) {
+        for (Map.Entry<Long, Boolean> entry : batch.entrySet()) {
+            addDelta(postIdOf(entry.getKey()), entry.getValue() ? -1 : 1);
+        }
+    }
+
+    /**
+     * Change a post's pending like count, dropping the entry when it
+     * returns to zero
+     */
+    private void addDelta(int postId, int change) {
+        pendingDeltas.merge(postId, change, (delta, added) -> delta + added != 0 ? delta + added : null);
+    }
+
+    private void fireFlushed(Map<Long, Boolean> batch) {
+        Map<Integer, Set<Integer>> postIdsByUser = new HashMap<>();
+        for (Long key : batch.keySet()) {
+            postIdsByUser.computeIfAbsent(userIdOf(key), id -> new HashSet<>()).add(postIdOf(key));
+        }
+        for (Map.Entry<Integer, Set<Integer>> entry : postIdsByUser.entrySet()) {
+            for (LikeBufferListener listener : listeners) {
+                try {
+                    listener.likesFlushed(entry.getKey(), entry.getValue());
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Like buffer listener failed", e);
+                }
+            }
+        }
+    }
+
+    private void fireRolledBack(Map<Long, Boolean> batch) {
+        Map<Integer, Map<Integer, Boolean>> restoredByUser = new HashMap<>();
+        for (Map.Entry<Long, Boolean> entry : batch.entrySet()) {
+            restoredByUser.computeIfAbsent(userIdOf(entry.getKey()), id -> new HashMap<>())
+                    .put(postIdOf(entry.getKey()), !entry.getValue());
+        }
+        for (Map.Entry<Integer, Map<Integer, Boolean>> entry : restoredByUser.entrySet()) {
+            for (LikeBufferListener listener : listeners) {
+                try {
+                    listener.likesRolledBack(entry.getKey(), entry.getValue());
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Like buffer listener failed", e);
+                }
+            }
+        }
+    }
+
+    private static long key(int userId, int postId) {
+        return ((long) userId << 32) | (postId & 0xFFFFFFFFL);
+    }
+
+    private static int userIdOf(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int postIdOf(long key) {
+        return (int) key;
+    }
+}
@@ -0,0 +1,24 @@
+package database;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Listener interface for the outcome of {@link LikeBuffer} flushes. Called on
+ * the buffer's flush thread, so Swing code must hop to the EDT itself.
+ */
+public interface LikeBufferListener {
+    /**
+     * A user's buffered likes were written to the database
+     * @param userId The user ID
+     * @param postIds The posts whose like state was written
+     */
+    void likesFlushed(int userId, Set<Integer> postIds);
+
+    /**
+     * Writing a user's buffered likes failed and they were discarded
+     * @param userId The user ID
+     * @param restored The like state each post is back to, keyed by post ID
+     */
+    void likesRolledBack(int userId, Map<Integer, Boolean> restored);
+}
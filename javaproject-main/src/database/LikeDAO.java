@@ -1,8 +1,14 @@
 package database;
 
+import model.Like;
+
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class LikeDAO {
     private Connection getConnection() throws SQLException {
@@ -126,4 +132,88 @@ public class LikeDAO {
         }
         return userIds;
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the IDs of all posts on a platform that a user has liked
+     * @param userId The user ID
+     * @param platformId The platform ID
+     * @return The set of liked post IDs
+     * @throws SQLException If a database error occurs
+     */
+    public Set<Integer> getLikedPostIds(int userId, int platformId) throws SQLException {
+        String sql = "SELECT l.post_id FROM likes l JOIN posts p ON p.id = l.post_id " +
+                "WHERE l.user_id = ? AND p.platform_id = ?";
+        Set<Integer> postIds = new HashSet<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, platformId);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                postIds.add(rs.getInt("post_id"));
+            }
+            rs.close();
+        }
+        return postIds;
+    }
+
+    /**
+     * Get the IDs of all posts a user has liked, across all platforms
+     * @param userId The user ID
+     * @param canceller Handle used to cancel the running query
+     * @return The set of liked post IDs
+     * @throws SQLException If a database error occurs
+     */
+    public Set<Integer> getLikedPostIds(int userId, QueryCanceller canceller) throws SQLException {
+        String sql = "SELECT post_id FROM likes WHERE user_id = ?";
+        Set<Integer> postIds = new HashSet<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            canceller.track(pstmt);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    postIds.add(rs.getInt("post_id"));
+                }
+            } finally {
+                canceller.release(pstmt);
+            }
+        }
+        return postIds;
+    }
+
+    /**
+     * Hand every like made since a given time to a consumer, oldest first.
+     * Rows are read through a server-side cursor and the scan uses the
+     * liked_at index, so only recent likes are touched.
+     * @param since The start of the period
+     * @param consumer Receives each like; runs on the calling thread
+     * @throws SQLException If a database error occurs
+     */
+    public void forEachLikeSince(Date since, Consumer<Like> consumer) throws SQLException {
+        String sql = "SELECT l.user_id, l.post_id, p.platform_id, l.liked_at FROM likes l " +
+                "JOIN posts p ON p.id = l.post_id WHERE l.liked_at > ? ORDER BY l.liked_at";
+
+        try (Connection conn = getConnection()) {
+            // The PostgreSQL driver only uses a cursor outside auto-commit
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setFetchSize(1000);
+                pstmt.setTimestamp(1, new Timestamp(since.getTime()));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(new Like(
+                                rs.getInt("user_id"),
+                                rs.getInt("post_id"),
+                                rs.getInt("platform_id"),
+                                rs.getTimestamp("liked_at")
+                        ));
+                    }
+                }
+            }
+            conn.commit();
+        }
+    }
+}
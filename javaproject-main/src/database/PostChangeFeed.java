@@ -0,0 +1,97 @@
+package database;
+
+import model.Post;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Singleton passing post changes from the {@link FeedCache} on to the
+ * in-memory post indexes, reading each changed post only once for all of
+ * them. Content changes arrive as their own {@link ChangeEvent.Table#POST_CONTENT}
+ * events, so a like recount never makes a listener process the text again.
+ */
+public class PostChangeFeed {
+    private static final Logger LOGGER = Logger.getLogger(PostChangeFeed.class.getName());
+
+    private static PostChangeFeed instance;
+    private final List<PostChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private PostChangeFeed() {
+        FeedCache.getInstance().addListener(this::onChange);
+    }
+
+    public static synchronized PostChangeFeed getInstance() {
+        if (instance == null) {
+            instance = new PostChangeFeed();
+        }
+        return instance;
+    }
+
+    public void addListener(PostChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(PostChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void onChange(ChangeEvent event) {
+        if (event.getOperation() == ChangeEvent.Operation.RESYNC) {
+            for (PostChangeListener listener : listeners) {
+                fire(listener, event, PostChangeListener::resync);
+            }
+            return;
+        }
+        boolean posts = event.getTable() == ChangeEvent.Table.POSTS;
+        if (!posts && event.getTable() != ChangeEvent.Table.POST_CONTENT) {
+            return;
+        }
+        if (event.getOperation() == ChangeEvent.Operation.DELETE) {
+            if (posts) {
+                for (PostChangeListener listener : listeners) {
+                    fire(listener, event, l -> l.postDeleted(event.getId()));
+                }
+            }
+            return;
+        }
+
+        Post post = readPost(event);
+        if (post == null) {
+            return;
+        }
+        // An insert is only announced on posts; updates of the content are
+        // announced on both, and handled on POST_CONTENT
+        boolean written = !posts || event.getOperation() == ChangeEvent.Operation.INSERT;
+        for (PostChangeListener listener : listeners) {
+            fire(listener, event, written ? l -> l.postWritten(post) : l -> l.postUpdated(post));
+        }
+    }
+
+    private static Post readPost(ChangeEvent event) {
+        // The feed cache has already applied the change to posts it holds
+        Post post = FeedCache.getInstance().getCachedPost(event.getParentId(), event.getId());
+        if (post != null) {
+            return post;
+        }
+        try {
+            return new PostDAO().getPostById(event.getId());
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error reading changed post " + event.getId(), e);
+            return null;
+        }
+    }
+
+    private static void fire(PostChangeListener listener, ChangeEvent event,
+                             Consumer<PostChangeListener> call) {
+        try {
+            call.accept(listener);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Post change listener failed for " + event, e);
+        }
+    }
+}
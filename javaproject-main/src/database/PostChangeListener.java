@@ -0,0 +1,34 @@
+package database;
+
+import model.Post;
+
+/**
+ * Listener interface for the post changes fanned out by
+ * {@link PostChangeFeed}. Called on the change feed's listener thread.
+ */
+public interface PostChangeListener {
+    /**
+     * A post was created or its content changed
+     * @param post The post as stored
+     */
+    void postWritten(Post post);
+
+    /**
+     * A post was updated without a content change, e.g. its likes were
+     * recounted
+     * @param post The post as stored
+     */
+    default void postUpdated(Post post) {
+    }
+
+    /**
+     * A post was deleted
+     * @param postId The post ID
+     */
+    void postDeleted(int postId);
+
+    /**
+     * Changes may have been missed; reload everything
+     */
+    void resync();
+}
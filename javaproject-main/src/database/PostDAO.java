@@ -1,17 +1,30 @@
 package database;
 
+import ai.DuplicateDetector;
+import ai.SimilarityIndex;
+import ai.TextFeatures;
+import ai.TrendingEngine;
 import model.Post;
+import model.PostFeatures;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 public class PostDAO {
+    // Listed rather than * so the stored search_vector column is not sent along
+    static final String COLUMNS = "id, platform_id, user_id, username, content, post_date, likes";
+    static final String P_COLUMNS = "p.id, p.platform_id, p.user_id, p.username, p.content, p.post_date, p.likes";
+
     private Connection getConnection() throws SQLException {
         return DatabaseConnector.getConnection();
     }
 
     public Post getPostById(int id) throws SQLException {
-        String sql = "SELECT * FROM posts WHERE id = ?";
+        String sql = "SELECT " + COLUMNS + " FROM posts WHERE id = ?";
         Post post = null;
 
         try (Connection conn = getConnection();
@@ -38,7 +51,7 @@ public class PostDAO {
     }
 
     public List<Post> getPostsByUser(int userId) throws SQLException {
-        String sql = "SELECT * FROM posts WHERE user_id = ? ORDER BY post_date DESC";
+        String sql = "SELECT " + COLUMNS + " FROM posts WHERE user_id = ? ORDER BY post_date DESC";
         List<Post> posts = new ArrayList<>();
 
         try (Connection conn = getConnection();
@@ -66,13 +79,204 @@ public class PostDAO {
     }
 
     public List<Post> getPostsByPlatform(int platformId) throws SQLException {
-        String sql = "SELECT * FROM posts WHERE platform_id = ? ORDER BY post_date DESC";
+        String sql = "SELECT " + COLUMNS + " FROM posts WHERE platform_id = ? ORDER BY post_date DESC";
+        List<Post> posts = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, platformId);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                Post post = new Post(
+                        rs.getInt("id"),
+                        rs.getInt("platform_id"),
+                        rs.getInt("user_id"),
+                        rs.getString("username"),
+                        rs.getString("content"),
+                        rs.getTimestamp("post_date"),
+                        rs.getInt("likes")
+                );
+                posts.add(post);
+            }
+            rs.close();
+        }
+
+        return posts;
+    }
+
+    /**
+     * Get the newest posts of every platform in one round trip
+     * @param limit Maximum number of posts per platform
+     * @param canceller Handle used to cancel the running query
+     * @return Posts grouped by platform ID, newest first within each platform
+     * @throws SQLException If a database error occurs
+     */
+    public Map<Integer, List<Post>> getRecentPostsForAllPlatforms(int limit, QueryCanceller canceller) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM (" +
+                "SELECT " + P_COLUMNS + ", ROW_NUMBER() OVER (PARTITION BY platform_id ORDER BY post_date DESC, id DESC) AS rn " +
+                "FROM posts p) ranked " +
+                "WHERE rn <= ? ORDER BY platform_id, rn";
+        Map<Integer, List<Post>> postsByPlatform = new LinkedHashMap<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, limit);
+            canceller.track(pstmt);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Post post = new Post(
+                            rs.getInt("id"),
+                            rs.getInt("platform_id"),
+                            rs.getInt("user_id"),
+                            rs.getString("username"),
+                            rs.getString("content"),
+                            rs.getTimestamp("post_date"),
+                            rs.getInt("likes")
+                    );
+                    postsByPlatform.computeIfAbsent(post.getPlatformId(), id -> new ArrayList<>()).add(post);
+                }
+            } finally {
+                canceller.release(pstmt);
+            }
+        }
+
+        return postsByPlatform;
+    }
+
+    /**
+     * Get the newest posts of a platform
+     * @param platformId The platform ID
+     * @param limit Maximum number of posts to return
+     * @return The posts, newest first
+     * @throws SQLException If a database error occurs
+     */
+    public List<Post> getRecentPostsByPlatform(int platformId, int limit) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM posts WHERE platform_id = ? ORDER BY post_date DESC, id DESC LIMIT ?";
         List<Post> posts = new ArrayList<>();
 
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, platformId);
+            pstmt.setInt(2, limit);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                Post post = new Post(
+                        rs.getInt("id"),
+                        rs.getInt("platform_id"),
+                        rs.getInt("user_id"),
+                        rs.getString("username"),
+                        rs.getString("content"),
+                        rs.getTimestamp("post_date"),
+                        rs.getInt("likes")
+                );
+                posts.add(post);
+            }
+            rs.close();
+        }
+
+        return posts;
+    }
+
+    /**
+     * Get the posts of a platform created after a given date
+     * @param platformId The platform ID
+     * @param since Start date, exclusive
+     * @return The newer posts, newest first
+     * @throws SQLException If a database error occurs
+     */
+    public List<Post> getPostsByPlatformSince(int platformId, java.util.Date since) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM posts WHERE platform_id = ? AND post_date > ? ORDER BY post_date DESC, id DESC";
+        List<Post> posts = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, platformId);
+            pstmt.setTimestamp(2, new Timestamp(since.getTime()));
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                Post post = new Post(
+                        rs.getInt("id"),
+                        rs.getInt("platform_id"),
+                        rs.getInt("user_id"),
+                        rs.getString("username"),
+                        rs.getString("content"),
+                        rs.getTimestamp("post_date"),
+                        rs.getInt("likes")
+                );
+                posts.add(post);
+            }
+            rs.close();
+        }
+
+        return posts;
+    }
+
+    /**
+     * Get the posts of a platform with a higher ID than a given one, used to
+     * catch up a cached feed
+     * @param platformId The platform ID
+     * @param afterId Watermark post ID, exclusive
+     * @return The newer posts, newest first
+     * @throws SQLException If a database error occurs
+     */
+    public List<Post> getPostsByPlatformAfterId(int platformId, int afterId) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM posts WHERE platform_id = ? AND id > ? ORDER BY post_date DESC, id DESC";
+        List<Post> posts = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, platformId);
+            pstmt.setInt(2, afterId);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                Post post = new Post(
+                        rs.getInt("id"),
+                        rs.getInt("platform_id"),
+                        rs.getInt("user_id"),
+                        rs.getString("username"),
+                        rs.getString("content"),
+                        rs.getTimestamp("post_date"),
+                        rs.getInt("likes")
+                );
+                posts.add(post);
+            }
+            rs.close();
+        }
+
+        return posts;
+    }
+
+    /**
+     * Get the page of a platform's posts that follows a given post, using the
+     * (post_date, id) position of that post as the keyset
+     * @param platformId The platform ID
+     * @param beforeDate Date of the last post already shown
+     * @param beforeId ID of the last post already shown
+     * @param limit Maximum number of posts to return
+     * @return The next older posts, newest first
+     * @throws SQLException If a database error occurs
+     */
+    public List<Post> getPostsByPlatformBefore(int platformId, java.util.Date beforeDate, int beforeId, int limit) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM posts WHERE platform_id = ? AND (post_date, id) < (?, ?) " +
+                "ORDER BY post_date DESC, id DESC LIMIT ?";
+        List<Post> posts = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, platformId);
+            pstmt.setTimestamp(2, new Timestamp(beforeDate.getTime()));
+            pstmt.setInt(3, beforeId);
+            pstmt.setInt(4, limit);
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
@@ -94,7 +298,7 @@ public class PostDAO {
     }
 
     public List<Post> getAllPosts() throws SQLException {
-        String sql = "SELECT * FROM posts ORDER BY post_date DESC";
+        String sql = "SELECT " + COLUMNS + " FROM posts ORDER BY post_date DESC";
         List<Post> posts = new ArrayList<>();
 
         try (Connection conn = getConnection();
@@ -118,51 +322,165 @@ public class PostDAO {
         return posts;
     }
 
+    /**
+     * Hand every post to a consumer without holding them all in memory. Rows
+     * are read through a server-side cursor.
+     * @param consumer Receives each post; runs on the calling thread
+     * @throws SQLException If a database error occurs
+     */
+    public void forEachPost(Consumer<Post> consumer) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM posts";
+
+        try (Connection conn = getConnection()) {
+            // The PostgreSQL driver only uses a cursor outside auto-commit
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.setFetchSize(1000);
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    while (rs.next()) {
+                        consumer.accept(new Post(
+                                rs.getInt("id"),
+                                rs.getInt("platform_id"),
+                                rs.getInt("user_id"),
+                                rs.getString("username"),
+                                rs.getString("content"),
+                                rs.getTimestamp("post_date"),
+                                rs.getInt("likes")
+                        ));
+                    }
+                }
+            }
+            conn.commit();
+        }
+    }
+
+    /**
+     * Hand every post published before a given time to a consumer, together
+     * with its number of comments. Rows are read through a server-side cursor.
+     * @param before The end of the period
+     * @param consumer Receives each post and its comment count; runs on the calling thread
+     * @throws SQLException If a database error occurs
+     */
+    public void forEachPostWithCommentCount(java.util.Date before, ObjIntConsumer<Post> consumer) throws SQLException {
+        String sql = "SELECT " + P_COLUMNS + ", COALESCE(c.comment_count, 0) AS comment_count FROM posts p " +
+                "LEFT JOIN (SELECT post_id, COUNT(*) AS comment_count FROM comments GROUP BY post_id) c " +
+                "ON c.post_id = p.id WHERE p.post_date < ?";
+
+        try (Connection conn = getConnection()) {
+            // The PostgreSQL driver only uses a cursor outside auto-commit
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setFetchSize(1000);
+                pstmt.setTimestamp(1, new Timestamp(before.getTime()));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(new Post(
+                                rs.getInt("id"),
+                                rs.getInt("platform_id"),
+                                rs.getInt("user_id"),
+                                rs.getString("username"),
+                                rs.getString("content"),
+                                rs.getTimestamp("post_date"),
+                                rs.getInt("likes")
+                        ), rs.getInt("comment_count"));
+                    }
+                }
+            }
+            conn.commit();
+        }
+    }
+
+    /**
+     * Insert a post and store its derived text features and MinHash signature alongside it
+     * @param post The post; its ID is set from the generated key
+     * @throws SQLException If a database error occurs
+     */
     public void createPost(Post post) throws SQLException {
         String sql = "INSERT INTO posts (platform_id, user_id, username, content, post_date, likes) VALUES (?, ?, ?, ?, ?, ?)";
+        PostFeatures features;
+        short[] signature;
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = getConnection()) {
+            // The post and its derived rows are written together or not at all
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
-            pstmt.setInt(1, post.getPlatformId());
-            pstmt.setInt(2, post.getUserId());
-            pstmt.setString(3, post.getUsername());
-            pstmt.setString(4, post.getContent());
-            pstmt.setTimestamp(5, new Timestamp(post.getPostDate().getTime()));
-            pstmt.setInt(6, post.getLikes());
+                pstmt.setInt(1, post.getPlatformId());
+                pstmt.setInt(2, post.getUserId());
+                pstmt.setString(3, post.getUsername());
+                pstmt.setString(4, post.getContent());
+                pstmt.setTimestamp(5, new Timestamp(post.getPostDate().getTime()));
+                pstmt.setInt(6, post.getLikes());
 
-            int affectedRows = pstmt.executeUpdate();
+                int affectedRows = pstmt.executeUpdate();
 
-            if (affectedRows == 0) {
-                throw new SQLException("Creating post failed, no rows affected.");
-            }
+                if (affectedRows == 0) {
+                    throw new SQLException("Creating post failed, no rows affected.");
+                }
 
-            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    post.setId(generatedKeys.getInt(1));
-                } else {
-                    throw new SQLException("Creating post failed, no ID obtained.");
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        post.setId(generatedKeys.getInt(1));
+                    } else {
+                        throw new SQLException("Creating post failed, no ID obtained.");
+                    }
                 }
+
+                features = TextFeatures.extract(post.getId(), post.getContent());
+                new PostFeatureDAO().save(conn, features);
+                signature = DuplicateDetector.signature(post.getContent());
+                new PostMinHashDAO().save(conn, post.getId(), signature);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
         }
+
+        FeedCache.getInstance().postSaved(post);
+        PostFeatureCache.getInstance().put(features);
+        TrendingEngine.getInstance().record(post.getId(), post.getPlatformId(), features.getHashtags(),
+                post.getPostDate().getTime());
+        SimilarityIndex.getInstance().index(post.getId(), post.getPlatformId(), post.getContent(), post.getLikes());
+        DuplicateDetector.getInstance().add(post.getId(), signature);
     }
 
+    /**
+     * Update a post and refresh its derived text features and MinHash signature.
+     * The like count is left alone: {@link LikeBuffer} owns it.
+     * @param post The post
+     * @throws SQLException If a database error occurs
+     */
     public void updatePost(Post post) throws SQLException {
-        String sql = "UPDATE posts SET platform_id = ?, user_id = ?, username = ?, content = ?, post_date = ?, likes = ? WHERE id = ?";
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, post.getPlatformId());
-            pstmt.setInt(2, post.getUserId());
-            pstmt.setString(3, post.getUsername());
-            pstmt.setString(4, post.getContent());
-            pstmt.setTimestamp(5, new Timestamp(post.getPostDate().getTime()));
-            pstmt.setInt(6, post.getLikes());
-            pstmt.setInt(7, post.getId());
-
-            pstmt.executeUpdate();
+        String sql = "UPDATE posts SET platform_id = ?, user_id = ?, username = ?, content = ?, post_date = ? WHERE id = ?";
+        PostFeatures features = TextFeatures.extract(post.getId(), post.getContent());
+        short[] signature = DuplicateDetector.signature(post.getContent());
+
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+                pstmt.setInt(1, post.getPlatformId());
+                pstmt.setInt(2, post.getUserId());
+                pstmt.setString(3, post.getUsername());
+                pstmt.setString(4, post.getContent());
+                pstmt.setTimestamp(5, new Timestamp(post.getPostDate().getTime()));
+                pstmt.setInt(6, post.getId());
+
+                pstmt.executeUpdate();
+                new PostFeatureDAO().save(conn, features);
+                new PostMinHashDAO().save(conn, post.getId(), signature);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         }
+
+        FeedCache.getInstance().postSaved(post);
+        PostFeatureCache.getInstance().put(features);
+        SimilarityIndex.getInstance().index(post.getId(), post.getPlatformId(), post.getContent(), post.getLikes());
+        DuplicateDetector.getInstance().add(post.getId(), signature);
     }
 
     public void deletePost(int id) throws SQLException {
@@ -174,5 +492,10 @@ public class PostDAO {
             pstmt.setInt(1, id);
             pstmt.executeUpdate();
         }
+
+        FeedCache.getInstance().postDeleted(id);
+        PostFeatureCache.getInstance().remove(id);
+        SimilarityIndex.getInstance().remove(id);
+        DuplicateDetector.getInstance().remove(id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package database;
+
+import ai.TextFeatures;
+import model.Post;
+import model.PostFeatures;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Singleton LRU cache in front of the post_features table. Entries are only
+ * served while their content hash matches the post they are requested for,
+ * so features of a post edited elsewhere are recomputed instead of reused.
+ */
+public class PostFeatureCache {
+    private static final int CAPACITY = 5000;
+
+    private static PostFeatureCache instance;
+    private final PostFeatureDAO featureDAO = new PostFeatureDAO();
+    // Guarded by this
+    private final Map<Integer, PostFeatures> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, PostFeatures> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    private PostFeatureCache() {
+    }
+
+    public static synchronized PostFeatureCache getInstance() {
+        if (instance == null) {
+            instance = new PostFeatureCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Get the features of a post without touching the database. On a miss
+     * the features are computed from the content and cached, which is cheap
+     * enough to do on the EDT.
+     * @param post The post
+     * @return The post's current features
+     */
+    public PostFeatures getFeatures(Post post) {
+        long hash = TextFeatures.contentHash(post.getContent());
+        synchronized (this) {
+            PostFeatures cached = entries.get(post.getId());
+            if (cached != null && cached.getContentHash() == hash) {
+                return cached;
+            }
+        }
+        PostFeatures features = TextFeatures.extract(post.getId(), post.getContent());
+        put(features);
+        return features;
+    }
+
+    /**
+     * Get the features of many posts: from the cache, then from the table in
+     * one query, and computing and storing whatever is missing or stale
+     * @param posts The posts
+     * @return Features by post ID, one for every post
+     * @throws SQLException If a database error occurs
+     */
+    public Map<Integer, PostFeatures> getFeatures(List<Post> posts) throws SQLException {
+        Map<Integer, PostFeatures> result = new HashMap<>();
+        Map<Integer, Post> misses = new HashMap<>();
+        synchronized (this) {
+            for (Post post : posts) {
+                PostFeatures cached = entries.get(post.getId());
+                if (cached != null && cached.getContentHash() == TextFeatures.contentHash(post.getContent())) {
+                    result.put(post.getId(), cached);
+                } else {
+                    misses.put(post.getId(), post);
+                }
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        Map<Integer, PostFeatures> stored = featureDAO.getFeatures(misses.keySet());
+        List<PostFeatures> computed = new ArrayList<>();
+        for (Post post : misses.values()) {
+            PostFeatures features = stored.get(post.getId());
+            if (features == null || features.getContentHash() != TextFeatures.contentHash(post.getContent())) {
+                features = TextFeatures.extract(post.getId(), post.getContent());
+                computed.add(features);
+            }
+            result.put(post.getId(), features);
+        }
+        featureDAO.saveAll(computed);
+
+        synchronized (this) {
+            for (PostFeatures features : result.values()) {
+                entries.put(features.getPostId(), features);
+            }
+        }
+        return result;
+    }
+
+    synchronized void put(PostFeatures features) {
+        entries.put(features.getPostId(), features);
+    }
+
+    synchronized void remove(int postId) {
+        entries.remove(postId);
+    }
+}
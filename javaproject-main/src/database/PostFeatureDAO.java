@@ -0,0 +1,107 @@
+package database;
+
+import model.PostFeatures;
+
+import java.sql.*;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the post_features side table, which holds the derived
+ * text features of each post keyed by post ID and content hash
+ */
+public class PostFeatureDAO {
+    private static final String UPSERT_SQL = "INSERT INTO post_features " +
+            "(post_id, content_hash, sentiment, hashtags, language, length_class, computed_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (post_id) DO UPDATE SET content_hash = EXCLUDED.content_hash, " +
+            "sentiment = EXCLUDED.sentiment, hashtags = EXCLUDED.hashtags, language = EXCLUDED.language, " +
+            "length_class = EXCLUDED.length_class, computed_at = EXCLUDED.computed_at";
+
+    private Connection getConnection() throws SQLException {
+        return DatabaseConnector.getConnection();
+    }
+
+    /**
+     * Get the stored features of many posts in one query
+     * @param postIds The post IDs
+     * @return Features by post ID; posts without stored features are absent
+     * @throws SQLException If a database error occurs
+     */
+    public Map<Integer, PostFeatures> getFeatures(Collection<Integer> postIds) throws SQLException {
+        String sql = "SELECT * FROM post_features WHERE post_id = ANY(?)";
+        Map<Integer, PostFeatures> features = new HashMap<>();
+        if (postIds.isEmpty()) {
+            return features;
+        }
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setArray(1, conn.createArrayOf("integer", postIds.toArray()));
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                PostFeatures feature = new PostFeatures(
+                        rs.getInt("post_id"),
+                        rs.getLong("content_hash"),
+                        rs.getDouble("sentiment"),
+                        Arrays.asList((String[]) rs.getArray("hashtags").getArray()),
+                        rs.getString("language"),
+                        rs.getString("length_class")
+                );
+                features.put(feature.getPostId(), feature);
+            }
+            rs.close();
+        }
+
+        return features;
+    }
+
+    /**
+     * Store the features of many posts in one batch, replacing older rows
+     * @param features The features to store
+     * @throws SQLException If a database error occurs
+     */
+    public void saveAll(List<PostFeatures> features) throws SQLException {
+        if (features.isEmpty()) {
+            return;
+        }
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
+
+            for (PostFeatures feature : features) {
+                bind(conn, pstmt, feature);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Store the features of one post on the caller's connection, so
+     * {@link PostDAO} can write them right after the post itself
+     * @param conn The open connection
+     * @param features The features to store
+     * @throws SQLException If a database error occurs
+     */
+    void save(Connection conn, PostFeatures features) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
+            bind(conn, pstmt, features);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private void bind(Connection conn, PreparedStatement pstmt, PostFeatures features) throws SQLException {
+        pstmt.setInt(1, features.getPostId());
+        pstmt.setLong(2, features.getContentHash());
+        pstmt.setDouble(3, features.getSentiment());
+        pstmt.setArray(4, conn.createArrayOf("text", features.getHashtags().toArray()));
+        pstmt.setString(5, features.getLanguage());
+        pstmt.setString(6, features.getLengthClass());
+    }
+}
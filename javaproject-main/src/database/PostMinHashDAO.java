@@ -0,0 +1,144 @@
+package database;
+
+import ai.DuplicateDetector;
+import model.Post;
+
+import java.nio.ByteBuffer;
+import java.sql.*;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Reads and writes the post_minhash side table, which holds the MinHash
+ * signature of each post for the {@link DuplicateDetector}. Signatures are
+ * stored as big-endian 16-bit values.
+ */
+public class PostMinHashDAO {
+    private static final String UPSERT_SQL = "INSERT INTO post_minhash (post_id, signature, computed_at) " +
+            "VALUES (?, ?, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (post_id) DO UPDATE SET signature = EXCLUDED.signature, computed_at = EXCLUDED.computed_at";
+
+    private Connection getConnection() throws SQLException {
+        return DatabaseConnector.getConnection();
+    }
+
+    /**
+     * Hand every stored signature to a consumer. Rows are read through a
+     * server-side cursor.
+     * @param consumer Receives each post ID and signature; runs on the calling thread
+     * @throws SQLException If a database error occurs
+     */
+    public void forEachSignature(BiConsumer<Integer, short[]> consumer) throws SQLException {
+        String sql = "SELECT post_id, signature FROM post_minhash WHERE signature IS NOT NULL";
+
+        try (Connection conn = getConnection()) {
+            // The PostgreSQL driver only uses a cursor outside auto-commit
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.setFetchSize(1000);
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    while (rs.next()) {
+                        short[] signature = decode(rs.getBytes("signature"));
+                        if (signature != null) {
+                            consumer.accept(rs.getInt("post_id"), signature);
+                        }
+                    }
+                }
+            }
+            conn.commit();
+        }
+    }
+
+    /**
+     * Hand every post without a stored signature to a consumer, e.g. posts
+     * written before signatures were kept. Rows are read through a
+     * server-side cursor.
+     * @param consumer Receives each post; runs on the calling thread
+     * @throws SQLException If a database error occurs
+     */
+    public void forEachPostWithoutSignature(Consumer<Post> consumer) throws SQLException {
+        String sql = "SELECT " + PostDAO.P_COLUMNS + " FROM posts p LEFT JOIN post_minhash m ON m.post_id = p.id WHERE m.post_id IS NULL";
+
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.setFetchSize(1000);
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    while (rs.next()) {
+                        consumer.accept(new Post(
+                                rs.getInt("id"),
+                                rs.getInt("platform_id"),
+                                rs.getInt("user_id"),
+                                rs.getString("username"),
+                                rs.getString("content"),
+                                rs.getTimestamp("post_date"),
+                                rs.getInt("likes")
+                        ));
+                    }
+                }
+            }
+            conn.commit();
+        }
+    }
+
+    /**
+     * Store the signatures of many posts in one batch, replacing older rows
+     * @param postIds The post IDs
+     * @param signatures The signatures, in the order of the IDs; null for posts too short to compare
+     * @throws SQLException If a database error occurs
+     */
+    public void saveAll(List<Integer> postIds, short[][] signatures) throws SQLException {
+        if (postIds.isEmpty()) {
+            return;
+        }
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
+
+            for (int i = 0; i < postIds.size(); i++) {
+                pstmt.setInt(1, postIds.get(i));
+                pstmt.setBytes(2, encode(signatures[i]));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Store the signature of one post on the caller's connection, so
+     * {@link PostDAO} can write it right after the post itself
+     * @param conn The open connection
+     * @param postId The post ID
+     * @param signature The signature, or null for a post too short to compare
+     * @throws SQLException If a database error occurs
+     */
+    void save(Connection conn, int postId, short[] signature) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
+            pstmt.setInt(1, postId);
+            pstmt.setBytes(2, encode(signature));
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static byte[] encode(short[] signature) {
+        if (signature == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(signature.length * 2);
+        buffer.asShortBuffer().put(signature);
+        return buffer.array();
+    }
+
+    /**
+     * @return The signature, or null if the stored bytes do not hold one of the current length
+     */
+    private static short[] decode(byte[] bytes) {
+        if (bytes == null || bytes.length != DuplicateDetector.SIGNATURE_LENGTH * 2) {
+            return null;
+        }
+        short[] signature = new short[DuplicateDetector.SIGNATURE_LENGTH];
+        ByteBuffer.wrap(bytes).asShortBuffer().get(signature);
+        return signature;
+    }
+}
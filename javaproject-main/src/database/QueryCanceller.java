@@ -0,0 +1,63 @@
+package database;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cancellation handle for a sequence of queries run on a background thread.
+ * DAOs register each statement while it executes so that {@link #cancel()}
+ * can abort the running query on the server via {@link Statement#cancel()}.
+ */
+public class QueryCanceller {
+    private static final Logger LOGGER = Logger.getLogger(QueryCanceller.class.getName());
+
+    private Statement currentStatement;
+    private boolean cancelled;
+
+    /**
+     * Register the statement that is about to execute
+     * @param statement The statement
+     * @throws SQLException If the handle has already been cancelled
+     */
+    public synchronized void track(Statement statement) throws SQLException {
+        if (cancelled) {
+            throw new SQLException("Query cancelled");
+        }
+        currentStatement = statement;
+    }
+
+    /**
+     * Unregister a statement once it has finished
+     * @param statement The statement
+     */
+    public synchronized void release(Statement statement) {
+        if (currentStatement == statement) {
+            currentStatement = null;
+        }
+    }
+
+    /**
+     * Cancel the running query, if any, and reject any further ones
+     */
+    public void cancel() {
+        Statement statement;
+        synchronized (this) {
+            cancelled = true;
+            statement = currentStatement;
+            currentStatement = null;
+        }
+        if (statement != null) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Error cancelling statement", e);
+            }
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+}
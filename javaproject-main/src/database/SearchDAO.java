@@ -0,0 +1,132 @@
+package database;
+
+import model.SearchPage;
+import model.SearchResult;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Full-text search over posts and comments. Both tables carry a generated
+ * search_vector column with a GIN index (see {@link DatabaseConnector}), so
+ * matching never scans the content itself. Results are ranked with ts_rank
+ * and paged by keyset on (rank, kind, id); snippets are highlighted with
+ * ts_headline for the rows of the returned page only, as it has to re-parse
+ * the content.
+ */
+public class SearchDAO {
+    private static final int KIND_POST = 0;
+    private static final int KIND_COMMENT = 1;
+
+    private static final String HEADLINE_OPTIONS = "StartSel=" + SearchResult.HIGHLIGHT_START +
+            ", StopSel=" + SearchResult.HIGHLIGHT_END + ", MaxWords=30, MinWords=10, MaxFragments=2";
+
+    private Connection getConnection() throws SQLException {
+        return DatabaseConnector.getConnection();
+    }
+
+    /**
+     * Search posts and comments. The query uses web search syntax: quoted
+     * phrases, "or", and a leading "-" to exclude a word.
+     * @param query The search text
+     * @param platformId Only results on this platform, or null for all
+     * @param userId Only results written by this user, or null for all
+     * @param from Only results written at or after this time, or null
+     * @param to Only results written before this time, or null
+     * @param after The last result of the previous page, or null for the first page
+     * @param limit Maximum number of results to return
+     * @param canceller Handle used to cancel the running query
+     * @return The page of results, best match first
+     * @throws SQLException If a database error occurs or the search was cancelled
+     */
+    public SearchPage search(String query, Integer platformId, Integer userId, java.util.Date from, java.util.Date to,
+                             SearchResult after, int limit, QueryCanceller canceller) throws SQLException {
+        List<SearchResult> results = new ArrayList<>();
+        if (query == null || query.isBlank()) {
+            return new SearchPage(results, false);
+        }
+
+        List<Object> params = new ArrayList<>();
+        params.add(query.trim());
+        StringBuilder filters = new StringBuilder("TRUE");
+        if (platformId != null) {
+            filters.append(" AND platform_id = ?");
+            params.add(platformId);
+        }
+        if (userId != null) {
+            filters.append(" AND user_id = ?");
+            params.add(userId);
+        }
+        if (from != null) {
+            filters.append(" AND written_at >= ?");
+            params.add(new Timestamp(from.getTime()));
+        }
+        if (to != null) {
+            filters.append(" AND written_at < ?");
+            params.add(new Timestamp(to.getTime()));
+        }
+        if (after != null) {
+            filters.append(" AND (rank, kind, id) < (?, ?, ?)");
+            params.add(after.getRank());
+            params.add(after.getKind() == SearchResult.Kind.POST ? KIND_POST : KIND_COMMENT);
+            params.add(after.getId());
+        }
+        params.add(limit + 1);
+        params.add(HEADLINE_OPTIONS);
+
+        // The filters on the outer query are pushed down into both branches
+        String sql = "WITH q AS (SELECT websearch_to_tsquery('english', ?) AS query), " +
+                "hits AS (" +
+                "SELECT " + KIND_POST + " AS kind, p.id, p.id AS post_id, p.platform_id, p.user_id, p.username, " +
+                "p.post_date AS written_at, p.content, ts_rank(p.search_vector, q.query) AS rank " +
+                "FROM posts p, q WHERE p.search_vector @@ q.query " +
+                "UNION ALL " +
+                "SELECT " + KIND_COMMENT + ", c.id, c.post_id, p.platform_id, c.user_id, c.username, " +
+                "c.comment_date, c.content, ts_rank(c.search_vector, q.query) " +
+                "FROM comments c JOIN posts p ON p.id = c.post_id, q WHERE c.search_vector @@ q.query" +
+                "), " +
+                "page AS (SELECT * FROM hits WHERE " + filters +
+                " ORDER BY rank DESC, kind DESC, id DESC LIMIT ?) " +
+                "SELECT page.*, ts_headline('english', page.content, q.query, ?) AS snippet " +
+                "FROM page, q ORDER BY rank DESC, kind DESC, id DESC";
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < params.size(); i++) {
+                Object param = params.get(i);
+                if (param instanceof Float) {
+                    // Bind as real so the keyset compares exactly with ts_rank
+                    pstmt.setFloat(i + 1, (Float) param);
+                } else {
+                    pstmt.setObject(i + 1, param);
+                }
+            }
+            canceller.track(pstmt);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    results.add(new SearchResult(
+                            rs.getInt("kind") == KIND_POST ? SearchResult.Kind.POST : SearchResult.Kind.COMMENT,
+                            rs.getInt("id"),
+                            rs.getInt("post_id"),
+                            rs.getInt("platform_id"),
+                            rs.getInt("user_id"),
+                            rs.getString("username"),
+                            rs.getTimestamp("written_at"),
+                            rs.getFloat("rank"),
+                            rs.getString("snippet")
+                    ));
+                }
+            } finally {
+                canceller.release(pstmt);
+            }
+        }
+
+        boolean hasMore = results.size() > limit;
+        if (hasMore) {
+            results.remove(limit);
+        }
+        return new SearchPage(results, hasMore);
+    }
+}
@@ -0,0 +1,86 @@
+package database;
+
+import ai.SimilarityIndex;
+import model.Post;
+import util.BackgroundExecutor;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the {@link SimilarityIndex} in step with the posts table. At startup
+ * every post is indexed in the background; after that, changes announced by
+ * the {@link PostChangeFeed} are applied. Posts written here are indexed by
+ * {@link PostDAO}.
+ */
+public class SimilarityFeed {
+    private static final Logger LOGGER = Logger.getLogger(SimilarityFeed.class.getName());
+
+    private static boolean started;
+
+    private SimilarityFeed() {
+    }
+
+    /**
+     * Subscribe to the change feed and build the index in the background.
+     * Calling it again has no effect.
+     */
+    public static synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        PostChangeFeed.getInstance().addListener(new Listener());
+        BackgroundExecutor.submit(() -> load(false));
+    }
+
+    /**
+     * Index every post
+     * @param replace True to refresh posts already indexed, false to keep
+     *                them since they may have been indexed with newer content
+     */
+    static void load(boolean replace) {
+        long start = System.currentTimeMillis();
+        SimilarityIndex index = SimilarityIndex.getInstance();
+        AtomicInteger scanned = new AtomicInteger();
+        try {
+            new PostDAO().forEachPost(post -> {
+                if (replace) {
+                    index.index(post.getId(), post.getPlatformId(), post.getContent(), post.getLikes());
+                } else {
+                    index.indexIfAbsent(post.getId(), post.getPlatformId(), post.getContent(), post.getLikes());
+                }
+                scanned.incrementAndGet();
+            });
+            LOGGER.log(Level.INFO, "Similarity index loaded from " + scanned.get() + " posts in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error loading posts into the similarity index", e);
+        }
+    }
+
+    private static class Listener implements PostChangeListener {
+        @Override
+        public void postWritten(Post post) {
+            SimilarityIndex.getInstance().index(post.getId(), post.getPlatformId(), post.getContent(), post.getLikes());
+        }
+
+        @Override
+        public void postUpdated(Post post) {
+            SimilarityIndex.getInstance().updateLikes(post.getId(), post.getLikes());
+        }
+
+        @Override
+        public void postDeleted(int postId) {
+            SimilarityIndex.getInstance().remove(postId);
+        }
+
+        @Override
+        public void resync() {
+            // Edits may have been missed; unchanged posts only have their likes refreshed
+            BackgroundExecutor.submit(() -> load(true));
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package database;
+
+import model.DashboardSnapshot;
+import model.FeedPage;
+import model.Post;
+import model.SocialMedia;
+import model.UserAnalytics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stores one {@link DashboardSnapshot} per user in a compact binary file
+ * under the user's home directory. Files are replaced atomically, so a crash
+ * mid-write leaves the previous snapshot intact, and read whole into a
+ * buffer. A missing, foreign-version or damaged file reads as
+ * no snapshot.
+ *
+ * Layout, big-endian: magic, version, user ID, save time, then the platforms,
+ * the first pages (with liked post IDs and posts) and the optional analytics.
+ * Strings are an int byte length followed by UTF-8 bytes.
+ */
+public class SnapshotStore {
+    private static final Logger LOGGER = Logger.getLogger(SnapshotStore.class.getName());
+    private static final int MAGIC = 0x534D4453; // "SMDS"
+    private static final int VERSION = 1;
+
+    private final Path directory;
+
+    public SnapshotStore() {
+        this(Paths.get(System.getProperty("user.home"), ".social-media-dashboard"));
+    }
+
+    public SnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Read a user's snapshot
+     * @param userId The user ID
+     * @return The snapshot, or null if there is no usable one
+     */
+    public DashboardSnapshot read(int userId) {
+        Path file = fileFor(userId);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            // Read onto the heap rather than mapping: on Windows a file cannot
+            // be replaced while a mapping of it is still open
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != userId) {
+                LOGGER.log(Level.INFO, "Ignoring snapshot with unknown format: " + file);
+                return null;
+            }
+            Date savedAt = new Date(buffer.getLong());
+            List<SocialMedia> platforms = readPlatforms(buffer);
+            Map<Integer, FeedPage> firstPages = readFirstPages(buffer);
+            UserAnalytics analytics = buffer.get() != 0 ? readAnalytics(buffer, userId) : null;
+            return new DashboardSnapshot(userId, savedAt, platforms, firstPages, analytics);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "Ignoring unreadable snapshot: " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Replace a user's snapshot
+     * @param snapshot The snapshot to save
+     * @throws IOException If the file cannot be written
+     */
+    public void write(DashboardSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(snapshot.getUserId());
+        out.writeLong(snapshot.getSavedAt().getTime());
+        writePlatforms(out, snapshot.getPlatforms());
+        writeFirstPages(out, snapshot.getFirstPages());
+        out.writeBoolean(snapshot.getAnalytics() != null);
+        if (snapshot.getAnalytics() != null) {
+            writeAnalytics(out, snapshot.getAnalytics());
+        }
+        out.flush();
+
+        Files.createDirectories(directory);
+        Path file = fileFor(snapshot.getUserId());
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path fileFor(int userId) {
+        return directory.resolve("snapshot-" + userId + ".bin");
+    }
+
+    private static void writePlatforms(DataOutputStream out, List<SocialMedia> platforms) throws IOException {
+        out.writeInt(platforms.size());
+        for (SocialMedia platform : platforms) {
+            out.writeInt(platform.getId());
+            writeString(out, platform.getName());
+            writeString(out, platform.getIcon());
+            writeString(out, platform.getColor());
+        }
+    }
+
+    private static List<SocialMedia> readPlatforms(ByteBuffer in) {
+        int count = readCount(in);
+        List<SocialMedia> platforms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            platforms.add(new SocialMedia(in.getInt(), readString(in), readString(in), readString(in)));
+        }
+        return platforms;
+    }
+
+    private static void writeFirstPages(DataOutputStream out, Map<Integer, FeedPage> pages) throws IOException {
+        out.writeInt(pages.size());
+        for (FeedPage page : pages.values()) {
+            out.writeInt(page.getPlatformId());
+            out.writeBoolean(page.hasMore());
+            out.writeInt(page.getLikedPostIds().size());
+            for (int postId : page.getLikedPostIds()) {
+                out.writeInt(postId);
+            }
+            out.writeInt(page.getPosts().size());
+            for (Post post : page.getPosts()) {
+                out.writeInt(post.getId());
+                out.writeInt(post.getPlatformId());
+                out.writeInt(post.getUserId());
+                writeString(out, post.getUsername());
+                writeString(out, post.getContent());
+                out.writeLong(post.getPostDate() != null ? post.getPostDate().getTime() : Long.MIN_VALUE);
+                out.writeInt(post.getLikes());
+            }
+        }
+    }
+
+    private static Map<Integer, FeedPage> readFirstPages(ByteBuffer in) {
+        int pageCount = readCount(in);
+        Map<Integer, FeedPage> pages = new LinkedHashMap<>();
+        for (int i = 0; i < pageCount; i++) {
+            int platformId = in.getInt();
+            boolean hasMore = in.get() != 0;
+            int likedCount = readCount(in);
+            Set<Integer> likedPostIds = new HashSet<>();
+            for (int j = 0; j < likedCount; j++) {
+                likedPostIds.add(in.getInt());
+            }
+            int postCount = readCount(in);
+            List<Post> posts = new ArrayList<>(postCount);
+            for (int j = 0; j < postCount; j++) {
+                int id = in.getInt();
+                int postPlatformId = in.getInt();
+                int userId = in.getInt();
+                String username = readString(in);
+                String content = readString(in);
+                long postDate = in.getLong();
+                int likes = in.getInt();
+                posts.add(new Post(id, postPlatformId, userId, username, content,
+                        postDate != Long.MIN_VALUE ? new Date(postDate) : null, likes));
+            }
+            pages.put(platformId, new FeedPage(platformId, posts, likedPostIds, hasMore));
+        }
+        return pages;
+    }
+
+    private static void writeAnalytics(DataOutputStream out, UserAnalytics analytics) throws IOException {
+        out.writeInt(analytics.getTotalPosts());
+        out.writeInt(analytics.getTotalLikes());
+        out.writeInt(analytics.getTotalComments());
+        out.writeInt(analytics.getPostsByPlatform().size());
+        for (Map.Entry<String, Integer> entry : analytics.getPostsByPlatform().entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+        out.writeInt(analytics.getDailyPostCounts().size());
+        for (Map.Entry<Date, Integer> entry : analytics.getDailyPostCounts().entrySet()) {
+            out.writeLong(entry.getKey().getTime());
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    private static UserAnalytics readAnalytics(ByteBuffer in, int userId) {
+        UserAnalytics analytics = new UserAnalytics(userId);
+        analytics.setTotalPosts(in.getInt());
+        analytics.setTotalLikes(in.getInt());
+        analytics.setTotalComments(in.getInt());
+        int platformCount = readCount(in);
+        for (int i = 0; i < platformCount; i++) {
+            analytics.getPostsByPlatform().put(readString(in), in.getInt());
+        }
+        int dayCount = readCount(in);
+        for (int i = 0; i < dayCount; i++) {
+            analytics.getDailyPostCounts().put(new Date(in.getLong()), in.getInt());
+        }
+        return analytics;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.remaining()) {
+            throw new IllegalArgumentException("String length " + length + " exceeds the snapshot");
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read an element count, rejecting values a damaged file could produce
+     */
+    private static int readCount(ByteBuffer in) {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining()) {
+            throw new IllegalArgumentException("Invalid element count " + count);
+        }
+        return count;
+    }
+}
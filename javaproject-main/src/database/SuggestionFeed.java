@@ -0,0 +1,106 @@
+package database;
+
+import ai.PostSuggestionEngine;
+import model.Post;
+import util.BackgroundExecutor;
+
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Trains the {@link PostSuggestionEngine} on the posts of the users signed in
+ * here. A user's posts with at least their average number of likes are
+ * trained on at start; after that, a post is added once a like announced by
+ * the {@link ChangeFeed} brings it up to that average.
+ */
+public class SuggestionFeed {
+    private static final Logger LOGGER = Logger.getLogger(SuggestionFeed.class.getName());
+
+    private static final Map<Integer, UserState> users = new ConcurrentHashMap<>();
+    private static boolean listening;
+
+    private SuggestionFeed() {
+    }
+
+    /**
+     * Train the model of a user in the background. Calling it again for the
+     * same user has no effect.
+     * @param userId The user ID
+     */
+    public static void start(int userId) {
+        synchronized (SuggestionFeed.class) {
+            if (!listening) {
+                listening = true;
+                ChangeFeed.getInstance().addListener(SuggestionFeed::onChange);
+            }
+        }
+        if (users.putIfAbsent(userId, new UserState()) == null) {
+            BackgroundExecutor.submit(() -> train(userId));
+        }
+    }
+
+    /**
+     * Train on the user's posts that reach their average likes and were not
+     * trained on yet
+     */
+    static void train(int userId) {
+        UserState state = users.get(userId);
+        try {
+            List<Post> posts = new PostDAO().getPostsByUser(userId);
+            long totalLikes = 0;
+            for (Post post : posts) {
+                totalLikes += post.getLikes();
+            }
+            synchronized (state) {
+                state.threshold = posts.isEmpty() ? 0 : (int) Math.ceil((double) totalLikes / posts.size());
+            }
+            int trained = 0;
+            for (Post post : posts) {
+                if (record(state, post)) {
+                    trained++;
+                }
+            }
+            LOGGER.log(Level.INFO, "Post suggestions for user " + userId + " trained on " + trained
+                    + " of " + posts.size() + " posts");
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error loading posts to train suggestions for user " + userId, e);
+        }
+    }
+
+    private static boolean record(UserState state, Post post) {
+        synchronized (state) {
+            if (post.getLikes() < state.threshold || !state.trainedPostIds.add(post.getId())) {
+                return false;
+            }
+        }
+        PostSuggestionEngine.getInstance().train(post.getUserId(), post.getContent(), post.getLikes());
+        return true;
+    }
+
+    private static void onChange(ChangeEvent event) {
+        if (event.getOperation() == ChangeEvent.Operation.RESYNC) {
+            // Likes may have been missed; posts already trained on are skipped
+            for (Integer userId : users.keySet()) {
+                BackgroundExecutor.submit(() -> train(userId));
+            }
+        } else if (event.getTable() == ChangeEvent.Table.LIKES && event.getOperation() == ChangeEvent.Operation.INSERT) {
+            // Only posts in the feed cache are checked, so likes cost no query
+            Post post = FeedCache.getInstance().getCachedPost(event.getParentId(), event.getId());
+            UserState state = post != null ? users.get(post.getUserId()) : null;
+            if (state != null) {
+                record(state, post);
+            }
+        }
+    }
+
+    private static class UserState {
+        private final Set<Integer> trainedPostIds = new HashSet<>();
+        private int threshold = Integer.MAX_VALUE;
+    }
+}
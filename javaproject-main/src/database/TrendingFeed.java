@@ -0,0 +1,160 @@
+package database;
+
+import ai.RisingPostsTracker;
+import ai.TextFeatures;
+import ai.TrendingEngine;
+import model.Post;
+import model.SocialMedia;
+import util.BackgroundExecutor;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the {@link TrendingEngine} and the {@link RisingPostsTracker} fed
+ * from the database. At startup it scans the last week of posts, one
+ * platform per background task, and the last hour of likes. After that it
+ * records posts created by other clients as the {@link PostChangeFeed} hands
+ * them over, and every like as the {@link ChangeFeed} announces it; posts
+ * created here are recorded by {@link PostDAO}.
+ */
+public class TrendingFeed {
+    private static final Logger LOGGER = Logger.getLogger(TrendingFeed.class.getName());
+
+    private static boolean started;
+    private static final AtomicBoolean rebuilding = new AtomicBoolean();
+    private static final AtomicBoolean replaying = new AtomicBoolean();
+
+    private TrendingFeed() {
+    }
+
+    /**
+     * Subscribe to the change feed and rebuild the trend counts in the
+     * background. Calling it again has no effect.
+     */
+    public static synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        ChangeFeed.getInstance().addListener(TrendingFeed::onChange);
+        PostChangeFeed.getInstance().addListener(new Listener());
+        BackgroundExecutor.submit(TrendingFeed::rebuild);
+        BackgroundExecutor.submit(TrendingFeed::rebuildRisingPosts);
+    }
+
+    /**
+     * Count every post of the longest trend window, scanning the platforms in
+     * parallel. Posts already recorded are skipped by the engine, so this can
+     * run while new posts arrive. The scans are chained rather than waited
+     * for, so no worker of the shared pool blocks on the others; a rebuild
+     * asked for while one is running is dropped.
+     */
+    static void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Date since = new Date(start - TrendingEngine.Window.WEEK.getLengthMillis());
+        AtomicInteger scanned = new AtomicInteger();
+        List<CompletableFuture<Void>> scans = new ArrayList<>();
+        try {
+            for (SocialMedia platform : new SocialMediaPlatformDAO().getAllPlatforms()) {
+                scans.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        for (Post post : new PostDAO().getPostsByPlatformSince(platform.getId(), since)) {
+                            record(post);
+                            scanned.incrementAndGet();
+                        }
+                    } catch (SQLException e) {
+                        throw new CompletionException(e);
+                    }
+                }, BackgroundExecutor.getExecutor()));
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error rebuilding trending hashtags", e);
+            rebuilding.set(false);
+            return;
+        }
+        CompletableFuture.allOf(scans.toArray(CompletableFuture<?>[]::new)).whenComplete((ignored, error) -> {
+            rebuilding.set(false);
+            if (error != null) {
+                LOGGER.log(Level.WARNING, "Error rebuilding trending hashtags", error);
+            } else {
+                LOGGER.log(Level.INFO, "Trending hashtags rebuilt from " + scanned.get() + " posts in "
+                        + (System.currentTimeMillis() - start) + " ms");
+            }
+        });
+    }
+
+    /**
+     * Replay the likes of the last hour into a cleared rising posts tracker.
+     * Dropped while a replay is running, as two would count each like twice.
+     */
+    static void rebuildRisingPosts() {
+        if (!replaying.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        RisingPostsTracker tracker = RisingPostsTracker.getInstance();
+        AtomicInteger replayed = new AtomicInteger();
+        tracker.clear();
+        try {
+            new LikeDAO().forEachLikeSince(new Date(start - RisingPostsTracker.WINDOW_MILLIS), like -> {
+                tracker.recordLike(like.getPostId(), like.getPlatformId(), like.getLikedAt().getTime());
+                replayed.incrementAndGet();
+            });
+            LOGGER.log(Level.INFO, "Rising posts rebuilt from " + replayed.get() + " likes in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error rebuilding rising posts", e);
+        } finally {
+            replaying.set(false);
+        }
+    }
+
+    /**
+     * Count the hashtags of a post
+     * @param post The created post
+     */
+    static void record(Post post) {
+        TrendingEngine.getInstance().record(post.getId(), post.getPlatformId(),
+                TextFeatures.extractHashtags(post.getContent()), post.getPostDate().getTime());
+    }
+
+    private static void onChange(ChangeEvent event) {
+        if (event.getOperation() == ChangeEvent.Operation.RESYNC) {
+            // Inserts may have been missed; the engine skips posts it already has
+            BackgroundExecutor.submit(TrendingFeed::rebuild);
+            BackgroundExecutor.submit(TrendingFeed::rebuildRisingPosts);
+        } else if (event.getTable() == ChangeEvent.Table.LIKES && event.getOperation() == ChangeEvent.Operation.INSERT) {
+            // The notification carries the post and its platform, no query needed
+            RisingPostsTracker.getInstance().recordLike(event.getId(), event.getParentId(), System.currentTimeMillis());
+        }
+    }
+
+    private static class Listener implements PostChangeListener {
+        @Override
+        public void postWritten(Post post) {
+            // Edits arrive here too; the engine skips posts it already has
+            record(post);
+        }
+
+        @Override
+        public void postDeleted(int postId) {
+        }
+
+        @Override
+        public void resync() {
+            // Handled with the likes in onChange
+        }
+    }
+}
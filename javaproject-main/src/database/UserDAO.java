@@ -4,6 +4,7 @@ import model.User;
 import util.PasswordHasher;
 
 import java.sql.*;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -161,4 +162,38 @@ public class UserDAO {
         }
         return false;
     }
-}
\ No newline at end of file
+
+    /**
+     * Hand every user to a consumer, in ID order. Rows are read through a
+     * server-side cursor, so only one fetch batch is held in memory at a time.
+     * @param fetchSize Number of rows per fetch
+     * @param consumer Receives each user; runs on the calling thread
+     * @throws SQLException If a database error occurs
+     */
+    public void forEachUser(int fetchSize, Consumer<User> consumer) throws SQLException {
+        String sql = "SELECT * FROM users ORDER BY id";
+        try (Connection conn = getConnection()) {
+            // The PostgreSQL driver only uses a cursor outside auto-commit
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setFetchSize(fetchSize);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(new User(
+                                rs.getInt("id"),
+                                rs.getString("username"),
+                                rs.getString("full_name"),
+                                rs.getString("email"),
+                                rs.getString("password_hash"),
+                                rs.getString("theme_preference")
+                        ));
+                    }
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error streaming users", e);
+            throw e;
+        }
+    }
+}
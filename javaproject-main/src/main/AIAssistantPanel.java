@@ -1,27 +1,56 @@
 package main;
 
 import ai.AIAssistant;
+import ai.AIService;
+import ai.DuplicateDetector;
+import ai.RisingPostsTracker;
+import database.CommentDAO;
+import database.FeedCache;
+import database.PostDAO;
+import database.PostFeatureCache;
+import model.Comment;
+import model.Post;
+import model.PostFeatures;
+import model.User;
+import util.BackgroundExecutor;
 import util.UIUtil;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Panel for the AI Assistant feature that provides content suggestions,
  * writing help, and other assistance to the user.
  */
 public class AIAssistantPanel extends JPanel {
+    private static final Logger LOGGER = Logger.getLogger(AIAssistantPanel.class.getName());
+    private static final int RISING_POST_COUNT = 5;
+    private static final int DUPLICATE_GROUP_COUNT = 5;
+
+    private final User currentUser;
     private JTextArea chatArea;
     private JTextField inputField;
+    private JButton sendButton;
     private JButton suggestPostButton;
     private JButton suggestCommentButton;
+    private JButton analyzeSentimentButton;
+    private JButton risingPostsButton;
+    private JButton duplicatesButton;
 
     /**
      * Constructor for the AI Assistant panel
+     * @param currentUser The logged-in user
      */
-    public AIAssistantPanel() {
+    public AIAssistantPanel(User currentUser) {
+        this.currentUser = currentUser;
         setupUI();
         addInitialMessage();
     }
@@ -45,7 +74,7 @@ public class AIAssistantPanel extends JPanel {
         JPanel inputPanel = new JPanel(new BorderLayout(5, 0));
         inputField = new JTextField();
         inputField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-        JButton sendButton = UIUtil.createPrimaryButton("Send");
+        sendButton = UIUtil.createPrimaryButton("Send");
 
         sendButton.addActionListener(new ActionListener() {
             @Override
@@ -68,6 +97,9 @@ public class AIAssistantPanel extends JPanel {
         JPanel quickActionsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
         suggestPostButton = UIUtil.createSecondaryButton("Suggest Post");
         suggestCommentButton = UIUtil.createSecondaryButton("Suggest Comment");
+        analyzeSentimentButton = UIUtil.createSecondaryButton("Analyze My Sentiment");
+        risingPostsButton = UIUtil.createSecondaryButton("Rising Posts");
+        duplicatesButton = UIUtil.createSecondaryButton("Find Duplicates");
 
         suggestPostButton.addActionListener(new ActionListener() {
             @Override
@@ -83,8 +115,32 @@ public class AIAssistantPanel extends JPanel {
             }
         });
 
+        analyzeSentimentButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                analyzeAccountSentiment();
+            }
+        });
+
+        risingPostsButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showRisingPosts();
+            }
+        });
+
+        duplicatesButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showDuplicateGroups();
+            }
+        });
+
         quickActionsPanel.add(suggestPostButton);
         quickActionsPanel.add(suggestCommentButton);
+        quickActionsPanel.add(analyzeSentimentButton);
+        quickActionsPanel.add(risingPostsButton);
+        quickActionsPanel.add(duplicatesButton);
 
         // Combine input and quick actions in a bottom panel
         JPanel bottomPanel = new JPanel(new BorderLayout(0, 5));
@@ -105,7 +161,8 @@ public class AIAssistantPanel extends JPanel {
     }
 
     /**
-     * Send a user message to the AI
+     * Send a user message to the AI. The response is streamed into the chat
+     * area as it arrives; sending is disabled until it is complete.
      */
     private void sendMessage() {
         String userMessage = inputField.getText().trim();
@@ -114,30 +171,178 @@ public class AIAssistantPanel extends JPanel {
         // Add user message to chat
         appendToChatArea("You", userMessage);
 
-        // Process the message and get AI response
-        String aiResponse = AIAssistant.processQuery(userMessage);
-
-        // Add AI response to chat
-        appendToChatArea("AI Assistant", aiResponse);
-
         // Clear input field
         inputField.setText("");
+        setSendingEnabled(false);
+
+        chatArea.append("AI Assistant: ");
+        AIService.getInstance()
+                .chat(userMessage, currentUser.getId(), piece -> SwingUtilities.invokeLater(() -> {
+                    chatArea.append(piece);
+                    chatArea.setCaretPosition(chatArea.getDocument().getLength());
+                }))
+                .whenComplete((response, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error != null) {
+                        LOGGER.log(Level.WARNING, "Error getting an AI response for user ID: " + currentUser.getId(), error);
+                        chatArea.append("(Sorry, I couldn't answer that right now. Please try again.)");
+                    }
+                    chatArea.append("\n\n");
+                    chatArea.setCaretPosition(chatArea.getDocument().getLength());
+                    setSendingEnabled(true);
+                }));
+    }
+
+    private void setSendingEnabled(boolean enabled) {
+        sendButton.setEnabled(enabled);
+        inputField.setEnabled(enabled);
+        if (enabled) {
+            inputField.requestFocusInWindow();
+        }
     }
 
     /**
      * Get a post suggestion from the AI
      */
     private void getPostSuggestion() {
-        String suggestion = AIAssistant.getPostSuggestion();
-        appendToChatArea("AI Assistant", "Here's a post suggestion for you:\n\n\"" + suggestion + "\"");
+        suggestPostButton.setEnabled(false);
+        AIService.getInstance().suggestPost(currentUser.getId())
+                .whenComplete((suggestion, error) -> SwingUtilities.invokeLater(() -> {
+                    suggestPostButton.setEnabled(true);
+                    showSuggestion("post", suggestion, error);
+                }));
     }
 
     /**
      * Get a comment suggestion from the AI
      */
     private void getCommentSuggestion() {
-        String suggestion = AIAssistant.getCommentSuggestion();
-        appendToChatArea("AI Assistant", "Here's a comment suggestion for you:\n\n\"" + suggestion + "\"");
+        suggestCommentButton.setEnabled(false);
+        AIService.getInstance().suggestComment(null, null, currentUser.getId())
+                .whenComplete((suggestion, error) -> SwingUtilities.invokeLater(() -> {
+                    suggestCommentButton.setEnabled(true);
+                    showSuggestion("comment", suggestion, error);
+                }));
+    }
+
+    private void showSuggestion(String kind, String suggestion, Throwable error) {
+        if (error != null) {
+            LOGGER.log(Level.WARNING, "Error getting a " + kind + " suggestion for user ID: " + currentUser.getId(), error);
+            appendToChatArea("AI Assistant", "Sorry, I couldn't come up with a " + kind + " suggestion right now.");
+        } else {
+            appendToChatArea("AI Assistant", "Here's a " + kind + " suggestion for you:\n\n\"" + suggestion + "\"");
+        }
+    }
+
+    /**
+     * Score the sentiment of all the user's posts and comments. The history
+     * is loaded and scored off the EDT; the button stays disabled meanwhile.
+     */
+    private void analyzeAccountSentiment() {
+        analyzeSentimentButton.setEnabled(false);
+        appendToChatArea("You", "Analyze the sentiment of my posts and comments");
+
+        BackgroundExecutor.submit(() -> {
+            try {
+                List<Post> posts = new PostDAO().getPostsByUser(currentUser.getId());
+                Map<Integer, PostFeatures> postFeatures = PostFeatureCache.getInstance().getFeatures(posts);
+                List<Comment> comments = new CommentDAO().getCommentsByUser(currentUser.getId());
+                String summary = AIAssistant.summarizeAccountSentiment(posts, postFeatures, comments);
+                SwingUtilities.invokeLater(() -> {
+                    appendToChatArea("AI Assistant", summary);
+                    analyzeSentimentButton.setEnabled(true);
+                });
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error loading history for sentiment analysis, user ID: " + currentUser.getId(), e);
+                SwingUtilities.invokeLater(() -> {
+                    analyzeSentimentButton.setEnabled(true);
+                    JOptionPane.showMessageDialog(this,
+                            "Error loading your posts and comments: " + e.getMessage(),
+                            "AI Assistant Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
+            }
+        });
+    }
+
+    /**
+     * Show the posts gaining likes fastest. The ranking comes from memory;
+     * only posts missing from the feed cache are read from the database.
+     */
+    private void showRisingPosts() {
+        List<RisingPostsTracker.RisingPost> risingPosts =
+                RisingPostsTracker.getInstance().getRisingPosts(RisingPostsTracker.ALL_PLATFORMS, RISING_POST_COUNT);
+        appendToChatArea("You", "Which posts are rising right now?");
+        if (risingPosts.isEmpty()) {
+            appendToChatArea("AI Assistant", "No posts have received likes in the last hour.");
+            return;
+        }
+
+        risingPostsButton.setEnabled(false);
+        BackgroundExecutor.submit(() -> {
+            try {
+                Map<Integer, Post> posts = new HashMap<>();
+                for (RisingPostsTracker.RisingPost risingPost : risingPosts) {
+                    Post post = FeedCache.getInstance().getCachedPost(risingPost.getPlatformId(), risingPost.getPostId());
+                    if (post == null) {
+                        post = new PostDAO().getPostById(risingPost.getPostId());
+                    }
+                    if (post != null) {
+                        posts.put(post.getId(), post);
+                    }
+                }
+                String response = AIAssistant.describeRisingPosts(risingPosts, posts);
+                SwingUtilities.invokeLater(() -> {
+                    appendToChatArea("AI Assistant", response);
+                    risingPostsButton.setEnabled(true);
+                });
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error loading rising posts", e);
+                SwingUtilities.invokeLater(() -> {
+                    risingPostsButton.setEnabled(true);
+                    JOptionPane.showMessageDialog(this,
+                            "Error loading rising posts: " + e.getMessage(),
+                            "AI Assistant Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
+            }
+        });
+    }
+
+    /**
+     * Group all posts with their near-duplicates. The grouping runs in
+     * memory, in parallel; only the first post of the largest groups is read
+     * from the database.
+     */
+    private void showDuplicateGroups() {
+        appendToChatArea("You", "Are any posts duplicated?");
+        duplicatesButton.setEnabled(false);
+        BackgroundExecutor.submit(() -> {
+            try {
+                DuplicateDetector detector = DuplicateDetector.getInstance();
+                List<int[]> groups = detector.groupAll(detector.getThreshold());
+                Map<Integer, Post> posts = new HashMap<>();
+                for (int[] group : groups.subList(0, Math.min(DUPLICATE_GROUP_COUNT, groups.size()))) {
+                    Post post = new PostDAO().getPostById(group[0]);
+                    if (post != null) {
+                        posts.put(post.getId(), post);
+                    }
+                }
+                String response = AIAssistant.describeDuplicateGroups(groups, posts, DUPLICATE_GROUP_COUNT);
+                SwingUtilities.invokeLater(() -> {
+                    appendToChatArea("AI Assistant", response);
+                    duplicatesButton.setEnabled(true);
+                });
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error loading duplicate posts", e);
+                SwingUtilities.invokeLater(() -> {
+                    duplicatesButton.setEnabled(true);
+                    JOptionPane.showMessageDialog(this,
+                            "Error loading duplicate posts: " + e.getMessage(),
+                            "AI Assistant Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
+            }
+        });
     }
 
     /**
@@ -156,7 +361,7 @@ public class AIAssistantPanel extends JPanel {
      * @return A post suggestion
      */
     public String getExternalPostSuggestion() {
-        return AIAssistant.getPostSuggestion();
+        return AIAssistant.getPostSuggestion(currentUser.getId());
     }
 
     /**
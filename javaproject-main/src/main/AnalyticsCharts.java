@@ -0,0 +1,242 @@
+package main;
+
+import model.UserAnalytics;
+import util.Downsampler;
+import util.UIUtil;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.renderer.category.BarRenderer;
+import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.data.category.DefaultCategoryDataset;
+import org.jfree.data.general.DefaultPieDataset;
+import org.jfree.data.time.Day;
+import org.jfree.data.time.TimeSeries;
+import org.jfree.data.time.TimeSeriesCollection;
+
+import java.awt.Font;
+import java.awt.RenderingHints;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The analytics chart definitions, shared by the interactive
+ * {@link AnalyticsPanel} and the headless {@link AnalyticsReportGenerator}.
+ * Builds plain JFreeCharts without any Swing components.
+ */
+public class AnalyticsCharts {
+    public static final int CHART_WIDTH = 800;
+    public static final int CHART_HEIGHT = 400;
+    private static final int ACTIVITY_DAYS = 30;
+
+    private AnalyticsCharts() {
+    }
+
+    public static JFreeChart createPostsByPlatformChart(UserAnalytics analytics) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        for (Map.Entry<String, Integer> entry : analytics.getPostsByPlatform().entrySet()) {
+            dataset.addValue(entry.getValue(), "Posts", entry.getKey());
+        }
+
+        JFreeChart chart = ChartFactory.createBarChart(
+                "Posts by Platform",
+                "Platform",
+                "Number of Posts",
+                dataset,
+                PlotOrientation.VERTICAL,
+                false,
+                true,
+                false
+        );
+        applyRenderingHints(chart);
+
+        // Customize chart appearance
+        chart.getCategoryPlot().getRenderer().setSeriesPaint(0, UIUtil.PRIMARY_COLOR);
+        chart.setBackgroundPaint(UIUtil.BACKGROUND_COLOR);
+        chart.getTitle().setFont(new Font("SansSerif", Font.BOLD, 18));
+        chart.getCategoryPlot().getDomainAxis().setLabelFont(new Font("SansSerif", Font.PLAIN, 14));
+        chart.getCategoryPlot().getRangeAxis().setLabelFont(new Font("SansSerif", Font.PLAIN, 14));
+        chart.getCategoryPlot().getDomainAxis().setTickLabelFont(new Font("SansSerif", Font.PLAIN, 12));
+        chart.getCategoryPlot().getRangeAxis().setTickLabelFont(new Font("SansSerif", Font.PLAIN, 12));
+        ((BarRenderer) chart.getCategoryPlot().getRenderer()).setItemMargin(0.02);
+        return chart;
+    }
+
+    public static JFreeChart createEngagementChart(UserAnalytics analytics) {
+        DefaultPieDataset dataset = new DefaultPieDataset();
+        dataset.setValue("Likes", analytics.getTotalLikes());
+        dataset.setValue("Comments", analytics.getTotalComments());
+
+        JFreeChart chart = ChartFactory.createPieChart(
+                "Engagement Distribution",
+                dataset,
+                true,
+                true,
+                false
+        );
+        applyRenderingHints(chart);
+
+        // Customize chart appearance
+        chart.getPlot().setBackgroundPaint(UIUtil.BACKGROUND_COLOR);
+        chart.setBackgroundPaint(UIUtil.BACKGROUND_COLOR);
+        chart.getTitle().setFont(new Font("SansSerif", Font.BOLD, 18));
+        chart.getLegend().setItemFont(new Font("SansSerif", Font.PLAIN, 12));
+        return chart;
+    }
+
+    /**
+     * Build the post activity chart, sampled to a given width in pixels
+     * @param activity The activity series, see {@link #createActivitySampler(UserAnalytics)}
+     * @param width The chart width
+     * @return The chart
+     */
+    public static JFreeChart createPostActivityChart(ActivitySampler activity, int width) {
+        activity.resample(width);
+
+        TimeSeriesCollection dataset = new TimeSeriesCollection(activity.series);
+        JFreeChart chart = ChartFactory.createTimeSeriesChart(
+                activity.fullHistory ? "Post Activity (All Time)" : "Post Activity (Last 30 Days)",
+                "Date",
+                "Number of Posts",
+                dataset,
+                false,
+                true,
+                false
+        );
+        applyRenderingHints(chart);
+
+        // Customize chart appearance
+        chart.getXYPlot().getRenderer().setSeriesPaint(0, UIUtil.PRIMARY_COLOR);
+        chart.getXYPlot().setBackgroundPaint(UIUtil.BACKGROUND_COLOR);
+        chart.setBackgroundPaint(UIUtil.BACKGROUND_COLOR);
+        chart.getTitle().setFont(new Font("SansSerif", Font.BOLD, 18));
+        chart.getXYPlot().getDomainAxis().setLabelFont(new Font("SansSerif", Font.PLAIN, 14));
+        chart.getXYPlot().getRangeAxis().setLabelFont(new Font("SansSerif", Font.PLAIN, 14));
+        chart.getXYPlot().getDomainAxis().setTickLabelFont(new Font("SansSerif", Font.PLAIN, 12));
+        chart.getXYPlot().getRangeAxis().setTickLabelFont(new Font("SansSerif", Font.PLAIN, 12));
+        activity.renderer = (XYLineAndShapeRenderer) chart.getXYPlot().getRenderer();
+        activity.updateShapes();
+        return chart;
+    }
+
+    /**
+     * Zero-fill the daily post counts from the first post (at least the last
+     * 30 days) up to today
+     * @param analytics The user's analytics
+     * @return A sampler over the filled series
+     */
+    public static ActivitySampler createActivitySampler(UserAnalytics analytics) {
+        TreeMap<Date, Integer> dailyCounts = analytics.getDailyPostCounts();
+        Calendar cal = Calendar.getInstance();
+        cal.setTime(truncateToDay(new Date()));
+        Date today = cal.getTime();
+        cal.add(Calendar.DAY_OF_MONTH, -ACTIVITY_DAYS);
+        if (!dailyCounts.isEmpty() && dailyCounts.firstKey().before(cal.getTime())) {
+            cal.setTime(dailyCounts.firstKey());
+        }
+        boolean fullHistory = cal.getTime().before(new Date(today.getTime() - ACTIVITY_DAYS * 86400000L));
+
+        List<Date> days = new ArrayList<>();
+        while (!cal.getTime().after(today)) {
+            days.add(cal.getTime());
+            cal.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        double[] xs = new double[days.size()];
+        double[] ys = new double[days.size()];
+        for (int i = 0; i < days.size(); i++) {
+            xs[i] = days.get(i).getTime();
+            ys[i] = dailyCounts.getOrDefault(days.get(i), 0);
+        }
+        return new ActivitySampler(days, xs, ys, fullHistory);
+    }
+
+    private static void applyRenderingHints(JFreeChart chart) {
+        // Enhance rendering quality
+        chart.setRenderingHints(new RenderingHints(
+                RenderingHints.KEY_ANTIALIASING,
+                RenderingHints.VALUE_ANTIALIAS_ON));
+        chart.setRenderingHints(new RenderingHints(
+                RenderingHints.KEY_TEXT_ANTIALIASING,
+                RenderingHints.VALUE_TEXT_ANTIALIAS_ON));
+        chart.setRenderingHints(new RenderingHints(
+                RenderingHints.KEY_RENDERING,
+                RenderingHints.VALUE_RENDER_QUALITY));
+    }
+
+    private static Date truncateToDay(Date date) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTime(date);
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        return cal.getTime();
+    }
+
+    /**
+     * Feeds the activity series a Largest-Triangle-Three-Buckets selection of
+     * the daily counts sized to the chart's width, so drawing cost depends on
+     * the chart size and not on the length of the history.
+     */
+    public static class ActivitySampler {
+        // Above this many drawn points, per-point shapes only add clutter
+        private static final int MAX_POINTS_WITH_SHAPES = 62;
+
+        private final TimeSeries series = new TimeSeries("Posts");
+        private final List<Date> days;
+        private final double[] xs;
+        private final double[] ys;
+        private final boolean fullHistory;
+        private XYLineAndShapeRenderer renderer;
+        private int currentWidth = -1;
+
+        ActivitySampler(List<Date> days, double[] xs, double[] ys, boolean fullHistory) {
+            this.days = days;
+            this.xs = xs;
+            this.ys = ys;
+            this.fullHistory = fullHistory;
+        }
+
+        /**
+         * @return Every day of the series, oldest first
+         */
+        public List<Date> getDays() {
+            return Collections.unmodifiableList(days);
+        }
+
+        /**
+         * @param index Index into {@link #getDays()}
+         * @return The number of posts on that day
+         */
+        public int getCount(int index) {
+            return (int) ys[index];
+        }
+
+        public void resample(int width) {
+            if (width <= 0 || width == currentWidth) {
+                return;
+            }
+            currentWidth = width;
+
+            int[] selected = Downsampler.lttb(xs, ys, width);
+            series.setNotify(false);
+            series.clear();
+            for (int index : selected) {
+                series.add(new Day(days.get(index)), ys[index], false);
+            }
+            series.setNotify(true);
+            updateShapes();
+        }
+
+        void updateShapes() {
+            if (renderer != null) {
+                renderer.setBaseShapesVisible(series.getItemCount() <= MAX_POINTS_WITH_SHAPES);
+            }
+        }
+    }
+}
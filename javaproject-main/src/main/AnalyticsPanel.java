@@ -1,42 +1,30 @@
 package main;
 
-import database.PostDAO;
-import database.CommentDAO;
-import database.SocialMediaPlatformDAO;
-import model.Post;
-import model.SocialMedia;
+import database.AnalyticsDAO;
+import database.QueryCanceller;
 import model.User;
+import model.UserAnalytics;
+import util.BackgroundExecutor;
 import util.UIUtil;
-import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
-import org.jfree.chart.plot.PlotOrientation;
-import org.jfree.chart.renderer.category.BarRenderer;
-import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
-import org.jfree.data.category.DefaultCategoryDataset;
-import org.jfree.data.general.DefaultPieDataset;
-import org.jfree.data.time.Day;
-import org.jfree.data.time.TimeSeries;
-import org.jfree.data.time.TimeSeriesCollection;
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
+import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.SwingUtilities;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
-import java.awt.Font;
 import java.awt.GridLayout;
-import java.awt.RenderingHints;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.sql.SQLException;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -46,16 +34,30 @@ import java.util.logging.Logger;
 public class AnalyticsPanel extends JPanel implements AnalyticsUpdateListener {
     private static final Logger LOGGER = Logger.getLogger(AnalyticsPanel.class.getName());
     private final User currentUser;
-    private final PostDAO postDAO;
-    private final CommentDAO commentDAO;
-    private final SocialMediaPlatformDAO platformDAO;
+    private final AnalyticsDAO analyticsDAO;
+    private final AtomicLong generation = new AtomicLong();
     private JPanel mainPanel;
+    private JPanel statusPanel;
+    private JLabel statusLabel;
+
+    // In-flight load, only touched on the EDT
+    private Future<?> inFlightLoad;
+    private QueryCanceller inFlightCanceller;
+    private long renderedGeneration;
+    private volatile UserAnalytics latestAnalytics;
 
     public AnalyticsPanel(User user) {
+        this(user, null);
+    }
+
+    /**
+     * @param user The user whose analytics are shown
+     * @param cachedAnalytics Previously saved analytics to show until the
+     *                        first load completes, or null
+     */
+    public AnalyticsPanel(User user, UserAnalytics cachedAnalytics) {
         this.currentUser = user;
-        this.postDAO = new PostDAO();
-        this.commentDAO = new CommentDAO();
-        this.platformDAO = new SocialMediaPlatformDAO();
+        this.analyticsDAO = new AnalyticsDAO();
 
         setLayout(new BorderLayout(10, 10));
         setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
@@ -64,283 +66,198 @@ public class AnalyticsPanel extends JPanel implements AnalyticsUpdateListener {
         AnalyticsEventDispatcher.getInstance().addListener(this);
 
         initializeUI();
+        if (cachedAnalytics != null) {
+            showAnalytics(cachedAnalytics);
+        }
+        refresh();
+    }
+
+    /**
+     * @return The analytics shown most recently, or null before the first load
+     */
+    public UserAnalytics getLatestAnalytics() {
+        return latestAnalytics;
     }
 
     private void initializeUI() {
         mainPanel = UIUtil.createCardPanel();
         mainPanel.setLayout(new BoxLayout(mainPanel, BoxLayout.Y_AXIS));
 
-        // Title
+        // Progress state shown above the content while a load is running
+        statusPanel = new JPanel(new BorderLayout(10, 0));
+        statusLabel = UIUtil.createStyledLabel("Loading analytics...", UIUtil.BODY_FONT, UIUtil.TEXT_SECONDARY);
+        JProgressBar progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        statusPanel.add(statusLabel, BorderLayout.WEST);
+        statusPanel.add(progressBar, BorderLayout.CENTER);
+
+        showSkeleton();
+
+        JScrollPane scrollPane = new JScrollPane(mainPanel);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        add(statusPanel, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+    }
+
+    /**
+     * Lay out empty placeholder cards the size of the real content, so the
+     * tab has its final shape before the first load completes
+     */
+    private void showSkeleton() {
+        mainPanel.removeAll();
         mainPanel.add(UIUtil.createTitleLabel("Your Social Media Analytics"));
         mainPanel.add(Box.createRigidArea(new Dimension(0, 10)));
 
-        try {
-            // Summary Statistics
-            mainPanel.add(createSummaryPanel());
-            mainPanel.add(Box.createRigidArea(new Dimension(0, 20)));
+        JPanel summaryPlaceholder = UIUtil.createCardPanel();
+        summaryPlaceholder.setLayout(new GridLayout(2, 2, 10, 10));
+        for (String title : new String[]{"Total Posts", "Total Likes", "Total Comments", "Avg Likes per Post"}) {
+            summaryPlaceholder.add(UIUtil.createStyledLabel(title + ": ...", UIUtil.BODY_FONT, UIUtil.TEXT_SECONDARY));
+        }
+        mainPanel.add(summaryPlaceholder);
 
-            // Charts
-            mainPanel.add(createPostsByPlatformChart());
+        for (int i = 0; i < 3; i++) {
             mainPanel.add(Box.createRigidArea(new Dimension(0, 20)));
-            mainPanel.add(createEngagementChart());
-            mainPanel.add(Box.createRigidArea(new Dimension(0, 20)));
-            mainPanel.add(createPostActivityChart());
-
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error loading analytics data for user ID: " + currentUser.getId(), e);
-            JOptionPane.showMessageDialog(this,
-                    "Error loading analytics: " + e.getMessage(),
-                    "Analytics Error",
-                    JOptionPane.ERROR_MESSAGE);
+            JPanel chartPlaceholder = UIUtil.createCardPanel();
+            chartPlaceholder.setPreferredSize(new Dimension(800, 400));
+            mainPanel.add(chartPlaceholder);
         }
-
-        JScrollPane scrollPane = new JScrollPane(mainPanel);
-        scrollPane.setBorder(BorderFactory.createEmptyBorder());
-        add(scrollPane, BorderLayout.CENTER);
     }
 
     @Override
     public void onAnalyticsUpdate(AnalyticsUpdateEvent event) {
         // Only update if the event is for the current user
         if (event.getUserId() == currentUser.getId()) {
-            SwingUtilities.invokeLater(this::refreshUI);
+            SwingUtilities.invokeLater(this::refresh);
         }
     }
 
-    private void refreshUI() {
-        // Remove old content
-        mainPanel.removeAll();
+    /**
+     * Start a new analytics load in the background. Any load still running is
+     * cancelled, including its in-flight query.
+     */
+    private void refresh() {
+        if (inFlightLoad != null) {
+            inFlightLoad.cancel(true);
+            inFlightCanceller.cancel();
+        }
 
-        // Rebuild UI
+        long loadGeneration = generation.incrementAndGet();
+        QueryCanceller canceller = new QueryCanceller();
+        inFlightCanceller = canceller;
+        statusLabel.setText(latestAnalytics == null ? "Loading analytics..." : "Refreshing analytics...");
+        statusPanel.setVisible(true);
+
+        inFlightLoad = BackgroundExecutor.submit(() -> {
+            try {
+                UserAnalytics analytics = analyticsDAO.getUserAnalytics(currentUser.getId(), null, canceller);
+                if (!canceller.isCancelled()) {
+                    SwingUtilities.invokeLater(() -> render(loadGeneration, analytics));
+                }
+            } catch (SQLException e) {
+                if (!canceller.isCancelled()) {
+                    SwingUtilities.invokeLater(() -> showError(loadGeneration, e));
+                }
+            }
+        });
+    }
+
+    private void render(long loadGeneration, UserAnalytics analytics) {
+        // A later generation has already been rendered, this result is stale
+        if (loadGeneration <= renderedGeneration) {
+            return;
+        }
+        renderedGeneration = loadGeneration;
+        if (loadGeneration == generation.get()) {
+            statusPanel.setVisible(false);
+            inFlightLoad = null;
+        }
+        showAnalytics(analytics);
+    }
+
+    private void showAnalytics(UserAnalytics analytics) {
+        latestAnalytics = analytics;
+        mainPanel.removeAll();
         mainPanel.setLayout(new BoxLayout(mainPanel, BoxLayout.Y_AXIS));
         mainPanel.add(UIUtil.createTitleLabel("Your Social Media Analytics"));
         mainPanel.add(Box.createRigidArea(new Dimension(0, 10)));
 
-        try {
-            // Summary Statistics
-            mainPanel.add(createSummaryPanel());
-            mainPanel.add(Box.createRigidArea(new Dimension(0, 20)));
+        // Summary Statistics
+        mainPanel.add(createSummaryPanel(analytics));
+        mainPanel.add(Box.createRigidArea(new Dimension(0, 20)));
 
-            // Charts
-            mainPanel.add(createPostsByPlatformChart());
-            mainPanel.add(Box.createRigidArea(new Dimension(0, 20)));
-            mainPanel.add(createEngagementChart());
-            mainPanel.add(Box.createRigidArea(new Dimension(0, 20)));
-            mainPanel.add(createPostActivityChart());
-
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error refreshing analytics for user ID: " + currentUser.getId(), e);
-            JOptionPane.showMessageDialog(this,
-                    "Error refreshing analytics: " + e.getMessage(),
-                    "Analytics Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        // Charts
+        mainPanel.add(createPostsByPlatformChart(analytics));
+        mainPanel.add(Box.createRigidArea(new Dimension(0, 20)));
+        mainPanel.add(createEngagementChart(analytics));
+        mainPanel.add(Box.createRigidArea(new Dimension(0, 20)));
+        mainPanel.add(createPostActivityChart(analytics));
 
         // Repaint the panel
         mainPanel.revalidate();
         mainPanel.repaint();
     }
 
-    private JPanel createSummaryPanel() throws SQLException {
+    private void showError(long loadGeneration, SQLException e) {
+        if (loadGeneration != generation.get()) {
+            return;
+        }
+        inFlightLoad = null;
+        statusPanel.setVisible(false);
+        LOGGER.log(Level.SEVERE, "Error loading analytics data for user ID: " + currentUser.getId(), e);
+        JOptionPane.showMessageDialog(this,
+                "Error loading analytics: " + e.getMessage(),
+                "Analytics Error",
+                JOptionPane.ERROR_MESSAGE);
+    }
+
+    private JPanel createSummaryPanel(UserAnalytics analytics) {
         JPanel panel = UIUtil.createCardPanel();
         panel.setLayout(new GridLayout(2, 2, 10, 10));
 
-        List<Post> userPosts = postDAO.getPostsByUser(currentUser.getId());
-        int totalPosts = userPosts.size();
-        int totalLikes = userPosts.stream().mapToInt(Post::getLikes).sum();
-        int totalComments = userPosts.stream()
-                .mapToInt(post -> {
-                    try {
-                        return commentDAO.getCommentCount(post.getId());
-                    } catch (SQLException e) {
-                        LOGGER.log(Level.WARNING, "Error counting comments for post ID: " + post.getId(), e);
-                        return 0;
-                    }
-                })
-                .sum();
-        double avgLikesPerPost = totalPosts > 0 ? (double) totalLikes / totalPosts : 0;
-
-        panel.add(UIUtil.createStyledLabel("Total Posts: " + totalPosts, UIUtil.BODY_FONT, UIUtil.TEXT_PRIMARY));
-        panel.add(UIUtil.createStyledLabel("Total Likes: " + totalLikes, UIUtil.BODY_FONT, UIUtil.TEXT_PRIMARY));
-        panel.add(UIUtil.createStyledLabel("Total Comments: " + totalComments, UIUtil.BODY_FONT, UIUtil.TEXT_PRIMARY));
-        panel.add(UIUtil.createStyledLabel(String.format("Avg Likes per Post: %.2f", avgLikesPerPost), UIUtil.BODY_FONT, UIUtil.TEXT_PRIMARY));
+        panel.add(UIUtil.createStyledLabel("Total Posts: " + analytics.getTotalPosts(), UIUtil.BODY_FONT, UIUtil.TEXT_PRIMARY));
+        panel.add(UIUtil.createStyledLabel("Total Likes: " + analytics.getTotalLikes(), UIUtil.BODY_FONT, UIUtil.TEXT_PRIMARY));
+        panel.add(UIUtil.createStyledLabel("Total Comments: " + analytics.getTotalComments(), UIUtil.BODY_FONT, UIUtil.TEXT_PRIMARY));
+        panel.add(UIUtil.createStyledLabel(String.format("Avg Likes per Post: %.2f", analytics.getAverageLikesPerPost()), UIUtil.BODY_FONT, UIUtil.TEXT_PRIMARY));
 
         return panel;
     }
 
-    private JPanel createPostsByPlatformChart() throws SQLException {
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-        List<SocialMedia> platforms = platformDAO.getAllPlatforms();
-        List<Post> userPosts = postDAO.getPostsByUser(currentUser.getId());
-
-        for (SocialMedia platform : platforms) {
-            long postCount = userPosts.stream()
-                    .filter(post -> post.getPlatformId() == platform.getId())
-                    .count();
-            dataset.addValue(postCount, "Posts", platform.getName());
-        }
-
-        JFreeChart chart = ChartFactory.createBarChart(
-                "Posts by Platform",
-                "Platform",
-                "Number of Posts",
-                dataset,
-                PlotOrientation.VERTICAL,
-                false,
-                true,
-                false
-        );
-
-        // Enhance rendering quality
-        chart.setRenderingHints(new RenderingHints(
-                RenderingHints.KEY_ANTIALIASING,
-                RenderingHints.VALUE_ANTIALIAS_ON));
-        chart.setRenderingHints(new RenderingHints(
-                RenderingHints.KEY_TEXT_ANTIALIASING,
-                RenderingHints.VALUE_TEXT_ANTIALIAS_ON));
-        chart.setRenderingHints(new RenderingHints(
-                RenderingHints.KEY_RENDERING,
-                RenderingHints.VALUE_RENDER_QUALITY));
-
-        // Customize chart appearance
-        chart.getCategoryPlot().getRenderer().setSeriesPaint(0, UIUtil.PRIMARY_COLOR);
-        chart.setBackgroundPaint(UIUtil.BACKGROUND_COLOR);
-        chart.getTitle().setFont(new Font("SansSerif", Font.BOLD, 18));
-        chart.getCategoryPlot().getDomainAxis().setLabelFont(new Font("SansSerif", Font.PLAIN, 14));
-        chart.getCategoryPlot().getRangeAxis().setLabelFont(new Font("SansSerif", Font.PLAIN, 14));
-        chart.getCategoryPlot().getDomainAxis().setTickLabelFont(new Font("SansSerif", Font.PLAIN, 12));
-        chart.getCategoryPlot().getRangeAxis().setTickLabelFont(new Font("SansSerif", Font.PLAIN, 12));
-        ((BarRenderer) chart.getCategoryPlot().getRenderer()).setItemMargin(0.02);
-
-        ChartPanel chartPanel = new ChartPanel(chart);
-        chartPanel.setPreferredSize(new Dimension(800, 400)); // Increased size for HD
-        chartPanel.setBackground(UIUtil.BACKGROUND_COLOR);
-        chartPanel.setDomainZoomable(false);
-        chartPanel.setRangeZoomable(false);
-
-        JPanel panel = UIUtil.createCardPanel();
-        panel.setLayout(new BorderLayout());
-        panel.add(chartPanel, BorderLayout.CENTER);
-        return panel;
+    private JPanel createPostsByPlatformChart(UserAnalytics analytics) {
+        return createChartCard(createChartPanel(AnalyticsCharts.createPostsByPlatformChart(analytics)));
     }
 
-    private JPanel createEngagementChart() throws SQLException {
-        DefaultPieDataset dataset = new DefaultPieDataset();
-        List<Post> userPosts = postDAO.getPostsByUser(currentUser.getId());
-        int totalLikes = userPosts.stream().mapToInt(Post::getLikes).sum();
-        int totalComments = userPosts.stream()
-                .mapToInt(post -> {
-                    try {
-                        return commentDAO.getCommentCount(post.getId());
-                    } catch (SQLException e) {
-                        LOGGER.log(Level.WARNING, "Error counting comments for post ID: " + post.getId(), e);
-                        return 0;
-                    }
-                })
-                .sum();
-
-        dataset.setValue("Likes", totalLikes);
-        dataset.setValue("Comments", totalComments);
-
-        JFreeChart chart = ChartFactory.createPieChart(
-                "Engagement Distribution",
-                dataset,
-                true,
-                true,
-                false
-        );
-
-        // Enhance rendering quality
-        chart.setRenderingHints(new RenderingHints(
-                RenderingHints.KEY_ANTIALIASING,
-                RenderingHints.VALUE_ANTIALIAS_ON));
-        chart.setRenderingHints(new RenderingHints(
-                RenderingHints.KEY_TEXT_ANTIALIASING,
-                RenderingHints.VALUE_TEXT_ANTIALIAS_ON));
-        chart.setRenderingHints(new RenderingHints(
-                RenderingHints.KEY_RENDERING,
-                RenderingHints.VALUE_RENDER_QUALITY));
-
-        // Customize chart appearance
-        chart.getPlot().setBackgroundPaint(UIUtil.BACKGROUND_COLOR);
-        chart.setBackgroundPaint(UIUtil.BACKGROUND_COLOR);
-        chart.getTitle().setFont(new Font("SansSerif", Font.BOLD, 18));
-        chart.getLegend().setItemFont(new Font("SansSerif", Font.PLAIN, 12));
-
-        ChartPanel chartPanel = new ChartPanel(chart);
-        chartPanel.setPreferredSize(new Dimension(800, 400)); // Increased size for HD
-        chartPanel.setBackground(UIUtil.BACKGROUND_COLOR);
-        chartPanel.setDomainZoomable(false);
-        chartPanel.setRangeZoomable(false);
-
-        JPanel panel = UIUtil.createCardPanel();
-        panel.setLayout(new BorderLayout());
-        panel.add(chartPanel, BorderLayout.CENTER);
-        return panel;
+    private JPanel createEngagementChart(UserAnalytics analytics) {
+        return createChartCard(createChartPanel(AnalyticsCharts.createEngagementChart(analytics)));
     }
 
-    private JPanel createPostActivityChart() throws SQLException {
-        TimeSeries series = new TimeSeries("Posts");
-        List<Post> userPosts = postDAO.getPostsByUser(currentUser.getId());
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-        Calendar cal = Calendar.getInstance();
-        cal.add(Calendar.DAY_OF_MONTH, -30);
-
-        Map<String, Integer> postCounts = new HashMap<>();
-        for (Post post : userPosts) {
-            String dateStr = sdf.format(post.getPostDate());
-            postCounts.put(dateStr, postCounts.getOrDefault(dateStr, 0) + 1);
-        }
-
-        for (int i = 0; i <= 30; i++) {
-            String dateStr = sdf.format(cal.getTime());
-            int count = postCounts.getOrDefault(dateStr, 0);
-            series.add(new Day(cal.getTime()), count);
-            cal.add(Calendar.DAY_OF_MONTH, 1);
-        }
+    private JPanel createPostActivityChart(UserAnalytics analytics) {
+        AnalyticsCharts.ActivitySampler sampler = AnalyticsCharts.createActivitySampler(analytics);
+        ChartPanel chartPanel = createChartPanel(AnalyticsCharts.createPostActivityChart(sampler, AnalyticsCharts.CHART_WIDTH));
+        // Keep roughly one point per pixel column as the chart is resized
+        chartPanel.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                sampler.resample(chartPanel.getWidth());
+            }
+        });
+        return createChartCard(chartPanel);
+    }
 
-        TimeSeriesCollection dataset = new TimeSeriesCollection(series);
-        JFreeChart chart = ChartFactory.createTimeSeriesChart(
-                "Post Activity (Last 30 Days)",
-                "Date",
-                "Number of Posts",
-                dataset,
-                false,
-                true,
-                false
-        );
-
-        // Enhance rendering quality
-        chart.setRenderingHints(new RenderingHints(
-                RenderingHints.KEY_ANTIALIASING,
-                RenderingHints.VALUE_ANTIALIAS_ON));
-        chart.setRenderingHints(new RenderingHints(
-                RenderingHints.KEY_TEXT_ANTIALIASING,
-                RenderingHints.VALUE_TEXT_ANTIALIAS_ON));
-        chart.setRenderingHints(new RenderingHints(
-                RenderingHints.KEY_RENDERING,
-                RenderingHints.VALUE_RENDER_QUALITY));
-
-        // Customize chart appearance
-        chart.getXYPlot().getRenderer().setSeriesPaint(0, UIUtil.PRIMARY_COLOR);
-        chart.getXYPlot().setBackgroundPaint(UIUtil.BACKGROUND_COLOR);
-        chart.setBackgroundPaint(UIUtil.BACKGROUND_COLOR);
-        chart.getTitle().setFont(new Font("SansSerif", Font.BOLD, 18));
-        chart.getXYPlot().getDomainAxis().setLabelFont(new Font("SansSerif", Font.PLAIN, 14));
-        chart.getXYPlot().getRangeAxis().setLabelFont(new Font("SansSerif", Font.PLAIN, 14));
-        chart.getXYPlot().getDomainAxis().setTickLabelFont(new Font("SansSerif", Font.PLAIN, 12));
-        chart.getXYPlot().getRangeAxis().setTickLabelFont(new Font("SansSerif", Font.PLAIN, 12));
-        ((XYLineAndShapeRenderer) chart.getXYPlot().getRenderer()).setBaseShapesVisible(true);
-
-        ChartPanel chartPanel = new ChartPanel(chart);
-        chartPanel.setPreferredSize(new Dimension(800, 400)); // Increased size for HD
+    private static ChartPanel createChartPanel(JFreeChart chart) {
+        // Unbuffered, so a theme switch repaints the chart in the new colors
+        // instead of showing the buffered image drawn in the old ones
+        ChartPanel chartPanel = new ChartPanel(chart, false);
+        chartPanel.setPreferredSize(new Dimension(AnalyticsCharts.CHART_WIDTH, AnalyticsCharts.CHART_HEIGHT)); // Increased size for HD
         chartPanel.setBackground(UIUtil.BACKGROUND_COLOR);
         chartPanel.setDomainZoomable(false);
         chartPanel.setRangeZoomable(false);
+        return chartPanel;
+    }
 
+    private static JPanel createChartCard(ChartPanel chartPanel) {
         JPanel panel = UIUtil.createCardPanel();
         panel.setLayout(new BorderLayout());
         panel.add(chartPanel, BorderLayout.CENTER);
         return panel;
     }
-}
\ No newline at end of file
+}
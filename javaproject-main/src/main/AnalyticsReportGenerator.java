@@ -0,0 +1,189 @@
+package main;
+
+import database.AnalyticsDAO;
+import database.QueryCanceller;
+import database.UserDAO;
+import model.User;
+import model.UserAnalytics;
+import org.jfree.chart.ChartUtilities;
+import org.jfree.chart.JFreeChart;
+import util.BackgroundExecutor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Headless command-line mode that writes every user's analytics report to an
+ * output directory: summary, posts by platform, engagement and activity, each
+ * as CSV data plus a PNG chart built from the same definitions as
+ * {@link AnalyticsPanel}. Users are streamed from the database and fanned out
+ * to a bounded worker pool; when the pool is saturated the streaming thread
+ * renders a report itself, which keeps memory flat however many users exist.
+ *
+ * Usage: AnalyticsReportGenerator [outputDir] [threads]
+ */
+public class AnalyticsReportGenerator {
+    private static final Logger LOGGER = Logger.getLogger(AnalyticsReportGenerator.class.getName());
+    private static final int USER_FETCH_SIZE = 100;
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE.withZone(ZoneId.systemDefault());
+
+    private final Path outputDir;
+    private final ThreadPoolExecutor workers;
+    private final AnalyticsDAO analyticsDAO = new AnalyticsDAO();
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final PrintWriter summaryWriter;
+
+    public AnalyticsReportGenerator(Path outputDir, int threads) throws IOException {
+        this.outputDir = outputDir;
+        Files.createDirectories(outputDir);
+        this.summaryWriter = new PrintWriter(Files.newBufferedWriter(outputDir.resolve("summary.csv"), StandardCharsets.UTF_8));
+        summaryWriter.println("user_id,username,total_posts,total_likes,total_comments,avg_likes_per_post");
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 2),
+                BackgroundExecutor.daemonThreadFactory("analytics-report"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        Path outputDir = Paths.get(args.length > 0 ? args[0] : "analytics-reports");
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        try {
+            AnalyticsReportGenerator generator = new AnalyticsReportGenerator(outputDir, threads);
+            generator.run();
+            System.exit(generator.failed.get() == 0 ? 0 : 1);
+        } catch (IOException | SQLException | InterruptedException e) {
+            LOGGER.log(Level.SEVERE, "Analytics report generation failed", e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Generate the reports of all users and wait for them to finish
+     */
+    public void run() throws SQLException, InterruptedException {
+        long start = System.nanoTime();
+        try {
+            new UserDAO().forEachUser(USER_FETCH_SIZE, user -> workers.execute(() -> writeReport(user)));
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            summaryWriter.close();
+        }
+        if (summaryWriter.checkError()) {
+            failed.incrementAndGet();
+            LOGGER.log(Level.SEVERE, "Error writing " + outputDir.resolve("summary.csv"));
+        }
+        LOGGER.log(Level.INFO, String.format("Wrote %d analytics reports to %s in %.1f s (%d failed)",
+                written.get(), outputDir.toAbsolutePath(), (System.nanoTime() - start) / 1e9, failed.get()));
+    }
+
+    private void writeReport(User user) {
+        try {
+            UserAnalytics analytics = analyticsDAO.getUserAnalytics(user.getId(), null, new QueryCanceller());
+            Path userDir = outputDir.resolve("user-" + user.getId());
+            Files.createDirectories(userDir);
+
+            writeSummary(user, analytics);
+            writePostsByPlatform(userDir, analytics);
+            writeEngagement(userDir, analytics);
+            writeActivity(userDir, analytics);
+            written.incrementAndGet();
+        } catch (SQLException | IOException e) {
+            failed.incrementAndGet();
+            LOGGER.log(Level.SEVERE, "Error writing analytics report for user ID: " + user.getId(), e);
+        }
+    }
+
+    private void writeSummary(User user, UserAnalytics analytics) throws IOException {
+        // Locale.ROOT, since a decimal comma would add a column
+        String line = String.format(Locale.ROOT, "%d,%s,%d,%d,%d,%.2f", user.getId(), csv(user.getUsername()),
+                analytics.getTotalPosts(), analytics.getTotalLikes(), analytics.getTotalComments(),
+                analytics.getAverageLikesPerPost());
+        synchronized (summaryWriter) {
+            summaryWriter.println(line);
+            checkError(summaryWriter, outputDir.resolve("summary.csv"));
+        }
+    }
+
+    private void writePostsByPlatform(Path userDir, UserAnalytics analytics) throws IOException {
+        try (PrintWriter out = csvWriter(userDir.resolve("posts_by_platform.csv"))) {
+            out.println("platform,posts");
+            for (Map.Entry<String, Integer> entry : analytics.getPostsByPlatform().entrySet()) {
+                out.println(csv(entry.getKey()) + "," + entry.getValue());
+            }
+            checkError(out, userDir.resolve("posts_by_platform.csv"));
+        }
+        savePng(userDir.resolve("posts_by_platform.png"), AnalyticsCharts.createPostsByPlatformChart(analytics));
+    }
+
+    private void writeEngagement(Path userDir, UserAnalytics analytics) throws IOException {
+        try (PrintWriter out = csvWriter(userDir.resolve("engagement.csv"))) {
+            out.println("type,count");
+            out.println("likes," + analytics.getTotalLikes());
+            out.println("comments," + analytics.getTotalComments());
+            checkError(out, userDir.resolve("engagement.csv"));
+        }
+        savePng(userDir.resolve("engagement.png"), AnalyticsCharts.createEngagementChart(analytics));
+    }
+
+    private void writeActivity(Path userDir, UserAnalytics analytics) throws IOException {
+        AnalyticsCharts.ActivitySampler activity = AnalyticsCharts.createActivitySampler(analytics);
+        try (PrintWriter out = csvWriter(userDir.resolve("activity.csv"))) {
+            out.println("date,posts");
+            List<Date> days = activity.getDays();
+            for (int i = 0; i < days.size(); i++) {
+                out.println(DAY_FORMAT.format(days.get(i).toInstant()) + "," + activity.getCount(i));
+            }
+            checkError(out, userDir.resolve("activity.csv"));
+        }
+        savePng(userDir.resolve("activity.png"),
+                AnalyticsCharts.createPostActivityChart(activity, AnalyticsCharts.CHART_WIDTH));
+    }
+
+    private static void savePng(Path file, JFreeChart chart) throws IOException {
+        File target = file.toFile();
+        ChartUtilities.saveChartAsPNG(target, chart, AnalyticsCharts.CHART_WIDTH, AnalyticsCharts.CHART_HEIGHT);
+    }
+
+    private static PrintWriter csvWriter(Path file) throws IOException {
+        return new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Flush a writer and fail if it hit an I/O error; PrintWriter only
+     * records them
+     */
+    private static void checkError(PrintWriter out, Path file) throws IOException {
+        if (out.checkError()) {
+            throw new IOException("Error writing " + file);
+        }
+    }
+
+    private static String csv(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
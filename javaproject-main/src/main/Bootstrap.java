@@ -0,0 +1,177 @@
+package main;
+
+import database.ChangeFeed;
+import database.DatabaseConnector;
+import database.DuplicateFeed;
+import database.EngagementFeed;
+import database.SimilarityFeed;
+import database.TrendingFeed;
+import model.UserAnalytics;
+import util.BackgroundExecutor;
+import util.StartupTimeline;
+import util.UIUtil;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.image.BufferedImage;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Application startup as a set of stages that run concurrently: Look and
+ * Feel on the EDT, font and JFreeChart warm-up and database initialization
+ * on the background pool. The login window only waits for the Look and Feel,
+ * so it can be shown while the database is still connecting; anything that
+ * needs the database calls {@link #awaitDatabase()} first. Every stage is
+ * recorded in the {@link StartupTimeline}, which is published once all of
+ * them have finished.
+ */
+public class Bootstrap {
+    private static final Logger LOGGER = Logger.getLogger(Bootstrap.class.getName());
+
+    private static CompletableFuture<Void> database;
+    private static CompletableFuture<Void> complete;
+
+    private Bootstrap() {
+    }
+
+    /**
+     * A startup stage, which may fail with any exception
+     */
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    /**
+     * Start all stages and show the login window as soon as it can be
+     */
+    public static synchronized void start() {
+        StartupTimeline.reset();
+        Executor background = BackgroundExecutor.getExecutor();
+
+        CompletableFuture<Void> lookAndFeel = stage("bootstrap.lookAndFeel", Bootstrap::installLookAndFeel, SwingUtilities::invokeLater);
+        CompletableFuture<Void> fonts = stage("bootstrap.fonts", Bootstrap::warmUpFonts, background);
+        CompletableFuture<Void> charts = stage("bootstrap.charts", Bootstrap::warmUpCharts, background);
+        database = stage("bootstrap.database", Bootstrap::initializeDatabase, background);
+
+        CompletableFuture<Void> loginWindow = lookAndFeel
+                // A missing Look and Feel is not fatal, the default one is used
+                .exceptionally(e -> null)
+                .thenRunAsync(() -> {
+                    new LoginFrame();
+                    StartupTimeline.mark("bootstrap.loginVisible");
+                }, SwingUtilities::invokeLater);
+
+        database.exceptionally(e -> {
+            SwingUtilities.invokeLater(() -> {
+                JOptionPane.showMessageDialog(null,
+                        "Failed to connect to the database: " + rootCause(e).getMessage(),
+                        "Database Error",
+                        JOptionPane.ERROR_MESSAGE);
+                System.exit(1);
+            });
+            return null;
+        });
+
+        complete = CompletableFuture.allOf(fonts, charts, database, loginWindow)
+                .handle((result, e) -> {
+                    StartupTimeline.publish("bootstrap");
+                    return null;
+                });
+    }
+
+    /**
+     * Wait until the database is initialized. Returns at once if the
+     * application was not started through {@link #start()}.
+     * @throws SQLException If the database could not be initialized
+     */
+    public static void awaitDatabase() throws SQLException {
+        CompletableFuture<Void> databaseStage;
+        CompletableFuture<Void> allStages;
+        synchronized (Bootstrap.class) {
+            databaseStage = database;
+            allStages = complete;
+        }
+        if (databaseStage == null) {
+            return;
+        }
+        // Wait for the timeline to be published too, so callers can reset it
+        allStages.join();
+        try {
+            databaseStage.join();
+        } catch (CompletionException e) {
+            Throwable cause = rootCause(e);
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            throw new SQLException("Database initialization failed", cause);
+        }
+    }
+
+    private static CompletableFuture<Void> stage(String name, Stage stage, Executor executor) {
+        return CompletableFuture.runAsync(() -> {
+            long start = StartupTimeline.start();
+            try {
+                stage.run();
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Startup stage " + name + " failed", e);
+                throw new CompletionException(e);
+            } finally {
+                StartupTimeline.record(name, start);
+            }
+        }, executor);
+    }
+
+    private static void installLookAndFeel() throws Exception {
+        // Set the look and feel to the system look and feel
+        UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+    }
+
+    /**
+     * Load the font families and lay out text in the UI fonts once, so the
+     * first window does not pay for it
+     */
+    private static void warmUpFonts() {
+        GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames();
+        FontRenderContext context = new FontRenderContext(null, true, true);
+        for (Font font : new Font[]{UIUtil.HEADING_FONT, UIUtil.SUBHEADING_FONT, UIUtil.BODY_FONT}) {
+            font.getStringBounds("Social Media Dashboard 0123456789", context);
+        }
+    }
+
+    /**
+     * Build and draw a small chart off screen to load and initialize the
+     * JFreeChart classes before the analytics tab needs them
+     */
+    private static void warmUpCharts() {
+        BufferedImage image = new BufferedImage(200, 100, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = image.createGraphics();
+        try {
+            AnalyticsCharts.createEngagementChart(new UserAnalytics(0)).draw(g2, new Rectangle(200, 100));
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    private static void initializeDatabase() throws SQLException {
+        DatabaseConnector.initialize();
+        ChangeFeed.getInstance().start();
+        TrendingFeed.start();
+        SimilarityFeed.start();
+        EngagementFeed.start();
+        DuplicateFeed.start();
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
@@ -1,10 +1,16 @@
 package main;
 
+import ai.AIService;
+import database.ChangeEvent;
+import database.ChangeFeed;
+import database.ChangeFeedListener;
 import database.CommentDAO;
+import database.PostFeatureCache;
 import model.Comment;
 import model.Post;
 import model.User;
-import util.DateUtil;
+import util.BackgroundExecutor;
+import util.TimeLabelRefresher;
 import util.UIUtil;
 
 import javax.swing.*;
@@ -13,12 +19,18 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.sql.SQLException;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Panel for displaying and managing comments on a post
  */
 public class CommentPanel extends JPanel {
+    private static final int PAGE_SIZE = 20;
+    private static final Logger LOGGER = Logger.getLogger(CommentPanel.class.getName());
     private Post post;
     private User currentUser;
     private JPanel commentsListPanel;
@@ -26,6 +38,16 @@ public class CommentPanel extends JPanel {
     private JButton submitCommentButton;
     private JButton aiSuggestButton;
     private JLabel commentCountLabel;
+    private JLabel noCommentsLabel;
+
+    // Cards currently shown, newest first, keyed by comment ID. Only touched on the EDT.
+    private final Map<Integer, JPanel> commentCards = new LinkedHashMap<>();
+    private Comment oldestLoaded;
+    private int commentCount;
+    private boolean hasOlderComments;
+    private boolean loadingOlderComments;
+    private int listGeneration;
+    private final ChangeFeedListener changeListener = this::onChange;
 
     public CommentPanel(Post post, User currentUser) {
         this.post = post;
@@ -48,6 +70,17 @@ public class CommentPanel extends JPanel {
         JScrollPane commentsScrollPane = new JScrollPane(commentsListPanel);
         commentsScrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         commentsScrollPane.setBorder(BorderFactory.createEmptyBorder());
+        commentsScrollPane.getVerticalScrollBar().setUnitIncrement(16);
+        // Fetch the next older page when the user scrolls near the end of the list
+        BoundedRangeModel scrollModel = commentsScrollPane.getVerticalScrollBar().getModel();
+        scrollModel.addChangeListener(e -> {
+            if (scrollModel.getValue() + scrollModel.getExtent() >= scrollModel.getMaximum() - scrollModel.getExtent()) {
+                loadOlderComments();
+            }
+        });
+
+        noCommentsLabel = UIUtil.createStyledLabel("No comments yet. Be the first to comment!", UIUtil.BODY_FONT, UIUtil.TEXT_SECONDARY);
+        noCommentsLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
 
         JPanel newCommentPanel = new JPanel(new BorderLayout(5, 5));
         newCommentPanel.setBorder(BorderFactory.createTitledBorder("Add a Comment"));
@@ -74,38 +107,223 @@ public class CommentPanel extends JPanel {
         add(newCommentPanel, BorderLayout.SOUTH);
     }
 
+    /**
+     * Reload the newest page of comments in the background, then replace
+     * what is shown with it
+     */
     public void loadComments() {
-        commentsListPanel.removeAll();
+        int generation = ++listGeneration;
+        // Older pages of the list being replaced would be discarded anyway
+        loadingOlderComments = true;
 
-        try {
-            CommentDAO commentDAO = new CommentDAO();
-            List<Comment> comments = commentDAO.getCommentsByPost(post.getId());
+        BackgroundExecutor.submit(() -> {
+            try {
+                CommentDAO commentDAO = new CommentDAO();
+                int count = commentDAO.getCommentCount(post.getId());
+                List<Comment> comments = commentDAO.getCommentPage(post.getId(), null, 0, PAGE_SIZE);
+                SwingUtilities.invokeLater(() -> {
+                    if (generation != listGeneration) {
+                        return;
+                    }
+                    loadingOlderComments = false;
+                    commentCount = count;
+                    commentCards.clear();
+                    commentsListPanel.removeAll();
+                    oldestLoaded = null;
+                    appendComments(comments);
+                    updateCommentCount();
+                });
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error loading comments for post " + post.getId(), e);
+                SwingUtilities.invokeLater(() -> {
+                    if (generation == listGeneration) {
+                        loadingOlderComments = false;
+                    }
+                    JOptionPane.showMessageDialog(this,
+                            "Error loading comments: " + e.getMessage(),
+                            "Comment Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
+            }
+        });
+    }
 
-            commentCountLabel.setText("Comments (" + comments.size() + ")");
+    /**
+     * Fetch the page of comments older than the oldest one shown, in the
+     * background, and append it to the list
+     */
+    private void loadOlderComments() {
+        if (!hasOlderComments || loadingOlderComments || oldestLoaded == null) {
+            return;
+        }
+        loadingOlderComments = true;
+        Comment oldest = oldestLoaded;
+        int generation = listGeneration;
 
-            if (comments.isEmpty()) {
-                JLabel noCommentsLabel = UIUtil.createStyledLabel("No comments yet. Be the first to comment!", UIUtil.BODY_FONT, UIUtil.TEXT_SECONDARY);
-                noCommentsLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-                commentsListPanel.add(noCommentsLabel);
-            } else {
-                for (Comment comment : comments) {
-                    JPanel commentItemPanel = createCommentPanel(comment);
-                    commentItemPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, commentItemPanel.getPreferredSize().height));
-                    commentItemPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
-                    commentsListPanel.add(commentItemPanel);
-                    commentsListPanel.add(Box.createRigidArea(new Dimension(0, 8)));
+        BackgroundExecutor.submit(() -> {
+            try {
+                List<Comment> comments = new CommentDAO().getCommentPage(post.getId(),
+                        oldest.getCommentDate(), oldest.getId(), PAGE_SIZE);
+                SwingUtilities.invokeLater(() -> {
+                    if (generation == listGeneration) {
+                        loadingOlderComments = false;
+                        appendComments(comments);
+                    }
+                });
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error loading older comments for post " + post.getId(), e);
+                SwingUtilities.invokeLater(() -> {
+                    if (generation == listGeneration) {
+                        loadingOlderComments = false;
+                        hasOlderComments = false;
+                    }
+                });
+            }
+        });
+    }
+
+    private void appendComments(List<Comment> comments) {
+        hasOlderComments = comments.size() >= PAGE_SIZE;
+        for (Comment comment : comments) {
+            if (commentCards.containsKey(comment.getId())) {
+                continue;
+            }
+            JPanel card = createCommentItem(comment);
+            commentCards.put(comment.getId(), card);
+            commentsListPanel.add(card);
+            oldestLoaded = comment;
+        }
+        refreshList();
+    }
+
+    /**
+     * Show a newly created comment at the top of the list
+     */
+    private void insertComment(Comment comment) {
+        if (commentCards.containsKey(comment.getId())) {
+            return;
+        }
+        JPanel card = createCommentItem(comment);
+        Map<Integer, JPanel> reordered = new LinkedHashMap<>();
+        reordered.put(comment.getId(), card);
+        reordered.putAll(commentCards);
+        commentCards.clear();
+        commentCards.putAll(reordered);
+        commentsListPanel.add(card, 0);
+        commentCount++;
+        updateCommentCount();
+        refreshList();
+    }
+
+    /**
+     * Swap the card of an edited comment for a fresh one in the same place
+     */
+    private void replaceComment(Comment comment) {
+        JPanel oldCard = commentCards.get(comment.getId());
+        if (oldCard == null) {
+            return;
+        }
+        int index = commentsListPanel.getComponentZOrder(oldCard);
+        JPanel card = createCommentItem(comment);
+        commentsListPanel.remove(index);
+        commentsListPanel.add(card, index);
+        commentCards.put(comment.getId(), card);
+        refreshList();
+    }
+
+    /**
+     * Drop the card of a deleted comment
+     */
+    private void removeComment(int commentId) {
+        JPanel card = commentCards.remove(commentId);
+        if (card == null) {
+            return;
+        }
+        commentsListPanel.remove(card);
+        commentCount = Math.max(commentCount - 1, 0);
+        if (oldestLoaded != null && oldestLoaded.getId() == commentId) {
+            oldestLoaded = null;
+            for (JPanel remaining : commentCards.values()) {
+                oldestLoaded = (Comment) remaining.getClientProperty(Comment.class);
+            }
+        }
+        updateCommentCount();
+        refreshList();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        ChangeFeed.getInstance().addListener(changeListener);
+    }
+
+    @Override
+    public void removeNotify() {
+        ChangeFeed.getInstance().removeListener(changeListener);
+        super.removeNotify();
+    }
+
+    /**
+     * Patch comments changed by other clients into the list. Called on the
+     * change feed thread.
+     */
+    private void onChange(ChangeEvent event) {
+        if (event.getOperation() == ChangeEvent.Operation.RESYNC) {
+            SwingUtilities.invokeLater(this::loadComments);
+            return;
+        }
+        if (event.getTable() != ChangeEvent.Table.COMMENTS || event.getParentId() != post.getId()) {
+            return;
+        }
+
+        if (event.getOperation() == ChangeEvent.Operation.DELETE) {
+            SwingUtilities.invokeLater(() -> removeComment(event.getId()));
+            return;
+        }
+        BackgroundExecutor.submit(() -> {
+            try {
+                Comment comment = new CommentDAO().getCommentById(event.getId());
+                if (comment == null) {
+                    return;
                 }
+                SwingUtilities.invokeLater(() -> {
+                    if (event.getOperation() == ChangeEvent.Operation.INSERT) {
+                        insertComment(comment);
+                    } else {
+                        replaceComment(comment);
+                    }
+                });
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Error reading changed comment " + event.getId(), e);
             }
+        });
+    }
 
-            revalidate();
-            repaint();
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this,
-                    "Error loading comments: " + e.getMessage(),
-                    "Comment Error",
-                    JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
+    private void updateCommentCount() {
+        commentCountLabel.setText("Comments (" + commentCount + ")");
+    }
+
+    private void refreshList() {
+        if (commentCards.isEmpty()) {
+            if (noCommentsLabel.getParent() == null) {
+                commentsListPanel.add(noCommentsLabel);
+            }
+        } else {
+            commentsListPanel.remove(noCommentsLabel);
         }
+        commentsListPanel.revalidate();
+        commentsListPanel.repaint();
+    }
+
+    private JPanel createCommentItem(Comment comment) {
+        JPanel commentItemPanel = createCommentPanel(comment);
+        JPanel item = new JPanel(new BorderLayout());
+        item.setBorder(BorderFactory.createEmptyBorder(0, 0, 8, 0));
+        item.add(commentItemPanel, BorderLayout.CENTER);
+        item.setMaximumSize(new Dimension(Integer.MAX_VALUE, item.getPreferredSize().height));
+        item.setAlignmentX(Component.LEFT_ALIGNMENT);
+        item.putClientProperty(Comment.class, comment);
+        return item;
     }
 
     private JPanel createCommentPanel(Comment comment) {
@@ -116,7 +334,8 @@ public class CommentPanel extends JPanel {
         headerPanel.setBackground(UIUtil.CARD_BACKGROUND);
 
         JLabel usernameLabel = UIUtil.createStyledLabel("@" + comment.getUsername(), UIUtil.BODY_FONT, UIUtil.PRIMARY_COLOR);
-        JLabel dateLabel = UIUtil.createStyledLabel(DateUtil.getTimeAgo(comment.getCommentDate()), UIUtil.BODY_FONT, UIUtil.TEXT_SECONDARY);
+        JLabel dateLabel = UIUtil.createStyledLabel("", UIUtil.BODY_FONT, UIUtil.TEXT_SECONDARY);
+        TimeLabelRefresher.register(dateLabel, comment.getCommentDate());
 
         headerPanel.add(usernameLabel, BorderLayout.WEST);
         headerPanel.add(dateLabel, BorderLayout.EAST);
@@ -178,7 +397,7 @@ public class CommentPanel extends JPanel {
 
             commentDAO.createComment(newComment);
             newCommentArea.setText("");
-            loadComments();
+            insertComment(newComment);
 
         } catch (SQLException e) {
             JOptionPane.showMessageDialog(this,
@@ -199,7 +418,7 @@ public class CommentPanel extends JPanel {
                 CommentDAO commentDAO = new CommentDAO();
                 comment.setContent(newContent.trim());
                 commentDAO.updateComment(comment);
-                loadComments();
+                replaceComment(comment);
             } catch (SQLException e) {
                 JOptionPane.showMessageDialog(this,
                         "Error updating comment: " + e.getMessage(),
@@ -225,7 +444,7 @@ public class CommentPanel extends JPanel {
             try {
                 CommentDAO commentDAO = new CommentDAO();
                 commentDAO.deleteComment(comment.getId(), currentUser.getId());
-                loadComments();
+                removeComment(comment.getId());
             } catch (SQLException e) {
                 JOptionPane.showMessageDialog(this,
                         "Error deleting comment: " + e.getMessage(),
@@ -237,11 +456,15 @@ public class CommentPanel extends JPanel {
     }
 
     private void suggestComment() {
-        try {
-            String suggestion = ai.AIAssistant.getContextAwareCommentSuggestion(post.getContent());
-            newCommentArea.setText(suggestion);
-        } catch (Exception e) {
-            newCommentArea.setText("I like what you shared! Thanks for posting.");
-        }
+        AIService.getInstance()
+                .suggestComment(post.getContent(), PostFeatureCache.getInstance().getFeatures(post), currentUser.getId())
+                .whenComplete((suggestion, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error != null) {
+                        LOGGER.log(Level.WARNING, "Error getting a comment suggestion for post ID: " + post.getId(), error);
+                        newCommentArea.setText("I like what you shared! Thanks for posting.");
+                    } else {
+                        newCommentArea.setText(suggestion);
+                    }
+                }));
     }
 }
\ No newline at end of file
@@ -1,45 +1,72 @@
 package main;
 
-import database.PostDAO;
-import database.SocialMediaPlatformDAO;
+import database.SnapshotStore;
+import database.SuggestionFeed;
 import database.UserDAO;
-import model.Post;
+import model.DashboardSnapshot;
+import model.FeedPage;
 import model.SocialMedia;
 import model.User;
+import model.UserAnalytics;
+import util.BackgroundExecutor;
+import util.StartupTimeline;
 import util.UIUtil;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class DashboardFrame extends JFrame {
     private User currentUser;
     private JTabbedPane socialMediaTabs;
+    private final List<LazyTabPanel<?>> lazyTabs = new ArrayList<>();
+    private final Map<Integer, LazyTabPanel<?>> platformTabs = new LinkedHashMap<>();
+    private final SnapshotStore snapshotStore = new SnapshotStore();
+    private DashboardSnapshot snapshot;
+    private DashboardPrefetch dataPrefetch;
+    private List<SocialMedia> platforms;
+    private LazyTabPanel<?> analyticsTab;
     private static final Logger LOGGER = Logger.getLogger(DashboardFrame.class.getName());
 
     public DashboardFrame(User user) {
+        this(user, null);
+    }
+
+    /**
+     * @param user The logged-in user
+     * @param prefetch Data prefetch already started for the user, e.g. during
+     *                 login, together with a freshly read user; null to re-read
+     *                 the user and start the prefetch here
+     */
+    public DashboardFrame(User user, DashboardPrefetch prefetch) {
+        long constructStart = StartupTimeline.start();
         this.currentUser = user;
 
         // Set the theme based on user's preference
-        try {
-            UserDAO userDAO = new UserDAO();
-            User updatedUser = userDAO.getUserById(user.getId());
-            if (updatedUser != null) {
-                this.currentUser = updatedUser;
-                UIUtil.setTheme(currentUser.getThemePreference());
-            }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error loading user theme preference for ID: " + user.getId(), e);
-            JOptionPane.showMessageDialog(this,
-                    "Error loading theme preference: " + e.getMessage(),
-                    "Dashboard Error",
-                    JOptionPane.ERROR_MESSAGE);
-            UIUtil.setTheme("light"); // Fallback to light theme
+        if (prefetch != null) {
+            UIUtil.setTheme(currentUser.getThemePreference());
+        } else {
+            reloadUser();
         }
 
         setTitle("Social Media Dashboard - Welcome " + user.getFullName());
@@ -62,26 +89,56 @@ public class DashboardFrame extends JFrame {
 
         socialMediaTabs = new JTabbedPane();
 
-        try {
-            SocialMediaPlatformDAO platformDAO = new SocialMediaPlatformDAO();
-            List<SocialMedia> platforms = platformDAO.getAllPlatforms();
-
+        // Tabs start as placeholders and are built on first selection or by the prefetcher.
+        // With a snapshot of the last session they render from it at once and are
+        // patched once the prefetch has the current data.
+        long snapshotStart = StartupTimeline.start();
+        snapshot = snapshotStore.read(currentUser.getId());
+        StartupTimeline.record("dashboard.snapshotRead", snapshotStart);
+        dataPrefetch = prefetch != null ? prefetch : DashboardPrefetch.start(currentUser.getId());
+        // Only once logged in: the prefetch may start before the password is checked
+        SuggestionFeed.start(currentUser.getId());
+        if (snapshot != null) {
+            platforms = snapshot.getPlatforms();
             for (SocialMedia platform : platforms) {
-                socialMediaTabs.addTab(platform.getName(), createSocialMediaPanel(platform));
+                addPlatformTab(platform, snapshot.getFirstPages().get(platform.getId()));
             }
-
-            socialMediaTabs.addTab("Profile Settings", createProfileSettingsPanel());
-            socialMediaTabs.addTab("AI Assistant", new AIAssistantPanel());
-            socialMediaTabs.addTab("Analytics", new AnalyticsPanel(currentUser));
-
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error loading social media platforms", e);
-            JOptionPane.showMessageDialog(this,
-                    "Error loading social media platforms: " + e.getMessage(),
-                    "Dashboard Error",
-                    JOptionPane.ERROR_MESSAGE);
+            dataPrefetch.whenPlatformsLoaded().whenComplete((freshPlatforms, e) -> SwingUtilities.invokeLater(() -> {
+                if (e == null) {
+                    patchPlatforms(freshPlatforms);
+                } else {
+                    LOGGER.log(Level.WARNING, "Error revalidating platforms, keeping the saved ones", e);
+                }
+            }));
+        } else {
+            // Nothing saved to show: add the platform tabs once the list
+            // arrives instead of waiting for it on the EDT
+            dataPrefetch.whenPlatformsLoaded().whenComplete((freshPlatforms, e) -> SwingUtilities.invokeLater(() -> {
+                if (e == null) {
+                    patchPlatforms(freshPlatforms);
+                    if (!platformTabs.isEmpty()) {
+                        socialMediaTabs.setSelectedIndex(0);
+                    }
+                } else {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    LOGGER.log(Level.SEVERE, "Error loading social media platforms", cause);
+                    JOptionPane.showMessageDialog(this,
+                            "Error loading social media platforms: " + cause.getMessage(),
+                            "Dashboard Error",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+                startLoadingTabs();
+            }));
         }
 
+        UserAnalytics cachedAnalytics = snapshot != null ? snapshot.getAnalytics() : null;
+        addLazyTab(socialMediaTabs.getTabCount(), "Profile Settings", () -> null, data -> createProfileSettingsPanel());
+        addLazyTab(socialMediaTabs.getTabCount(), "Search", () -> platforms != null ? platforms : new ArrayList<SocialMedia>(),
+                data -> new SearchPanel(currentUser, data));
+        addLazyTab(socialMediaTabs.getTabCount(), "AI Assistant", () -> null, data -> new AIAssistantPanel(currentUser));
+        analyticsTab = addLazyTab(socialMediaTabs.getTabCount(), "Analytics", () -> null,
+                data -> new AnalyticsPanel(currentUser, cachedAnalytics));
+
         mainPanel.add(headerPanel, BorderLayout.NORTH);
         mainPanel.add(socialMediaTabs, BorderLayout.CENTER);
 
@@ -90,11 +147,198 @@ public class DashboardFrame extends JFrame {
         // Apply the theme to the entire frame
         UIUtil.applyTheme(this);
 
+        socialMediaTabs.addChangeListener(e -> loadSelectedTab());
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                saveSnapshot(false);
+            }
+        });
         setVisible(true);
+        StartupTimeline.record("dashboard.construct", constructStart);
+        StartupTimeline.mark("dashboard.visible");
+
+        if (snapshot != null) {
+            startLoadingTabs();
+        }
+    }
+
+    /**
+     * Load the visible tab, then warm up the others
+     */
+    private void startLoadingTabs() {
+        CompletableFuture<Void> firstTab = loadSelectedTab();
+        if (firstTab != null) {
+            firstTab.thenRun(() -> {
+                StartupTimeline.mark("dashboard.interactive");
+                prefetchTabs();
+            });
+        }
+    }
+
+    /**
+     * Re-read the user and apply their theme preference
+     */
+    private void reloadUser() {
+        try {
+            UserDAO userDAO = new UserDAO();
+            User updatedUser = userDAO.getUserById(currentUser.getId());
+            if (updatedUser != null) {
+                this.currentUser = updatedUser;
+                UIUtil.setTheme(currentUser.getThemePreference());
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error loading user theme preference for ID: " + currentUser.getId(), e);
+            JOptionPane.showMessageDialog(this,
+                    "Error loading theme preference: " + e.getMessage(),
+                    "Dashboard Error",
+                    JOptionPane.ERROR_MESSAGE);
+            UIUtil.setTheme("light"); // Fallback to light theme
+        }
+    }
+
+    private <T> LazyTabPanel<T> addLazyTab(int index, String title, Callable<T> loader, Function<T, JComponent> builder) {
+        LazyTabPanel<T> tab = new LazyTabPanel<>(title, loader, builder);
+        lazyTabs.add(tab);
+        socialMediaTabs.insertTab(title, null, tab, null, index);
+        return tab;
+    }
+
+    /**
+     * Add the tab of a platform after the other platform tabs
+     * @param platform The platform
+     * @param cachedPage First page from the snapshot to show until the current
+     *                   one arrives, or null to wait for the current one
+     */
+    private void addPlatformTab(SocialMedia platform, FeedPage cachedPage) {
+        LazyTabPanel<FeedPage> tab = addLazyTab(platformTabs.size(), platform.getName(),
+                () -> cachedPage != null ? cachedPage : dataPrefetch.getFirstPage(platform.getId()),
+                feedPage -> {
+                    SocialMediaPanel panel = new SocialMediaPanel(platform, currentUser, feedPage);
+                    if (cachedPage != null) {
+                        revalidateFeed(panel, platform);
+                    }
+                    return panel;
+                });
+        platformTabs.put(platform.getId(), tab);
+    }
+
+    private void revalidateFeed(SocialMediaPanel panel, SocialMedia platform) {
+        dataPrefetch.whenFirstPageLoaded(platform.getId()).whenComplete((freshPage, e) -> SwingUtilities.invokeLater(() -> {
+            if (e == null) {
+                panel.patchFeed(freshPage);
+            } else {
+                LOGGER.log(Level.WARNING, "Error revalidating the saved feed of " + platform.getName(), e);
+            }
+        }));
     }
 
-    private JPanel createSocialMediaPanel(SocialMedia platform) {
-        return new SocialMediaPanel(platform, currentUser);
+    /**
+     * Bring the platform tabs built from the snapshot in line with the
+     * current platform list
+     */
+    private void patchPlatforms(List<SocialMedia> freshPlatforms) {
+        Set<Integer> freshIds = new HashSet<>();
+        for (SocialMedia platform : freshPlatforms) {
+            freshIds.add(platform.getId());
+        }
+        platformTabs.entrySet().removeIf(entry -> {
+            if (freshIds.contains(entry.getKey())) {
+                return false;
+            }
+            socialMediaTabs.remove(entry.getValue());
+            lazyTabs.remove(entry.getValue());
+            return true;
+        });
+        for (SocialMedia platform : freshPlatforms) {
+            if (!platformTabs.containsKey(platform.getId())) {
+                addPlatformTab(platform, null);
+            }
+        }
+        platforms = freshPlatforms;
+    }
+
+    /**
+     * Save what the dashboard shows now, so the next start can render it
+     * before the database answers
+     * @param async Whether to write the file on the background pool
+     */
+    private void saveSnapshot(boolean async) {
+        if (platforms == null) {
+            return;
+        }
+        Map<Integer, FeedPage> firstPages = new HashMap<>();
+        for (SocialMedia platform : platforms) {
+            LazyTabPanel<?> tab = platformTabs.get(platform.getId());
+            FeedPage page = null;
+            if (tab != null && tab.getContent() instanceof SocialMediaPanel) {
+                page = ((SocialMediaPanel) tab.getContent()).getFirstPage();
+            } else if (snapshot != null) {
+                page = snapshot.getFirstPages().get(platform.getId());
+            }
+            if (page != null) {
+                firstPages.put(platform.getId(), page);
+            }
+        }
+        UserAnalytics analytics = snapshot != null ? snapshot.getAnalytics() : null;
+        if (analyticsTab != null && analyticsTab.getContent() instanceof AnalyticsPanel) {
+            UserAnalytics latest = ((AnalyticsPanel) analyticsTab.getContent()).getLatestAnalytics();
+            if (latest != null) {
+                analytics = latest;
+            }
+        }
+
+        DashboardSnapshot current = new DashboardSnapshot(currentUser.getId(), new Date(),
+                new ArrayList<>(platforms), firstPages, analytics);
+        Runnable write = () -> {
+            try {
+                snapshotStore.write(current);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Error saving dashboard snapshot", e);
+            }
+        };
+        if (async) {
+            BackgroundExecutor.submit(write);
+        } else {
+            write.run();
+        }
+    }
+
+    private CompletableFuture<Void> loadSelectedTab() {
+        Component selected = socialMediaTabs.getSelectedComponent();
+        if (selected instanceof LazyTabPanel) {
+            return ((LazyTabPanel<?>) selected).ensureLoaded();
+        }
+        return null;
+    }
+
+    /**
+     * Load the remaining tabs one after another, so the prefetch never
+     * competes with more than one query at a time. The platform feeds come
+     * first, then Analytics, which the snapshot also needs, then the rest.
+     * A tab that fails to load is skipped so the others and the snapshot
+     * still follow.
+     */
+    private void prefetchTabs() {
+        Set<LazyTabPanel<?>> ordered = new LinkedHashSet<>(platformTabs.values());
+        if (analyticsTab != null) {
+            ordered.add(analyticsTab);
+        }
+        ordered.addAll(lazyTabs);
+
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (LazyTabPanel<?> tab : ordered) {
+            chain = chain.thenCompose(v -> tab.ensureLoaded())
+                    .exceptionally(e -> {
+                        LOGGER.log(Level.WARNING, "Error prefetching a tab, continuing with the next", e);
+                        return null;
+                    });
+        }
+        chain.thenRun(() -> {
+            StartupTimeline.mark("dashboard.prefetched");
+            StartupTimeline.publish("dashboard");
+            SwingUtilities.invokeLater(() -> saveSnapshot(true));
+        });
     }
 
     private JPanel createProfileSettingsPanel() {
@@ -156,8 +400,7 @@ public class DashboardFrame extends JFrame {
             userDAO.updateUser(currentUser);
 
             // Update the theme immediately
-            UIUtil.setTheme(theme);
-            UIUtil.applyTheme(this);
+            switchTheme(theme);
 
             JOptionPane.showMessageDialog(this,
                     "Profile updated successfully!",
@@ -173,7 +416,29 @@ public class DashboardFrame extends JFrame {
         }
     }
 
+    /**
+     * Switch the theme with a palette swap and one repaint, and log how long
+     * it took against the number of posts loaded in the feeds
+     */
+    private void switchTheme(String theme) {
+        long start = System.nanoTime();
+        UIUtil.setTheme(theme);
+        UIUtil.repaintAll();
+        int postCount = 0;
+        for (LazyTabPanel<?> tab : lazyTabs) {
+            if (tab.getContent() instanceof SocialMediaPanel) {
+                postCount += ((SocialMediaPanel) tab.getContent()).getPostCount();
+            }
+        }
+        int posts = postCount;
+        // Queued behind the repaint, so the time includes painting the new theme
+        SwingUtilities.invokeLater(() -> LOGGER.log(Level.INFO, String.format(
+                "Switched to %s theme in %.1f ms with %d posts loaded",
+                theme, (System.nanoTime() - start) / 1_000_000.0, posts)));
+    }
+
     private void logout() {
+        saveSnapshot(false);
         new LoginFrame();
         dispose();
     }
@@ -0,0 +1,174 @@
+package main;
+
+import database.FeedCache;
+import database.LikeDAO;
+import database.PostDAO;
+import database.PostFeatureCache;
+import database.QueryCanceller;
+import database.SocialMediaPlatformDAO;
+import model.FeedPage;
+import model.Post;
+import model.SocialMedia;
+import util.BackgroundExecutor;
+import util.StartupTimeline;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads what the dashboard needs before its first frame: the platform list
+ * and the first feed page of every platform. Both loads run in parallel, and
+ * the feed pages of all platforms come from a single windowed query. Once the
+ * pages are in, the text features of their posts are warmed in the background.
+ */
+public class DashboardPrefetch {
+    private static final Logger LOGGER = Logger.getLogger(DashboardPrefetch.class.getName());
+
+    private final int userId;
+    private final CompletableFuture<List<SocialMedia>> platforms;
+    private final CompletableFuture<Map<Integer, FeedPage>> firstPages;
+    // Cancelling the futures does not stop their work; this stops the queries
+    // and the side effects of a prefetch whose login failed
+    private final QueryCanceller canceller = new QueryCanceller();
+
+    private DashboardPrefetch(int userId) {
+        this.userId = userId;
+        this.platforms = CompletableFuture.supplyAsync(this::loadPlatforms, BackgroundExecutor.getExecutor());
+        this.firstPages = CompletableFuture.supplyAsync(this::loadFirstPages, BackgroundExecutor.getExecutor());
+        this.firstPages.thenAcceptAsync(this::warmFeatures, BackgroundExecutor.getExecutor());
+    }
+
+    /**
+     * Start prefetching the dashboard data for a user
+     * @param userId The user ID
+     * @return The running prefetch
+     */
+    public static DashboardPrefetch start(int userId) {
+        return new DashboardPrefetch(userId);
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    /**
+     * Wait for the platform list
+     * @return All platforms, ordered by name
+     * @throws SQLException If the query failed
+     */
+    public List<SocialMedia> getPlatforms() throws SQLException {
+        return join(platforms);
+    }
+
+    /**
+     * @return A future completing with the platform list
+     */
+    public CompletableFuture<List<SocialMedia>> whenPlatformsLoaded() {
+        return platforms;
+    }
+
+    /**
+     * @param platformId The platform ID
+     * @return A future completing with the first feed page of the platform
+     */
+    public CompletableFuture<FeedPage> whenFirstPageLoaded(int platformId) {
+        return firstPages.thenApply(pages -> pages.getOrDefault(platformId,
+                new FeedPage(platformId, List.of(), Set.of(), false)));
+    }
+
+    /**
+     * Wait for the first feed page of a platform
+     * @param platformId The platform ID
+     * @return The first page, empty if the platform has no posts
+     * @throws SQLException If the query failed
+     */
+    public FeedPage getFirstPage(int platformId) throws SQLException {
+        FeedPage page = join(firstPages).get(platformId);
+        if (page == null) {
+            page = new FeedPage(platformId, List.of(), Set.of(), false);
+        }
+        return page;
+    }
+
+    /**
+     * Stop loading results that are no longer needed
+     */
+    public void cancel() {
+        canceller.cancel();
+        platforms.cancel(true);
+        firstPages.cancel(true);
+    }
+
+    private List<SocialMedia> loadPlatforms() {
+        long start = StartupTimeline.start();
+        try {
+            return new SocialMediaPlatformDAO().getAllPlatforms();
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        } finally {
+            StartupTimeline.record("prefetch.platforms", start);
+        }
+    }
+
+    private Map<Integer, FeedPage> loadFirstPages() {
+        long start = StartupTimeline.start();
+        try {
+            Map<Integer, List<Post>> postsByPlatform =
+                    new PostDAO().getRecentPostsForAllPlatforms(SocialMediaPanel.FEED_PAGE_SIZE, canceller);
+            Set<Integer> likedPostIds = new LikeDAO().getLikedPostIds(userId, canceller);
+            if (canceller.isCancelled()) {
+                throw new CompletionException(new SQLException("Prefetch cancelled"));
+            }
+
+            Map<Integer, FeedPage> pages = new HashMap<>();
+            for (Map.Entry<Integer, List<Post>> entry : postsByPlatform.entrySet()) {
+                boolean hasMore = entry.getValue().size() >= SocialMediaPanel.FEED_PAGE_SIZE;
+                FeedCache.getInstance().seed(entry.getKey(), entry.getValue(), !hasMore);
+                pages.put(entry.getKey(), new FeedPage(entry.getKey(), entry.getValue(), likedPostIds, hasMore));
+            }
+            return pages;
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        } finally {
+            StartupTimeline.record("prefetch.firstPages", start);
+        }
+    }
+
+    /**
+     * Load the features of the first page posts into the feature cache, so
+     * "AI Suggest" on any of them is served from memory
+     */
+    private void warmFeatures(Map<Integer, FeedPage> pages) {
+        if (canceller.isCancelled()) {
+            return;
+        }
+        List<Post> posts = new ArrayList<>();
+        for (FeedPage page : pages.values()) {
+            posts.addAll(page.getPosts());
+        }
+        try {
+            PostFeatureCache.getInstance().getFeatures(posts);
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error warming post features", e);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package main;
+
+import util.BackgroundExecutor;
+import util.StartupTimeline;
+import util.UIUtil;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Tab placeholder that loads its data on the background pool and builds the
+ * real content on the EDT the first time it is needed, either because the
+ * tab was selected or because the dashboard is prefetching it.
+ */
+public class LazyTabPanel<T> extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = Logger.getLogger(LazyTabPanel.class.getName());
+
+    private final String name;
+    private final Callable<T> loader;
+    private final Function<T, JComponent> builder;
+    private final JLabel statusLabel;
+    private CompletableFuture<Void> loaded;
+    // Set when the last load failed; guarded by this
+    private boolean failed;
+    private JComponent content;
+
+    /**
+     * @param name The tab name, used for status text and timings
+     * @param loader Fetches the tab's data, runs off the EDT
+     * @param builder Builds the tab content from the data, runs on the EDT
+     */
+    public LazyTabPanel(String name, Callable<T> loader, Function<T, JComponent> builder) {
+        this.name = name;
+        this.loader = loader;
+        this.builder = builder;
+
+        setLayout(new BorderLayout());
+        statusLabel = UIUtil.createStyledLabel("Loading " + name + "...", UIUtil.BODY_FONT, UIUtil.TEXT_SECONDARY);
+        statusLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        add(statusLabel, BorderLayout.CENTER);
+    }
+
+    /**
+     * @return The built content, or null while the tab is still loading
+     */
+    public JComponent getContent() {
+        return content;
+    }
+
+    /**
+     * Start loading and building this tab unless that has already happened
+     * or is under way. A failed load is tried again on the next call.
+     * @return A future completing once the content is in place
+     */
+    public synchronized CompletableFuture<Void> ensureLoaded() {
+        if (loaded == null || failed) {
+            if (failed) {
+                failed = false;
+                SwingUtilities.invokeLater(() -> statusLabel.setText("Loading " + name + "..."));
+            }
+            long start = StartupTimeline.start();
+            loaded = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return loader.call();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }, BackgroundExecutor.getExecutor()).thenAcceptAsync(data -> {
+                content = builder.apply(data);
+                removeAll();
+                add(content, BorderLayout.CENTER);
+                UIUtil.applyTheme(content);
+                revalidate();
+                repaint();
+                StartupTimeline.record("tab." + name, start);
+            }, SwingUtilities::invokeLater).exceptionally(e -> {
+                Throwable cause = e;
+                while (cause.getCause() != null) {
+                    cause = cause.getCause();
+                }
+                LOGGER.log(Level.SEVERE, "Error loading tab " + name, cause);
+                String message = cause.getMessage();
+                SwingUtilities.invokeLater(() -> statusLabel.setText("Error loading " + name + ": " + message));
+                // Let the next selection or prefetch try again
+                synchronized (this) {
+                    failed = true;
+                }
+                return null;
+            });
+        }
+        return loaded;
+    }
+}
@@ -2,7 +2,9 @@ package main;
 
 import database.UserDAO;
 import model.User;
+import util.BackgroundExecutor;
 import util.PasswordHasher;
+import util.StartupTimeline;
 import util.UIUtil;
 
 import javax.swing.*;
@@ -16,6 +18,7 @@ import java.util.logging.Logger;
 public class LoginFrame extends JFrame {
     private JTextField usernameField;
     private JPasswordField passwordField;
+    private JButton loginButton;
     private static final Logger LOGGER = Logger.getLogger(LoginFrame.class.getName());
 
     public LoginFrame() {
@@ -54,7 +57,7 @@ public class LoginFrame extends JFrame {
         JPanel buttonPanel = new JPanel();
         buttonPanel.setLayout(new FlowLayout(FlowLayout.CENTER, 10, 0));
 
-        JButton loginButton = UIUtil.createPrimaryButton("Login");
+        loginButton = UIUtil.createPrimaryButton("Login");
         loginButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -100,24 +103,55 @@ public class LoginFrame extends JFrame {
             return;
         }
 
-        try {
-            UserDAO userDAO = new UserDAO();
-            User user = userDAO.getUserByUsername(username);
-
-            if (user != null && PasswordHasher.verifyPassword(password, user.getPasswordHash())) {
-                openDashboard(user);
-            } else {
-                JOptionPane.showMessageDialog(this,
-                        "Invalid username or password",
-                        "Login Failed",
-                        JOptionPane.ERROR_MESSAGE);
+        // Authenticate off the EDT; once the username resolves, the dashboard
+        // data starts loading alongside the password check
+        loginButton.setEnabled(false);
+        BackgroundExecutor.submit(() -> {
+            DashboardPrefetch prefetch = null;
+            try {
+                Bootstrap.awaitDatabase();
+                StartupTimeline.reset();
+                long lookupStart = StartupTimeline.start();
+                User user = new UserDAO().getUserByUsername(username);
+                StartupTimeline.record("login.lookup", lookupStart);
+                if (user != null) {
+                    prefetch = DashboardPrefetch.start(user.getId());
+                }
+
+                long verifyStart = StartupTimeline.start();
+                boolean verified = user != null && PasswordHasher.verifyPassword(password, user.getPasswordHash());
+                StartupTimeline.record("login.verify", verifyStart);
+
+                if (verified) {
+                    DashboardPrefetch dashboardPrefetch = prefetch;
+                    SwingUtilities.invokeLater(() -> openDashboard(user, dashboardPrefetch));
+                } else {
+                    discard(prefetch);
+                    SwingUtilities.invokeLater(() -> {
+                        loginButton.setEnabled(true);
+                        JOptionPane.showMessageDialog(this,
+                                "Invalid username or password",
+                                "Login Failed",
+                                JOptionPane.ERROR_MESSAGE);
+                    });
+                }
+            } catch (SQLException e) {
+                discard(prefetch);
+                LOGGER.log(Level.SEVERE, "Error during login for username: " + username, e);
+                SwingUtilities.invokeLater(() -> {
+                    loginButton.setEnabled(true);
+                    JOptionPane.showMessageDialog(this,
+                            "Database error: " + e.getMessage(),
+                            "Login Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error during login for username: " + username, e);
-            JOptionPane.showMessageDialog(this,
-                    "Database error: " + e.getMessage(),
-                    "Login Error",
-                    JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    private static void discard(DashboardPrefetch prefetch) {
+        if (prefetch != null) {
+            prefetch.cancel();
         }
     }
 
@@ -126,8 +160,8 @@ public class LoginFrame extends JFrame {
         dispose();
     }
 
-    private void openDashboard(User user) {
-        new DashboardFrame(user);
+    private void openDashboard(User user, DashboardPrefetch prefetch) {
+        new DashboardFrame(user, prefetch);
         dispose();
     }
 }
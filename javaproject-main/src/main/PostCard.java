@@ -0,0 +1,120 @@
+package main;
+
+import model.Post;
+import util.DateUtil;
+import util.UIUtil;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Reusable card showing a single post. The feed binds the same few instances
+ * to whichever post is being painted or edited instead of creating a card
+ * per post.
+ */
+public class PostCard extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    private final JLabel usernameLabel;
+    private final JLabel timeLabel;
+    private final JTextArea contentArea;
+    private final JButton likeButton;
+    private final JButton commentButton;
+    private final JButton shareButton;
+    private final JButton editButton;
+    private final JButton deleteButton;
+    private Post post;
+
+    public PostCard() {
+        setLayout(new BorderLayout());
+        setOpaque(false);
+        setBorder(BorderFactory.createEmptyBorder(0, 0, 10, 0));
+
+        JPanel card = UIUtil.createCardPanel();
+        card.setLayout(new BorderLayout(5, 5));
+
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(UIUtil.CARD_BACKGROUND);
+        usernameLabel = UIUtil.createStyledLabel("", UIUtil.BODY_FONT, UIUtil.PRIMARY_COLOR);
+        timeLabel = UIUtil.createStyledLabel("", UIUtil.BODY_FONT, UIUtil.TEXT_SECONDARY);
+        headerPanel.add(usernameLabel, BorderLayout.WEST);
+        headerPanel.add(timeLabel, BorderLayout.EAST);
+
+        contentArea = UIUtil.createStyledTextArea();
+        contentArea.setEditable(false);
+        contentArea.setBackground(UIUtil.CARD_BACKGROUND);
+
+        JPanel actionPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
+        actionPanel.setBackground(UIUtil.CARD_BACKGROUND);
+        likeButton = UIUtil.createSecondaryButton("Like (0)");
+        commentButton = UIUtil.createSecondaryButton("Comment");
+        shareButton = UIUtil.createSecondaryButton("Share");
+        editButton = UIUtil.createSecondaryButton("Edit");
+        deleteButton = UIUtil.createSecondaryButton("Delete");
+        actionPanel.add(likeButton);
+        actionPanel.add(commentButton);
+        actionPanel.add(shareButton);
+        actionPanel.add(editButton);
+        actionPanel.add(deleteButton);
+
+        card.add(headerPanel, BorderLayout.NORTH);
+        card.add(contentArea, BorderLayout.CENTER);
+        card.add(actionPanel, BorderLayout.SOUTH);
+        add(card, BorderLayout.CENTER);
+    }
+
+    /**
+     * Show a post on this card
+     * @param post The post
+     * @param liked Whether the current user has liked the post
+     * @param owned Whether the current user wrote the post
+     */
+    public void bind(Post post, boolean liked, boolean owned) {
+        this.post = post;
+        usernameLabel.setText("@" + post.getUsername());
+        timeLabel.setText(DateUtil.getTimeAgo(post.getPostDate()));
+        contentArea.setText(post.getContent());
+        likeButton.setText(liked ? "Unlike (" + post.getLikes() + ")" : "Like (" + post.getLikes() + ")");
+        editButton.setVisible(owned);
+        deleteButton.setVisible(owned);
+    }
+
+    /**
+     * Measure the height this card needs at the given width, with the
+     * content text wrapped to fit
+     * @param width The available width
+     * @return The preferred height
+     */
+    public int measureHeight(int width) {
+        Insets outer = getInsets();
+        Insets inner = ((JComponent) getComponent(0)).getInsets();
+        int textWidth = Math.max(width - outer.left - outer.right - inner.left - inner.right, 1);
+        // JTextArea wraps against its current width when computing its preferred size
+        contentArea.setSize(textWidth, Short.MAX_VALUE);
+        return getPreferredSize().height;
+    }
+
+    public Post getPost() {
+        return post;
+    }
+
+    public JButton getLikeButton() {
+        return likeButton;
+    }
+
+    public JButton getCommentButton() {
+        return commentButton;
+    }
+
+    public JButton getShareButton() {
+        return shareButton;
+    }
+
+    public JButton getEditButton() {
+        return editButton;
+    }
+
+    public JButton getDeleteButton() {
+        return deleteButton;
+    }
+}
@@ -0,0 +1,212 @@
+package main;
+
+import model.Post;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Single-column table model holding the posts of one feed, newest first
+ */
+public class PostFeedModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Post> posts = new ArrayList<>();
+    private final Set<Integer> likedPostIds = new HashSet<>();
+
+    /**
+     * Replace the feed contents
+     * @param newPosts The posts, newest first
+     * @param likedIds IDs of the posts the current user has liked
+     */
+    public void setPosts(List<Post> newPosts, Set<Integer> likedIds) {
+        posts.clear();
+        posts.addAll(newPosts);
+        likedPostIds.clear();
+        likedPostIds.addAll(likedIds);
+        fireTableDataChanged();
+    }
+
+    /**
+     * Add older posts to the end of the feed
+     * @param olderPosts The posts, newest first
+     */
+    public void appendPosts(List<Post> olderPosts) {
+        if (olderPosts.isEmpty()) {
+            return;
+        }
+        int firstRow = posts.size();
+        posts.addAll(olderPosts);
+        fireTableRowsInserted(firstRow, posts.size() - 1);
+    }
+
+    /**
+     * Add or refresh a single post, keeping the feed ordered newest first
+     * @param post The new or changed post
+     * @param appendIfOldest Whether to add a post older than everything loaded;
+     *                       false when paging will pick it up later
+     */
+    public void upsertPost(Post post, boolean appendIfOldest) {
+        int existing = indexOf(post.getId());
+        if (existing >= 0) {
+            posts.set(existing, post);
+            fireTableRowsUpdated(existing, existing);
+            return;
+        }
+        int row = 0;
+        while (row < posts.size() && isNewer(posts.get(row), post)) {
+            row++;
+        }
+        if (row == posts.size() && !posts.isEmpty() && !appendIfOldest) {
+            return;
+        }
+        posts.add(row, post);
+        fireTableRowsInserted(row, row);
+    }
+
+    /**
+     * Remove a post from the feed
+     * @param postId The post ID
+     */
+    public void removePost(int postId) {
+        int row = indexOf(postId);
+        if (row >= 0) {
+            posts.remove(row);
+            likedPostIds.remove(postId);
+            fireTableRowsDeleted(row, row);
+        }
+    }
+
+    /**
+     * Reconcile the newest part of the feed with a freshly loaded first page,
+     * touching only the rows that differ. Posts loaded beyond the page stay.
+     * @param freshPosts The first page, newest first
+     * @param freshLikedIds IDs of the posts on it the current user has liked
+     * @param complete Whether the page holds every post of the feed
+     */
+    public void mergeFirstPage(List<Post> freshPosts, Set<Integer> freshLikedIds, boolean complete) {
+        Set<Integer> freshIds = new HashSet<>();
+        for (Post post : freshPosts) {
+            freshIds.add(post.getId());
+        }
+        // Rows the page covers but no longer contains were deleted
+        Post oldestFresh = freshPosts.isEmpty() ? null : freshPosts.get(freshPosts.size() - 1);
+        for (int row = posts.size() - 1; row >= 0; row--) {
+            Post post = posts.get(row);
+            boolean covered = complete || (oldestFresh != null && !isNewer(oldestFresh, post));
+            if (covered && !freshIds.contains(post.getId())) {
+                removePost(post.getId());
+            }
+        }
+
+        for (Post post : freshPosts) {
+            int row = indexOf(post.getId());
+            boolean liked = freshLikedIds.contains(post.getId());
+            if (row < 0) {
+                if (liked) {
+                    likedPostIds.add(post.getId());
+                }
+                upsertPost(post, true);
+            } else if (!samePost(posts.get(row), post) || isLiked(post.getId()) != liked) {
+                posts.set(row, post);
+                if (liked) {
+                    likedPostIds.add(post.getId());
+                } else {
+                    likedPostIds.remove(post.getId());
+                }
+                fireTableRowsUpdated(row, row);
+            }
+        }
+    }
+
+    private static boolean samePost(Post a, Post b) {
+        return a.getLikes() == b.getLikes()
+                && a.getPostDate().equals(b.getPostDate())
+                && a.getContent().equals(b.getContent())
+                && a.getUsername().equals(b.getUsername());
+    }
+
+    private static boolean isNewer(Post a, Post b) {
+        int byDate = a.getPostDate().compareTo(b.getPostDate());
+        return byDate > 0 || (byDate == 0 && a.getId() > b.getId());
+    }
+
+    /**
+     * Get the oldest post currently in the feed
+     * @return The last post, or null if the feed is empty
+     */
+    public Post getLastPost() {
+        return posts.isEmpty() ? null : posts.get(posts.size() - 1);
+    }
+
+    public Post getPost(int row) {
+        return posts.get(row);
+    }
+
+    public int indexOf(int postId) {
+        for (int i = 0; i < posts.size(); i++) {
+            if (posts.get(i).getId() == postId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean isLiked(int postId) {
+        return likedPostIds.contains(postId);
+    }
+
+    /**
+     * Record the current user's like state for a post and repaint its row
+     * @param postId The post ID
+     * @param liked True if liked, false if unliked
+     */
+    public void setLiked(int postId, boolean liked) {
+        if (liked) {
+            likedPostIds.add(postId);
+        } else {
+            likedPostIds.remove(postId);
+        }
+        postChanged(postId);
+    }
+
+    /**
+     * Repaint the row of a post whose fields have changed
+     * @param postId The post ID
+     */
+    public void postChanged(int postId) {
+        int row = indexOf(postId);
+        if (row >= 0) {
+            fireTableRowsUpdated(row, row);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return posts.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return 1;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return "Post";
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        return posts.get(rowIndex);
+    }
+
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+        // Editing only hosts the live card so its buttons can be clicked
+        return true;
+    }
+}
@@ -0,0 +1,217 @@
+package main;
+
+import model.Post;
+import util.DateUtil;
+import util.TimeLabelRefresher;
+
+import javax.swing.*;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.TableCellEditor;
+import java.awt.*;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Virtualized post feed. Only the visible rows are painted, all through one
+ * shared {@link PostCard}; a second card hosts the row under the mouse so its
+ * buttons stay clickable. Row heights start from an estimate and are measured
+ * only when a row scrolls into view, so layout cost follows the viewport
+ * rather than the length of the feed.
+ */
+public class PostFeedTable extends JTable {
+    private static final long serialVersionUID = 1L;
+    private static final int ESTIMATED_ROW_HEIGHT = 170;
+
+    /**
+     * Callbacks for the buttons on a post card
+     */
+    public interface PostActions {
+        void like(Post post);
+
+        void comment(Post post);
+
+        void share(Post post);
+
+        void edit(Post post);
+
+        void delete(Post post);
+    }
+
+    private final PostFeedModel feedModel;
+    private final int currentUserId;
+    private final PostCard rendererCard = new PostCard();
+    private final PostCard editorCard = new PostCard();
+    private final PostCard measuringCard = new PostCard();
+    private final Map<Integer, Integer> measuredHeights = new HashMap<>();
+    private int measuredWidth = -1;
+    private boolean measureScheduled;
+    private final TimeLabelRefresher.TickListener timeListener = this::repaintStaleTimes;
+    private final ChangeListener viewportListener = e -> scheduleMeasure();
+
+    public PostFeedTable(PostFeedModel feedModel, int currentUserId, PostActions actions) {
+        super(feedModel);
+        this.feedModel = feedModel;
+        this.currentUserId = currentUserId;
+
+        setTableHeader(null);
+        setShowGrid(false);
+        setIntercellSpacing(new Dimension(0, 0));
+        setRowHeight(ESTIMATED_ROW_HEIGHT);
+        setRowSelectionAllowed(false);
+        setFillsViewportHeight(true);
+        setDefaultRenderer(Object.class, (table, value, isSelected, hasFocus, row, column) -> {
+            bindCard(rendererCard, (Post) value);
+            return rendererCard;
+        });
+        setDefaultEditor(Object.class, new CardEditor());
+
+        wireButton(editorCard.getLikeButton(), actions::like);
+        wireButton(editorCard.getCommentButton(), actions::comment);
+        wireButton(editorCard.getShareButton(), actions::share);
+        wireButton(editorCard.getEditButton(), actions::edit);
+        wireButton(editorCard.getDeleteButton(), actions::delete);
+    }
+
+    private void wireButton(JButton button, Consumer<Post> action) {
+        button.addActionListener(e -> {
+            Post post = editorCard.getPost();
+            // Hand the row back to the renderer so it paints the updated state
+            if (isEditing()) {
+                getCellEditor().cancelCellEditing();
+            }
+            action.accept(post);
+        });
+    }
+
+    private void bindCard(PostCard card, Post post) {
+        card.bind(post, feedModel.isLiked(post.getId()), post.getUserId() == currentUserId);
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        Container parent = getParent();
+        if (parent instanceof JViewport) {
+            ((JViewport) parent).addChangeListener(viewportListener);
+        }
+        TimeLabelRefresher.addTickListener(timeListener);
+    }
+
+    @Override
+    public void removeNotify() {
+        Container parent = getParent();
+        if (parent instanceof JViewport) {
+            ((JViewport) parent).removeChangeListener(viewportListener);
+        }
+        TimeLabelRefresher.removeTickListener(timeListener);
+        super.removeNotify();
+    }
+
+    /**
+     * Repaint the visible rows whose "time ago" text moved to another bucket
+     * since the previous tick
+     */
+    private void repaintStaleTimes(long previous, long now) {
+        if (getRowCount() == 0) {
+            return;
+        }
+        Rectangle visible = getVisibleRect();
+        int first = Math.max(rowAtPoint(new Point(0, visible.y)), 0);
+        int last = rowAtPoint(new Point(0, visible.y + visible.height - 1));
+        if (last < 0) {
+            last = getRowCount() - 1;
+        }
+        for (int row = first; row <= last; row++) {
+            Date postDate = feedModel.getPost(row).getPostDate();
+            if (!DateUtil.getTimeAgo(postDate, previous).equals(DateUtil.getTimeAgo(postDate, now))) {
+                repaint(getCellRect(row, 0, true));
+            }
+        }
+    }
+
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        if (measuredHeights != null) {
+            if (e.getFirstRow() == TableModelEvent.HEADER_ROW || e.getLastRow() == Integer.MAX_VALUE) {
+                measuredHeights.clear();
+            } else if (e.getType() == TableModelEvent.UPDATE) {
+                for (int row = e.getFirstRow(); row <= e.getLastRow() && row < feedModel.getRowCount(); row++) {
+                    measuredHeights.remove(feedModel.getPost(row).getId());
+                }
+            }
+        }
+        super.tableChanged(e);
+        scheduleMeasure();
+    }
+
+    private void scheduleMeasure() {
+        if (!measureScheduled) {
+            measureScheduled = true;
+            SwingUtilities.invokeLater(this::measureVisibleRows);
+        }
+    }
+
+    /**
+     * Measure the rows currently in view and fix their heights. Rows that have
+     * never been visible keep the estimated height.
+     */
+    private void measureVisibleRows() {
+        measureScheduled = false;
+        int width = getWidth();
+        if (width <= 0 || getRowCount() == 0) {
+            return;
+        }
+        if (width != measuredWidth) {
+            measuredHeights.clear();
+            measuredWidth = width;
+        }
+
+        Rectangle visible = getVisibleRect();
+        int first = rowAtPoint(new Point(0, visible.y));
+        int last = rowAtPoint(new Point(0, visible.y + visible.height - 1));
+        if (first < 0) {
+            first = 0;
+        }
+        if (last < 0) {
+            last = getRowCount() - 1;
+        }
+
+        boolean changed = false;
+        for (int row = first; row <= last; row++) {
+            Post post = feedModel.getPost(row);
+            Integer height = measuredHeights.get(post.getId());
+            if (height == null) {
+                bindCard(measuringCard, post);
+                height = measuringCard.measureHeight(width);
+                measuredHeights.put(post.getId(), height);
+            }
+            if (getRowHeight(row) != height) {
+                setRowHeight(row, height);
+                changed = true;
+            }
+        }
+
+        // Shrunk rows may have pulled further rows into view
+        if (changed) {
+            scheduleMeasure();
+        }
+    }
+
+    private class CardEditor extends AbstractCellEditor implements TableCellEditor {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Component getTableCellEditorComponent(JTable table, Object value, boolean isSelected, int row, int column) {
+            bindCard(editorCard, (Post) value);
+            return editorCard;
+        }
+
+        @Override
+        public Object getCellEditorValue() {
+            return editorCard.getPost();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package main;
+
+import database.QueryCanceller;
+import database.SearchDAO;
+import model.SearchPage;
+import model.SearchResult;
+import model.SocialMedia;
+import model.User;
+import util.BackgroundExecutor;
+import util.DateUtil;
+import util.UIUtil;
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Search tab over all posts and comments. Typing restarts a short debounce
+ * timer, so a search runs once the user pauses; starting a search cancels
+ * the one still running, including its query on the server.
+ */
+public class SearchPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = Logger.getLogger(SearchPanel.class.getName());
+    private static final int DEBOUNCE_MILLIS = 250;
+    private static final int PAGE_SIZE = 20;
+    private static final String[] DATE_RANGES = {"Any time", "Past day", "Past week", "Past month"};
+    private static final long[] DATE_RANGE_MILLIS = {0, 24 * 60 * 60_000L, 7 * 24 * 60 * 60_000L, 30 * 24 * 60 * 60_000L};
+
+    private final User currentUser;
+    private final List<SocialMedia> platforms;
+    private final Map<Integer, String> platformNames = new HashMap<>();
+    private final SearchDAO searchDAO = new SearchDAO();
+    private final AtomicLong generation = new AtomicLong();
+
+    private JTextField searchField;
+    private JComboBox<String> platformCombo;
+    private JComboBox<String> dateRangeCombo;
+    private JCheckBox mineOnlyCheckBox;
+    private JLabel statusLabel;
+    private DefaultListModel<SearchResult> resultModel;
+    private JButton loadMoreButton;
+    private Timer debounceTimer;
+
+    // In-flight search, only touched on the EDT
+    private Future<?> inFlightSearch;
+    private QueryCanceller inFlightCanceller;
+    private SearchResult lastResult;
+    // Query and filters of the current search, reused for its later pages
+    private ActiveSearch activeSearch;
+
+    /**
+     * @param user The current user
+     * @param platforms The platforms offered as filters
+     */
+    public SearchPanel(User user, List<SocialMedia> platforms) {
+        this.currentUser = user;
+        this.platforms = platforms;
+        for (SocialMedia platform : platforms) {
+            platformNames.put(platform.getId(), platform.getName());
+        }
+
+        setLayout(new BorderLayout(10, 10));
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        initializeUI();
+    }
+
+    private void initializeUI() {
+        JPanel headerPanel = UIUtil.createCardPanel();
+        headerPanel.setLayout(new BorderLayout(10, 10));
+        headerPanel.add(UIUtil.createTitleLabel("Search Posts and Comments"), BorderLayout.NORTH);
+
+        searchField = UIUtil.createStyledTextField();
+        searchField.setToolTipText("Use quotes for phrases, \"or\" for alternatives and -word to exclude a word");
+        headerPanel.add(searchField, BorderLayout.CENTER);
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
+        platformCombo = new JComboBox<>();
+        platformCombo.addItem("All platforms");
+        for (SocialMedia platform : platforms) {
+            platformCombo.addItem(platform.getName());
+        }
+        dateRangeCombo = new JComboBox<>(DATE_RANGES);
+        mineOnlyCheckBox = new JCheckBox("Only mine");
+        filterPanel.add(platformCombo);
+        filterPanel.add(dateRangeCombo);
+        filterPanel.add(mineOnlyCheckBox);
+        statusLabel = UIUtil.createStyledLabel(" ", UIUtil.BODY_FONT, UIUtil.TEXT_SECONDARY);
+        filterPanel.add(statusLabel);
+        headerPanel.add(filterPanel, BorderLayout.SOUTH);
+
+        resultModel = new DefaultListModel<>();
+        JList<SearchResult> resultList = new JList<>(resultModel);
+        resultList.setCellRenderer(new ResultRenderer());
+        JScrollPane scrollPane = new JScrollPane(resultList);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder());
+
+        loadMoreButton = UIUtil.createSecondaryButton("Load More");
+        loadMoreButton.setVisible(false);
+        loadMoreButton.addActionListener(e -> search(false));
+
+        add(headerPanel, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+        add(loadMoreButton, BorderLayout.SOUTH);
+
+        debounceTimer = new Timer(DEBOUNCE_MILLIS, e -> search(true));
+        debounceTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+        });
+        // Enter and filter changes search right away
+        searchField.addActionListener(e -> {
+            debounceTimer.stop();
+            search(true);
+        });
+        platformCombo.addActionListener(e -> search(true));
+        dateRangeCombo.addActionListener(e -> search(true));
+        mineOnlyCheckBox.addActionListener(e -> search(true));
+    }
+
+    /**
+     * Start a search in the background, cancelling the one still running
+     * @param fromStart True for a new search, false for the next page of the current one
+     */
+    private void search(boolean fromStart) {
+        if (inFlightSearch != null) {
+            inFlightSearch.cancel(true);
+            inFlightCanceller.cancel();
+            inFlightSearch = null;
+        }
+        if (fromStart) {
+            resultModel.clear();
+            lastResult = null;
+            activeSearch = null;
+            loadMoreButton.setVisible(false);
+        }
+
+        long searchGeneration = generation.incrementAndGet();
+        if (fromStart) {
+            String query = searchField.getText();
+            if (query.isBlank()) {
+                statusLabel.setText(" ");
+                return;
+            }
+            int platformIndex = platformCombo.getSelectedIndex();
+            Integer platformId = platformIndex > 0 ? platforms.get(platformIndex - 1).getId() : null;
+            Integer userId = mineOnlyCheckBox.isSelected() ? currentUser.getId() : null;
+            long rangeMillis = DATE_RANGE_MILLIS[dateRangeCombo.getSelectedIndex()];
+            Date from = rangeMillis > 0 ? new Date(System.currentTimeMillis() - rangeMillis) : null;
+            activeSearch = new ActiveSearch(query, platformId, userId, from);
+        } else if (activeSearch == null) {
+            return;
+        }
+        ActiveSearch active = activeSearch;
+        SearchResult after = lastResult;
+
+        QueryCanceller canceller = new QueryCanceller();
+        inFlightCanceller = canceller;
+        statusLabel.setText("Searching...");
+        loadMoreButton.setEnabled(false);
+
+        inFlightSearch = BackgroundExecutor.submit(() -> {
+            try {
+                SearchPage page = searchDAO.search(active.query, active.platformId, active.userId, active.from,
+                        null, after, PAGE_SIZE, canceller);
+                if (!canceller.isCancelled()) {
+                    SwingUtilities.invokeLater(() -> showPage(searchGeneration, page));
+                }
+            } catch (SQLException e) {
+                if (!canceller.isCancelled()) {
+                    SwingUtilities.invokeLater(() -> showError(searchGeneration, e));
+                }
+            }
+        });
+    }
+
+    private void showPage(long searchGeneration, SearchPage page) {
+        // A later search has been started, this result is stale
+        if (searchGeneration != generation.get()) {
+            return;
+        }
+        inFlightSearch = null;
+        for (SearchResult result : page.getResults()) {
+            resultModel.addElement(result);
+        }
+        if (page.getLast() != null) {
+            lastResult = page.getLast();
+        }
+        statusLabel.setText(resultModel.isEmpty() ? "No results"
+                : resultModel.size() + (page.hasMore() ? "+" : "") + " results");
+        loadMoreButton.setVisible(page.hasMore());
+        loadMoreButton.setEnabled(true);
+    }
+
+    private void showError(long searchGeneration, SQLException e) {
+        if (searchGeneration != generation.get()) {
+            return;
+        }
+        inFlightSearch = null;
+        statusLabel.setText(" ");
+        loadMoreButton.setEnabled(true);
+        LOGGER.log(Level.SEVERE, "Error searching for: " + (activeSearch != null ? activeSearch.query : ""), e);
+        JOptionPane.showMessageDialog(this,
+                "Error searching: " + e.getMessage(),
+                "Search Error",
+                JOptionPane.ERROR_MESSAGE);
+    }
+
+    /**
+     * @param snippet A snippet with highlight markers
+     * @return The snippet as HTML, with the matched terms in bold
+     */
+    private static String toHtml(String snippet) {
+        String escaped = snippet.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                .replace("\n", " ");
+        return escaped.replace(SearchResult.HIGHLIGHT_START, "<b>").replace(SearchResult.HIGHLIGHT_END, "</b>");
+    }
+
+    private class ResultRenderer extends DefaultListCellRenderer {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                      boolean isSelected, boolean cellHasFocus) {
+            SearchResult result = (SearchResult) value;
+            String kind = result.getKind() == SearchResult.Kind.POST ? "Post" : "Comment";
+            String platform = platformNames.getOrDefault(result.getPlatformId(), "Unknown platform");
+            String header = kind + " by " + result.getUsername() + " on " + platform + " · "
+                    + DateUtil.getTimeAgo(result.getDate());
+            String html = "<html><div style='width:600px'><font color='gray'>" + toHtml(header) + "</font><br>"
+                    + toHtml(result.getSnippet()) + "</div></html>";
+            JLabel label = (JLabel) super.getListCellRendererComponent(list, html, index, isSelected, cellHasFocus);
+            label.setFont(UIUtil.BODY_FONT);
+            label.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+            return label;
+        }
+    }
+
+    private static class ActiveSearch {
+        private final String query;
+        private final Integer platformId;
+        private final Integer userId;
+        private final Date from;
+
+        ActiveSearch(String query, Integer platformId, Integer userId, Date from) {
+            this.query = query;
+            this.platformId = platformId;
+            this.userId = userId;
+            this.from = from;
+        }
+    }
+}
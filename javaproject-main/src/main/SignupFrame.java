@@ -2,6 +2,7 @@ package main;
 
 import database.UserDAO;
 import model.User;
+import util.BackgroundExecutor;
 import util.PasswordHasher;
 import util.UIUtil;
 
@@ -17,6 +18,7 @@ public class SignupFrame extends JFrame {
     private JTextField emailField;
     private JPasswordField passwordField;
     private JPasswordField confirmPasswordField;
+    private JButton registerButton;
 
     public SignupFrame() {
         // Set frame properties
@@ -64,7 +66,7 @@ public class SignupFrame extends JFrame {
         buttonPanel.setLayout(new FlowLayout(FlowLayout.CENTER, 10, 0));
 
         // Register button
-        JButton registerButton = new JButton("Sign Up");
+        registerButton = new JButton("Sign Up");
         registerButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -127,36 +129,50 @@ public class SignupFrame extends JFrame {
             return;
         }
 
-        try {
-            // Check if username already exists
-            UserDAO userDAO = new UserDAO();
-            if (userDAO.usernameExists(username)) {
-                JOptionPane.showMessageDialog(this,
-                        "Username already exists. Please choose a different one.",
-                        "Sign Up Error",
-                        JOptionPane.ERROR_MESSAGE);
-                return;
+        // Check and create the account off the EDT, like LoginFrame.login()
+        registerButton.setEnabled(false);
+        BackgroundExecutor.submit(() -> {
+            try {
+                Bootstrap.awaitDatabase();
+
+                // Check if username already exists
+                UserDAO userDAO = new UserDAO();
+                if (userDAO.usernameExists(username)) {
+                    SwingUtilities.invokeLater(() -> {
+                        registerButton.setEnabled(true);
+                        JOptionPane.showMessageDialog(this,
+                                "Username already exists. Please choose a different one.",
+                                "Sign Up Error",
+                                JOptionPane.ERROR_MESSAGE);
+                    });
+                    return;
+                }
+
+                // Create user
+                String passwordHash = PasswordHasher.hashPassword(password);
+                User newUser = new User(0, username, fullName, email, passwordHash);
+                userDAO.createUser(newUser);
+
+                SwingUtilities.invokeLater(() -> {
+                    JOptionPane.showMessageDialog(this,
+                            "Account created successfully. Please log in.",
+                            "Sign Up Success",
+                            JOptionPane.INFORMATION_MESSAGE);
+
+                    // Back to login
+                    backToLogin();
+                });
+            } catch (SQLException e) {
+                e.printStackTrace();
+                SwingUtilities.invokeLater(() -> {
+                    registerButton.setEnabled(true);
+                    JOptionPane.showMessageDialog(this,
+                            "Database error: " + e.getMessage(),
+                            "Sign Up Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
             }
-
-            // Create user
-            String passwordHash = PasswordHasher.hashPassword(password);
-            User newUser = new User(0, username, fullName, email, passwordHash);
-            userDAO.createUser(newUser);
-
-            JOptionPane.showMessageDialog(this,
-                    "Account created successfully. Please log in.",
-                    "Sign Up Success",
-                    JOptionPane.INFORMATION_MESSAGE);
-
-            // Back to login
-            backToLogin();
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this,
-                    "Database error: " + e.getMessage(),
-                    "Sign Up Error",
-                    JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-        }
+        });
     }
 
     private void backToLogin() {
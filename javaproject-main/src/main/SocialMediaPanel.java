@@ -1,31 +1,86 @@
 package main;
 
+import ai.AIAssistant;
+import ai.AIService;
+import ai.DuplicateDetector;
+import ai.EngagementModel;
+import ai.PostSuggestionEngine;
+import ai.SimilarityIndex;
+import database.ChangeEvent;
+import database.ChangeFeedListener;
+import database.FeedCache;
+import database.LikeBuffer;
+import database.LikeBufferListener;
 import database.PostDAO;
 import database.LikeDAO;
+import model.FeedPage;
 import model.Post;
 import model.SocialMedia;
 import model.User;
-import util.DateUtil;
+import util.BackgroundExecutor;
 import util.UIUtil;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.datatransfer.StringSelection;
 import java.awt.datatransfer.Clipboard;
+import java.awt.event.ActionEvent;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class SocialMediaPanel extends JPanel {
     private final SocialMedia platform;
     private final User currentUser;
-    private final JPanel postsPanel;
+    private final PostFeedModel feedModel;
+    private final JPanel feedPanel;
+    // Keyset paging state, only touched on the EDT
+    private boolean hasMorePosts;
+    private boolean loadingMorePosts;
+    private int feedGeneration;
+    private final ChangeFeedListener changeListener = this::onChange;
+    private final LikeBufferListener likeListener = new LikeBufferListener() {
+        @Override
+        public void likesFlushed(int userId, Set<Integer> postIds) {
+            SwingUtilities.invokeLater(() -> onLikesFlushed(userId, postIds));
+        }
+
+        @Override
+        public void likesRolledBack(int userId, Map<Integer, Boolean> restored) {
+            SwingUtilities.invokeLater(() -> onLikesRolledBack(userId, restored));
+        }
+    };
     private final JTextArea newPostTextArea;
+    private final JLabel completionLabel;
+    private final JLabel engagementLabel;
+    // Text the Tab key appends to the new post, only touched on the EDT
+    private String completion = "";
     private static final Logger LOGGER = Logger.getLogger(SocialMediaPanel.class.getName());
+    public static final int FEED_PAGE_SIZE = 50;
+    private static final int SIMILAR_POST_COUNT = 5;
+    private static final String FEED_CARD = "feed";
+    private static final String EMPTY_CARD = "empty";
 
     public SocialMediaPanel(SocialMedia platform, User currentUser) {
+        this(platform, currentUser, null);
+    }
+
+    /**
+     * Create the panel from an already fetched feed page
+     * @param platform The platform shown by this panel
+     * @param currentUser The logged in user
+     * @param feedPage The prefetched feed, or null to load it now
+     */
+    public SocialMediaPanel(SocialMedia platform, User currentUser, FeedPage feedPage) {
         this.platform = platform;
         this.currentUser = currentUser;
 
@@ -47,139 +102,469 @@ public class SocialMediaPanel extends JPanel {
         JPanel postButtonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         JButton aiSuggestButton = UIUtil.createSecondaryButton("AI Suggest");
         aiSuggestButton.addActionListener(e -> suggestPost());
+        JButton similarPostsButton = UIUtil.createSecondaryButton("Similar Posts");
+        similarPostsButton.setToolTipText("Find well-received posts like this draft");
+        similarPostsButton.addActionListener(e -> showSimilarPosts(similarPostsButton));
         JButton postButton = UIUtil.createPrimaryButton("Post");
         postButton.addActionListener(e -> createNewPost());
 
+        engagementLabel = UIUtil.createStyledLabel(" ", UIUtil.BODY_FONT, UIUtil.TEXT_SECONDARY);
+        engagementLabel.setToolTipText("Likes plus comments predicted from past posts on every platform");
+        postButtonPanel.add(engagementLabel);
         postButtonPanel.add(aiSuggestButton);
+        postButtonPanel.add(similarPostsButton);
         postButtonPanel.add(postButton);
 
+        completionLabel = UIUtil.createStyledLabel(" ", UIUtil.BODY_FONT, UIUtil.TEXT_SECONDARY);
+        installCompletion();
+        newPostTextArea.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                updateEngagementEstimate();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                updateEngagementEstimate();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                updateEngagementEstimate();
+            }
+        });
+
+        JPanel newPostFooter = new JPanel(new BorderLayout());
+        newPostFooter.add(completionLabel, BorderLayout.CENTER);
+        newPostFooter.add(postButtonPanel, BorderLayout.EAST);
+
         newPostPanel.add(newPostScrollPane, BorderLayout.CENTER);
-        newPostPanel.add(postButtonPanel, BorderLayout.SOUTH);
+        newPostPanel.add(newPostFooter, BorderLayout.SOUTH);
+
+        feedModel = new PostFeedModel();
+        PostFeedTable feedTable = new PostFeedTable(feedModel, currentUser.getId(), new PostFeedTable.PostActions() {
+            @Override
+            public void like(Post post) {
+                toggleLike(post);
+            }
+
+            @Override
+            public void comment(Post post) {
+                showCommentPanel(post);
+            }
+
+            @Override
+            public void share(Post post) {
+                sharePost(post);
+            }
+
+            @Override
+            public void edit(Post post) {
+                editPost(post);
+            }
+
+            @Override
+            public void delete(Post post) {
+                deletePost(post);
+            }
+        });
+        JScrollPane postsScrollPane = new JScrollPane(feedTable);
+        postsScrollPane.setBorder(BorderFactory.createEmptyBorder());
+        postsScrollPane.getVerticalScrollBar().setUnitIncrement(16);
+        // Fetch the next older page when the user scrolls near the end of the feed
+        BoundedRangeModel scrollModel = postsScrollPane.getVerticalScrollBar().getModel();
+        scrollModel.addChangeListener(e -> {
+            if (scrollModel.getValue() + scrollModel.getExtent() >= scrollModel.getMaximum() - 2 * scrollModel.getExtent()) {
+                loadMorePosts();
+            }
+        });
 
-        postsPanel = new JPanel();
-        postsPanel.setLayout(new BoxLayout(postsPanel, BoxLayout.Y_AXIS));
-        JScrollPane postsScrollPane = new JScrollPane(postsPanel);
-        postsScrollPane.setBorder(BorderFactory.createTitledBorder("Recent Posts"));
+        JPanel emptyPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        emptyPanel.add(UIUtil.createStyledLabel("No posts yet. Create your first post!", UIUtil.BODY_FONT, UIUtil.TEXT_SECONDARY));
 
-        loadPosts();
+        feedPanel = new JPanel(new CardLayout());
+        feedPanel.setBorder(BorderFactory.createTitledBorder("Recent Posts"));
+        feedPanel.add(postsScrollPane, FEED_CARD);
+        feedPanel.add(emptyPanel, EMPTY_CARD);
+
+        if (feedPage != null) {
+            showFeed(feedPage);
+        } else {
+            loadPosts();
+        }
 
         add(infoPanel, BorderLayout.NORTH);
         add(newPostPanel, BorderLayout.SOUTH);
-        add(postsScrollPane, BorderLayout.CENTER);
+        add(feedPanel, BorderLayout.CENTER);
+    }
+
+    /**
+     * @return The number of posts loaded in the feed
+     */
+    public int getPostCount() {
+        return feedModel.getRowCount();
     }
 
     private void suggestPost() {
-        String suggestion = ai.AIAssistant.getPostSuggestion();
-        newPostTextArea.setText(suggestion);
+        AIService.getInstance().suggestPost(currentUser.getId())
+                .whenComplete((suggestion, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error != null) {
+                        LOGGER.log(Level.WARNING, "Error getting a post suggestion", error);
+                        JOptionPane.showMessageDialog(this,
+                                "Could not get a post suggestion: " + error.getMessage(),
+                                "AI Suggest",
+                                JOptionPane.ERROR_MESSAGE);
+                    } else {
+                        newPostTextArea.setText(suggestion);
+                    }
+                }));
     }
 
-    private void loadPosts() {
-        postsPanel.removeAll();
-        try {
-            PostDAO postDAO = new PostDAO();
-            List<Post> posts = postDAO.getPostsByPlatform(platform.getId());
+    /**
+     * Show past posts like the draft that got at least the average number of
+     * likes. The lookup is in memory; only posts missing from the feed cache
+     * are read from the database.
+     * @param button The button to disable while the posts load
+     */
+    private void showSimilarPosts(JButton button) {
+        String draft = newPostTextArea.getText().trim();
+        if (draft.isEmpty()) {
+            JOptionPane.showMessageDialog(this,
+                    "Write a draft first to find posts like it",
+                    "Similar Posts",
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
 
-            if (posts.isEmpty()) {
-                postsPanel.add(UIUtil.createStyledLabel("No posts yet. Create your first post!", UIUtil.BODY_FONT, UIUtil.TEXT_SECONDARY));
-            } else {
-                for (Post post : posts) {
-                    JPanel postPanel = createPostPanel(post);
-                    postsPanel.add(postPanel);
-                    postsPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+        button.setEnabled(false);
+        BackgroundExecutor.submit(() -> {
+            try {
+                SimilarityIndex index = SimilarityIndex.getInstance();
+                List<SimilarityIndex.Match> matches = index.findSimilar(draft, SIMILAR_POST_COUNT,
+                        (int) Math.ceil(index.getAverageLikes()), -1);
+                Map<Integer, Post> posts = new HashMap<>();
+                for (SimilarityIndex.Match match : matches) {
+                    Post post = FeedCache.getInstance().getCachedPost(match.getPlatformId(), match.getPostId());
+                    if (post == null) {
+                        post = new PostDAO().getPostById(match.getPostId());
+                    }
+                    if (post != null) {
+                        posts.put(post.getId(), post);
+                    }
                 }
+                String description = AIAssistant.describeSimilarPosts(matches, posts);
+                SwingUtilities.invokeLater(() -> {
+                    button.setEnabled(true);
+                    JOptionPane.showMessageDialog(this, description, "Similar Posts", JOptionPane.INFORMATION_MESSAGE);
+                });
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error loading similar posts", e);
+                SwingUtilities.invokeLater(() -> {
+                    button.setEnabled(true);
+                    JOptionPane.showMessageDialog(this,
+                            "Error loading similar posts: " + e.getMessage(),
+                            "Similar Posts",
+                            JOptionPane.ERROR_MESSAGE);
+                });
             }
-            revalidate();
-            repaint();
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error loading posts for platform " + platform.getName(), e);
-            JOptionPane.showMessageDialog(this,
-                    "Error loading posts: " + e.getMessage(),
-                    "Post Error",
-                    JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-        }
+        });
     }
 
-    private JPanel createPostPanel(Post post) {
-        JPanel panel = UIUtil.createCardPanel();
-        panel.setLayout(new BorderLayout(5, 5));
+    /**
+     * Suggest how to finish the new post as the user types, from the user's
+     * own posts. Tab appends the suggestion; without one, Tab works as usual.
+     */
+    private void installCompletion() {
+        // Typing moves the caret too, so this covers edits without a second
+        // lookup from a document listener
+        newPostTextArea.addCaretListener(e -> updateCompletion());
+
+        KeyStroke tab = KeyStroke.getKeyStroke("TAB");
+        Action defaultTabAction = newPostTextArea.getActionMap().get(newPostTextArea.getInputMap().get(tab));
+        newPostTextArea.getInputMap().put(tab, "acceptCompletion");
+        newPostTextArea.getActionMap().put("acceptCompletion", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (!completion.isEmpty()) {
+                    newPostTextArea.append(completion);
+                } else if (defaultTabAction != null) {
+                    defaultTabAction.actionPerformed(e);
+                }
+            }
+        });
+    }
 
-        JPanel headerPanel = new JPanel(new BorderLayout());
-        headerPanel.setBackground(UIUtil.CARD_BACKGROUND);
-        headerPanel.add(UIUtil.createStyledLabel("@" + post.getUsername(), UIUtil.BODY_FONT, UIUtil.PRIMARY_COLOR), BorderLayout.WEST);
-        headerPanel.add(UIUtil.createStyledLabel(DateUtil.getTimeAgo(post.getPostDate()), UIUtil.BODY_FONT, UIUtil.TEXT_SECONDARY), BorderLayout.EAST);
+    private void updateCompletion() {
+        String text = newPostTextArea.getText();
+        // Only suggest while typing at the end of the post
+        completion = newPostTextArea.getCaretPosition() == text.length() && !text.isBlank()
+                ? PostSuggestionEngine.getInstance().complete(currentUser.getId(), text) : "";
+        completionLabel.setText(completion.isEmpty() ? " " : "Tab: ..." + completion.stripTrailing());
+    }
 
-        JTextArea contentArea = UIUtil.createStyledTextArea();
-        contentArea.setText(post.getContent());
-        contentArea.setEditable(false);
-        contentArea.setBackground(UIUtil.CARD_BACKGROUND);
+    /**
+     * Warn before publishing a near-duplicate of an existing post. The lookup
+     * is in memory and takes microseconds, so it runs on the EDT.
+     * @param content The new post's content
+     * @return True to go ahead and publish
+     */
+    private boolean confirmNotDuplicate(String content) {
+        List<DuplicateDetector.Match> duplicates =
+                DuplicateDetector.getInstance().findDuplicates(DuplicateDetector.signature(content), -1);
+        if (duplicates.isEmpty()) {
+            return true;
+        }
+        String message = String.format("This post is nearly identical to %d existing %s (%.0f%% similar). Post it anyway?",
+                duplicates.size(), duplicates.size() == 1 ? "post" : "posts", duplicates.get(0).getSimilarity() * 100);
+        return JOptionPane.showConfirmDialog(this, message, "Possible Duplicate",
+                JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE) == JOptionPane.YES_OPTION;
+    }
 
-        JPanel actionPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
-        actionPanel.setBackground(UIUtil.CARD_BACKGROUND);
+    /**
+     * Score the new post as the user types, as if published now. Scoring
+     * takes microseconds, so it runs on the EDT.
+     */
+    private void updateEngagementEstimate() {
+        String text = newPostTextArea.getText();
+        EngagementModel model = EngagementModel.getInstance();
+        double predicted = text.isBlank() ? -1 : model.predict(platform.getId(), text, System.currentTimeMillis());
+        if (predicted < 0) {
+            engagementLabel.setText(" ");
+            return;
+        }
+        double average = model.getMeanEngagement();
+        engagementLabel.setText(String.format("Predicted: ~%.0f likes + comments", predicted)
+                + (average > 0 ? String.format(" (%.1fx average)", predicted / average) : ""));
+    }
 
+    /**
+     * Fetch the first page of a platform's feed and the user's like state for
+     * it. Safe to call off the EDT.
+     * @param platform The platform
+     * @param user The current user
+     * @return The feed page
+     * @throws SQLException If a database error occurs
+     */
+    public static FeedPage fetchFeed(SocialMedia platform, User user) throws SQLException {
         LikeDAO likeDAO = new LikeDAO();
-        boolean hasLiked = false;
-        int likeCount = 0;
+        List<Post> posts = FeedCache.getInstance().getRecentPosts(platform.getId(), FEED_PAGE_SIZE);
+        Set<Integer> likedPostIds = likeDAO.getLikedPostIds(user.getId(), platform.getId());
+        LikeBuffer likeBuffer = LikeBuffer.getInstance();
+        likeBuffer.applyPending(user.getId(), likedPostIds);
+        for (Post post : posts) {
+            likeBuffer.applyPending(post);
+        }
+        return new FeedPage(platform.getId(), posts, likedPostIds, posts.size() >= FEED_PAGE_SIZE);
+    }
+
+    private void showFeed(FeedPage feedPage) {
+        feedGeneration++;
+        loadingMorePosts = false;
+        hasMorePosts = feedPage.hasMore();
+        feedModel.setPosts(feedPage.getPosts(), feedPage.getLikedPostIds());
+        ((CardLayout) feedPanel.getLayout()).show(feedPanel, feedPage.getPosts().isEmpty() ? EMPTY_CARD : FEED_CARD);
+    }
+
+    /**
+     * Patch the feed with a freshly loaded first page, e.g. after it was first
+     * shown from a saved snapshot. Only the posts that differ are touched.
+     * @param freshPage The first page as currently stored
+     */
+    public void patchFeed(FeedPage freshPage) {
+        feedModel.mergeFirstPage(freshPage.getPosts(), freshPage.getLikedPostIds(), !freshPage.hasMore());
+        if (feedModel.getRowCount() <= freshPage.getPosts().size()) {
+            hasMorePosts = freshPage.hasMore();
+        }
+        ((CardLayout) feedPanel.getLayout()).show(feedPanel, feedModel.getRowCount() == 0 ? EMPTY_CARD : FEED_CARD);
+    }
+
+    /**
+     * Capture the first page as currently shown, for saving a snapshot
+     * @return The first page
+     */
+    public FeedPage getFirstPage() {
+        int count = Math.min(feedModel.getRowCount(), FEED_PAGE_SIZE);
+        List<Post> posts = new ArrayList<>(count);
+        Set<Integer> likedPostIds = new HashSet<>();
+        for (int row = 0; row < count; row++) {
+            Post post = feedModel.getPost(row);
+            posts.add(new Post(post));
+            if (feedModel.isLiked(post.getId())) {
+                likedPostIds.add(post.getId());
+            }
+        }
+        return new FeedPage(platform.getId(), posts, likedPostIds, hasMorePosts || feedModel.getRowCount() > count);
+    }
+
+    /**
+     * Append the next older page below the last post in the feed. A page that
+     * arrives after the feed was reloaded is dropped.
+     */
+    private void loadMorePosts() {
+        Post lastPost = feedModel.getLastPost();
+        if (!hasMorePosts || loadingMorePosts || lastPost == null) {
+            return;
+        }
+        loadingMorePosts = true;
+        int generation = feedGeneration;
+
+        BackgroundExecutor.submit(() -> {
+            try {
+                List<Post> olderPosts = FeedCache.getInstance().getPostsBefore(platform.getId(),
+                        lastPost.getPostDate(), lastPost.getId(), FEED_PAGE_SIZE);
+                SwingUtilities.invokeLater(() -> {
+                    if (generation != feedGeneration) {
+                        return;
+                    }
+                    loadingMorePosts = false;
+                    hasMorePosts = olderPosts.size() >= FEED_PAGE_SIZE;
+                    feedModel.appendPosts(olderPosts);
+                });
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error loading older posts for platform " + platform.getName(), e);
+                SwingUtilities.invokeLater(() -> {
+                    if (generation == feedGeneration) {
+                        loadingMorePosts = false;
+                        hasMorePosts = false;
+                    }
+                });
+            }
+        });
+    }
+
+    private void loadPosts() {
         try {
-            hasLiked = likeDAO.hasUserLikedPost(currentUser.getId(), post.getId());
-            likeCount = likeDAO.getLikeCount(post.getId());
+            showFeed(fetchFeed(platform, currentUser));
         } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error fetching like status for post " + post.getId(), e);
+            LOGGER.log(Level.SEVERE, "Error loading posts for platform " + platform.getName(), e);
             JOptionPane.showMessageDialog(this,
-                    "Error loading like status: " + e.getMessage(),
-                    "Like Error",
+                    "Error loading posts: " + e.getMessage(),
+                    "Post Error",
                     JOptionPane.ERROR_MESSAGE);
             e.printStackTrace();
         }
+    }
 
-        JButton likeButton = UIUtil.createSecondaryButton(hasLiked ? "Unlike (" + likeCount + ")" : "Like (" + likeCount + ")");
-        likeButton.addActionListener(e -> toggleLike(post, likeButton));
-
-        JButton commentButton = UIUtil.createSecondaryButton("Comment");
-        commentButton.addActionListener(e -> showCommentPanel(post));
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        FeedCache.getInstance().addListener(changeListener);
+        LikeBuffer.getInstance().addListener(likeListener);
+    }
 
-        JButton shareButton = UIUtil.createSecondaryButton("Share");
-        shareButton.addActionListener(e -> sharePost(post));
+    @Override
+    public void removeNotify() {
+        FeedCache.getInstance().removeListener(changeListener);
+        LikeBuffer.getInstance().removeListener(likeListener);
+        super.removeNotify();
+    }
 
-        actionPanel.add(likeButton);
-        actionPanel.add(commentButton);
-        actionPanel.add(shareButton);
+    /**
+     * Apply a change pushed through the change feed to the open feed. Called
+     * on the change feed thread once the feed cache has applied the change;
+     * posts it does not hold are re-read in the background.
+     */
+    private void onChange(ChangeEvent event) {
+        if (event.getOperation() == ChangeEvent.Operation.RESYNC) {
+            SwingUtilities.invokeLater(this::refreshFeed);
+            return;
+        }
+        if (event.getParentId() != platform.getId()) {
+            return;
+        }
 
-        if (post.getUserId() == currentUser.getId()) {
-            JButton editButton = UIUtil.createSecondaryButton("Edit");
-            editButton.addActionListener(e -> editPost(post));
-            JButton deleteButton = UIUtil.createSecondaryButton("Delete");
-            deleteButton.addActionListener(e -> deletePost(post));
-            actionPanel.add(editButton);
-            actionPanel.add(deleteButton);
+        if (event.getTable() == ChangeEvent.Table.POSTS) {
+            if (event.getOperation() == ChangeEvent.Operation.DELETE) {
+                SwingUtilities.invokeLater(() -> feedModel.removePost(event.getId()));
+            } else {
+                Post cached = FeedCache.getInstance().getCachedPost(platform.getId(), event.getId());
+                if (cached != null) {
+                    SwingUtilities.invokeLater(() -> showPost(cached));
+                    return;
+                }
+                BackgroundExecutor.submit(() -> {
+                    try {
+                        Post post = new PostDAO().getPostById(event.getId());
+                        if (post != null) {
+                            SwingUtilities.invokeLater(() -> showPost(post));
+                        }
+                    } catch (SQLException e) {
+                        LOGGER.log(Level.WARNING, "Error reading changed post " + event.getId(), e);
+                    }
+                });
+            }
+        } else if (event.getTable() == ChangeEvent.Table.LIKES && event.getUserId() == currentUser.getId()
+                && !LikeBuffer.getInstance().isPending(currentUser.getId(), event.getId())) {
+            boolean liked = event.getOperation() != ChangeEvent.Operation.DELETE;
+            SwingUtilities.invokeLater(() -> feedModel.setLiked(event.getId(), liked));
         }
+    }
 
-        panel.add(headerPanel, BorderLayout.NORTH);
-        panel.add(contentArea, BorderLayout.CENTER);
-        panel.add(actionPanel, BorderLayout.SOUTH);
+    private void showPost(Post post) {
+        LikeBuffer.getInstance().applyPending(post);
+        feedModel.upsertPost(post, !hasMorePosts);
+        ((CardLayout) feedPanel.getLayout()).show(feedPanel, FEED_CARD);
+    }
 
-        return panel;
+    /**
+     * Reload the first page in the background, e.g. after missed changes
+     */
+    private void refreshFeed() {
+        BackgroundExecutor.submit(() -> {
+            try {
+                FeedPage feedPage = fetchFeed(platform, currentUser);
+                SwingUtilities.invokeLater(() -> showFeed(feedPage));
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error refreshing posts for platform " + platform.getName(), e);
+            }
+        });
     }
 
-    private void toggleLike(Post post, JButton likeButton) {
-        try {
-            LikeDAO likeDAO = new LikeDAO();
-            boolean liked = likeDAO.toggleLike(currentUser.getId(), post.getId());
-            int likeCount = likeDAO.getLikeCount(post.getId());
-            likeButton.setText(liked ? "Unlike (" + likeCount + ")" : "Like (" + likeCount + ")");
-            PostDAO postDAO = new PostDAO();
-            post.setLikes(likeCount);
-            postDAO.updatePost(post);
+    /**
+     * Like or unlike a post right away. The change is written by the
+     * {@link LikeBuffer} shortly after and rolled back if that fails.
+     */
+    private void toggleLike(Post post) {
+        boolean liked = LikeBuffer.getInstance().toggle(currentUser.getId(), post.getId(), feedModel.isLiked(post.getId()));
+        post.setLikes(post.getLikes() + (liked ? 1 : -1));
+        feedModel.setLiked(post.getId(), liked);
+    }
 
-            // Fire analytics update event
-            AnalyticsEventDispatcher.getInstance().fireEvent(new AnalyticsUpdateEvent(currentUser.getId()));
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error toggling like for post " + post.getId(), e);
+    private void onLikesFlushed(int userId, Set<Integer> postIds) {
+        if (userId != currentUser.getId()) {
+            return;
+        }
+        for (int postId : postIds) {
+            if (feedModel.indexOf(postId) >= 0) {
+                // Fire analytics update event
+                AnalyticsEventDispatcher.getInstance().fireEvent(new AnalyticsUpdateEvent(currentUser.getId()));
+                return;
+            }
+        }
+    }
+
+    private void onLikesRolledBack(int userId, Map<Integer, Boolean> restored) {
+        if (userId != currentUser.getId()) {
+            return;
+        }
+        boolean affected = false;
+        for (Map.Entry<Integer, Boolean> entry : restored.entrySet()) {
+            int row = feedModel.indexOf(entry.getKey());
+            if (row < 0) {
+                continue;
+            }
+            Post post = feedModel.getPost(row);
+            if (feedModel.isLiked(post.getId()) != entry.getValue()) {
+                post.setLikes(post.getLikes() + (entry.getValue() ? 1 : -1));
+            }
+            feedModel.setLiked(post.getId(), entry.getValue());
+            affected = true;
+        }
+        if (affected) {
             JOptionPane.showMessageDialog(this,
-                    "Error toggling like: " + e.getMessage(),
+                    "Some likes could not be saved and were undone.",
                     "Like Error",
                     JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
         }
     }
 
@@ -211,7 +596,7 @@ public class SocialMediaPanel extends JPanel {
                 PostDAO postDAO = new PostDAO();
                 post.setContent(newContent.trim());
                 postDAO.updatePost(post);
-                loadPosts();
+                feedModel.postChanged(post.getId());
             } catch (SQLException e) {
                 LOGGER.log(Level.SEVERE, "Error updating post " + post.getId(), e);
                 JOptionPane.showMessageDialog(this,
@@ -232,7 +617,10 @@ public class SocialMediaPanel extends JPanel {
             try {
                 PostDAO postDAO = new PostDAO();
                 postDAO.deletePost(post.getId());
-                loadPosts();
+                feedModel.removePost(post.getId());
+                if (feedModel.getRowCount() == 0 && !hasMorePosts) {
+                    ((CardLayout) feedPanel.getLayout()).show(feedPanel, EMPTY_CARD);
+                }
             } catch (SQLException e) {
                 LOGGER.log(Level.SEVERE, "Error deleting post " + post.getId(), e);
                 JOptionPane.showMessageDialog(this,
@@ -260,6 +648,9 @@ public class SocialMediaPanel extends JPanel {
                     JOptionPane.ERROR_MESSAGE);
             return;
         }
+        if (!confirmNotDuplicate(content)) {
+            return;
+        }
 
         try {
             PostDAO postDAO = new PostDAO();
@@ -274,7 +665,7 @@ public class SocialMediaPanel extends JPanel {
             );
             postDAO.createPost(newPost);
             newPostTextArea.setText("");
-            loadPosts();
+            showPost(newPost);
             JOptionPane.showMessageDialog(this,
                     "Post created successfully!",
                     "Post Success",
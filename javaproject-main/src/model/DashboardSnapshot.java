@@ -0,0 +1,54 @@
+package model;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The dashboard state a user last saw: platforms, the first feed page of
+ * each platform and the analytics aggregates. Saved locally so the next
+ * start can show it before the database has answered.
+ */
+public class DashboardSnapshot {
+    private final int userId;
+    private final Date savedAt;
+    private final List<SocialMedia> platforms;
+    private final Map<Integer, FeedPage> firstPages;
+    private final UserAnalytics analytics;
+
+    public DashboardSnapshot(int userId, Date savedAt, List<SocialMedia> platforms,
+                             Map<Integer, FeedPage> firstPages, UserAnalytics analytics) {
+        this.userId = userId;
+        this.savedAt = savedAt;
+        this.platforms = platforms;
+        this.firstPages = firstPages;
+        this.analytics = analytics;
+    }
+
+    // Getters
+    public int getUserId() {
+        return userId;
+    }
+
+    public Date getSavedAt() {
+        return savedAt;
+    }
+
+    public List<SocialMedia> getPlatforms() {
+        return platforms;
+    }
+
+    /**
+     * First feed pages keyed by platform ID
+     */
+    public Map<Integer, FeedPage> getFirstPages() {
+        return firstPages;
+    }
+
+    /**
+     * @return The analytics aggregates, or null if none had loaded when saved
+     */
+    public UserAnalytics getAnalytics() {
+        return analytics;
+    }
+}
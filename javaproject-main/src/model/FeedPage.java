@@ -0,0 +1,41 @@
+package model;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A page of one platform feed together with the current user's like state
+ */
+public class FeedPage {
+    private final int platformId;
+    private final List<Post> posts;
+    private final Set<Integer> likedPostIds;
+    private final boolean hasMore;
+
+    public FeedPage(int platformId, List<Post> posts, Set<Integer> likedPostIds, boolean hasMore) {
+        this.platformId = platformId;
+        this.posts = posts;
+        this.likedPostIds = likedPostIds;
+        this.hasMore = hasMore;
+    }
+
+    // Getters
+    public int getPlatformId() {
+        return platformId;
+    }
+
+    public List<Post> getPosts() {
+        return posts;
+    }
+
+    public Set<Integer> getLikedPostIds() {
+        return likedPostIds;
+    }
+
+    /**
+     * Whether older posts exist beyond this page
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,37 @@
+package model;
+
+import java.util.Date;
+
+/**
+ * A like event: who liked which post, on which platform and when
+ */
+public class Like {
+    private final int userId;
+    private final int postId;
+    private final int platformId;
+    private final Date likedAt;
+
+    public Like(int userId, int postId, int platformId, Date likedAt) {
+        this.userId = userId;
+        this.postId = postId;
+        this.platformId = platformId;
+        this.likedAt = likedAt;
+    }
+
+    // Getters
+    public int getUserId() {
+        return userId;
+    }
+
+    public int getPostId() {
+        return postId;
+    }
+
+    public int getPlatformId() {
+        return platformId;
+    }
+
+    public Date getLikedAt() {
+        return likedAt;
+    }
+}
@@ -21,6 +21,14 @@ public class Post {
         this.likes = likes;
     }
 
+    /**
+     * Copy constructor
+     * @param other The post to copy
+     */
+    public Post(Post other) {
+        this(other.id, other.platformId, other.userId, other.username, other.content, other.postDate, other.likes);
+    }
+
     // Getters and setters
     public int getId() {
         return id;
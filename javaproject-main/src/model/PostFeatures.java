@@ -0,0 +1,68 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Text features derived from a post's content. The content hash identifies
+ * the text the features were computed from, so stale features can be told
+ * apart from current ones after an edit.
+ */
+public class PostFeatures {
+    public static final String SHORT = "short";
+    public static final String MEDIUM = "medium";
+    public static final String LONG = "long";
+
+    private final int postId;
+    private final long contentHash;
+    private final double sentiment;
+    private final List<String> hashtags;
+    private final String language;
+    private final String lengthClass;
+
+    public PostFeatures(int postId, long contentHash, double sentiment, List<String> hashtags,
+                        String language, String lengthClass) {
+        this.postId = postId;
+        this.contentHash = contentHash;
+        this.sentiment = sentiment;
+        this.hashtags = hashtags;
+        this.language = language;
+        this.lengthClass = lengthClass;
+    }
+
+    // Getters
+    public int getPostId() {
+        return postId;
+    }
+
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * @return Compound sentiment score between -1 and 1
+     */
+    public double getSentiment() {
+        return sentiment;
+    }
+
+    /**
+     * @return Lowercase hashtags without the leading '#', in order of appearance
+     */
+    public List<String> getHashtags() {
+        return hashtags;
+    }
+
+    /**
+     * @return ISO 639-1 language code, or "und" if it could not be determined
+     */
+    public String getLanguage() {
+        return language;
+    }
+
+    /**
+     * @return {@link #SHORT}, {@link #MEDIUM} or {@link #LONG}
+     */
+    public String getLengthClass() {
+        return lengthClass;
+    }
+}
@@ -0,0 +1,35 @@
+package model;
+
+import java.util.List;
+
+/**
+ * A page of search results, best match first
+ */
+public class SearchPage {
+    private final List<SearchResult> results;
+    private final boolean hasMore;
+
+    public SearchPage(List<SearchResult> results, boolean hasMore) {
+        this.results = results;
+        this.hasMore = hasMore;
+    }
+
+    // Getters
+    public List<SearchResult> getResults() {
+        return results;
+    }
+
+    /**
+     * Whether lower-ranked results exist beyond this page
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * @return The last result of the page, the keyset of the next page, or null if empty
+     */
+    public SearchResult getLast() {
+        return results.isEmpty() ? null : results.get(results.size() - 1);
+    }
+}
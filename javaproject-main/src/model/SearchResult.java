@@ -0,0 +1,81 @@
+package model;
+
+import java.util.Date;
+
+/**
+ * A post or comment matching a search, with its rank and a highlighted
+ * snippet. Matched terms in the snippet are wrapped in
+ * {@link #HIGHLIGHT_START} and {@link #HIGHLIGHT_END}.
+ */
+public class SearchResult {
+    public static final String HIGHLIGHT_START = "\u0002";
+    public static final String HIGHLIGHT_END = "\u0003";
+
+    public enum Kind { POST, COMMENT }
+
+    private final Kind kind;
+    private final int id;
+    private final int postId;
+    private final int platformId;
+    private final int userId;
+    private final String username;
+    private final Date date;
+    private final float rank;
+    private final String snippet;
+
+    public SearchResult(Kind kind, int id, int postId, int platformId, int userId, String username,
+                        Date date, float rank, String snippet) {
+        this.kind = kind;
+        this.id = id;
+        this.postId = postId;
+        this.platformId = platformId;
+        this.userId = userId;
+        this.username = username;
+        this.date = date;
+        this.rank = rank;
+        this.snippet = snippet;
+    }
+
+    // Getters
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return The post ID or the comment ID, depending on the kind
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return The post itself, or the post a comment belongs to
+     */
+    public int getPostId() {
+        return postId;
+    }
+
+    public int getPlatformId() {
+        return platformId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Date getDate() {
+        return date;
+    }
+
+    public float getRank() {
+        return rank;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+}
@@ -0,0 +1,69 @@
+package model;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aggregated analytics for one user, as shown on the analytics tab
+ */
+public class UserAnalytics {
+    private final int userId;
+    private int totalPosts;
+    private int totalLikes;
+    private int totalComments;
+    private final Map<String, Integer> postsByPlatform = new LinkedHashMap<>();
+    private final TreeMap<Date, Integer> dailyPostCounts = new TreeMap<>();
+
+    public UserAnalytics(int userId) {
+        this.userId = userId;
+    }
+
+    // Getters and setters
+    public int getUserId() {
+        return userId;
+    }
+
+    public int getTotalPosts() {
+        return totalPosts;
+    }
+
+    public void setTotalPosts(int totalPosts) {
+        this.totalPosts = totalPosts;
+    }
+
+    public int getTotalLikes() {
+        return totalLikes;
+    }
+
+    public void setTotalLikes(int totalLikes) {
+        this.totalLikes = totalLikes;
+    }
+
+    public int getTotalComments() {
+        return totalComments;
+    }
+
+    public void setTotalComments(int totalComments) {
+        this.totalComments = totalComments;
+    }
+
+    public double getAverageLikesPerPost() {
+        return totalPosts > 0 ? (double) totalLikes / totalPosts : 0;
+    }
+
+    /**
+     * Post counts keyed by platform name, in platform name order
+     */
+    public Map<String, Integer> getPostsByPlatform() {
+        return postsByPlatform;
+    }
+
+    /**
+     * Post counts keyed by day (midnight), only for days with posts
+     */
+    public TreeMap<Date, Integer> getDailyPostCounts() {
+        return dailyPostCounts;
+    }
+}
@@ -0,0 +1,61 @@
+package util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared pool for database and computation work that must stay off the EDT.
+ * Worker threads are daemons so an open dashboard never keeps the JVM alive.
+ */
+public class BackgroundExecutor {
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()),
+            daemonThreadFactory("background-worker"));
+
+    private BackgroundExecutor() {
+    }
+
+    /**
+     * Submit a task to the shared background pool
+     * @param task The task to run
+     * @return A future that can be used to cancel the task
+     */
+    public static Future<?> submit(Runnable task) {
+        return EXECUTOR.submit(task);
+    }
+
+    /**
+     * Submit a task with a result to the shared background pool
+     * @param task The task to run
+     * @return A future holding the task's result
+     */
+    public static <T> Future<T> submit(Callable<T> task) {
+        return EXECUTOR.submit(task);
+    }
+
+    /**
+     * Get the shared pool, e.g. to pass to CompletableFuture
+     * @return The shared executor service
+     */
+    public static ExecutorService getExecutor() {
+        return EXECUTOR;
+    }
+
+    /**
+     * Create a thread factory producing named daemon threads
+     * @param prefix The thread name prefix
+     * @return A thread factory
+     */
+    public static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,69 +1,96 @@
 package util;
 
-import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
+import java.util.Locale;
 
+/**
+ * Date formatting helpers. The formatters are immutable java.time ones, so
+ * every method is safe to call from any thread, and the relative "time ago"
+ * strings are built once per bucket instead of on every call.
+ */
 public class DateUtil {
-    private static final SimpleDateFormat DATE_TIME_FORMAT = new SimpleDateFormat("MMM dd, yyyy HH:mm");
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("MMM dd, yyyy");
-    private static final SimpleDateFormat TIME_FORMAT = new SimpleDateFormat("HH:mm");
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm", Locale.getDefault());
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy", Locale.getDefault());
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm", Locale.getDefault());
 
+    private static final long MINUTE = 60;
+    private static final long HOUR = 3600;
+    private static final long DAY = 86400;
+    private static final long WEEK = 604800;
 
-    public static String formatDateTime(Date date) {
+    private static final String JUST_NOW = "Just now";
+    private static final String[] MINUTES_AGO = buildLabels(60, " minute ago", " minutes ago");
+    private static final String[] HOURS_AGO = buildLabels(24, " hour ago", " hours ago");
+    private static final String[] DAYS_AGO = buildLabels(7, " day ago", " days ago");
+
+    private static String[] buildLabels(int count, String singular, String plural) {
+        String[] labels = new String[count];
+        for (int i = 1; i < count; i++) {
+            labels[i] = i + (i == 1 ? singular : plural);
+        }
+        return labels;
+    }
+
+    private static String format(Date date, DateTimeFormatter formatter) {
         if (date == null) {
             return "";
         }
-        return DATE_TIME_FORMAT.format(date);
+        return formatter.format(Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()));
+    }
+
+    public static String formatDateTime(Date date) {
+        return format(date, DATE_TIME_FORMAT);
     }
 
     /**
      * Format date to "MMM dd, yyyy" format
      */
     public static String formatDate(Date date) {
-        if (date == null) {
-            return "";
-        }
-        return DATE_FORMAT.format(date);
+        return format(date, DATE_FORMAT);
     }
 
     /**
      * Format date to "HH:mm" format
      */
     public static String formatTime(Date date) {
-        if (date == null) {
-            return "";
-        }
-        return TIME_FORMAT.format(date);
+        return format(date, TIME_FORMAT);
     }
 
     /**
      * Calculate time ago string (e.g., "2 minutes ago", "1 hour ago")
      */
     public static String getTimeAgo(Date date) {
+        return getTimeAgo(date, System.currentTimeMillis());
+    }
+
+    /**
+     * Calculate time ago string relative to a given time. Within the last week
+     * the same String instance is returned for every date in a bucket.
+     * @param date The date
+     * @param now The current time in milliseconds
+     * @return The relative time, or the date for anything older than a week
+     */
+    public static String getTimeAgo(Date date, long now) {
         if (date == null) {
             return "";
         }
 
-        long currentTime = System.currentTimeMillis();
-        long timestamp = date.getTime();
-        long diff = currentTime - timestamp;
-
         // Convert to seconds
-        long seconds = diff / 1000;
+        long seconds = (now - date.getTime()) / 1000;
 
-        if (seconds < 60) {
-            return "Just now";
-        } else if (seconds < 3600) {
-            long minutes = seconds / 60;
-            return minutes + (minutes == 1 ? " minute ago" : " minutes ago");
-        } else if (seconds < 86400) {
-            long hours = seconds / 3600;
-            return hours + (hours == 1 ? " hour ago" : " hours ago");
-        } else if (seconds < 604800) {
-            long days = seconds / 86400;
-            return days + (days == 1 ? " day ago" : " days ago");
+        if (seconds < MINUTE) {
+            return JUST_NOW;
+        } else if (seconds < HOUR) {
+            return MINUTES_AGO[(int) (seconds / MINUTE)];
+        } else if (seconds < DAY) {
+            return HOURS_AGO[(int) (seconds / HOUR)];
+        } else if (seconds < WEEK) {
+            return DAYS_AGO[(int) (seconds / DAY)];
         } else {
             return formatDate(date);
         }
     }
-}
\ No newline at end of file
+}
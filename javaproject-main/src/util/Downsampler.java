@@ -0,0 +1,70 @@
+package util;
+
+/**
+ * Reduces long time series to a point count a chart can draw in constant
+ * time, while keeping the visual shape of the series.
+ */
+public class Downsampler {
+
+    private Downsampler() {
+    }
+
+    /**
+     * Select points using Largest-Triangle-Three-Buckets. The first and last
+     * points are always kept; every bucket in between contributes the point
+     * forming the largest triangle with its neighbours.
+     * @param xs X values, ascending
+     * @param ys Y values
+     * @param threshold Maximum number of points to keep
+     * @return Indices of the selected points, ascending
+     */
+    public static int[] lttb(double[] xs, double[] ys, int threshold) {
+        int length = xs.length;
+        if (threshold >= length || threshold < 3) {
+            int[] all = new int[length];
+            for (int i = 0; i < length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] selected = new int[threshold];
+        int selectedCount = 0;
+        double bucketSize = (double) (length - 2) / (threshold - 2);
+        int a = 0;
+        selected[selectedCount++] = a;
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // Average of the next bucket is the third triangle vertex
+            int nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, length);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += xs[i];
+                avgY += ys[i];
+            }
+            int nextCount = Math.max(nextEnd - nextStart, 1);
+            avgX /= nextCount;
+            avgY /= nextCount;
+
+            int start = (int) Math.floor(bucket * bucketSize) + 1;
+            int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            double maxArea = -1;
+            int maxIndex = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((xs[a] - avgX) * (ys[i] - ys[a])
+                        - (xs[a] - xs[i]) * (avgY - ys[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+            selected[selectedCount++] = maxIndex;
+            a = maxIndex;
+        }
+
+        selected[selectedCount] = length - 1;
+        return selected;
+    }
+}
@@ -0,0 +1,165 @@
+package util;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records how long startup stages take, relative to a common origin, so the
+ * time from launch to an interactive dashboard can be inspected. Published
+ * timelines are logged and, when the startup.timeline system property names
+ * a file, appended to it as CSV.
+ */
+public class StartupTimeline {
+    private static final Logger LOGGER = Logger.getLogger(StartupTimeline.class.getName());
+    private static final String EXPORT_PROPERTY = "startup.timeline";
+    private static final List<Entry> ENTRIES = new ArrayList<>();
+    private static long origin = System.nanoTime();
+
+    private StartupTimeline() {
+    }
+
+    /**
+     * A recorded stage or instant event, in milliseconds since the origin
+     */
+    public static class Entry {
+        private final String name;
+        private final String thread;
+        private final double startMillis;
+        private final double endMillis;
+
+        Entry(String name, String thread, double startMillis, double endMillis) {
+            this.name = name;
+            this.thread = thread;
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+
+        public double getStartMillis() {
+            return startMillis;
+        }
+
+        public double getEndMillis() {
+            return endMillis;
+        }
+
+        public double getDurationMillis() {
+            return endMillis - startMillis;
+        }
+    }
+
+    /**
+     * Clear all entries and restart the clock
+     */
+    public static synchronized void reset() {
+        ENTRIES.clear();
+        origin = System.nanoTime();
+    }
+
+    /**
+     * Get a timestamp for the start of a stage
+     * @return The current time in nanoseconds
+     */
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Record a stage that started at the given timestamp and ends now
+     * @param name The stage name
+     * @param startNanos The value returned by {@link #start()}
+     */
+    public static synchronized void record(String name, long startNanos) {
+        long now = System.nanoTime();
+        ENTRIES.add(new Entry(name, Thread.currentThread().getName(), toMillis(startNanos), toMillis(now)));
+        LOGGER.log(Level.FINE, String.format("%s took %.1f ms", name, (now - startNanos) / 1_000_000.0));
+    }
+
+    /**
+     * Record an instant event, such as a window becoming visible
+     * @param name The event name
+     */
+    public static synchronized void mark(String name) {
+        double now = toMillis(System.nanoTime());
+        ENTRIES.add(new Entry(name, Thread.currentThread().getName(), now, now));
+        LOGGER.log(Level.INFO, String.format("%s at %.1f ms", name, now));
+    }
+
+    /**
+     * Get a copy of the recorded entries
+     * @return The entries in recording order
+     */
+    public static synchronized List<Entry> getEntries() {
+        return new ArrayList<>(ENTRIES);
+    }
+
+    /**
+     * Format the timeline as a table, one entry per line
+     * @return The formatted timeline
+     */
+    public static synchronized String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-40s %10s %10s %10s  %s%n", "stage", "start ms", "end ms", "took ms", "thread"));
+        for (Entry entry : ENTRIES) {
+            sb.append(String.format("%-40s %10.1f %10.1f %10.1f  %s%n", entry.getName(),
+                    entry.getStartMillis(), entry.getEndMillis(), entry.getDurationMillis(), entry.getThread()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Log the timeline and export it if an export file is configured
+     * @param phase Name of the startup phase the timeline covers, e.g. "bootstrap"
+     */
+    public static void publish(String phase) {
+        LOGGER.log(Level.INFO, "Startup timeline (" + phase + "):\n" + format());
+        String exportFile = System.getProperty(EXPORT_PROPERTY);
+        if (exportFile != null) {
+            try {
+                export(phase, exportFile);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Error exporting startup timeline to " + exportFile, e);
+            }
+        }
+    }
+
+    /**
+     * Append the timeline to a CSV file, writing the header if the file is new
+     * @param phase Name of the startup phase, written in the first column
+     * @param file The file path
+     * @throws IOException If the file cannot be written
+     */
+    public static void export(String phase, String file) throws IOException {
+        boolean exists = Files.exists(Paths.get(file));
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            if (!exists) {
+                out.println("phase,stage,start_ms,end_ms,took_ms,thread");
+            }
+            for (Entry entry : getEntries()) {
+                out.println(String.format(Locale.ROOT, "%s,%s,%.1f,%.1f,%.1f,%s", phase, entry.getName(),
+                        entry.getStartMillis(), entry.getEndMillis(), entry.getDurationMillis(), entry.getThread()));
+            }
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return (nanos - origin) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,70 @@
+package util;
+
+import java.awt.*;
+
+/**
+ * A colour that resolves against the current theme every time it is read.
+ * Components and borders keep a reference to the same instance, so switching
+ * themes only needs a repaint instead of restyling every component.
+ */
+public class ThemeColor extends Color {
+    private static final long serialVersionUID = 1L;
+
+    private final Color light;
+    private final Color dark;
+
+    public ThemeColor(Color light, Color dark) {
+        super(light.getRGB(), true);
+        this.light = light;
+        this.dark = dark;
+    }
+
+    /**
+     * @return The colour for the theme in use
+     */
+    public Color resolve() {
+        return UIUtil.isDarkTheme() ? dark : light;
+    }
+
+    // Color derives its component getters and paint context from getRGB
+    @Override
+    public int getRGB() {
+        return resolve().getRGB();
+    }
+
+    // Identity, so hash keys stay valid when the theme flips
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public float[] getRGBComponents(float[] compArray) {
+        return resolve().getRGBComponents(compArray);
+    }
+
+    @Override
+    public float[] getRGBColorComponents(float[] compArray) {
+        return resolve().getRGBColorComponents(compArray);
+    }
+
+    @Override
+    public float[] getComponents(float[] compArray) {
+        return resolve().getComponents(compArray);
+    }
+
+    @Override
+    public float[] getColorComponents(float[] compArray) {
+        return resolve().getColorComponents(compArray);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getName() + "[light=" + light + ",dark=" + dark + "]";
+    }
+}
@@ -0,0 +1,77 @@
+package util;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * One shared timer that keeps "time ago" texts current. Registered labels
+ * are updated in place when their bucket changes, as long as they are
+ * showing; components that paint times themselves, like the post feed,
+ * register a tick listener and repaint what they need. EDT only.
+ */
+public class TimeLabelRefresher {
+    private static final int TICK_MS = 15_000;
+
+    // Weak keys so labels of discarded cards do not stay registered
+    private static final Map<JLabel, Date> LABELS = new WeakHashMap<>();
+    private static final List<TickListener> LISTENERS = new ArrayList<>();
+    private static Timer timer;
+    private static long lastTick = System.currentTimeMillis();
+
+    /**
+     * Called on every tick with the previous and current tick times, so a
+     * listener can tell which of its times moved to another bucket
+     */
+    public interface TickListener {
+        void tick(long previous, long now);
+    }
+
+    /**
+     * Show the time ago of a date on a label and keep it current
+     * @param label The label
+     * @param date The date it shows
+     */
+    public static void register(JLabel label, Date date) {
+        label.setText(DateUtil.getTimeAgo(date));
+        LABELS.put(label, date);
+        ensureRunning();
+    }
+
+    public static void addTickListener(TickListener listener) {
+        LISTENERS.add(listener);
+        ensureRunning();
+    }
+
+    public static void removeTickListener(TickListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    private static void ensureRunning() {
+        if (timer == null) {
+            timer = new Timer(TICK_MS, e -> tick());
+            timer.start();
+        }
+    }
+
+    private static void tick() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<JLabel, Date> entry : LABELS.entrySet()) {
+            JLabel label = entry.getKey();
+            if (!label.isShowing()) {
+                continue;
+            }
+            String text = DateUtil.getTimeAgo(entry.getValue(), now);
+            if (!text.equals(label.getText())) {
+                label.setText(text);
+            }
+        }
+        for (TickListener listener : new ArrayList<>(LISTENERS)) {
+            listener.tick(lastTick, now);
+        }
+        lastTick = now;
+    }
+}
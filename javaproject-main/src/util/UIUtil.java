@@ -14,8 +14,8 @@ public class UIUtil {
     public static final Font SUBHEADING_FONT = new Font("Segoe UI", Font.BOLD, 16);
     public static final Font BODY_FONT = new Font("Segoe UI", Font.PLAIN, 14);
 
-    // Theme settings
-    private static String currentTheme = "light"; // Default theme
+    // Theme settings, read at paint time by every ThemeColor
+    private static volatile boolean darkTheme; // Default theme is light
 
     // Light theme colors (based on your existing colors)
     private static final Color LIGHT_PRIMARY_COLOR = new Color(63, 81, 181); // Material Indigo
@@ -33,41 +33,41 @@ public class UIUtil {
     private static final Color DARK_TEXT_PRIMARY = Color.WHITE;
     private static final Color DARK_TEXT_SECONDARY = new Color(150, 150, 150);
 
-    // Theme-aware color variables (initially set to light theme)
-    public static Color PRIMARY_COLOR = LIGHT_PRIMARY_COLOR;
-    public static Color ACCENT_COLOR = LIGHT_ACCENT_COLOR;
-    public static Color BACKGROUND_COLOR = LIGHT_BACKGROUND_COLOR;
-    public static Color CARD_BACKGROUND = LIGHT_CARD_BACKGROUND;
-    public static Color TEXT_PRIMARY = LIGHT_TEXT_PRIMARY;
-    public static Color TEXT_SECONDARY = LIGHT_TEXT_SECONDARY;
+    // Theme-aware colors, resolved against the current theme whenever they are painted
+    public static final Color PRIMARY_COLOR = new ThemeColor(LIGHT_PRIMARY_COLOR, DARK_PRIMARY_COLOR);
+    public static final Color ACCENT_COLOR = new ThemeColor(LIGHT_ACCENT_COLOR, DARK_ACCENT_COLOR);
+    public static final Color BACKGROUND_COLOR = new ThemeColor(LIGHT_BACKGROUND_COLOR, DARK_BACKGROUND_COLOR);
+    public static final Color CARD_BACKGROUND = new ThemeColor(LIGHT_CARD_BACKGROUND, DARK_CARD_BACKGROUND);
+    public static final Color TEXT_PRIMARY = new ThemeColor(LIGHT_TEXT_PRIMARY, DARK_TEXT_PRIMARY);
+    public static final Color TEXT_SECONDARY = new ThemeColor(LIGHT_TEXT_SECONDARY, DARK_TEXT_SECONDARY);
+    private static final Color TEXT_AREA_BORDER = new ThemeColor(new Color(200, 200, 200), new Color(150, 150, 150));
 
     /**
-     * Set the current theme and update colors
+     * Set the current theme. Components styled with the theme-aware colors
+     * pick it up on their next paint; call {@link #repaintAll()} to trigger it.
      * @param theme The theme to apply ("light" or "dark")
      */
     public static void setTheme(String theme) {
-        currentTheme = theme != null && theme.equals("dark") ? "dark" : "light";
-        LOGGER.log(Level.INFO, "Setting theme to: " + currentTheme);
-
-        if (currentTheme.equals("dark")) {
-            PRIMARY_COLOR = DARK_PRIMARY_COLOR;
-            ACCENT_COLOR = DARK_ACCENT_COLOR;
-            BACKGROUND_COLOR = DARK_BACKGROUND_COLOR;
-            CARD_BACKGROUND = DARK_CARD_BACKGROUND;
-            TEXT_PRIMARY = DARK_TEXT_PRIMARY;
-            TEXT_SECONDARY = DARK_TEXT_SECONDARY;
-        } else {
-            PRIMARY_COLOR = LIGHT_PRIMARY_COLOR;
-            ACCENT_COLOR = LIGHT_ACCENT_COLOR;
-            BACKGROUND_COLOR = LIGHT_BACKGROUND_COLOR;
-            CARD_BACKGROUND = LIGHT_CARD_BACKGROUND;
-            TEXT_PRIMARY = LIGHT_TEXT_PRIMARY;
-            TEXT_SECONDARY = LIGHT_TEXT_SECONDARY;
+        darkTheme = "dark".equals(theme);
+        LOGGER.log(Level.INFO, "Setting theme to: " + (darkTheme ? "dark" : "light"));
+    }
+
+    public static boolean isDarkTheme() {
+        return darkTheme;
+    }
+
+    /**
+     * Repaint every open window, e.g. after {@link #setTheme(String)}
+     */
+    public static void repaintAll() {
+        for (Window window : Window.getWindows()) {
+            window.repaint();
         }
     }
 
     /**
-     * Apply the current theme to a component and its children
+     * Style a newly built component and its children with the theme-aware
+     * colors. Needed once per component; later theme switches only repaint.
      * @param component The component to update
      */
     public static void applyTheme(Component component) {
@@ -91,10 +91,10 @@ public class UIUtil {
             JButton button = (JButton) component;
             if (button.getBorder() != null && button.getBorder().toString().contains("LineBorder")) {
                 // Primary or accent button
-                if (button.getBackground().equals(LIGHT_PRIMARY_COLOR) || button.getBackground().equals(DARK_PRIMARY_COLOR)) {
+                if (button.getBackground() == PRIMARY_COLOR) {
                     button.setBackground(PRIMARY_COLOR);
                     button.setForeground(Color.WHITE);
-                } else if (button.getBackground().equals(LIGHT_ACCENT_COLOR) || button.getBackground().equals(DARK_ACCENT_COLOR)) {
+                } else if (button.getBackground() == ACCENT_COLOR) {
                     button.setBackground(ACCENT_COLOR);
                     button.setForeground(Color.WHITE);
                 } else {
@@ -129,7 +129,7 @@ public class UIUtil {
             textArea.setForeground(TEXT_PRIMARY);
             textArea.setCaretColor(TEXT_PRIMARY);
             textArea.setBorder(BorderFactory.createCompoundBorder(
-                    BorderFactory.createLineBorder(currentTheme.equals("dark") ? new Color(150, 150, 150) : new Color(200, 200, 200), 1, true),
+                    BorderFactory.createLineBorder(TEXT_AREA_BORDER, 1, true),
                     BorderFactory.createEmptyBorder(8, 8, 8, 8)
             ));
         }
@@ -238,7 +238,7 @@ public class UIUtil {
         textArea.setForeground(TEXT_PRIMARY);
         textArea.setCaretColor(TEXT_PRIMARY);
         textArea.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(currentTheme.equals("dark") ? new Color(150, 150, 150) : new Color(200, 200, 200), 1, true),
+                BorderFactory.createLineBorder(TEXT_AREA_BORDER, 1, true),
                 BorderFactory.createEmptyBorder(8, 8, 8, 8)
         ));
 